@@ -31,6 +31,10 @@ public class ComparePlugin extends Plugin {
 
 	private boolean cappingDisabled;
 
+	private String diffStrategy;
+
+	private int parallelThreshold = LCS.PARALLEL_THRESHOLD;
+
 	/**
 	 * The constructor
 	 */
@@ -75,4 +79,20 @@ public class ComparePlugin extends Plugin {
 		return this.cappingDisabled;
 	}
 
+	public void setDiffStrategy(String id) {
+		this.diffStrategy = id;
+	}
+
+	public String getDiffStrategy() {
+		return this.diffStrategy;
+	}
+
+	public void setParallelThreshold(int threshold) {
+		this.parallelThreshold = threshold;
+	}
+
+	public int getParallelThreshold() {
+		return this.parallelThreshold;
+	}
+
 }
@@ -0,0 +1,33 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.compare.internal.core;
+
+/**
+ * Implemented by range comparators whose ranges are lines that can be
+ * compared through a {@link LineTable}. The differencing engine then compares
+ * the lines of the tables instead of calling
+ * {@link org.eclipse.compare.rangedifferencer.IRangeComparator#rangesEqual(int, org.eclipse.compare.rangedifferencer.IRangeComparator, int)}.
+ */
+public interface ILineTableProvider {
+
+	/**
+	 * Returns the line table of this comparator. Line <code>i</code> of the
+	 * table must be equal to a line of another table exactly when
+	 * <code>rangesEqual</code> would consider the ranges equal.
+	 *
+	 * @return the line table or <code>null</code> if the ranges of this
+	 *         comparator cannot be compared through a line table
+	 */
+	LineTable getLineTable();
+}
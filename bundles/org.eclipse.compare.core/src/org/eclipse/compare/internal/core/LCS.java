@@ -13,6 +13,16 @@
  *******************************************************************************/
 package org.eclipse.compare.internal.core;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubMonitor;
 
@@ -26,6 +36,12 @@ public abstract class LCS {
 	private static final double POW_LIMIT = 1.5; // limit the time to
 													// D^POW_LIMIT
 
+	/**
+	 * The default number of elements of both sequences above which the
+	 * sub-problems are solved in parallel.
+	 */
+	public static final int PARALLEL_THRESHOLD = 50000;
+
 	private int max_differences; // the maximum number of differences from
 									// each end to consider
 
@@ -87,20 +103,183 @@ public abstract class LCS {
 			worked(subMonitor, 1);
 		}
 
+		int middleLength;
+		if (isParallel(backBoundL1 - forwardBound + backBoundL2 - forwardBound + 2)) {
+			middleLength = lcs_parallel(forwardBound, backBoundL1, forwardBound,
+					backBoundL2, subMonitor);
+		} else {
+			middleLength = lcs_rec(forwardBound, backBoundL1, forwardBound,
+					backBoundL2, new int[2][length1 + length2 + 1],
+					new int[3], subMonitor);
+		}
 		this.length = forwardBound
 				+ length1
 				- backBoundL1
 				- 1
-				+ lcs_rec(forwardBound, backBoundL1, forwardBound,
-						backBoundL2, new int[2][length1 + length2 + 1],
-						new int[3], subMonitor);
+				+ middleLength;
 
 	}
 
-	private boolean isCappingDisabled() {
+	/**
+	 * Returns whether the number of differences considered for very long
+	 * sequences is not bounded, in which case the LCS found is always a
+	 * longest one.
+	 *
+	 * @return whether the run time of the LCS computation is not bounded
+	 */
+	protected boolean isCappingDisabled() {
 		return ComparePlugin.getDefault().isCappingDisabled();
 	}
 
+	/**
+	 * Returns whether {@link #isRangeEqual(int, int)} and
+	 * {@link #setLcs(int, int)} may be called from several threads at once,
+	 * which allows large sequences to be compared in parallel. Distinct
+	 * threads never set the same slot of the LCS.
+	 *
+	 * @return whether the LCS may be computed in parallel
+	 */
+	protected boolean isThreadSafe() {
+		return false;
+	}
+
+	private boolean isParallel(int size) {
+		if (size < 2 || !isThreadSafe() || ForkJoinPool.getCommonPoolParallelism() < 2)
+			return false;
+		ComparePlugin plugin = ComparePlugin.getDefault();
+		int threshold = plugin != null ? plugin.getParallelThreshold() : PARALLEL_THRESHOLD;
+		return size >= threshold;
+	}
+
+	/*
+	 * Computes the LCS of l1[bottoml1 .. topl1] and l2[bottoml2 .. topl2] on
+	 * the common fork/join pool. The calling thread reports the progress of
+	 * the tasks and passes a cancellation on to them.
+	 */
+	private int lcs_parallel(int bottoml1, int topl1, int bottoml2, int topl2,
+			SubMonitor subMonitor) {
+		ConcurrentProgressMonitor monitor = new ConcurrentProgressMonitor();
+		ForkJoinTask<Integer> task = ForkJoinPool.commonPool().submit(
+				new LcsTask(bottoml1, topl1, bottoml2, topl2, monitor));
+		try {
+			while (true) {
+				try {
+					int result = task.get(100, TimeUnit.MILLISECONDS).intValue();
+					subMonitor.worked(monitor.takeWork());
+					return result;
+				} catch (TimeoutException e) {
+					worked(subMonitor, monitor.takeWork());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new OperationCanceledException();
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof RuntimeException)
+						throw (RuntimeException) cause;
+					if (cause instanceof Error)
+						throw (Error) cause;
+					throw new IllegalStateException(cause);
+				}
+			}
+		} finally {
+			// stops the tasks if the calling thread gave up
+			monitor.setCanceled(true);
+		}
+	}
+
+	/*
+	 * The parallel counterpart of lcs_rec. After the middle snake has been
+	 * found the sub-problem after the snake is forked, each task has its own
+	 * scratch buffers. Sub-problems below the threshold are solved by lcs_rec.
+	 */
+	private int lcs_par(int bottoml1, int topl1, int bottoml2, int topl2,
+			int[][] V, int[] snake, IProgressMonitor monitor) {
+		if (bottoml1 > topl1 || bottoml2 > topl2) {
+			return 0;
+		}
+		if (!isParallel(topl1 - bottoml1 + topl2 - bottoml2 + 2)) {
+			return lcs_rec(bottoml1, topl1, bottoml2, topl2, V, snake, monitor);
+		}
+
+		int d = find_middle_snake(bottoml1, topl1, bottoml2, topl2, V, snake, monitor);
+		int len = snake[2];
+		int startx = snake[0];
+		int starty = snake[1];
+		for (int i = 0; i < len; i++) {
+			setLcs(startx + i, starty + i);
+			worked(monitor, 1);
+		}
+
+		if (d > 1) {
+			LcsTask after = new LcsTask(startx + len, topl1, starty + len, topl2, monitor);
+			after.fork();
+			int before = lcs_par(bottoml1, startx - 1, bottoml2, starty - 1, V, snake, monitor);
+			return len + before + after.join().intValue();
+		} else if (d == 1) {
+			int max = Math.min(startx - bottoml1, starty - bottoml2);
+			for (int i = 0; i < max; i++) {
+				setLcs(bottoml1 + i, bottoml2 + i);
+				worked(monitor, 1);
+			}
+			return max + len;
+		}
+
+		return len;
+	}
+
+	private class LcsTask extends RecursiveTask<Integer> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int bottoml1, topl1, bottoml2, topl2;
+		private final transient IProgressMonitor monitor;
+
+		LcsTask(int bottoml1, int topl1, int bottoml2, int topl2, IProgressMonitor monitor) {
+			this.bottoml1 = bottoml1;
+			this.topl1 = topl1;
+			this.bottoml2 = bottoml2;
+			this.topl2 = topl2;
+			this.monitor = monitor;
+		}
+
+		@Override
+		protected Integer compute() {
+			int size = this.topl1 - this.bottoml1 + this.topl2 - this.bottoml2 + 2;
+			return Integer.valueOf(lcs_par(this.bottoml1, this.topl1, this.bottoml2, this.topl2,
+					new int[2][Math.max(size, 0) + 2], new int[3], this.monitor));
+		}
+	}
+
+	/*
+	 * The progress monitor shared by the tasks of a parallel LCS computation.
+	 * The work is collected and reported by the thread that started the
+	 * computation.
+	 */
+	private static class ConcurrentProgressMonitor extends NullProgressMonitor {
+
+		private final AtomicInteger work = new AtomicInteger();
+		private volatile boolean canceled;
+
+		@Override
+		public void worked(int w) {
+			this.work.addAndGet(w);
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return this.canceled;
+		}
+
+		@Override
+		public void setCanceled(boolean cancelled) {
+			this.canceled = cancelled;
+		}
+
+		int takeWork() {
+			return this.work.getAndSet(0);
+		}
+	}
+
 	/**
 	 * The recursive helper function for Myers' LCS. Computes the LCS of
 	 * l1[bottoml1 .. topl1] and l2[bottoml2 .. topl2] fills in the appropriate
@@ -126,7 +305,7 @@ public abstract class LCS {
 	private int lcs_rec(
 			int bottoml1, int topl1,
 			int bottoml2, int topl2,
-			int[][] V, int[] snake, SubMonitor subMonitor) {
+			int[][] V, int[] snake, IProgressMonitor subMonitor) {
 
 		// check that both sequences are non-empty
 		if (bottoml1 > topl1 || bottoml2 > topl2) {
@@ -169,7 +348,7 @@ public abstract class LCS {
 		return len;
 	}
 
-	private void worked(SubMonitor subMonitor, int work) {
+	private void worked(IProgressMonitor subMonitor, int work) {
 		if (subMonitor.isCanceled())
 			throw new OperationCanceledException();
 		subMonitor.worked(work);
@@ -200,7 +379,7 @@ public abstract class LCS {
 			int bottoml1, int topl1,
 			int bottoml2, int topl2,
 			int[][] V, int[] snake,
-			SubMonitor subMonitor) {
+			IProgressMonitor subMonitor) {
 		int N = topl1 - bottoml1 + 1;
 		int M = topl2 - bottoml2 + 1;
 		// System.out.println("N: " + N + " M: " + M + " bottom: " + bottoml1 +
@@ -0,0 +1,303 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.compare.internal.core;
+
+import java.util.Arrays;
+
+/**
+ * A compact, immutable representation of the lines of a text. The lines are
+ * described by offsets into the original characters and the hash of every
+ * line is computed once, so comparing two lines doesn't allocate and in most
+ * cases only compares two integers.
+ * <p>
+ * Lines of several tables can be given ids with {@link #intern(LineTable...)}.
+ * Two lines of interned tables are equal iff their ids are equal.
+ * </p>
+ */
+public final class LineTable {
+
+	private final char[] fText;
+	// fStarts[i] is the offset of line i, fStarts[getLineCount()] the end of the last line
+	private final int[] fStarts;
+	// the offset of the end of each line, not including the line delimiter
+	private final int[] fEnds;
+	private final int[] fHashes;
+	private final boolean fIgnoreWhitespace;
+	private final boolean fCompareDelimiters;
+	private final int[] fIds;
+	private final Object fIdSpace;
+
+	/**
+	 * Create a line table for the given lines.
+	 *
+	 * @param text the characters of the text
+	 * @param starts the offsets of the lines followed by the offset of the end
+	 *            of the last line, including its delimiter
+	 * @param ends the offsets of the ends of the lines, not including the line
+	 *            delimiter
+	 * @param ignoreWhitespace whether whitespace is ignored when lines are
+	 *            compared
+	 * @param compareDelimiters whether two lines with different delimiter
+	 *            lengths are different; ignored if whitespace is ignored
+	 */
+	public LineTable(char[] text, int[] starts, int[] ends, boolean ignoreWhitespace, boolean compareDelimiters) {
+		this.fText = text;
+		this.fStarts = starts;
+		this.fEnds = ends;
+		this.fIgnoreWhitespace = ignoreWhitespace;
+		this.fCompareDelimiters = compareDelimiters && !ignoreWhitespace;
+		this.fHashes = new int[ends.length];
+		for (int i = 0; i < ends.length; i++) {
+			this.fHashes[i] = computeHash(i);
+		}
+		this.fIds = null;
+		this.fIdSpace = null;
+	}
+
+	private LineTable(LineTable table, int[] ids, Object idSpace) {
+		this.fText = table.fText;
+		this.fStarts = table.fStarts;
+		this.fEnds = table.fEnds;
+		this.fHashes = table.fHashes;
+		this.fIgnoreWhitespace = table.fIgnoreWhitespace;
+		this.fCompareDelimiters = table.fCompareDelimiters;
+		this.fIds = ids;
+		this.fIdSpace = idSpace;
+	}
+
+	/**
+	 * Breaks the given text up into lines. Lines are separated by '\n', '\r'
+	 * or "\r\n", the delimiters are not part of the lines and there is one more
+	 * line than there are line delimiters.
+	 *
+	 * @param text the text
+	 * @return the line table for the text
+	 */
+	public static LineTable create(String text) {
+		char[] chars = text.toCharArray();
+		int count = 1;
+		for (int i = 0; i < chars.length; i++) {
+			char c = chars[i];
+			if (c == '\n' || (c == '\r' && (i + 1 == chars.length || chars[i + 1] != '\n')))
+				count++;
+		}
+		int[] starts = new int[count + 1];
+		int[] ends = new int[count];
+		int line = 0;
+		for (int i = 0; i < chars.length; i++) {
+			char c = chars[i];
+			if (c == '\n' || c == '\r') {
+				ends[line] = i;
+				if (c == '\r' && i + 1 < chars.length && chars[i + 1] == '\n')
+					i++;
+				starts[++line] = i + 1;
+			}
+		}
+		ends[line] = chars.length;
+		starts[count] = chars.length;
+		return new LineTable(chars, starts, ends, false, false);
+	}
+
+	/**
+	 * Assign ids to the lines of the given tables so that equal lines get
+	 * the same id. The tables must compare lines the same way.
+	 *
+	 * @param tables the tables to intern
+	 * @return copies of the tables that share the characters and hashes of the
+	 *         given tables and have ids
+	 */
+	public static LineTable[] intern(LineTable... tables) {
+		int total = 0;
+		for (LineTable table : tables) {
+			total += table.getLineCount();
+		}
+		// open addressing hash table of the first occurrence of each distinct line
+		int capacity = Integer.highestOneBit(Math.max(total, 1) * 2) * 2;
+		int mask = capacity - 1;
+		int[] slotTable = new int[capacity];
+		int[] slotLine = new int[capacity];
+		int[] slotId = new int[capacity];
+		Arrays.fill(slotTable, -1);
+		int nextId = 0;
+		Object idSpace = new Object();
+		LineTable[] result = new LineTable[tables.length];
+		for (int t = 0; t < tables.length; t++) {
+			LineTable table = tables[t];
+			int[] ids = new int[table.getLineCount()];
+			for (int i = 0; i < ids.length; i++) {
+				int slot = mix(table.fHashes[i]) & mask;
+				while (true) {
+					int other = slotTable[slot];
+					if (other == -1) {
+						slotTable[slot] = t;
+						slotLine[slot] = i;
+						slotId[slot] = nextId;
+						ids[i] = nextId++;
+						break;
+					}
+					if (table.fHashes[i] == tables[other].fHashes[slotLine[slot]]
+							&& table.contentEquals(i, tables[other], slotLine[slot])) {
+						ids[i] = slotId[slot];
+						break;
+					}
+					slot = (slot + 1) & mask;
+				}
+			}
+			result[t] = new LineTable(table, ids, idSpace);
+		}
+		return result;
+	}
+
+	private static int mix(int hash) {
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		return hash ^ (hash >>> 13);
+	}
+
+	/**
+	 * Returns the number of lines.
+	 * @return the number of lines
+	 */
+	public int getLineCount() {
+		return this.fEnds.length;
+	}
+
+	/**
+	 * Returns the hash of the given line.
+	 * @param line the line
+	 * @return the hash of the line
+	 */
+	public int getHash(int line) {
+		return this.fHashes[line];
+	}
+
+	/**
+	 * Returns the id of the given line or <code>-1</code> if the table has not
+	 * been interned.
+	 * @param line the line
+	 * @return the id of the line
+	 */
+	public int getId(int line) {
+		return this.fIds == null ? -1 : this.fIds[line];
+	}
+
+	/**
+	 * Returns the offset of the given line.
+	 * @param line the line
+	 * @return the offset of the line
+	 */
+	public int getLineOffset(int line) {
+		return this.fStarts[line];
+	}
+
+	/**
+	 * Returns the length of the given line, not including the line delimiter.
+	 * @param line the line
+	 * @return the length of the line
+	 */
+	public int getLineLength(int line) {
+		return this.fEnds[line] - this.fStarts[line];
+	}
+
+	/**
+	 * Returns the contents of the given line, not including the line delimiter.
+	 * @param line the line
+	 * @return the contents of the line
+	 */
+	public String getLine(int line) {
+		return new String(this.fText, this.fStarts[line], getLineLength(line));
+	}
+
+	/**
+	 * Returns whether the given line of this table equals the given line
+	 * of the other table. Both tables must compare lines the same way.
+	 *
+	 * @param line the line of this table
+	 * @param other the other table
+	 * @param otherLine the line of the other table
+	 * @return whether the lines are equal
+	 */
+	public boolean linesEqual(int line, LineTable other, int otherLine) {
+		if (this.fIds != null && this.fIdSpace == other.fIdSpace)
+			return this.fIds[line] == other.fIds[otherLine];
+		return this.fHashes[line] == other.fHashes[otherLine]
+				&& contentEquals(line, other, otherLine);
+	}
+
+	/**
+	 * Returns whether lines of this table can be compared with lines of the
+	 * other table.
+	 *
+	 * @param other the other table
+	 * @return whether both tables compare lines the same way
+	 */
+	public boolean isCompatible(LineTable other) {
+		return this.fIgnoreWhitespace == other.fIgnoreWhitespace
+				&& this.fCompareDelimiters == other.fCompareDelimiters;
+	}
+
+	private int getDelimiterLength(int line) {
+		return this.fStarts[line + 1] - this.fEnds[line];
+	}
+
+	private int computeHash(int line) {
+		int hash = 0;
+		char[] text = this.fText;
+		int end = this.fEnds[line];
+		if (this.fIgnoreWhitespace) {
+			for (int i = this.fStarts[line]; i < end; i++) {
+				char c = text[i];
+				if (!Character.isWhitespace(c))
+					hash = 31 * hash + c;
+			}
+		} else {
+			for (int i = this.fStarts[line]; i < end; i++) {
+				hash = 31 * hash + text[i];
+			}
+			if (this.fCompareDelimiters)
+				hash = 31 * hash + getDelimiterLength(line);
+		}
+		return hash;
+	}
+
+	private boolean contentEquals(int line, LineTable other, int otherLine) {
+		char[] t1 = this.fText;
+		char[] t2 = other.fText;
+		int i1 = this.fStarts[line];
+		int i2 = other.fStarts[otherLine];
+		int end1 = this.fEnds[line];
+		int end2 = other.fEnds[otherLine];
+		if (this.fIgnoreWhitespace) {
+			while (true) {
+				while (i1 < end1 && Character.isWhitespace(t1[i1]))
+					i1++;
+				while (i2 < end2 && Character.isWhitespace(t2[i2]))
+					i2++;
+				if (i1 == end1 || i2 == end2)
+					return i1 == end1 && i2 == end2;
+				if (t1[i1++] != t2[i2++])
+					return false;
+			}
+		}
+		if (end1 - i1 != end2 - i2)
+			return false;
+		if (this.fCompareDelimiters && getDelimiterLength(line) != other.getDelimiterLength(otherLine))
+			return false;
+		while (i1 < end1) {
+			if (t1[i1++] != t2[i2++])
+				return false;
+		}
+		return true;
+	}
+}
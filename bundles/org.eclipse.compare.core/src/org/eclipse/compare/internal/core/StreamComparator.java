@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.compare.internal.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Compares the byte contents of two streams. The streams are read in large
+ * blocks, so the comparison doesn't make a call to the streams for every byte
+ * and doesn't need the streams to be buffered.
+ */
+public final class StreamComparator {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	// the bytes for which Character.isWhitespace((char) b) holds
+	private static final boolean[] WHITESPACE = new boolean[256];
+	static {
+		for (int i = 0; i < WHITESPACE.length; i++) {
+			WHITESPACE[i] = Character.isWhitespace((char) i);
+		}
+	}
+
+	private StreamComparator() {
+		// no instances
+	}
+
+	/**
+	 * Returns whether the two streams have the same contents. The streams are
+	 * read but not closed.
+	 *
+	 * @param is1
+	 *            the first stream
+	 * @param is2
+	 *            the second stream
+	 * @param ignoreWhitespace
+	 *            whether bytes that are whitespace characters are skipped
+	 * @return <code>true</code> if the contents are equal
+	 * @throws IOException
+	 *             if one of the streams cannot be read
+	 */
+	public static boolean contentsEqual(InputStream is1, InputStream is2, boolean ignoreWhitespace) throws IOException {
+		if (ignoreWhitespace)
+			return new Scanner(is1).contentsEqual(new Scanner(is2));
+		byte[] buffer1 = new byte[BUFFER_SIZE];
+		byte[] buffer2 = new byte[BUFFER_SIZE];
+		while (true) {
+			int length1 = fill(is1, buffer1);
+			int length2 = fill(is2, buffer2);
+			if (length1 != length2)
+				return false;
+			for (int i = 0; i < length1; i++) {
+				if (buffer1[i] != buffer2[i])
+					return false;
+			}
+			if (length1 < BUFFER_SIZE)
+				return true;
+		}
+	}
+
+	/*
+	 * Reads until the buffer is full or the end of the stream is reached and
+	 * returns the number of bytes that were read.
+	 */
+	private static int fill(InputStream is, byte[] buffer) throws IOException {
+		int length = 0;
+		while (length < buffer.length) {
+			int read = is.read(buffer, length, buffer.length - length);
+			if (read == -1)
+				break;
+			length += read;
+		}
+		return length;
+	}
+
+	/*
+	 * Returns the bytes of a stream that are not whitespace.
+	 */
+	private static final class Scanner {
+
+		private final InputStream fStream;
+		private final byte[] fBuffer = new byte[BUFFER_SIZE];
+		private int fPosition;
+		private int fLength;
+
+		Scanner(InputStream stream) {
+			this.fStream = stream;
+		}
+
+		boolean contentsEqual(Scanner other) throws IOException {
+			while (true) {
+				int c1 = next();
+				int c2 = other.next();
+				if (c1 != c2)
+					return false;
+				if (c1 == -1)
+					return true;
+			}
+		}
+
+		/*
+		 * Returns the next byte that is not whitespace or -1 at the end of the
+		 * stream.
+		 */
+		private int next() throws IOException {
+			while (true) {
+				if (this.fLength == -1)
+					return -1;
+				if (this.fPosition == this.fLength) {
+					this.fLength = this.fStream.read(this.fBuffer);
+					this.fPosition = 0;
+					continue;
+				}
+				int c = this.fBuffer[this.fPosition++] & 0xFF;
+				if (!WHITESPACE[c])
+					return c;
+			}
+		}
+	}
+}
@@ -13,10 +13,6 @@
  *******************************************************************************/
 package org.eclipse.compare.internal.core;
 
-import java.util.ArrayList;
-import java.util.List;
-
-
 public class TextLineLCS extends LCS {
 
 	private final TextLine[] lines1;
@@ -28,6 +24,19 @@ public class TextLineLCS extends LCS {
 		this.lines2 = lines2;
 	}
 
+	/**
+	 * Create an LCS of the lines of the given tables. The tables are interned
+	 * so that comparing two lines only compares their ids.
+	 *
+	 * @param table1 the lines of the 1st sequence
+	 * @param table2 the lines of the 2nd sequence
+	 */
+	public TextLineLCS(LineTable table1, LineTable table2) {
+		LineTable[] tables = LineTable.intern(table1, table2);
+		this.lines1 = getTextLines(tables[0]);
+		this.lines2 = getTextLines(tables[1]);
+	}
+
 	public TextLine[][] getResult() {
 		int length = getLength();
 		if (length == 0)
@@ -67,6 +76,11 @@ public class TextLineLCS extends LCS {
 		this.lcs = new TextLine[2][length];
 	}
 
+	@Override
+	protected boolean isThreadSafe() {
+		return true;
+	}
+
 	/**
 	 * This method takes an lcs result interspersed with nulls, compacts it and
 	 * shifts the LCS chunks as far towards the front as possible. This tends to
@@ -129,61 +143,42 @@ public class TextLineLCS extends LCS {
 	 * @return the array of TextLine object each corresponding to a line of text
 	 */
 	public static TextLine[] getTextLines(String text) {
-		List<TextLine> lines = new ArrayList<>();
-		int begin = 0;
-		int end = getEOL(text, 0);
-		int lineNum = 0;
-		while (end != -1) {
-			lines.add(new TextLine(lineNum++, text.substring(begin, end)));
-			begin = end + 1;
-			end = getEOL(text, begin);
-			if (end == begin && text.charAt(begin - 1) == '\r'
-					&& text.charAt(begin) == '\n') {
-				// we have '\r' followed by '\n', skip it
-				begin = end + 1;
-				end = getEOL(text, begin);
-			}
-		}
-
-		/*
-		 * this is the last line, no more newline characters, so take the rest
-		 * of the string
-		 */
-		lines.add(new TextLine(lineNum, text.substring(begin)));
-		TextLine[] aLines = new TextLine[lines.size()];
-		lines.toArray(aLines);
-		return aLines;
+		return getTextLines(LineTable.create(text));
 	}
 
 	/**
-	 * Returns the index of the next end of line marker ('\n' or '\r') after
-	 * start
+	 * Returns an array of TextLine objects each corresponding to a single line
+	 * of the given line table. The lines share the table, no text is copied.
 	 *
-	 * @param text The string to examine
-	 * @param start The location in the string to start looking
-	 * @return the index such that text.charAt(index) == '\n' or '\r', -1 if not
-	 *         found
+	 * @param table The line table
+	 * @return the array of TextLine object each corresponding to a line of the
+	 *         table
 	 */
-	private static int getEOL(String text, int start) {
-		int max = text.length();
-		for (int i = start; i < max; i++) {
-			char c = text.charAt(i);
-			if (c == '\n' || c == '\r') {
-				return i;
-			}
+	public static TextLine[] getTextLines(LineTable table) {
+		TextLine[] lines = new TextLine[table.getLineCount()];
+		for (int i = 0; i < lines.length; i++) {
+			lines[i] = new TextLine(table, i);
 		}
-		return -1;
+		return lines;
 	}
 
 	/* used to store information about a single line of text */
 	public static class TextLine {
 		private int number; // the line number
 
-		private String text; // the actual text
+		private String text; // the actual text, created lazily for table lines
+
+		private final LineTable table; // the table the line belongs to or null
 
 		public TextLine(int number, String text) {
 			this.number = number;
 			this.text = text;
+			this.table = null;
+		}
+
+		TextLine(LineTable table, int number) {
+			this.number = number;
+			this.table = table;
 		}
 
 		/**
@@ -194,9 +189,19 @@ public class TextLineLCS extends LCS {
 		 * @return true if this and l have the same text
 		 */
 		public boolean sameText(TextLine l) {
+			if (this.table != null && l.table != null)
+				return this.table.linesEqual(this.number, l.table, l.number);
 			// compare the hashCode() first since that is much faster and most
 			// of the time the text lines won't match
-			return this.text.hashCode() == l.text.hashCode() && l.text.equals(this.text);
+			String text1 = getText();
+			String text2 = l.getText();
+			return text1.hashCode() == text2.hashCode() && text2.equals(text1);
+		}
+
+		private String getText() {
+			if (this.text == null)
+				this.text = this.table.getLine(this.number);
+			return this.text;
 		}
 
 		/**
@@ -210,7 +215,7 @@ public class TextLineLCS extends LCS {
 
 		@Override
 		public String toString() {
-			return "" + this.number + " " + this.text + "\n"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			return "" + this.number + " " + getText() + "\n"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 		}
 	}
 }
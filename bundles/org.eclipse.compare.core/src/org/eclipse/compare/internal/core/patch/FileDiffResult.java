@@ -18,6 +18,7 @@ import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -39,6 +40,7 @@ public class FileDiffResult implements IFilePatchResult {
 	private String fErrorMessage;
 	private Map<Hunk, HunkResult> fHunkResults = new HashMap<>();
 	private List<String> fBeforeLines, fAfterLines;
+	private Map<List<String>, LineIndex.Mapping> fLineMappings = new IdentityHashMap<>();
 	private final PatchConfiguration configuration;
 	private String charset;
 
@@ -155,6 +157,11 @@ public class FileDiffResult implements IFilePatchResult {
 	public void patch(List<String> lines, IProgressMonitor monitor) {
 		this.fBeforeLines = new ArrayList<>();
 		this.fBeforeLines.addAll(lines);
+		// index the lines once, both the lines and the before lines start with the same contents
+		LineIndex index = new LineIndex(getConfiguration(), lines);
+		this.fLineMappings.clear();
+		this.fLineMappings.put(lines, index.createMapping(lines));
+		this.fLineMappings.put(this.fBeforeLines, index.createMapping(this.fBeforeLines));
 		if (getConfiguration().getFuzz() != 0) {
 			calculateFuzz(this.fBeforeLines, monitor);
 		}
@@ -170,6 +177,7 @@ public class FileDiffResult implements IFilePatchResult {
 			}
 		}
 		this.fAfterLines = lines;
+		this.fLineMappings.clear();
 	}
 
 	public boolean getDiffProblem() {
@@ -226,6 +234,10 @@ public class FileDiffResult implements IFilePatchResult {
 			// TODO: What about the after lines?
 			return -1;
 		}
+		boolean indexed = this.fLineMappings.containsKey(lines);
+		if (!indexed) {
+			this.fLineMappings.put(lines, new LineIndex(getConfiguration(), lines).createMapping(lines));
+		}
 		int shift= 0;
 		int highestFuzz = -1; // the maximum fuzz factor for all hunks
 		String name = getTargetPath() != null ? getTargetPath().lastSegment() : ""; //$NON-NLS-1$
@@ -242,6 +254,9 @@ public class FileDiffResult implements IFilePatchResult {
 			monitor.worked(1);
 		}
 		this.fAfterLines = lines;
+		if (!indexed) {
+			this.fLineMappings.remove(lines);
+		}
 		return highestFuzz;
 	}
 
@@ -249,6 +264,16 @@ public class FileDiffResult implements IFilePatchResult {
 		return this.fDiff.getStrippedPath(getConfiguration().getPrefixSegmentStripCount(), getConfiguration().isReversed());
 	}
 
+	/**
+	 * Return the mapping that tracks the hunks applied to the given lines.
+	 * @param lines the lines being patched
+	 * @return the mapping for the given lines or <code>null</code> if the lines
+	 *         have not been indexed
+	 */
+	LineIndex.Mapping getLineMapping(List<String> lines) {
+		return this.fLineMappings.get(lines);
+	}
+
 	private HunkResult getHunkResult(Hunk hunk) {
 		HunkResult result = this.fHunkResults.get(hunk);
 		if (result == null) {
@@ -13,7 +13,10 @@
  *******************************************************************************/
 package org.eclipse.compare.internal.core.patch;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -28,11 +31,45 @@ public class Hunk implements IHunk {
 	private int fOldStart, fOldLength;
 	private int fNewStart, fNewLength;
 	private String[] fLines;
+	// the lines of a hunk read from a mapped patch file, fLines is null then
+	private MappedPatchFile fFile;
+	private int[] fLineStarts, fLineEnds;
+	private SoftReference<String[]> fDecodedLines;
 	private int hunkType;
 	private String charset = null;
 
 	public static Hunk createHunk(FilePatch2 parent, int[] oldRange, int[] newRange,
 			List<String> lines, boolean hasLineAdditions, boolean hasLineDeletions, boolean hasContextLines) {
+		Hunk hunk = createHunk(parent, oldRange, newRange, hasLineAdditions, hasLineDeletions, hasContextLines);
+		hunk.fLines = lines.toArray(new String[lines.size()]);
+		return hunk;
+	}
+
+	/**
+	 * Create a hunk whose lines are read from the given mapped file when they
+	 * are needed.
+	 * @param parent the parent diff
+	 * @param oldRange the range of the hunk in the before state
+	 * @param newRange the range of the hunk in the after state
+	 * @param file the mapped patch file
+	 * @param lineStarts the offsets of the lines in the file
+	 * @param lineEnds the offsets of the ends of the lines in the file
+	 * @param hasLineAdditions whether the hunk adds lines
+	 * @param hasLineDeletions whether the hunk deletes lines
+	 * @param hasContextLines whether the hunk has context lines
+	 * @return the hunk
+	 */
+	static Hunk createHunk(FilePatch2 parent, int[] oldRange, int[] newRange, MappedPatchFile file,
+			int[] lineStarts, int[] lineEnds, boolean hasLineAdditions, boolean hasLineDeletions, boolean hasContextLines) {
+		Hunk hunk = createHunk(parent, oldRange, newRange, hasLineAdditions, hasLineDeletions, hasContextLines);
+		hunk.fFile = file;
+		hunk.fLineStarts = lineStarts;
+		hunk.fLineEnds = lineEnds;
+		return hunk;
+	}
+
+	private static Hunk createHunk(FilePatch2 parent, int[] oldRange, int[] newRange,
+			boolean hasLineAdditions, boolean hasLineDeletions, boolean hasContextLines) {
 		int oldStart = 0;
 		int oldLength = 0;
 		int newStart = 0;
@@ -55,7 +92,7 @@ public class Hunk implements IHunk {
 				hunkType = FilePatch2.DELETION;
 			}
 		}
-		return new Hunk(parent, hunkType, oldStart, oldLength, newStart, newLength, lines.toArray(new String[lines.size()]));
+		return new Hunk(parent, hunkType, oldStart, oldLength, newStart, newLength, null);
 	}
 
 	public Hunk(FilePatch2 parent, int hunkType, int oldStart, int oldLength,
@@ -74,6 +111,10 @@ public class Hunk implements IHunk {
 
 	public Hunk(FilePatch2 parent, Hunk toCopy) {
 		this(parent, toCopy.hunkType, toCopy.fOldStart, toCopy.fOldLength, toCopy.fNewStart, toCopy.fNewLength, toCopy.fLines);
+		this.fFile = toCopy.fFile;
+		this.fLineStarts = toCopy.fLineStarts;
+		this.fLineEnds = toCopy.fLineEnds;
+		this.fDecodedLines = toCopy.fDecodedLines;
 	}
 
 	/*
@@ -90,7 +131,7 @@ public class Hunk implements IHunk {
 	 */
 	public String getContent() {
 		StringBuilder sb= new StringBuilder();
-		for (String line : this.fLines) {
+		for (String line : getLines()) {
 			sb.append(line.substring(0, LineReader.length(line)));
 			sb.append('\n');
 		}
@@ -142,13 +183,35 @@ public class Hunk implements IHunk {
 	}
 
 	public String[] getLines() {
-		return this.fLines;
+		if (this.fLines != null)
+			return this.fLines;
+		// Lines of a mapped patch are decoded again once memory gets low,
+		// which keeps the heap usage of huge patches bounded.
+		SoftReference<String[]> ref = this.fDecodedLines;
+		String[] lines = ref == null ? null : ref.get();
+		if (lines == null) {
+			lines = new String[this.fLineStarts.length];
+			try {
+				// the lines of a hunk are contiguous in the file, read them at once
+				int base = this.fLineStarts[0];
+				byte[] bytes = this.fFile.getBytes(base, this.fLineEnds[lines.length - 1]);
+				for (int i = 0; i < lines.length; i++) {
+					lines[i] = this.fFile.decode(bytes, this.fLineStarts[i] - base, this.fLineEnds[i] - this.fLineStarts[i]);
+				}
+			} catch (IOException e) {
+				// the patch file has gone away after it has been parsed
+				throw new UncheckedIOException(e);
+			}
+			this.fDecodedLines = new SoftReference<>(lines);
+		}
+		return lines;
 	}
 
 	@Override
 	public String[] getUnifiedLines() {
-		String[] ret = new String[this.fLines.length];
-		System.arraycopy(this.fLines, 0, ret, 0, this.fLines.length);
+		String[] lines = getLines();
+		String[] ret = new String[lines.length];
+		System.arraycopy(lines, 0, ret, 0, lines.length);
 		return ret;
 	}
 
@@ -180,7 +243,7 @@ public class Hunk implements IHunk {
 		List<String> contextLines = new ArrayList<>();
 		boolean contextLinesMatched = true;
 		boolean precedingLinesChecked = false;
-		for (String s : this.fLines) {
+		for (String s : getLines()) {
 			Assert.isTrue(s.length() > 0);
 			String line = s.substring(1);
 			char controlChar = s.charAt(0);
@@ -328,7 +391,7 @@ public class Hunk implements IHunk {
 		boolean precedingLinesChecked = false;
 		String lineDelimiter = getLineDelimiter(lines);
 
-		for (String s : this.fLines) {
+		for (String s : getLines()) {
 			Assert.isTrue(s.length() > 0);
 			String line= s.substring(1);
 			char controlChar= s.charAt(0);
@@ -400,11 +463,11 @@ public class Hunk implements IHunk {
 		return getShift(reverse);
 	}
 
-	private boolean isDeletedDelimeter(char controlChar, boolean reverse) {
+	boolean isDeletedDelimeter(char controlChar, boolean reverse) {
 		return (!reverse && controlChar == '-') || (reverse && controlChar == '+');
 	}
 
-	private boolean isAddedDelimeter(char controlChar, boolean reverse) {
+	boolean isAddedDelimeter(char controlChar, boolean reverse) {
 		return (reverse && controlChar == '-') || (!reverse && controlChar == '+');
 	}
 
@@ -434,9 +497,10 @@ public class Hunk implements IHunk {
 			// get a line separator from the file being patched
 			String line0 = lines.get(0);
 			return line0.substring(LineReader.length(line0));
-		} else if (this.fLines.length > 0) {
+		} else if (getLines().length > 0) {
 			// if the file doesn't exist use a line separator from the patch
-			return this.fLines[0].substring(LineReader.length(this.fLines[0]));
+			String line0 = getLines()[0];
+			return line0.substring(LineReader.length(line0));
 		}
 		return System.getProperty("line.separator"); //$NON-NLS-1$
 	}
@@ -445,7 +509,7 @@ public class Hunk implements IHunk {
 	 * Returns the given string with all whitespace characters removed.
 	 * Whitespace is defined by <code>Character.isWhitespace(...)</code>.
 	 */
-	private String stripWhiteSpace(String s) {
+	static String stripWhiteSpace(String s) {
 		StringBuilder sb= new StringBuilder();
 		int l= s.length();
 		for (int i= 0; i < l; i++) {
@@ -458,7 +522,7 @@ public class Hunk implements IHunk {
 
 	public String getContents(boolean isAfterState, boolean reverse) {
 		StringBuilder result= new StringBuilder();
-		for (String line : this.fLines) {
+		for (String line : getLines()) {
 			String rest= line.substring(1);
 			char c = line.charAt(0);
 			if (c == ' ') {
@@ -62,36 +62,13 @@ public class HunkResult {
 		if (isEnabled(configuration)) {
 			if (this.fHunk.tryPatch(configuration, lines, this.fShift, fuzz)) {
 				// it's a perfect match, no shifting is needed
-				this.fShift += this.fHunk.doPatch(configuration, lines, this.fShift, fuzz);
+				doPatch(configuration, lines, fuzz);
 				this.fMatches = true;
 			} else {
-				boolean found= false;
 				int oldShift= this.fShift;
-
-				int hugeShift = lines.size();
-				for (int i = 1; i <= hugeShift; i++) {
-					if (this.fHunk.tryPatch(configuration, lines, this.fShift - i, fuzz)) {
-						if (isAdjustShift())
-							this.fShift -= i;
-						found = true;
-						break;
-					}
-				}
-
-				if (!found) {
-					for (int i = 1; i <= hugeShift; i++) {
-						if (this.fHunk.tryPatch(configuration, lines, this.fShift + i, fuzz)) {
-							if (isAdjustShift())
-								this.fShift += i;
-							found = true;
-							break;
-						}
-					}
-				}
-
-				if (found) {
+				if (shift(configuration, lines, fuzz, null)) {
 					if (DEBUG) System.out.println("patched hunk at offset: " + (this.fShift-oldShift)); //$NON-NLS-1$
-					this.fShift+= this.fHunk.doPatch(configuration, lines, this.fShift, fuzz);
+					doPatch(configuration, lines, fuzz);
 					this.fMatches = true;
 				}
 			}
@@ -99,6 +76,71 @@ public class HunkResult {
 		return this.fMatches;
 	}
 
+	/*
+	 * Tries to find a shift, nearest first, at which the hunk can be applied.
+	 * All upward shifts are tried before the downward ones. If the lines are
+	 * tracked by a line index only the shifts at which a line of the hunk that
+	 * has to match can be found are tried.
+	 */
+	private boolean shift(PatchConfiguration configuration, List<String> lines, int fuzz, IProgressMonitor monitor) {
+		LineIndex.Mapping mapping = this.fDiffResult.getLineMapping(lines);
+		int[] shifts = mapping != null ? mapping.getCandidateShifts(configuration, this.fHunk, fuzz, this.fShift) : null;
+		if (shifts != null) {
+			for (int shift : shifts) {
+				if (monitor != null && monitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				if (this.fHunk.tryPatch(configuration, lines, shift, fuzz)) {
+					if (isAdjustShift())
+						this.fShift = shift;
+					return true;
+				}
+			}
+			return false;
+		}
+
+		// TODO (tzarna): hugeShift=lines.size() is more than we need.
+		// Lines to the beg/end of a file would be enough but this can still
+		// in matching hunks out of order. Try to shift using only lines
+		// available "between" hunks.
+		int hugeShift = lines.size();
+
+		// shift up
+		for (int i = 1; i <= hugeShift; i++) {
+			if (monitor != null && monitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+			if (this.fHunk.tryPatch(configuration, lines, this.fShift - i, fuzz)) {
+				if (isAdjustShift())
+					this.fShift -= i;
+				return true;
+			}
+		}
+
+		// shift down
+		for (int i = 1; i <= hugeShift; i++) {
+			if (monitor != null && monitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+			if (this.fHunk.tryPatch(configuration, lines, this.fShift + i, fuzz)) {
+				if (isAdjustShift())
+					this.fShift += i;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void doPatch(PatchConfiguration configuration, List<String> lines, int fuzz) {
+		boolean reverse = configuration.isReversed();
+		int start = this.fHunk.getStart(reverse) + this.fShift;
+		int sizeBefore = lines.size();
+		this.fShift += this.fHunk.doPatch(configuration, lines, this.fShift, fuzz);
+		LineIndex.Mapping mapping = this.fDiffResult.getLineMapping(lines);
+		if (mapping != null)
+			mapping.recordEdit(this.fHunk, reverse, start, sizeBefore);
+	}
+
 	private boolean isAdjustShift() {
 		return true;
 	}
@@ -128,47 +170,14 @@ public class HunkResult {
 			// try to apply using lines coordinates from the patch
 			if (this.fHunk.tryPatch(configuration, lines, this.fShift, fuzz)) {
 				// it's a perfect match, no adjustment is needed
-				this.fShift += this.fHunk.doPatch(configuration, lines, this.fShift, fuzz);
+				doPatch(configuration, lines, fuzz);
 				this.fMatches = true;
 				break;
 			}
 
-			// TODO (tzarna): hugeShift=lines.size() is more than we need.
-			// Lines to the beg/end of a file would be enough but this can still
-			// in matching hunks out of order. Try to shift using only lines
-			// available "between" hunks.
-			int hugeShift = lines.size();
-
-			// shift up
-			for (int i = 1; i <= hugeShift; i++) {
-				if (monitor.isCanceled()) {
-					throw new OperationCanceledException();
-				}
-				if (this.fHunk.tryPatch(configuration, lines, this.fShift - i, fuzz)) {
-					if (isAdjustShift())
-						this.fShift -= i;
-					this.fMatches = true;
-					break;
-				}
-			}
-
-			// shift down
-			if (!this.fMatches) {
-				for (int i = 1; i <= hugeShift; i++) {
-					if (monitor.isCanceled()) {
-						throw new OperationCanceledException();
-					}
-					if (this.fHunk.tryPatch(configuration, lines, this.fShift + i, fuzz)) {
-						if (isAdjustShift())
-							this.fShift += i;
-						this.fMatches = true;
-						break;
-					}
-				}
-			}
-
-			if (this.fMatches) {
-				this.fShift += this.fHunk.doPatch(configuration, lines, this.fShift, fuzz);
+			if (shift(configuration, lines, fuzz, monitor)) {
+				this.fMatches = true;
+				doPatch(configuration, lines, fuzz);
 				break;
 			}
 		}
@@ -0,0 +1,310 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.compare.internal.core.patch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.compare.patch.PatchConfiguration;
+
+/**
+ * An index of the lines of a file that is being patched. The index maps the
+ * content of each line to the positions at which it occurs so that the offsets
+ * at which a hunk may apply can be looked up instead of trying every possible
+ * shift.
+ * <p>
+ * The index is built once from the original lines of the target file. Since
+ * applying a hunk inserts and removes lines, every list that is patched gets
+ * its own {@link Mapping} which records the applied hunks and translates the
+ * indexed positions into positions of the current lines.
+ * </p>
+ */
+public class LineIndex {
+
+	private static final int[] NO_POSITIONS = new int[0];
+
+	private final boolean fIgnoreWhitespace;
+	private final Map<String, int[]> fPositions;
+
+	/**
+	 * Create an index of the given lines.
+	 * @param configuration the patch configuration that decides how lines are compared
+	 * @param lines the lines of the target file
+	 */
+	public LineIndex(PatchConfiguration configuration, List<String> lines) {
+		this.fIgnoreWhitespace = configuration.isIgnoreWhitespace();
+		Map<String, int[]> positions = new HashMap<>();
+		int i = 0;
+		for (String line : lines) {
+			String key = getKey(line);
+			int[] p = positions.get(key);
+			if (p == null) {
+				// the first slot holds the number of positions
+				p = new int[4];
+				positions.put(key, p);
+			} else if (p[0] + 1 == p.length) {
+				p = Arrays.copyOf(p, p.length * 2);
+				positions.put(key, p);
+			}
+			p[++p[0]] = i++;
+		}
+		for (Map.Entry<String, int[]> entry : positions.entrySet()) {
+			int[] p = entry.getValue();
+			entry.setValue(Arrays.copyOfRange(p, 1, p[0] + 1));
+		}
+		this.fPositions = positions;
+	}
+
+	/**
+	 * Create a mapping that tracks the hunks applied to the given lines. The
+	 * lines must have the same content as the lines this index was created from.
+	 * @param lines the lines that will be patched
+	 * @return a mapping for the given lines
+	 */
+	public Mapping createMapping(List<String> lines) {
+		return new Mapping(lines);
+	}
+
+	/*
+	 * Returns the key of the given line. Two lines have the same key iff
+	 * Hunk#linesMatch considers them equal.
+	 */
+	String getKey(String line) {
+		if (this.fIgnoreWhitespace)
+			return Hunk.stripWhiteSpace(line);
+		return line.substring(0, LineReader.length(line));
+	}
+
+	private int[] getPositions(String key) {
+		int[] positions = this.fPositions.get(key);
+		return positions == null ? NO_POSITIONS : positions;
+	}
+
+	/**
+	 * Tracks the hunks applied to one list of lines and answers the shifts at
+	 * which a hunk could apply to the current state of those lines.
+	 */
+	public class Mapping {
+
+		private final List<String> fLines;
+		// {start, removed, added} in the coordinates of the lines at the time of the edit
+		private final List<int[]> fEdits = new ArrayList<>();
+		// sorted, disjoint {start, end} ranges of lines that are not covered by the index
+		private final List<int[]> fUnindexed = new ArrayList<>();
+
+		Mapping(List<String> lines) {
+			this.fLines = lines;
+		}
+
+		/**
+		 * Return the lines tracked by this mapping.
+		 * @return the lines tracked by this mapping
+		 */
+		public List<String> getLines() {
+			return this.fLines;
+		}
+
+		/**
+		 * Return the shifts, relative to the original position of the hunk,
+		 * at which the given hunk could apply with the given fuzz factor. Upward
+		 * shifts are returned first, nearest first, followed by the downward
+		 * shifts, nearest first. The current shift itself is never returned.
+		 *
+		 * @param configuration the patch configuration
+		 * @param hunk the hunk to find candidate shifts for
+		 * @param fuzz the fuzz factor
+		 * @param shift the current shift of the hunk
+		 * @return the candidate shifts or <code>null</code> if the hunk has no
+		 *         line that must match exactly and every shift has to be tried
+		 */
+		public int[] getCandidateShifts(PatchConfiguration configuration, Hunk hunk, int fuzz, int shift) {
+			if (configuration.isIgnoreWhitespace() != LineIndex.this.fIgnoreWhitespace)
+				return null;
+			boolean reverse = configuration.isReversed();
+			int[] anchor = findAnchor(hunk, reverse, fuzz);
+			if (anchor == null)
+				return null;
+			String key = getKey(hunk.getLines()[anchor[0]].substring(1));
+			int base = hunk.getStart(reverse) + anchor[1];
+			int size = this.fLines.size();
+			int[] candidates = new int[8];
+			int count = 0;
+			for (int position : getPositions(key)) {
+				int current = toCurrent(position);
+				if (current != -1) {
+					if (count == candidates.length)
+						candidates = Arrays.copyOf(candidates, count * 2);
+					candidates[count++] = current;
+				}
+			}
+			for (int[] range : this.fUnindexed) {
+				for (int i = range[0]; i < range[1] && i < size; i++) {
+					if (key.equals(getKey(this.fLines.get(i)))) {
+						if (count == candidates.length)
+							candidates = Arrays.copyOf(candidates, count * 2);
+						candidates[count++] = i;
+					}
+				}
+			}
+			// turn positions into shifts, ordered as the full scan would try them
+			int[] up = new int[count];
+			int[] down = new int[count];
+			int ups = 0, downs = 0;
+			for (int i = 0; i < count; i++) {
+				int distance = candidates[i] - base - shift;
+				if (distance < 0 && -distance <= size)
+					up[ups++] = -distance;
+				else if (distance > 0 && distance <= size)
+					down[downs++] = distance;
+			}
+			Arrays.sort(up, 0, ups);
+			Arrays.sort(down, 0, downs);
+			int[] shifts = new int[ups + downs];
+			int n = 0;
+			for (int i = 0; i < ups; i++) {
+				if (i == 0 || up[i] != up[i - 1])
+					shifts[n++] = shift - up[i];
+			}
+			for (int i = 0; i < downs; i++) {
+				if (i == 0 || down[i] != down[i - 1])
+					shifts[n++] = shift + down[i];
+			}
+			return n == shifts.length ? shifts : Arrays.copyOf(shifts, n);
+		}
+
+		/**
+		 * Record that the given hunk has been applied to the lines.
+		 * @param hunk the hunk that has been applied
+		 * @param reverse whether the patch is applied in reverse
+		 * @param start the position at which the hunk has been applied
+		 * @param sizeBefore the number of lines before the hunk was applied
+		 */
+		public void recordEdit(Hunk hunk, boolean reverse, int start, int sizeBefore) {
+			int consumed = 0;
+			for (String line : hunk.getLines()) {
+				if (!hunk.isAddedDelimeter(line.charAt(0), reverse))
+					consumed++;
+			}
+			// Be generous with the edited range, the lines around it that did
+			// not change are simply not looked up in the index any more.
+			start = Math.max(0, Math.min(start, sizeBefore));
+			int removed = Math.min(consumed + 1, sizeBefore - start);
+			int delta = this.fLines.size() - sizeBefore;
+			int added = removed + delta;
+			if (added < 0) {
+				removed = -delta;
+				added = 0;
+			}
+			this.fEdits.add(new int[] { start, removed, added });
+
+			int mergedStart = start;
+			int mergedEnd = start + removed;
+			List<int[]> ranges = new ArrayList<>(this.fUnindexed.size() + 1);
+			int insertAt = -1;
+			for (int[] range : this.fUnindexed) {
+				if (range[1] < start) {
+					ranges.add(range);
+				} else if (range[0] > start + removed) {
+					if (insertAt == -1)
+						insertAt = ranges.size();
+					ranges.add(new int[] { range[0] + delta, range[1] + delta });
+				} else {
+					mergedStart = Math.min(mergedStart, range[0]);
+					mergedEnd = Math.max(mergedEnd, range[1]);
+				}
+			}
+			int[] merged = new int[] { mergedStart, mergedEnd + delta };
+			if (insertAt == -1)
+				ranges.add(merged);
+			else
+				ranges.add(insertAt, merged);
+			this.fUnindexed.clear();
+			this.fUnindexed.addAll(ranges);
+		}
+
+		/*
+		 * Translates an indexed position into the position of the same line in
+		 * the current lines or -1 if the line has been replaced.
+		 */
+		private int toCurrent(int position) {
+			for (int[] edit : this.fEdits) {
+				if (position >= edit[0] + edit[1])
+					position += edit[2] - edit[1];
+				else if (position >= edit[0])
+					return -1;
+			}
+			return position;
+		}
+	}
+
+	/*
+	 * Returns the line of the hunk that must match exactly for the hunk to
+	 * apply with the given fuzz factor and that occurs the least often in the
+	 * file, as {index in the hunk lines, offset from the hunk start}, or
+	 * null if every line may be fuzzed. This mirrors the rules of
+	 * Hunk#tryPatch: deleted lines always have to match, context lines only
+	 * when they are not among the first or last 'fuzz' lines of the hunk.
+	 */
+	private int[] findAnchor(Hunk hunk, boolean reverse, int fuzz) {
+		String[] lines = hunk.getLines();
+		int firstChange = -1;
+		int lastChange = -1;
+		for (int i = 0; i < lines.length; i++) {
+			char c = lines[i].charAt(0);
+			if (hunk.isDeletedDelimeter(c, reverse) || hunk.isAddedDelimeter(c, reverse)) {
+				if (firstChange == -1)
+					firstChange = i;
+				lastChange = i;
+			}
+		}
+		int trailingContext = 0;
+		for (int i = lastChange + 1; i < lines.length; i++) {
+			if (lines[i].charAt(0) == ' ')
+				trailingContext++;
+		}
+		int[] anchor = null;
+		int anchorCount = Integer.MAX_VALUE;
+		int offset = 0;
+		int trailingIndex = 0;
+		for (int i = 0; i < lines.length; i++) {
+			char c = lines[i].charAt(0);
+			if (hunk.isAddedDelimeter(c, reverse))
+				continue;
+			boolean required;
+			if (c != ' ' || fuzz == 0) {
+				required = true;
+			} else if (i > lastChange) {
+				// trailing context, the last 'fuzz' lines are ignored
+				required = trailingIndex++ < trailingContext - fuzz;
+			} else if (i < firstChange) {
+				// leading context, the first 'fuzz' lines are ignored
+				required = i >= fuzz;
+			} else {
+				required = true;
+			}
+			if (required) {
+				int count = getPositions(getKey(lines[i].substring(1))).length;
+				if (count < anchorCount) {
+					anchor = new int[] { i, offset };
+					anchorCount = count;
+				}
+			}
+			offset++;
+		}
+		return anchor;
+	}
+}
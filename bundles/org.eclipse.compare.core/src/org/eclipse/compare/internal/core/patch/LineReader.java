@@ -15,7 +15,11 @@
 package org.eclipse.compare.internal.core.patch;
 
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
 import java.util.*;
 
 import org.eclipse.compare.internal.core.ComparePlugin;
@@ -111,12 +115,42 @@ public class LineReader {
 	private BufferedReader fReader;
 	private boolean fIgnoreSingleCR= false;
 	private StringBuilder fBuffer= new StringBuilder();
+	private MappedPatchFile fFile;
+	private int fPosition;
+	private int fLineStart, fLineEnd;
 
 	public LineReader(BufferedReader reader) {
 		this.fReader= reader;
 		Assert.isNotNull(reader);
 	}
 
+	/**
+	 * Create a reader for the lines of the given mapped file. The reader
+	 * remembers the offsets of the line that has been read last.
+	 * @param file the mapped file
+	 */
+	public LineReader(MappedPatchFile file) {
+		this.fFile= file;
+		Assert.isNotNull(file);
+	}
+
+	/**
+	 * Create a reader for the given file. The file is mapped into memory if
+	 * its charset allows it, otherwise it is read through a buffered reader.
+	 * @param file the file
+	 * @param charset the charset of the file
+	 * @return a reader for the lines of the file
+	 * @throws IOException if the file cannot be opened
+	 */
+	public static LineReader create(File file, Charset charset) throws IOException {
+		if (MappedPatchFile.isSupported(charset)) {
+			MappedPatchFile mapped= MappedPatchFile.map(file, charset);
+			if (mapped != null)
+				return new LineReader(mapped);
+		}
+		return new LineReader(new BufferedReader(new InputStreamReader(new FileInputStream(file), charset)));
+	}
+
 	public void ignoreSingleCR() {
 		this.fIgnoreSingleCR= true;
 	}
@@ -131,6 +165,8 @@ public class LineReader {
 	 * @exception IOException If an I/O error occurs
 	 */
 	String readLine() throws IOException {
+		if (this.fFile != null)
+			return readMappedLine();
 		try {
 			while (!this.fSawEOF) {
 				int c= readChar();
@@ -169,7 +205,67 @@ public class LineReader {
 		}
 	}
 
+	/*
+	 * The same as readLine() for a mapped file. The bytes of '\r' and '\n'
+	 * are compared directly, which is safe for the charsets that can be mapped.
+	 */
+	private String readMappedLine() throws IOException {
+		int size= this.fFile.size();
+		int start= this.fPosition;
+		int pos= start;
+		while (pos < size) {
+			byte c= this.fFile.get(pos++);
+			if (c == '\n')
+				break;
+			if (c == '\r') {
+				if (pos == size)
+					break;	// EOF
+				if (this.fFile.get(pos) != '\n') {
+					if (this.fIgnoreSingleCR) {
+						pos++;
+						continue;
+					}
+				} else
+					pos++;
+				break;
+			}
+		}
+		this.fPosition= pos;
+		this.fLineStart= start;
+		this.fLineEnd= pos;
+		if (pos == start)
+			return null;
+		return this.fFile.getString(start, pos);
+	}
+
+	/*
+	 * Returns the mapped file that is read or null if this reader
+	 * doesn't read from a mapped file.
+	 */
+	MappedPatchFile getMappedFile() {
+		return this.fFile;
+	}
+
+	/*
+	 * Returns the offset of the line that has been read last.
+	 */
+	int getLineStart() {
+		return this.fLineStart;
+	}
+
+	/*
+	 * Returns the offset after the delimiter of the line that has been read last.
+	 */
+	int getLineEnd() {
+		return this.fLineEnd;
+	}
+
 	void close() {
+		if (this.fFile != null) {
+			// the hunks read lines from the file from now on
+			this.fFile.close();
+			return;
+		}
 		try {
 			this.fReader.close();
 		} catch (IOException ex) {
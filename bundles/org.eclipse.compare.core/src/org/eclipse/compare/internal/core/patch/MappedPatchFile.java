@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.compare.internal.core.patch;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A patch file that is mapped into memory. The lines of the hunks read from
+ * such a file are kept as byte offsets into the mapping and are only decoded
+ * when they are needed.
+ * <p>
+ * Lines are found by looking for the bytes of '\r' and '\n', so the charset
+ * must encode these as single bytes that are not part of the encoding of any
+ * other character. This holds for UTF-8 and for the ASCII based single byte
+ * charsets, see {@link #isSupported(Charset)}.
+ * </p>
+ * <p>
+ * The mapping is given up by {@link #close()} once the file has been parsed
+ * and is released when it is collected. Lines that are decoded afterwards
+ * are read from the file itself, so the file must not change while the hunks
+ * read from it are in use.
+ * </p>
+ */
+public class MappedPatchFile {
+
+	private final File fFile;
+	private ByteBuffer fBuffer;
+	private final int fSize;
+	private final Charset fCharset;
+
+	private MappedPatchFile(File file, ByteBuffer buffer, Charset charset) {
+		this.fFile = file;
+		this.fBuffer = buffer;
+		this.fSize = buffer.limit();
+		this.fCharset = charset;
+	}
+
+	/**
+	 * Map the given file into memory.
+	 * @param file the patch file
+	 * @param charset the charset of the file, must be supported
+	 * @return the mapped file or <code>null</code> if the file is too large
+	 *         to be mapped
+	 * @throws IOException if the file cannot be read
+	 */
+	public static MappedPatchFile map(File file, Charset charset) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE)
+				return null;
+			// the mapping stays valid after the channel has been closed
+			return new MappedPatchFile(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, size), charset);
+		}
+	}
+
+	/**
+	 * Returns whether lines of files in the given charset can be found by
+	 * looking at single bytes.
+	 * @param charset a charset
+	 * @return whether files in the charset can be mapped
+	 */
+	public static boolean isSupported(Charset charset) {
+		if (!StandardCharsets.UTF_8.equals(charset)
+				&& (!charset.canEncode() || charset.newEncoder().maxBytesPerChar() != 1))
+			return false;
+		byte[] delimiter = "\r\n".getBytes(charset); //$NON-NLS-1$
+		return delimiter.length == 2 && delimiter[0] == '\r' && delimiter[1] == '\n';
+	}
+
+	/**
+	 * Returns the size of the file in bytes.
+	 * @return the size of the file
+	 */
+	int size() {
+		return this.fSize;
+	}
+
+	/**
+	 * Returns the byte at the given offset. This is only called by the
+	 * reader while the file is being parsed, before it is closed.
+	 * @param offset the offset
+	 * @return the byte at the offset
+	 */
+	byte get(int offset) {
+		return this.fBuffer.get(offset);
+	}
+
+	/**
+	 * Decodes the bytes in the given range.
+	 * @param start the offset of the first byte
+	 * @param end the offset after the last byte
+	 * @return the decoded characters
+	 * @throws IOException if the file has been closed and cannot be read
+	 */
+	String getString(int start, int end) throws IOException {
+		return new String(getBytes(start, end), this.fCharset);
+	}
+
+	/**
+	 * Decodes bytes that have been returned by {@link #getBytes(int, int)}.
+	 * @param bytes the bytes
+	 * @param offset the offset of the first byte to decode
+	 * @param length the number of bytes to decode
+	 * @return the decoded characters
+	 */
+	String decode(byte[] bytes, int offset, int length) {
+		return new String(bytes, offset, length, this.fCharset);
+	}
+
+	/**
+	 * Returns the bytes in the given range. Once the file has been closed
+	 * they are read from the file with a single positional read.
+	 * @param start the offset of the first byte
+	 * @param end the offset after the last byte
+	 * @return the bytes
+	 * @throws IOException if the file has been closed and cannot be read
+	 */
+	synchronized byte[] getBytes(int start, int end) throws IOException {
+		byte[] bytes = new byte[end - start];
+		if (this.fBuffer != null) {
+			// read through a view, the position of the shared buffer never changes
+			ByteBuffer view = this.fBuffer.duplicate();
+			view.position(start);
+			view.get(bytes);
+		} else {
+			ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			try (FileChannel channel = FileChannel.open(this.fFile.toPath(), StandardOpenOption.READ)) {
+				while (buffer.hasRemaining()) {
+					if (channel.read(buffer, start + buffer.position()) < 0)
+						throw new IOException(this.fFile.getAbsolutePath());
+				}
+			}
+		}
+		return bytes;
+	}
+
+	/**
+	 * Gives up the mapping of the file, it is released once it is collected.
+	 * Lines that are decoded afterwards are read from the file.
+	 */
+	synchronized void close() {
+		this.fBuffer = null;
+	}
+}
@@ -14,12 +14,15 @@
 package org.eclipse.compare.internal.core.patch;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.Charset;
 import java.text.ParseException;
 import java.util.*;
 import java.util.regex.Pattern;
 
 import org.eclipse.compare.patch.IFilePatch2;
+import org.eclipse.compare.patch.IFilePatchVisitor;
 import org.eclipse.core.runtime.*;
 
 import com.ibm.icu.text.DateFormat;
@@ -49,6 +52,8 @@ public class PatchReader {
 	private boolean fIsGitPatch;
 	private DiffProject[] fDiffProjects;
 	private FilePatch2[] fDiffs;
+	// if set, diffs are handed to the visitor as soon as they have been read instead of being collected
+	private IFilePatchVisitor fVisitor;
 
 	// API for writing new multi-project patch format
 	public static final String MULTIPROJECTPATCH_HEADER= "### Eclipse Workspace Patch"; //$NON-NLS-1$
@@ -79,6 +84,60 @@ public class PatchReader {
 	}
 
 	public void parse(BufferedReader reader) throws IOException {
+		LineReader lr= new LineReader(reader);
+		lr.ignoreSingleCR(); // Don't treat single CRs as line feeds to be consistent with command line patch
+		parse(lr);
+	}
+
+	/**
+	 * Parse the given patch file and hand every file diff to the visitor as
+	 * soon as it has been read. The diffs are not collected, so
+	 * {@link #getDiffs()} returns an empty array afterwards. Diffs of a
+	 * workspace patch are handed out relative to the workspace, like
+	 * {@link #getAdjustedDiffs()} does.
+	 * <p>
+	 * If the charset allows it the file is mapped into memory and the lines of
+	 * unified diff hunks are only decoded from the mapping when they are needed,
+	 * so even huge patches can be processed with bounded memory. The mapping
+	 * is released when parsing is done, lines decoded later are read from the
+	 * file, so it must not change while the diffs are in use.
+	 * </p>
+	 *
+	 * @param file the patch file
+	 * @param charset the charset of the patch file
+	 * @param visitor the visitor for the diffs
+	 * @throws IOException if the patch file cannot be read
+	 */
+	public void parse(File file, Charset charset, IFilePatchVisitor visitor) throws IOException {
+		this.fVisitor= visitor;
+		try {
+			parse(file, charset);
+		} finally {
+			this.fVisitor= null;
+		}
+	}
+
+	/**
+	 * Parse the given patch file. If the charset allows it the file is mapped
+	 * into memory while it is parsed and the lines of unified diff hunks are
+	 * only decoded when they are needed, see
+	 * {@link #parse(File, Charset, IFilePatchVisitor)}.
+	 *
+	 * @param file the patch file
+	 * @param charset the charset of the patch file
+	 * @throws IOException if the patch file cannot be read
+	 */
+	public void parse(File file, Charset charset) throws IOException {
+		LineReader lr= LineReader.create(file, charset);
+		lr.ignoreSingleCR(); // Don't treat single CRs as line feeds to be consistent with command line patch
+		try {
+			parse(lr);
+		} finally {
+			lr.close();
+		}
+	}
+
+	private void parse(LineReader lr) throws IOException {
 		List<FilePatch2> diffs= new ArrayList<>();
 		HashMap<String, DiffProject> diffProjects= new HashMap<>(4);
 		String line= null;
@@ -91,8 +150,6 @@ public class PatchReader {
 		this.fIsWorkspacePatch= false;
 		this.fIsGitPatch = false;
 
-		LineReader lr= new LineReader(reader);
-		lr.ignoreSingleCR(); // Don't treat single CRs as line feeds to be consistent with command line patch
 		// Test for our format
 		line= lr.readLine();
 		if (line != null && line.startsWith(PatchReader.MULTIPROJECTPATCH_HEADER)) {
@@ -142,6 +199,8 @@ public class PatchReader {
 				line= readUnifiedDiff(diffs, lr, line, diffArgs, fileName, diffProject);
 				diffArgs= fileName= null;
 				reread= true;
+				if (!visit(diffs))
+					break;
 			}
 		}
 
@@ -166,6 +225,30 @@ public class PatchReader {
 		return nextLine;
 	}
 
+	/*
+	 * Hands the diffs that have been read to the visitor and forgets about
+	 * them. Returns whether parsing should continue.
+	 */
+	private boolean visit(List<FilePatch2> diffs) {
+		if (this.fVisitor == null)
+			return true;
+		try {
+			for (FilePatch2 diff : diffs) {
+				DiffProject project= diff.getProject();
+				if (project != null) {
+					// workspace patch diffs are adjusted copies, drop the original
+					project.remove(diff);
+					diff= diff.asRelativeDiff();
+				}
+				if (!this.fVisitor.visit(diff))
+					return false;
+			}
+			return true;
+		} finally {
+			diffs.clear();
+		}
+	}
+
 	public void parse(LineReader lr, String line) throws IOException {
 		List<FilePatch2> diffs= new ArrayList<>();
 		boolean reread= false;
@@ -193,16 +276,20 @@ public class PatchReader {
 				diffArgs= line.substring(4).trim();
 			} else if (line.startsWith("--- ")) { //$NON-NLS-1$
 				line= readUnifiedDiff(diffs, lr, line, diffArgs, fileName);
-				if (!headerLines.isEmpty())
+				if (!headerLines.isEmpty() && !diffs.isEmpty())
 					setHeader(diffs.get(diffs.size() - 1), headerLines);
 				diffArgs= fileName= null;
 				reread= true;
+				if (!visit(diffs))
+					break;
 			} else if (line.startsWith("*** ")) { //$NON-NLS-1$
 				line= readContextDiff(diffs, lr, line, diffArgs, fileName);
-				if (!headerLines.isEmpty())
+				if (!headerLines.isEmpty() && !diffs.isEmpty())
 					setHeader(diffs.get(diffs.size() - 1), headerLines);
 				diffArgs= fileName= null;
 				reread= true;
+				if (!visit(diffs))
+					break;
 			}
 
 			// Any lines we read here are header lines.
@@ -247,6 +334,9 @@ public class PatchReader {
 		int remainingOld= -1; // remaining old lines for current hunk
 		int remainingNew= -1; // remaining new lines for current hunk
 		List<String> lines= new ArrayList<>();
+		// the offsets of the lines if they are read from a mapped file
+		MappedPatchFile file= reader.getMappedFile();
+		LineOffsets offsets= file == null ? null : new LineOffsets();
 
 		boolean encounteredPlus = false;
 		boolean encounteredMinus = false;
@@ -276,7 +366,7 @@ public class PatchReader {
 						if (line.startsWith("@@ ")) { //$NON-NLS-1$
 							// flush old hunk
 							if (lines.size() > 0) {
-								Hunk.createHunk(diff, oldRange, newRange, lines, encounteredPlus, encounteredMinus, encounteredSpace);
+								createHunk(diff, oldRange, newRange, lines, file, offsets, encounteredPlus, encounteredMinus, encounteredSpace);
 								lines.clear();
 							}
 
@@ -292,17 +382,17 @@ public class PatchReader {
 						encounteredSpace= true;
 						remainingOld--;
 						remainingNew--;
-						lines.add(line);
+						addLine(lines, line, reader, offsets);
 						continue;
 					case '+':
 						encounteredPlus= true;
 						remainingNew--;
-						lines.add(line);
+						addLine(lines, line, reader, offsets);
 						continue;
 					case '-':
 						encounteredMinus= true;
 						remainingOld--;
-						lines.add(line);
+						addLine(lines, line, reader, offsets);
 						continue;
 					case '\\':
 						if (line.indexOf("newline at end") > 0) { //$NON-NLS-1$
@@ -318,6 +408,10 @@ public class PatchReader {
 								} else if (lc == '\r') {
 									end--;
 								}
+								if (offsets != null) {
+									// the delimiter characters are single bytes
+									offsets.ends[lastIndex - 1]-= line.length() - (end + 1);
+								}
 								line= line.substring(0, end + 1);
 								lines.set(lastIndex - 1, line);
 							}
@@ -345,7 +439,45 @@ public class PatchReader {
 			}
 		} finally {
 			if (lines.size() > 0)
-				Hunk.createHunk(diff, oldRange, newRange, lines, encounteredPlus, encounteredMinus, encounteredSpace);
+				createHunk(diff, oldRange, newRange, lines, file, offsets, encounteredPlus, encounteredMinus, encounteredSpace);
+		}
+	}
+
+	private void createHunk(FilePatch2 diff, int[] oldRange, int[] newRange, List<String> lines, MappedPatchFile file,
+			LineOffsets offsets, boolean hasLineAdditions, boolean hasLineDeletions, boolean hasContextLines) {
+		if (file == null) {
+			Hunk.createHunk(diff, oldRange, newRange, lines, hasLineAdditions, hasLineDeletions, hasContextLines);
+		} else {
+			// keep the offsets instead of the lines, they are decoded again when needed
+			Hunk.createHunk(diff, oldRange, newRange, file, Arrays.copyOf(offsets.starts, lines.size()),
+					Arrays.copyOf(offsets.ends, lines.size()), hasLineAdditions, hasLineDeletions, hasContextLines);
+		}
+	}
+
+	/*
+	 * Adds a line to the lines of the current hunk, and its offsets if the
+	 * hunk is read from a mapped file.
+	 */
+	private static void addLine(List<String> lines, String line, LineReader reader, LineOffsets offsets) {
+		if (offsets != null)
+			offsets.set(lines.size(), reader.getLineStart(), reader.getLineEnd());
+		lines.add(line);
+	}
+
+	/*
+	 * The offsets of the lines of a hunk that is read from a mapped file.
+	 */
+	private static class LineOffsets {
+		int[] starts= new int[16];
+		int[] ends= new int[16];
+
+		void set(int index, int start, int end) {
+			if (index == this.starts.length) {
+				this.starts= Arrays.copyOf(this.starts, index * 2);
+				this.ends= Arrays.copyOf(this.ends, index * 2);
+			}
+			this.starts[index]= start;
+			this.ends[index]= end;
 		}
 	}
 
@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.compare.patch;
+
+/**
+ * Visitor that is handed the file patches of a patch one at a time while the
+ * patch is being parsed.
+ *
+ * @see PatchParser#parsePatch(java.io.File, String, IFilePatchVisitor)
+ * @since org.eclipse.compare.core 3.7
+ */
+public interface IFilePatchVisitor {
+
+	/**
+	 * Visits a file patch that has been read completely. The visitor may keep
+	 * a reference to the file patch, the parser doesn't.
+	 *
+	 * @param filePatch
+	 *            the file patch
+	 * @return <code>true</code> if parsing should continue,
+	 *         <code>false</code> to stop parsing
+	 */
+	public boolean visit(IFilePatch2 filePatch);
+
+}
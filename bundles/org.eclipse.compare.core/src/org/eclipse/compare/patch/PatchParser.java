@@ -14,7 +14,9 @@
 package org.eclipse.compare.patch;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.Charset;
 
 import org.eclipse.compare.internal.core.ComparePlugin;
 import org.eclipse.compare.internal.core.patch.PatchReader;
@@ -57,4 +59,42 @@ public class PatchParser {
 			}
 		}
 	}
+
+	/**
+	 * Parse the given patch file and hand the file patches that it contains
+	 * to the visitor one at a time, as soon as each has been read. The parser
+	 * doesn't keep the file patches, so huge patches can be processed with
+	 * bounded memory as long as the visitor doesn't keep them either. The
+	 * file patches are the same as the ones returned by
+	 * {@link #parsePatch(ReaderCreator)}.
+	 * <p>
+	 * If the charset is UTF-8 or an ASCII based single byte charset the file
+	 * is mapped into memory while it is parsed and the lines of the hunks are
+	 * only decoded when they are needed. Lines that are decoded after parsing
+	 * has finished are read from the patch file again, so the file must not
+	 * be changed or deleted while the file patches are in use.
+	 * </p>
+	 *
+	 * @param patchFile
+	 *            the patch file
+	 * @param charset
+	 *            the name of the charset of the patch file or
+	 *            <code>null</code> to use the default charset
+	 * @param visitor
+	 *            the visitor that is handed the file patches
+	 * @throws CoreException
+	 *             if an error occurs reading the patch file
+	 * @since org.eclipse.compare.core 3.7
+	 */
+	public static void parsePatch(File patchFile, String charset,
+			IFilePatchVisitor visitor) throws CoreException {
+		try {
+			PatchReader patchReader = new PatchReader();
+			patchReader.parse(patchFile, charset == null ? Charset
+					.defaultCharset() : Charset.forName(charset), visitor);
+		} catch (IOException | IllegalArgumentException e) {
+			throw new CoreException(new Status(IStatus.ERROR,
+					ComparePlugin.PLUGIN_ID, 0, e.getMessage(), e));
+		}
+	}
 }
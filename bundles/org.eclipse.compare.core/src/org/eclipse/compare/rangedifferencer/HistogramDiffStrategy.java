@@ -0,0 +1,259 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.compare.rangedifferencer;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+import org.eclipse.compare.internal.core.LCS;
+import org.eclipse.compare.internal.core.LineTable;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.SubMonitor;
+
+/**
+ * A histogram diff in the style of JGit. The lines of a region of the left
+ * side are counted and the longest common run that contains the line
+ * occurring least often is taken as an anchor. The regions before and after
+ * the anchor are then compared the same way. Regions that only have lines in
+ * common that occur too often are compared with Myers' algorithm, without
+ * bounding the number of differences it considers.
+ * <p>
+ * Lines are compared by the ids of interned {@link LineTable}s, if the
+ * comparators don't provide line tables the whole comparison falls back to
+ * Myers' algorithm.
+ * </p>
+ */
+/* package */ class HistogramDiffStrategy implements IDiffStrategy {
+
+	/*
+	 * Lines that occur more often than this in a region are not used as
+	 * anchors, this bounds the time spent per region.
+	 */
+	private static final int MAX_CHAIN_LENGTH = 64;
+
+	private final IDiffStrategy fallback;
+
+	HistogramDiffStrategy(IDiffStrategy fallback) {
+		this.fallback = fallback;
+	}
+
+	@Override
+	public String getId() {
+		return HISTOGRAM;
+	}
+
+	@Override
+	public int[] findMatches(IProgressMonitor pm, IRangeComparator left, IRangeComparator right) {
+		LineTable[] tables = RangeComparatorLCS.getLineTables(left, right);
+		if (tables == null)
+			return this.fallback.findMatches(pm, left, right);
+		int[] a = getIds(tables[0]);
+		int[] b = getIds(tables[1]);
+		int idCount = 0;
+		for (int id : a) {
+			idCount = Math.max(idCount, id + 1);
+		}
+		for (int id : b) {
+			idCount = Math.max(idCount, id + 1);
+		}
+		return new Histogram(a, b, idCount).run(SubMonitor.convert(pm, a.length));
+	}
+
+	private static int[] getIds(LineTable table) {
+		int[] ids = new int[table.getLineCount()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = table.getId(i);
+		}
+		return ids;
+	}
+
+	private static class Histogram {
+
+		private final int[] a, b;
+		private final int[] matches;
+		// the number of occurrences of each id in the current region of a
+		private final int[] counts;
+		// the first occurrence of each id in the current region of a
+		private final int[] heads;
+		// the next occurrence of the line at the same index of a
+		private final int[] next;
+
+		Histogram(int[] a, int[] b, int idCount) {
+			this.a = a;
+			this.b = b;
+			this.matches = new int[a.length];
+			Arrays.fill(this.matches, -1);
+			this.counts = new int[idCount];
+			this.heads = new int[idCount];
+			this.next = new int[a.length];
+		}
+
+		int[] run(SubMonitor monitor) {
+			int[] a = this.a;
+			int[] b = this.b;
+			// {start of a, end of a, start of b, end of b}
+			Deque<int[]> regions = new ArrayDeque<>();
+			regions.push(new int[] { 0, a.length, 0, b.length });
+			while (!regions.isEmpty()) {
+				if (monitor.isCanceled())
+					throw new OperationCanceledException();
+				int[] region = regions.pop();
+				int a0 = region[0], a1 = region[1], b0 = region[2], b1 = region[3];
+				int matched = 0;
+				while (a0 < a1 && b0 < b1 && a[a0] == b[b0]) {
+					this.matches[a0++] = b0++;
+					matched++;
+				}
+				while (a0 < a1 && b0 < b1 && a[a1 - 1] == b[b1 - 1]) {
+					this.matches[--a1] = --b1;
+					matched++;
+				}
+				if (a0 < a1 && b0 < b1) {
+					int[] anchor = findAnchor(a0, a1, b0, b1);
+					if (anchor == null) {
+						matched += myers(monitor, a0, a1, b0, b1);
+					} else if (anchor[2] > 0) {
+						int as = anchor[0], bs = anchor[1], length = anchor[2];
+						for (int i = 0; i < length; i++) {
+							this.matches[as + i] = bs + i;
+						}
+						matched += length;
+						regions.push(new int[] { as + length, a1, bs + length, b1 });
+						regions.push(new int[] { a0, as, b0, bs });
+					}
+				}
+				monitor.worked(matched);
+			}
+			return this.matches;
+		}
+
+		/*
+		 * Returns the longest common run containing the rarest line as
+		 * {start in a, start in b, length}, a length of 0 if the regions have
+		 * no line in common or null if the lines they have in common all
+		 * occur too often.
+		 */
+		private int[] findAnchor(int a0, int a1, int b0, int b1) {
+			int[] a = this.a;
+			int[] b = this.b;
+			int[] counts = this.counts;
+			for (int i = a1 - 1; i >= a0; i--) {
+				int id = a[i];
+				this.next[i] = counts[id] == 0 ? -1 : this.heads[id];
+				this.heads[id] = i;
+				counts[id]++;
+			}
+			int bestA = 0, bestB = 0, bestLength = 0;
+			int bestCount = MAX_CHAIN_LENGTH;
+			boolean common = false;
+			for (int bi = b0; bi < b1;) {
+				int nextB = bi + 1;
+				int count = counts[b[bi]];
+				if (count > 0) {
+					common = true;
+					if (count <= bestCount) {
+						for (int ai = this.heads[b[bi]]; ai != -1; ai = this.next[ai]) {
+							int as = ai, bs = bi, ae = ai + 1, be = bi + 1;
+							int runCount = count;
+							while (as > a0 && bs > b0 && a[as - 1] == b[bs - 1]) {
+								as--;
+								bs--;
+								runCount = Math.min(runCount, counts[a[as]]);
+							}
+							while (ae < a1 && be < b1 && a[ae] == b[be]) {
+								runCount = Math.min(runCount, counts[a[ae]]);
+								ae++;
+								be++;
+							}
+							if (nextB < be)
+								nextB = be;
+							if (ae - as > bestLength || runCount < bestCount) {
+								bestA = as;
+								bestB = bs;
+								bestLength = ae - as;
+								bestCount = runCount;
+							}
+						}
+					}
+				}
+				bi = nextB;
+			}
+			for (int i = a0; i < a1; i++) {
+				counts[a[i]] = 0;
+			}
+			if (bestLength == 0 && common)
+				return null;
+			return new int[] { bestA, bestB, bestLength };
+		}
+
+		private int myers(SubMonitor monitor, int a0, int a1, int b0, int b1) {
+			IdLCS lcs = new IdLCS(this, a0, a1, b0, b1);
+			lcs.longestCommonSubsequence(monitor.newChild(0));
+			return lcs.getLength();
+		}
+	}
+
+	private static class IdLCS extends LCS {
+
+		private final Histogram histogram;
+		private final int a0, a1, b0, b1;
+
+		IdLCS(Histogram histogram, int a0, int a1, int b0, int b1) {
+			this.histogram = histogram;
+			this.a0 = a0;
+			this.a1 = a1;
+			this.b0 = b0;
+			this.b1 = b1;
+		}
+
+		@Override
+		protected int getLength1() {
+			return this.a1 - this.a0;
+		}
+
+		@Override
+		protected int getLength2() {
+			return this.b1 - this.b0;
+		}
+
+		@Override
+		protected boolean isRangeEqual(int i1, int i2) {
+			return this.histogram.a[this.a0 + i1] == this.histogram.b[this.b0 + i2];
+		}
+
+		@Override
+		protected void setLcs(int sl1, int sl2) {
+			this.histogram.matches[this.a0 + sl1] = this.b0 + sl2;
+		}
+
+		@Override
+		protected void initializeLcs(int lcsLength) {
+			// the matches are recorded directly
+		}
+
+		@Override
+		protected boolean isCappingDisabled() {
+			// only the regions without a usable anchor get here, a bounded
+			// search would give up on exactly the lines they have in common
+			return true;
+		}
+
+		@Override
+		protected boolean isThreadSafe() {
+			return true;
+		}
+	}
+}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.compare.rangedifferencer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * An algorithm that finds the entities two <code>IRangeComparator</code>s
+ * have in common. <code>RangeDifferencer</code> turns the matches into
+ * <code>RangeDifference</code>s.
+ * <p>
+ * The available strategies are obtained with
+ * {@link RangeDifferencer#getDiffStrategy(String)}.
+ * </p>
+ * <p>
+ * This interface is not intended to be implemented by clients.
+ * </p>
+ *
+ * @see RangeDifferencer#findDifferences(IDiffStrategy, AbstractRangeDifferenceFactory, IProgressMonitor, IRangeComparator, IRangeComparator)
+ * @since org.eclipse.compare.core 3.7
+ * @noimplement This interface is not intended to be implemented by clients.
+ */
+public interface IDiffStrategy {
+
+	/**
+	 * The id of the strategy that computes a longest common subsequence with
+	 * Myers' algorithm. This is the default strategy.
+	 */
+	String MYERS = "myers"; //$NON-NLS-1$
+
+	/**
+	 * The id of the histogram strategy. It anchors the comparison on the
+	 * entities that occur least often, which tends to keep unrelated blocks
+	 * apart. It falls back to Myers' algorithm when the entities are not lines
+	 * of text or occur too often.
+	 */
+	String HISTOGRAM = "histogram"; //$NON-NLS-1$
+
+	/**
+	 * Returns the id of this strategy.
+	 *
+	 * @return the id of this strategy
+	 */
+	String getId();
+
+	/**
+	 * Finds the entities the given comparators have in common.
+	 *
+	 * @param pm if not <code>null</code> used to report progress
+	 * @param left the left range comparator
+	 * @param right the right range comparator
+	 * @return an array with an element for every entity of the left
+	 *         comparator that holds the index of the matching entity of the
+	 *         right comparator or <code>-1</code>; the matched indices are
+	 *         strictly increasing
+	 */
+	int[] findMatches(IProgressMonitor pm, IRangeComparator left, IRangeComparator right);
+}
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.compare.rangedifferencer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+
+/* package */ class MyersDiffStrategy implements IDiffStrategy {
+
+	@Override
+	public String getId() {
+		return MYERS;
+	}
+
+	@Override
+	public int[] findMatches(IProgressMonitor pm, IRangeComparator left, IRangeComparator right) {
+		RangeComparatorLCS lcs = new RangeComparatorLCS(left, right);
+		lcs.longestCommonSubsequence(SubMonitor.convert(pm));
+		return lcs.getMatches();
+	}
+}
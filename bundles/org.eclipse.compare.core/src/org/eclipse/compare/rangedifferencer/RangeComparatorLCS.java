@@ -13,33 +13,43 @@
  *******************************************************************************/
 package org.eclipse.compare.rangedifferencer;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
+import org.eclipse.compare.internal.core.ILineTableProvider;
 import org.eclipse.compare.internal.core.LCS;
-import org.eclipse.compare.internal.core.Messages;
-import org.eclipse.core.runtime.*;
+import org.eclipse.compare.internal.core.LineTable;
+import org.eclipse.core.runtime.SubMonitor;
 
 /* package */ class RangeComparatorLCS extends LCS {
 
 	private final IRangeComparator comparator1, comparator2;
+	private LineTable table1, table2;
 	private int[][] lcs;
 
-	public static RangeDifference[] findDifferences(AbstractRangeDifferenceFactory factory, IProgressMonitor pm, IRangeComparator left, IRangeComparator right) {
-		RangeComparatorLCS lcs = new RangeComparatorLCS(left, right);
-		SubMonitor monitor = SubMonitor.convert(pm, Messages.RangeComparatorLCS_0, 100);
-		try {
-			lcs.longestCommonSubsequence(monitor.newChild(95));
-			return lcs.getDifferences(monitor.newChild(5), factory);
-		} finally {
-			if (pm != null)
-				pm.done();
-		}
-	}
-
 	public RangeComparatorLCS(IRangeComparator comparator1, IRangeComparator comparator2) {
 		this.comparator1 = comparator1;
 		this.comparator2 = comparator2;
+		LineTable[] tables = getLineTables(comparator1, comparator2);
+		if (tables != null) {
+			this.table1 = tables[0];
+			this.table2 = tables[1];
+		}
+	}
+
+	/*
+	 * Returns interned line tables for both comparators or null if the
+	 * ranges cannot be compared through line tables.
+	 */
+	static LineTable[] getLineTables(IRangeComparator comparator1, IRangeComparator comparator2) {
+		if (!(comparator1 instanceof ILineTableProvider) || !(comparator2 instanceof ILineTableProvider))
+			return null;
+		LineTable t1 = ((ILineTableProvider) comparator1).getLineTable();
+		LineTable t2 = ((ILineTableProvider) comparator2).getLineTable();
+		if (t1 == null || t2 == null || !t1.isCompatible(t2)
+				|| t1.getLineCount() != comparator1.getRangeCount()
+				|| t2.getLineCount() != comparator2.getRangeCount())
+			return null;
+		return LineTable.intern(t1, t2);
 	}
 
 	@Override
@@ -59,9 +69,17 @@ import org.eclipse.core.runtime.*;
 
 	@Override
 	protected boolean isRangeEqual(int i1, int i2) {
+		if (this.table1 != null)
+			return this.table1.linesEqual(i1, this.table2, i2);
 		return this.comparator1.rangesEqual(i1, this.comparator2, i2);
 	}
 
+	@Override
+	protected boolean isThreadSafe() {
+		// the comparators themselves don't have to be thread safe
+		return this.table1 != null;
+	}
+
 	@Override
 	protected void setLcs(int sl1, int sl2) {
 		// Add one to the values so that 0 can mean that the slot is empty
@@ -69,76 +87,22 @@ import org.eclipse.core.runtime.*;
 		this.lcs[1][sl1] = sl2 + 1;
 	}
 
-	public RangeDifference[] getDifferences(SubMonitor subMonitor, AbstractRangeDifferenceFactory factory) {
-		try {
-			List<RangeDifference> differences = new ArrayList<>();
-			int length = getLength();
-			if (length == 0) {
-				differences.add(factory.createRangeDifference(RangeDifference.CHANGE, 0, this.comparator2.getRangeCount(), 0, this.comparator1.getRangeCount()));
-			} else {
-				subMonitor.beginTask(null, length);
-				int index1, index2;
-				index1 = index2 = 0;
-				int l1, l2;
-				int s1 = -1;
-				int s2 = -1;
-				while(index1 < this.lcs[0].length && index2 < this.lcs[1].length) {
-					// Move both LCS lists to the next occupied slot
-					while ((l1= this.lcs[0][index1]) == 0) {
-						index1++;
-						if (index1 >= this.lcs[0].length)
-							break;
-					}
-					if (index1 >= this.lcs[0].length)
-						break;
-					while ((l2= this.lcs[1][index2]) == 0) {
-						index2++;
-						if (index2 >= this.lcs[1].length)
-							break;
-					}
-					if (index2 >= this.lcs[1].length)
-						break;
-					// Convert the entry to an array index (see setLcs(int, int))
-					int end1 = l1 - 1;
-					int end2 = l2 - 1;
-					if (s1 == -1 && (end1 != 0 || end2 != 0)) {
-						// There is a diff at the beginning
-						// TODO: We need to conform that this is the proper order
-						differences.add(factory.createRangeDifference(RangeDifference.CHANGE, 0, end2, 0, end1));
-					} else if (end1 != s1 + 1 || end2 != s2 + 1) {
-						// A diff was found on one of the sides
-						int leftStart = s1 + 1;
-						int leftLength = end1 - leftStart;
-						int rightStart = s2 + 1;
-						int rightLength = end2 - rightStart;
-						// TODO: We need to conform that this is the proper order
-						differences.add(factory.createRangeDifference(RangeDifference.CHANGE, rightStart, rightLength, leftStart, leftLength));
-					}
-					s1 = end1;
-					s2 = end2;
-					index1++;
-					index2++;
-					worked(subMonitor, 1);
-				}
-				if (s1 != -1 && (s1 + 1 < this.comparator1.getRangeCount() || s2 + 1 < this.comparator2.getRangeCount())) {
-					// TODO: we need to find the proper way of representing an append
-					int leftStart = s1 < this.comparator1.getRangeCount() ? s1 + 1 : s1;
-					int rightStart = s2 < this.comparator2.getRangeCount() ? s2 + 1 : s2;
-					// TODO: We need to confirm that this is the proper order
-					differences.add(factory.createRangeDifference(RangeDifference.CHANGE, rightStart, this.comparator2.getRangeCount() - (s2 + 1), leftStart, this.comparator1.getRangeCount() - (s1 + 1)));
-				}
-
-			}
-			return differences.toArray(new RangeDifference[differences.size()]);
-		} finally {
-			subMonitor.done();
+	/**
+	 * Returns the longest common subsequence as an array that holds the
+	 * index of the matching range of the second comparator for every range of
+	 * the first comparator, or <code>-1</code> if the range is not part of the
+	 * subsequence.
+	 *
+	 * @return the matches of the longest common subsequence
+	 */
+	public int[] getMatches() {
+		int[] matches = new int[getLength1()];
+		Arrays.fill(matches, -1);
+		for (int i = 0; i < getLength(); i++) {
+			// compacted, see compactAndShiftLCS(int[], int, IRangeComparator, LineTable)
+			matches[this.lcs[0][i] - 1] = this.lcs[1][i] - 1;
 		}
-	}
-
-	private void worked(SubMonitor subMonitor, int work) {
-		if (subMonitor.isCanceled())
-			throw new OperationCanceledException();
-		subMonitor.worked(work);
+		return matches;
 	}
 
 	/**
@@ -150,9 +114,10 @@ import org.eclipse.core.runtime.*;
 	 *            some other collection of lines
 	 * @param length The number of non-empty (i.e non-zero) entries in LCS
 	 * @param comparator The comparator used to generate the LCS
+	 * @param table The line table of the comparator or <code>null</code>
 	 */
 	private void compactAndShiftLCS(int[] lcsSide, int length,
-			IRangeComparator comparator) {
+			IRangeComparator comparator, LineTable table) {
 		// If the LCS is empty, just return
 		if (length == 0)
 			return;
@@ -172,7 +137,9 @@ import org.eclipse.core.runtime.*;
 			// Push the difference down as far as possible by comparing the line at the
 			// start of the diff with the line and the end and adjusting if they are the same
 			int nextLine = lcsSide[i - 1] + 1;
-			if (nextLine != lcsSide[j] && comparator.rangesEqual(nextLine - 1, comparator, lcsSide[j] - 1)) {
+			if (nextLine != lcsSide[j] && (table != null
+					? table.linesEqual(nextLine - 1, table, lcsSide[j] - 1)
+					: comparator.rangesEqual(nextLine - 1, comparator, lcsSide[j] - 1))) {
 				lcsSide[i] = nextLine;
 			} else {
 				lcsSide[i] = lcsSide[j];
@@ -189,8 +156,8 @@ import org.eclipse.core.runtime.*;
 	public void longestCommonSubsequence(SubMonitor subMonitor) {
 		super.longestCommonSubsequence(subMonitor);
 		if (this.lcs != null) { // The LCS can be null if one of the sides is empty
-			compactAndShiftLCS(this.lcs[0], getLength(), this.comparator1);
-			compactAndShiftLCS(this.lcs[1], getLength(), this.comparator2);
+			compactAndShiftLCS(this.lcs[0], getLength(), this.comparator1, this.table1);
+			compactAndShiftLCS(this.lcs[1], getLength(), this.comparator2, this.table2);
 		}
 	}
 }
@@ -15,7 +15,15 @@ package org.eclipse.compare.rangedifferencer;
 
 import java.util.ArrayList;
 import java.util.List;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.compare.internal.core.ComparePlugin;
+import org.eclipse.compare.internal.core.ILineTableProvider;
+import org.eclipse.compare.internal.core.LineTable;
 import org.eclipse.compare.internal.core.Messages;
 import org.eclipse.core.runtime.*;
 
@@ -34,6 +42,11 @@ import org.eclipse.core.runtime.*;
  * Alternatively, the <code>findRanges</code> methods not only return objects for
  * the differing ranges but for non-differing ranges too.
  * </p>
+ * <p>
+ * The common ranges are found by an <code>IDiffStrategy</code>. Methods that
+ * don't take a strategy use the one configured for the workspace, which is
+ * Myers' algorithm unless configured otherwise.
+ * </p>
  *
  * @see IRangeComparator
  * @see RangeDifference
@@ -42,6 +55,16 @@ public final class RangeDifferencer {
 
 	private static final RangeDifference[] EMPTY_RESULT= new RangeDifference[0];
 
+	private static final IDiffStrategy MYERS = new MyersDiffStrategy();
+
+	private static final IDiffStrategy HISTOGRAM = new HistogramDiffStrategy(MYERS);
+
+	/*
+	 * The number of ranges of the three sides of a three-way diff above which
+	 * both sides are compared with the ancestor concurrently.
+	 */
+	private static final int PARALLEL_THRESHOLD = 10000;
+
 	private static final AbstractRangeDifferenceFactory defaultFactory = new AbstractRangeDifferenceFactory() {
 		@Override
 		protected RangeDifference createRangeDifference() {
@@ -97,7 +120,32 @@ public final class RangeDifferencer {
 	 * @since org.eclipse.compare.core 3.5
 	 */
 	public static RangeDifference[] findDifferences(AbstractRangeDifferenceFactory factory, IProgressMonitor pm, IRangeComparator left, IRangeComparator right) {
-		return RangeComparatorLCS.findDifferences(factory, pm, left, right);
+		return findDifferences(getDefaultStrategy(), factory, pm, left, right);
+	}
+
+	/**
+	 * Finds the differences between two <code>IRangeComparator</code>s using
+	 * the given strategy.
+	 * The differences are returned as an array of <code>RangeDifference</code>s.
+	 * If no differences are detected an empty array is returned.
+	 *
+	 * @param strategy the strategy that finds the common ranges
+	 * @param factory
+	 * @param pm if not <code>null</code> used to report progress
+	 * @param left the left range comparator
+	 * @param right the right range comparator
+	 * @return an array of range differences, or an empty array if no differences were found
+	 * @since org.eclipse.compare.core 3.7
+	 */
+	public static RangeDifference[] findDifferences(IDiffStrategy strategy, AbstractRangeDifferenceFactory factory, IProgressMonitor pm, IRangeComparator left, IRangeComparator right) {
+		SubMonitor monitor = SubMonitor.convert(pm, Messages.RangeComparatorLCS_0, 100);
+		try {
+			int[] matches = strategy.findMatches(monitor.newChild(95), left, right);
+			return getDifferences(factory, matches, left.getRangeCount(), right.getRangeCount());
+		} finally {
+			if (pm != null)
+				pm.done();
+		}
 	}
 
 	/**
@@ -150,15 +198,63 @@ public final class RangeDifferencer {
 	 * @since org.eclipse.compare.core 3.5
 	 */
 	public static RangeDifference[] findDifferences(AbstractRangeDifferenceFactory factory, IProgressMonitor pm, IRangeComparator ancestor, IRangeComparator left, IRangeComparator right) {
+		return findDifferences(getDefaultStrategy(), factory, pm, ancestor, left, right);
+	}
+
+	/**
+	 * Finds the differences among three <code>IRangeComparator</code>s using
+	 * the given strategy.
+	 * The differences are returned as a list of <code>RangeDifference</code>s.
+	 * If no differences are detected an empty list is returned.
+	 * If the ancestor range comparator is <code>null</code>, a two-way
+	 * comparison is performed.
+	 *
+	 * @param strategy the strategy that finds the common ranges
+	 * @param pm if not <code>null</code> used to report progress
+	 * @param ancestor the ancestor range comparator or <code>null</code>
+	 * @param left the left range comparator
+	 * @param right the right range comparator
+	 * @return an array of range differences, or an empty array if no differences were found
+	 * @since org.eclipse.compare.core 3.7
+	 */
+	public static RangeDifference[] findDifferences(IDiffStrategy strategy, IProgressMonitor pm, IRangeComparator ancestor, IRangeComparator left, IRangeComparator right) {
+		return findDifferences(strategy, defaultFactory, pm, ancestor, left, right);
+	}
+
+	/**
+	 * Finds the differences among three <code>IRangeComparator</code>s using
+	 * the given strategy.
+	 * The differences are returned as a list of <code>RangeDifference</code>s.
+	 * If no differences are detected an empty list is returned.
+	 * If the ancestor range comparator is <code>null</code>, a two-way
+	 * comparison is performed.
+	 *
+	 * @param strategy the strategy that finds the common ranges
+	 * @param factory
+	 * @param pm if not <code>null</code> used to report progress
+	 * @param ancestor the ancestor range comparator or <code>null</code>
+	 * @param left the left range comparator
+	 * @param right the right range comparator
+	 * @return an array of range differences, or an empty array if no differences were found
+	 * @since org.eclipse.compare.core 3.7
+	 */
+	public static RangeDifference[] findDifferences(IDiffStrategy strategy, AbstractRangeDifferenceFactory factory, IProgressMonitor pm, IRangeComparator ancestor, IRangeComparator left, IRangeComparator right) {
 		try {
 			if (ancestor == null)
-				return findDifferences(factory, pm, left, right);
+				return findDifferences(strategy, factory, pm, left, right);
 			SubMonitor monitor = SubMonitor.convert(pm, Messages.RangeComparatorLCS_0, 100);
 			RangeDifference[] leftAncestorScript= null;
-			RangeDifference[] rightAncestorScript= findDifferences(factory, monitor.newChild(50), ancestor, right);
-			if (rightAncestorScript != null) {
-				monitor.setWorkRemaining(100);
-				leftAncestorScript= findDifferences(factory, monitor.newChild(50), ancestor, left);
+			RangeDifference[] rightAncestorScript;
+			if (canDiffInParallel(ancestor, left, right)) {
+				RangeDifference[][] scripts= findDifferencesInParallel(strategy, factory, monitor, ancestor, left, right);
+				rightAncestorScript= scripts[0];
+				leftAncestorScript= scripts[1];
+			} else {
+				rightAncestorScript= findDifferences(strategy, factory, monitor.newChild(50), ancestor, right);
+				if (rightAncestorScript != null) {
+					monitor.setWorkRemaining(100);
+					leftAncestorScript= findDifferences(strategy, factory, monitor.newChild(50), ancestor, left);
+				}
 			}
 			if (rightAncestorScript == null || leftAncestorScript == null)
 				return null;
@@ -286,7 +382,25 @@ public final class RangeDifferencer {
 	 * @since org.eclipse.compare.core 3.5
 	 */
 	public static RangeDifference[] findRanges(AbstractRangeDifferenceFactory factory, IProgressMonitor pm, IRangeComparator left, IRangeComparator right) {
-		RangeDifference[] in= findDifferences(factory, pm, left, right);
+		return findRanges(getDefaultStrategy(), factory, pm, left, right);
+	}
+
+	/**
+	 * Finds the differences among two <code>IRangeComparator</code>s using
+	 * the given strategy.
+	 * In contrast to <code>findDifferences</code>, the result
+	 * contains <code>RangeDifference</code> elements for non-differing ranges too.
+	 *
+	 * @param strategy the strategy that finds the common ranges
+	 * @param factory
+	 * @param pm if not <code>null</code> used to report progress
+	 * @param left the left range comparator
+	 * @param right the right range comparator
+	 * @return an array of range differences
+	 * @since org.eclipse.compare.core 3.7
+	 */
+	public static RangeDifference[] findRanges(IDiffStrategy strategy, AbstractRangeDifferenceFactory factory, IProgressMonitor pm, IRangeComparator left, IRangeComparator right) {
+		RangeDifference[] in= findDifferences(strategy, factory, pm, left, right);
 		List<RangeDifference> out= new ArrayList<>();
 
 		RangeDifference rd;
@@ -361,10 +475,51 @@ public final class RangeDifferencer {
 	 * @since org.eclipse.compare.core 3.5
 	 */
 	public static RangeDifference[] findRanges(AbstractRangeDifferenceFactory factory, IProgressMonitor pm, IRangeComparator ancestor, IRangeComparator left, IRangeComparator right) {
+		return findRanges(getDefaultStrategy(), factory, pm, ancestor, left, right);
+	}
+
+	/**
+	 * Finds the differences among three <code>IRangeComparator</code>s using
+	 * the given strategy.
+	 * In contrast to <code>findDifferences</code>, the result
+	 * contains <code>RangeDifference</code> elements for non-differing ranges too.
+	 * If the ancestor range comparator is <code>null</code>, a two-way
+	 * comparison is performed.
+	 *
+	 * @param strategy the strategy that finds the common ranges
+	 * @param pm if not <code>null</code> used to report progress
+	 * @param ancestor the ancestor range comparator or <code>null</code>
+	 * @param left the left range comparator
+	 * @param right the right range comparator
+	 * @return an array of range differences
+	 * @since org.eclipse.compare.core 3.7
+	 */
+	public static RangeDifference[] findRanges(IDiffStrategy strategy, IProgressMonitor pm, IRangeComparator ancestor, IRangeComparator left, IRangeComparator right) {
+		return findRanges(strategy, defaultFactory, pm, ancestor, left, right);
+	}
+
+	/**
+	 * Finds the differences among three <code>IRangeComparator</code>s using
+	 * the given strategy.
+	 * In contrast to <code>findDifferences</code>, the result
+	 * contains <code>RangeDifference</code> elements for non-differing ranges too.
+	 * If the ancestor range comparator is <code>null</code>, a two-way
+	 * comparison is performed.
+	 *
+	 * @param strategy the strategy that finds the common ranges
+	 * @param factory
+	 * @param pm if not <code>null</code> used to report progress
+	 * @param ancestor the ancestor range comparator or <code>null</code>
+	 * @param left the left range comparator
+	 * @param right the right range comparator
+	 * @return an array of range differences
+	 * @since org.eclipse.compare.core 3.7
+	 */
+	public static RangeDifference[] findRanges(IDiffStrategy strategy, AbstractRangeDifferenceFactory factory, IProgressMonitor pm, IRangeComparator ancestor, IRangeComparator left, IRangeComparator right) {
 		if (ancestor == null)
-			return findRanges(factory,pm, left, right);
+			return findRanges(strategy, factory, pm, left, right);
 
-		RangeDifference[] in= findDifferences(factory, pm, ancestor, left, right);
+		RangeDifference[] in= findDifferences(strategy, factory, pm, ancestor, left, right);
 		List<RangeDifference> out= new ArrayList<>();
 
 		RangeDifference rd;
@@ -391,8 +546,172 @@ public final class RangeDifferencer {
 		return out.toArray(EMPTY_RESULT);
 	}
 
+	/**
+	 * Returns the strategy with the given id.
+	 *
+	 * @param id the id of the strategy, see the constants of <code>IDiffStrategy</code>
+	 * @return the strategy or <code>null</code> if there is no strategy with the given id
+	 * @since org.eclipse.compare.core 3.7
+	 */
+	public static IDiffStrategy getDiffStrategy(String id) {
+		if (IDiffStrategy.MYERS.equals(id))
+			return MYERS;
+		if (IDiffStrategy.HISTOGRAM.equals(id))
+			return HISTOGRAM;
+		return null;
+	}
+
 	//---- private methods
 
+	/*
+	 * Returns the strategy configured for the workspace.
+	 */
+	private static IDiffStrategy getDefaultStrategy() {
+		ComparePlugin plugin = ComparePlugin.getDefault();
+		IDiffStrategy strategy = plugin != null ? getDiffStrategy(plugin.getDiffStrategy()) : null;
+		return strategy != null ? strategy : MYERS;
+	}
+
+	/*
+	 * Returns whether the two comparisons of a three-way diff are large
+	 * enough to be run concurrently and can be. They can if all lines are
+	 * compared through line tables, since the comparators themselves are not
+	 * required to be thread safe.
+	 */
+	private static boolean canDiffInParallel(IRangeComparator ancestor, IRangeComparator left, IRangeComparator right) {
+		if (ancestor.getRangeCount() + left.getRangeCount() + right.getRangeCount() < PARALLEL_THRESHOLD
+				|| ForkJoinPool.getCommonPoolParallelism() < 2)
+			return false;
+		LineTable a= getLineTable(ancestor);
+		LineTable l= getLineTable(left);
+		LineTable r= getLineTable(right);
+		return a != null && l != null && r != null && a.isCompatible(l) && a.isCompatible(r);
+	}
+
+	private static LineTable getLineTable(IRangeComparator comparator) {
+		if (!(comparator instanceof ILineTableProvider))
+			return null;
+		LineTable table= ((ILineTableProvider) comparator).getLineTable();
+		return table != null && table.getLineCount() == comparator.getRangeCount() ? table : null;
+	}
+
+	/*
+	 * Compares the ancestor with the right side on the common fork/join pool
+	 * while the ancestor is compared with the left side in the calling
+	 * thread. Progress of the forked comparison is reported by the calling
+	 * thread and a cancellation of the given monitor is passed on to it.
+	 */
+	private static RangeDifference[][] findDifferencesInParallel(final IDiffStrategy strategy, final AbstractRangeDifferenceFactory factory, SubMonitor monitor, final IRangeComparator ancestor, IRangeComparator left, final IRangeComparator right) {
+		final ForkedProgressMonitor forkedMonitor= new ForkedProgressMonitor();
+		ForkJoinTask<RangeDifference[]> rightTask= ForkJoinPool.commonPool().submit(
+				() -> findDifferences(strategy, factory, forkedMonitor, ancestor, right));
+		try {
+			RangeDifference[] leftAncestorScript= findDifferences(strategy, factory, monitor.newChild(50), ancestor, left);
+			SubMonitor rightMonitor= monitor.newChild(50).setWorkRemaining(100);
+			int reported= 0;
+			while (true) {
+				try {
+					RangeDifference[] rightAncestorScript= rightTask.get(100, TimeUnit.MILLISECONDS);
+					return new RangeDifference[][] { rightAncestorScript, leftAncestorScript };
+				} catch (TimeoutException e) {
+					if (monitor.isCanceled())
+						throw new OperationCanceledException();
+					int worked= (int) (forkedMonitor.getFraction() * 100);
+					rightMonitor.worked(worked - reported);
+					reported= worked;
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new OperationCanceledException();
+				} catch (ExecutionException e) {
+					Throwable cause= e.getCause();
+					if (cause instanceof RuntimeException)
+						throw (RuntimeException) cause;
+					if (cause instanceof Error)
+						throw (Error) cause;
+					throw new IllegalStateException(cause);
+				}
+			}
+		} finally {
+			// stops the forked comparison if the calling thread gave up
+			forkedMonitor.setCanceled(true);
+		}
+	}
+
+	/*
+	 * The progress monitor of a comparison that runs in another thread. It is
+	 * only written by that thread and polled by the thread that forked it.
+	 */
+	private static class ForkedProgressMonitor extends NullProgressMonitor {
+
+		private volatile boolean canceled;
+		private volatile int totalWork;
+		private volatile double work;
+
+		@Override
+		public void beginTask(String name, int total) {
+			this.totalWork= total;
+		}
+
+		@Override
+		public void worked(int w) {
+			internalWorked(w);
+		}
+
+		@Override
+		public void internalWorked(double w) {
+			this.work+= w;
+		}
+
+		@Override
+		public void done() {
+			this.work= this.totalWork;
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return this.canceled;
+		}
+
+		@Override
+		public void setCanceled(boolean cancelled) {
+			this.canceled= cancelled;
+		}
+
+		double getFraction() {
+			int total= this.totalWork;
+			return total <= 0 ? 0 : Math.min(1, this.work / total);
+		}
+	}
+
+	/*
+	 * Turns the matches found by a strategy into the differences between the
+	 * left and the right side. If nothing matches, a single change covering
+	 * both sides is returned, even if both sides are empty.
+	 */
+	private static RangeDifference[] getDifferences(AbstractRangeDifferenceFactory factory, int[] matches, int leftCount, int rightCount) {
+		List<RangeDifference> differences = new ArrayList<>();
+		int s1 = -1;
+		int s2 = -1;
+		for (int end1 = 0; end1 < matches.length; end1++) {
+			int end2 = matches[end1];
+			if (end2 == -1)
+				continue;
+			if (end1 != s1 + 1 || end2 != s2 + 1) {
+				int leftStart = s1 + 1;
+				int rightStart = s2 + 1;
+				differences.add(factory.createRangeDifference(RangeDifference.CHANGE, rightStart, end2 - rightStart, leftStart, end1 - leftStart));
+			}
+			s1 = end1;
+			s2 = end2;
+		}
+		if (s1 == -1) {
+			differences.add(factory.createRangeDifference(RangeDifference.CHANGE, 0, rightCount, 0, leftCount));
+		} else if (s1 + 1 < leftCount || s2 + 1 < rightCount) {
+			differences.add(factory.createRangeDifference(RangeDifference.CHANGE, s2 + 1, rightCount - (s2 + 1), s1 + 1, leftCount - (s1 + 1)));
+		}
+		return differences.toArray(EMPTY_RESULT);
+	}
+
 	/*
 	 * Creates a <code>RangeDifference3</code> given the
 	 * state of two DifferenceIterators.
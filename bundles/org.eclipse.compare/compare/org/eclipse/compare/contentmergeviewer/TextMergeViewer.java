@@ -4012,6 +4012,8 @@ public class TextMergeViewer extends ContentMergeViewer implements IAdaptable {
 
 		if (key.equals(CompareConfiguration.IGNORE_WHITESPACE)
 				|| key.equals(ComparePreferencePage.SHOW_PSEUDO_CONFLICTS)
+				|| key.equals(ComparePreferencePage.DIFF_ALGORITHM)
+				|| key.equals(ICompareUIConstants.PROP_DIFF_ALGORITHM)
 				|| (key.equals(ChangeCompareFilterPropertyAction.COMPARE_FILTERS) && getCompareConfiguration()
 						.getProperty(
 								ChangeCompareFilterPropertyAction.COMPARE_FILTERS_INITIALIZING) == null)) {
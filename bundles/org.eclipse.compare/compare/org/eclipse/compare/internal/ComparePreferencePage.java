@@ -28,6 +28,7 @@ import org.eclipse.compare.IEncodedStreamContentAccessor;
 import org.eclipse.compare.ITypedElement;
 import org.eclipse.compare.contentmergeviewer.TextMergeViewer;
 import org.eclipse.compare.internal.core.ComparePlugin;
+import org.eclipse.compare.rangedifferencer.IDiffStrategy;
 import org.eclipse.compare.structuremergeviewer.DiffNode;
 import org.eclipse.compare.structuremergeviewer.Differencer;
 import org.eclipse.jface.dialogs.Dialog;
@@ -117,6 +118,7 @@ public class ComparePreferencePage extends PreferencePage implements IWorkbenchP
 	public static final String HIGHLIGHT_TOKEN_CHANGES= PREFIX + "HighlightTokenChanges"; //$NON-NLS-1$
 	//public static final String USE_RESOLVE_UI= PREFIX + "UseResolveUI"; //$NON-NLS-1$
 	public static final String CAPPING_DISABLED= PREFIX + "CappingDisable"; //$NON-NLS-1$
+	public static final String DIFF_ALGORITHM= PREFIX + "DiffAlgorithm"; //$NON-NLS-1$
 	public static final String PATH_FILTER= PREFIX + "PathFilter"; //$NON-NLS-1$
 	public static final String ADDED_LINES_REGEX= PREFIX + "AddedLinesRegex"; //$NON-NLS-1$
 	public static final String REMOVED_LINES_REGEX= PREFIX + "RemovedLinesRegex"; //$NON-NLS-1$
@@ -148,6 +150,7 @@ public class ComparePreferencePage extends PreferencePage implements IWorkbenchP
 		new OverlayPreferenceStore.OverlayKey(OverlayPreferenceStore.BOOLEAN, HIGHLIGHT_TOKEN_CHANGES),
 		//new OverlayPreferenceStore.OverlayKey(OverlayPreferenceStore.BOOLEAN, USE_RESOLVE_UI),
 		new OverlayPreferenceStore.OverlayKey(OverlayPreferenceStore.BOOLEAN, CAPPING_DISABLED),
+		new OverlayPreferenceStore.OverlayKey(OverlayPreferenceStore.STRING, DIFF_ALGORITHM),
 		new OverlayPreferenceStore.OverlayKey(OverlayPreferenceStore.STRING, PATH_FILTER),
 		new OverlayPreferenceStore.OverlayKey(OverlayPreferenceStore.STRING, ICompareUIConstants.PREF_NAVIGATION_END_ACTION),
 		new OverlayPreferenceStore.OverlayKey(OverlayPreferenceStore.STRING, ICompareUIConstants.PREF_NAVIGATION_END_ACTION_LOCAL),
@@ -171,6 +174,7 @@ public class ComparePreferencePage extends PreferencePage implements IWorkbenchP
 		store.setDefault(USE_SINGLE_LINE, true);
 		store.setDefault(HIGHLIGHT_TOKEN_CHANGES, true);
 		store.setDefault(CAPPING_DISABLED, false);
+		store.setDefault(DIFF_ALGORITHM, IDiffStrategy.MYERS);
 		store.setDefault(PATH_FILTER, ""); //$NON-NLS-1$
 		store.setDefault(ICompareUIConstants.PREF_NAVIGATION_END_ACTION, ICompareUIConstants.PREF_VALUE_PROMPT);
 		store.setDefault(ICompareUIConstants.PREF_NAVIGATION_END_ACTION_LOCAL, ICompareUIConstants.PREF_VALUE_LOOP);
@@ -210,6 +214,9 @@ public class ComparePreferencePage extends PreferencePage implements IWorkbenchP
 		ComparePlugin.getDefault().setCappingDisabled(
 				getPreferenceStore().getBoolean(
 						ComparePreferencePage.CAPPING_DISABLED));
+		ComparePlugin.getDefault().setDiffStrategy(
+				getPreferenceStore().getString(
+						ComparePreferencePage.DIFF_ALGORITHM));
 		return true;
 	}
 
@@ -378,6 +385,20 @@ public class ComparePreferencePage extends PreferencePage implements IWorkbenchP
 		editor.fillIntoGrid(radioGroup, 1);
 		editors.add(editor);
 
+		Composite algorithmGroup = new Composite(composite, SWT.NULL);
+		algorithmGroup.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+		RadioGroupFieldEditor algorithmEditor = new RadioGroupFieldEditor(
+				DIFF_ALGORITHM,
+				CompareMessages.ComparePreferencePage_5, 1,
+				new String[][] {
+					new String[] { CompareMessages.ComparePreferencePage_6, IDiffStrategy.MYERS },
+					new String[] { CompareMessages.ComparePreferencePage_7, IDiffStrategy.HISTOGRAM }
+				},
+		algorithmGroup, true);
+		algorithmEditor.setPreferenceStore(fOverlayStore);
+		algorithmEditor.fillIntoGrid(algorithmGroup, 1);
+		editors.add(algorithmEditor);
+
 		PreferenceLinkArea area = new PreferenceLinkArea(composite, SWT.NONE,
 				"org.eclipse.ui.preferencePages.ColorsAndFonts", //$NON-NLS-1$
 				Utilities.getString("ComparePreferencePage.colorAndFontLink"), //$NON-NLS-1$
@@ -287,6 +287,9 @@ public final class CompareUIPlugin extends AbstractUIPlugin {
 		ComparePlugin.getDefault().setCappingDisabled(
 				getPreferenceStore().getBoolean(
 						ComparePreferencePage.CAPPING_DISABLED));
+		ComparePlugin.getDefault().setDiffStrategy(
+				getPreferenceStore().getString(
+						ComparePreferencePage.DIFF_ALGORITHM));
 	}
 
 	@Override
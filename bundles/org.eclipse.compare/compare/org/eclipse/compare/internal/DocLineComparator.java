@@ -15,6 +15,8 @@ package org.eclipse.compare.internal;
 
 import org.eclipse.compare.ICompareFilter;
 import org.eclipse.compare.contentmergeviewer.ITokenComparator;
+import org.eclipse.compare.internal.core.ILineTableProvider;
+import org.eclipse.compare.internal.core.LineTable;
 import org.eclipse.compare.rangedifferencer.IRangeComparator;
 import org.eclipse.core.internal.expressions.util.LRUCache;
 import org.eclipse.jface.text.BadLocationException;
@@ -29,7 +31,7 @@ import org.eclipse.jface.text.IRegion;
  * A <code>DocLineComparator</code> doesn't know anything about line separators because
  * its notion of lines is solely defined in the underlying <code>IDocument</code>.
  */
-public class DocLineComparator implements ITokenComparator {
+public class DocLineComparator implements ITokenComparator, ILineTableProvider {
 
 	private IDocument fDocument;
 	private int fLineOffset;
@@ -39,6 +41,7 @@ public class DocLineComparator implements ITokenComparator {
 	private ICompareFilter[] fCompareFilters;
 	private char fContributor;
 	private LRUCache fCompareFilterCache;
+	private LineTable fLineTable;
 
 	/**
 	 * Creates a <code>DocLineComparator</code> for the given document range.
@@ -168,6 +171,12 @@ public class DocLineComparator implements ITokenComparator {
 		if (otherComparator != null && otherComparator.getClass() == getClass()) {
 			DocLineComparator other= (DocLineComparator) otherComparator;
 
+			LineTable thisTable= getLineTable();
+			LineTable otherTable= other.getLineTable();
+			if (thisTable != null && otherTable != null && thisTable.isCompatible(otherTable)
+					&& thisIndex < fLineCount && otherIndex < other.fLineCount)
+				return thisTable.linesEqual(thisIndex, otherTable, otherIndex);
+
 			if (fIgnoreWhiteSpace) {
 				String[] linesToCompare = extract(thisIndex, otherIndex, other, false);
 				return compare(linesToCompare[0], linesToCompare[1]);
@@ -198,6 +207,36 @@ public class DocLineComparator implements ITokenComparator {
 		return false;
 	}
 
+	/**
+	 * Returns a line table of the lines of this comparator. The table is
+	 * created on first use from the current contents of the document.
+	 *
+	 * @return the line table or <code>null</code> if compare filters are
+	 *         used to compare the lines
+	 */
+	@Override
+	public LineTable getLineTable() {
+		if (fCompareFilters != null && fCompareFilters.length > 0)
+			return null;
+		if (fLineTable == null) {
+			char[] text= fDocument.get().toCharArray();
+			int[] starts= new int[fLineCount + 1];
+			int[] ends= new int[fLineCount];
+			for (int line= 0; line < fLineCount; line++) {
+				try {
+					IRegion r= fDocument.getLineInformation(fLineOffset + line);
+					starts[line]= r.getOffset();
+					ends[line]= r.getOffset() + r.getLength();
+				} catch (BadLocationException ex) {
+					starts[line]= ends[line]= text.length;
+				}
+			}
+			starts[fLineCount]= getTokenStart(fLineCount);
+			fLineTable= new LineTable(text, starts, ends, fIgnoreWhiteSpace, true);
+		}
+		return fLineTable;
+	}
+
 	//---- private methods
 
 	private String[] extract(int thisIndex, int otherIndex,
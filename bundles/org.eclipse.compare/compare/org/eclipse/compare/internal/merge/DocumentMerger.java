@@ -28,9 +28,11 @@ import org.eclipse.compare.internal.CompareMessages;
 import org.eclipse.compare.internal.ComparePreferencePage;
 import org.eclipse.compare.internal.CompareUIPlugin;
 import org.eclipse.compare.internal.DocLineComparator;
+import org.eclipse.compare.internal.ICompareUIConstants;
 import org.eclipse.compare.internal.MergeViewerContentProvider;
 import org.eclipse.compare.internal.Utilities;
 import org.eclipse.compare.internal.core.LCS;
+import org.eclipse.compare.rangedifferencer.IDiffStrategy;
 import org.eclipse.compare.rangedifferencer.IRangeComparator;
 import org.eclipse.compare.rangedifferencer.RangeDifference;
 import org.eclipse.compare.rangedifferencer.RangeDifferencer;
@@ -400,10 +402,11 @@ public class DocumentMerger {
 
 		final Object[] result= new Object[1];
 		final DocLineComparator sa= sancestor, sl= sleft, sr= sright;
+		final IDiffStrategy strategy= getDiffStrategy();
 		IRunnableWithProgress runnable= monitor -> {
 			monitor.beginTask(CompareMessages.DocumentMerger_0, maxWork(sa, sl, sr));
 			try {
-				result[0]= RangeDifferencer.findRanges(monitor, sa, sl, sr);
+				result[0]= RangeDifferencer.findRanges(strategy, monitor, sa, sl, sr);
 			} catch (OutOfMemoryError ex) {
 				System.gc();
 				throw new InvocationTargetException(ex);
@@ -561,10 +564,11 @@ public class DocumentMerger {
 
 		final Object[] result= new Object[1];
 		final DocLineComparator sa= sancestor, sl= sleft, sr= sright;
+		final IDiffStrategy strategy= getDiffStrategy();
 		IRunnableWithProgress runnable= monitor -> {
 			monitor.beginTask(CompareMessages.DocumentMerger_2, maxWork(sa, sl, sr));
 			try {
-				result[0]= RangeDifferencer.findRanges(monitor, sa, sl, sr);
+				result[0]= RangeDifferencer.findRanges(strategy, monitor, sa, sl, sr);
 			} catch (OutOfMemoryError ex) {
 				System.gc();
 				throw new InvocationTargetException(ex);
@@ -644,6 +648,15 @@ public class DocumentMerger {
 		return CompareUIPlugin.getDefault().getPreferenceStore().getBoolean(ComparePreferencePage.CAPPING_DISABLED);
 	}
 
+	private IDiffStrategy getDiffStrategy() {
+		CompareConfiguration cc= getCompareConfiguration();
+		Object id= cc != null ? cc.getProperty(ICompareUIConstants.PROP_DIFF_ALGORITHM) : null;
+		if (!(id instanceof String))
+			id= CompareUIPlugin.getDefault().getPreferenceStore().getString(ComparePreferencePage.DIFF_ALGORITHM);
+		IDiffStrategy strategy= RangeDifferencer.getDiffStrategy((String) id);
+		return strategy != null ? strategy : RangeDifferencer.getDiffStrategy(IDiffStrategy.MYERS);
+	}
+
 	private IDocument getDocument(char contributor) {
 		return fInput.getDocument(contributor);
 	}
@@ -25,6 +25,7 @@ import java.io.StringReader;
 import java.lang.reflect.InvocationTargetException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -250,8 +251,9 @@ public class InputPatchPage extends WizardPage {
 			return;
 
 		WorkspacePatcher patcher= ((PatchWizard) getWizard()).getPatcher();
-		// Create a reader for the input
+		// Create a reader for the input, patch files are parsed directly
 		Reader reader= null;
+		File file= null;
 		try {
 			int inputMethod= getInputMethod();
 			if (inputMethod == CLIPBOARD) {
@@ -267,9 +269,9 @@ public class InputPatchPage extends WizardPage {
 			} else if (inputMethod==FILE) {
 				String patchFilePath= getPatchFilePath();
 				if (patchFilePath != null) {
-					try {
-						reader= new FileReader(patchFilePath);
-					} catch (FileNotFoundException ex) {
+					file= new File(patchFilePath);
+					if (!file.isFile()) {
+						file= null;
 						MessageDialog.openError(null,
 							PatchMessages.InputPatchPage_PatchErrorDialog_title,
 							PatchMessages.InputPatchPage_PatchFileNotFound_message);
@@ -297,12 +299,12 @@ public class InputPatchPage extends WizardPage {
 				IResource[] resources= Utilities.getResources(fTreeViewer.getSelection());
 				IResource patchFile= resources[0];
 				if (patchFile != null) {
-					try {
-						reader= new FileReader(patchFile.getLocation().toFile());
-					} catch (FileNotFoundException ex) {
-						MessageDialog.openError(null, PatchMessages.InputPatchPage_PatchErrorDialog_title, PatchMessages.InputPatchPage_PatchFileNotFound_message);
-					} catch (NullPointerException nex) {
-						//in case the path doesn't exist (eg. getLocation() returned null)
+					IPath location= patchFile.getLocation();
+					if (location != null)
+						file= location.toFile();
+					//in case the path doesn't exist (eg. getLocation() returned null)
+					if (file == null || !file.isFile()) {
+						file= null;
 						MessageDialog.openError(null, PatchMessages.InputPatchPage_PatchErrorDialog_title, PatchMessages.InputPatchPage_PatchFileNotFound_message);
 					}
 				}
@@ -310,9 +312,13 @@ public class InputPatchPage extends WizardPage {
 			}
 
 			// parse the input
-			if (reader != null) {
+			if (reader != null || file != null) {
 				try {
-					patcher.parse(new BufferedReader(reader));
+					if (file != null)
+						// the same charset as a FileReader uses
+						patcher.parse(file, Charset.defaultCharset());
+					else
+						patcher.parse(new BufferedReader(reader));
 					//report back to the patch wizard that the patch has been read in
 					fPatchWizard.patchReadIn();
 					fPatchRead=true;
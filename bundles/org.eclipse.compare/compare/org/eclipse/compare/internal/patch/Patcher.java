@@ -16,10 +16,12 @@ package org.eclipse.compare.internal.patch;
 
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -186,15 +188,33 @@ public class Patcher implements IHunkFilter {
 	}
 
 	public void parse(BufferedReader reader) throws IOException {
-		PatchReader patchReader = new PatchReader() {
+		PatchReader patchReader = createPatchReader();
+		patchReader.parse(reader);
+		patchParsed(patchReader);
+	}
+
+	/**
+	 * Parse the given patch file. The file is mapped into memory while it is
+	 * parsed if the charset allows it, the lines of the hunks are then read
+	 * from the file again when they are needed.
+	 * @param file the patch file
+	 * @param charset the charset of the patch file
+	 * @throws IOException if the patch file cannot be read
+	 */
+	public void parse(File file, Charset charset) throws IOException {
+		PatchReader patchReader = createPatchReader();
+		patchReader.parse(file, charset);
+		patchParsed(patchReader);
+	}
+
+	private PatchReader createPatchReader() {
+		return new PatchReader() {
 			@Override
 			protected FilePatch2 createFileDiff(IPath oldPath, long oldDate,
 					IPath newPath, long newDate) {
 				return new FilePatch(oldPath, oldDate, newPath, newDate);
 			}
 		};
-		patchReader.parse(reader);
-		patchParsed(patchReader);
 	}
 
 	protected void patchParsed(PatchReader patchReader) {
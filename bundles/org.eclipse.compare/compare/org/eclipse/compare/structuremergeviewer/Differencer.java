@@ -26,6 +26,7 @@ import org.eclipse.compare.IStreamContentAccessor;
 import org.eclipse.compare.ITypedElement;
 import org.eclipse.compare.internal.MergeViewerContentProvider;
 import org.eclipse.compare.internal.Utilities;
+import org.eclipse.compare.internal.core.StreamComparator;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -468,15 +469,7 @@ public class Differencer {
 			if (is1 == null || is2 == null)	// only one has contents
 				return false;
 
-			while (true) {
-				int c1= is1.read();
-				int c2= is2.read();
-				if (c1 == -1 && c2 == -1)
-					return true;
-				if (c1 != c2)
-					break;
-
-			}
+			return StreamComparator.contentsEqual(is1, is2, false);
 		} catch (IOException ex) {
 			// NeedWork
 		} finally {
@@ -49,10 +49,10 @@ import org.eclipse.osgi.util.NLS;
 import org.eclipse.team.core.importing.provisional.IBundleImporter;
 import org.eclipse.team.core.mapping.IStorageMerger;
 import org.eclipse.team.internal.core.FileContentManager;
+import org.eclipse.team.internal.core.IgnoreMatcher;
 import org.eclipse.team.internal.core.Messages;
 import org.eclipse.team.internal.core.Policy;
 import org.eclipse.team.internal.core.StorageMergerRegistry;
-import org.eclipse.team.internal.core.StringMatcher;
 import org.eclipse.team.internal.core.TeamPlugin;
 import org.eclipse.team.internal.core.TeamResourceChangeListener;
 import org.eclipse.team.internal.core.importing.BundleImporterExtension;
@@ -97,7 +97,8 @@ public final class Team {
 
 	// The ignore list that is read at startup from the persisted file
 	protected static SortedMap<String, Boolean> globalIgnore, pluginIgnore;
-	private static StringMatcher[] ignoreMatchers;
+	// The matcher of the enabled ignores, which is rebuilt when the ignores change
+	private static volatile IgnoreMatcher ignoreMatcher;
 
 	private final static FileContentManager fFileContentManager;
 
@@ -155,17 +156,7 @@ public final class Team {
 	}
 
 	private static boolean matchesEnabledIgnore(IResource resource) {
-		StringMatcher[] matchers = getStringMatchers();
-		for (StringMatcher matcher : matchers) {
-			String resourceName = resource.getName();
-			if (matcher.isPathPattern()) {
-				resourceName = resource.getFullPath().toString();
-			}
-			if (matcher.match(resourceName)) {
-				return true;
-			}
-		}
-		return false;
+		return getIgnoreMatcher().match(resource);
 	}
 
 	/**
@@ -213,7 +204,7 @@ public final class Team {
 		if (globalIgnore == null) {
 			globalIgnore = new TreeMap<>();
 			pluginIgnore = new TreeMap<>();
-			ignoreMatchers = null;
+			ignoreMatcher = null;
 			try {
 				readIgnoreState();
 			} catch (TeamException e) {
@@ -247,19 +238,27 @@ public final class Team {
 		return result;
 	}
 
-	private synchronized static StringMatcher[] getStringMatchers() {
-		if (ignoreMatchers==null) {
+	private static IgnoreMatcher getIgnoreMatcher() {
+		// The matcher is immutable so it is used without holding the lock
+		IgnoreMatcher matcher = ignoreMatcher;
+		if (matcher == null) {
+			matcher = createIgnoreMatcher();
+		}
+		return matcher;
+	}
+
+	private synchronized static IgnoreMatcher createIgnoreMatcher() {
+		if (ignoreMatcher == null) {
 			IIgnoreInfo[] ignorePatterns = getAllIgnores();
-			ArrayList<StringMatcher> matchers = new ArrayList<>(ignorePatterns.length);
+			ArrayList<String> patterns = new ArrayList<>(ignorePatterns.length);
 			for (IIgnoreInfo ignorePattern : ignorePatterns) {
 				if (ignorePattern.getEnabled()) {
-					matchers.add(new StringMatcher(ignorePattern.getPattern(), true, false));
+					patterns.add(ignorePattern.getPattern());
 				}
 			}
-			ignoreMatchers = new StringMatcher[matchers.size()];
-			ignoreMatchers = matchers.toArray(ignoreMatchers);
+			ignoreMatcher = new IgnoreMatcher(patterns.toArray(new String[patterns.size()]));
 		}
-		return ignoreMatchers;
+		return ignoreMatcher;
 	}
 
 
@@ -289,15 +288,21 @@ public final class Team {
 	 * @param enabled Array of booleans indicating if given pattern is enabled
 	 */
 	public static void setAllIgnores(String[] patterns, boolean[] enabled) {
-		initializeIgnores();
-		globalIgnore = new TreeMap<>();
-		ignoreMatchers = null;
+		SortedMap<String, Boolean> newIgnore = new TreeMap<>();
 		for (int i = 0; i < patterns.length; i++) {
-			globalIgnore.put(patterns[i], Boolean.valueOf(enabled[i]));
+			newIgnore.put(patterns[i], Boolean.valueOf(enabled[i]));
+		}
+		synchronized (Team.class) {
+			initializeIgnores();
+			if (!newIgnore.equals(globalIgnore)) {
+				// The matcher is rebuilt when it is next needed
+				ignoreMatcher = null;
+			}
+			globalIgnore = newIgnore;
 		}
 		// Now set into preferences
 		StringBuilder buf = new StringBuilder();
-		for (Map.Entry entry : globalIgnore.entrySet()) {
+		for (Map.Entry entry : newIgnore.entrySet()) {
 			String pattern = (String) entry.getKey();
 			Boolean value = (Boolean) entry.getValue();
 			boolean isCustom = (!pluginIgnore.containsKey(pattern)) ||
@@ -408,8 +413,10 @@ public final class Team {
 		pref.addPropertyChangeListener(event -> {
 			// when a property is changed, invalidate our cache so that
 			// properties will be recalculated.
-			if(event.getProperty().equals(PREF_TEAM_IGNORES))
+			if(event.getProperty().equals(PREF_TEAM_IGNORES)) {
 				globalIgnore = null;
+				ignoreMatcher = null;
+			}
 		});
 		String prefIgnores = pref.getString(PREF_TEAM_IGNORES);
 		StringTokenizer tok = new StringTokenizer(prefIgnores, PREF_TEAM_SEPARATOR);
@@ -14,7 +14,7 @@
 package org.eclipse.team.core.diff;
 
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.team.core.diff.provider.Diff;
+import org.eclipse.team.internal.core.subscribers.StateDiffFilter;
 
 /**
  * A specialized <code>DiffNodeFilter</code> that does not require a progress monitor.
@@ -29,19 +29,7 @@ import org.eclipse.team.core.diff.provider.Diff;
 public abstract class FastDiffFilter extends DiffFilter {
 
 	public static final FastDiffFilter getStateFilter(final int[] states, final int mask) {
-		return new FastDiffFilter() {
-			@Override
-			public boolean select(IDiff node) {
-				int status = ((Diff)node).getStatus();
-				for (int i = 0; i < states.length; i++) {
-					int state = states[i];
-					if ((status & mask) == state) {
-						return true;
-					}
-				}
-				return false;
-			}
-		};
+		return new StateDiffFilter(states, mask);
 	}
 
 	@Override
@@ -18,6 +18,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.IntPredicate;
 
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.Assert;
@@ -38,7 +39,7 @@ import org.eclipse.team.core.diff.IThreeWayDiff;
 import org.eclipse.team.internal.core.Policy;
 import org.eclipse.team.internal.core.mapping.DiffChangeEvent;
 import org.eclipse.team.internal.core.mapping.PathTree;
-import org.eclipse.team.internal.core.subscribers.DiffTreeStatistics;
+import org.eclipse.team.internal.core.subscribers.StateDiffFilter;
 
 /**
  * Implementation of {@link IDiffTree}.
@@ -57,11 +58,21 @@ public class DiffTree implements IDiffTree {
 
 	private ListenerList<IDiffChangeListener> listeners = new ListenerList<>();
 
-	private PathTree pathTree = new PathTree();
+	// The tree counts the states of the diffs, so a snapshot has the counts of its diffs
+	private PathTree pathTree = new PathTree(diff -> getState((IDiff) diff));
 
-	private ILock lock = Job.getJobManager().newLock();
+	// The state of the tree at the end of the last modification. Threads that
+	// are not modifying the tree read the snapshot so they don't contend with
+	// the modifying thread or see the tree half way through a modification
+	private volatile PathTree snapshot = pathTree.snapshot();
+
+	// The thread that holds the lock, which reads the tree itself
+	private volatile Thread writer;
 
-	private DiffTreeStatistics statistics = new DiffTreeStatistics();
+	// Whether the tree changed since the snapshot was taken
+	private boolean modified;
+
+	private ILock lock = Job.getJobManager().newLock();
 
 	private DiffChangeEvent changes;
 
@@ -88,30 +99,44 @@ public class DiffTree implements IDiffTree {
 
 	@Override
 	public void accept(IPath path, IDiffVisitor visitor, int depth) {
-		IDiff delta = getDiff(path);
+		accept(getTree(), path, visitor, depth);
+	}
+
+	private void accept(PathTree tree, IPath path, IDiffVisitor visitor, int depth) {
+		IDiff delta = (IDiff)tree.get(path);
 		if (delta == null || visitor.visit(delta)) {
 			if (depth == IResource.DEPTH_ZERO)
 				return;
-			IPath[] children = getChildren(path);
+			IPath[] children = tree.getChildren(path);
 			for (IPath child : children) {
-				accept(child, visitor, depth == IResource.DEPTH_ONE ? IResource.DEPTH_ZERO : IResource.DEPTH_INFINITE);
+				accept(tree, child, visitor, depth == IResource.DEPTH_ONE ? IResource.DEPTH_ZERO : IResource.DEPTH_INFINITE);
 			}
 		}
 	}
 
 	@Override
 	public IDiff getDiff(IPath path) {
-		return (IDiff)pathTree.get(path);
+		return (IDiff)getTree().get(path);
 	}
 
 	@Override
 	public IPath[] getChildren(IPath path) {
-		return pathTree.getChildren(path);
+		return getTree().getChildren(path);
 	}
 
 	@Override
 	public boolean isEmpty() {
-		return pathTree.isEmpty();
+		return getTree().isEmpty();
+	}
+
+	/*
+	 * Return the tree to read, which is the snapshot unless the
+	 * calling thread is modifying the tree.
+	 */
+	private PathTree getTree() {
+		if (writer == Thread.currentThread())
+			return pathTree;
+		return snapshot;
 	}
 
 	/**
@@ -180,7 +205,7 @@ public class DiffTree implements IDiffTree {
 		try {
 			beginInput();
 			pathTree.clear();
-			statistics.clear();
+			modified = true;
 			internalReset();
 		} finally {
 			endInput(null);
@@ -213,6 +238,7 @@ public class DiffTree implements IDiffTree {
 	 */
 	public void beginInput() {
 		lock.acquire();
+		writer = Thread.currentThread();
 	}
 
 	/**
@@ -225,11 +251,18 @@ public class DiffTree implements IDiffTree {
 	public void endInput(IProgressMonitor monitor) {
 		try {
 			if (lock.getDepth() == 1) {
+				// Publish the changes to other threads before they are notified
+				if (modified) {
+					snapshot = pathTree.snapshot();
+					modified = false;
+				}
 				// Remain locked while firing the events so the handlers
 				// can expect the set to remain constant while they process the events
 				fireChanges(Policy.monitorFor(monitor));
 			}
 		} finally {
+			if (lock.getDepth() == 1)
+				writer = null;
 			lock.release();
 		}
 	}
@@ -285,14 +318,8 @@ public class DiffTree implements IDiffTree {
 
 	private void internalAdd(IDiff delta) {
 		Assert.isTrue(!lockedForModification);
-		IDiff oldDiff = (IDiff)pathTree.get(delta.getPath());
 		pathTree.put(delta.getPath(), delta);
-		if(oldDiff == null) {
-			statistics.add(delta);
-		} else {
-			statistics.remove(oldDiff);
-			statistics.add(delta);
-		}
+		modified = true;
 		boolean isConflict = false;
 		if (delta instanceof IThreeWayDiff) {
 			IThreeWayDiff twd = (IThreeWayDiff) delta;
@@ -303,10 +330,10 @@ public class DiffTree implements IDiffTree {
 
 	private void internalRemove(IDiff delta) {
 		Assert.isTrue(!lockedForModification);
-		statistics.remove(delta);
 		setPropertyToRoot(delta, P_HAS_DESCENDANT_CONFLICTS, false);
 		setPropertyToRoot(delta, P_BUSY_HINT, false);
 		pathTree.remove(delta.getPath());
+		modified = true;
 	}
 
 	private void internalAdded(IDiff delta) {
@@ -329,7 +356,7 @@ public class DiffTree implements IDiffTree {
 	 * @return the paths in this tree that contain diffs.
 	 */
 	public IPath[] getPaths() {
-		return pathTree.getPaths();
+		return getTree().getPaths();
 	}
 
 	/**
@@ -337,32 +364,84 @@ public class DiffTree implements IDiffTree {
 	 * @return all the diffs contained in this diff tree
 	 */
 	public IDiff[] getDiffs() {
-		return (IDiff[]) pathTree.values().toArray(new IDiff[pathTree.size()]);
+		PathTree tree = getTree();
+		return (IDiff[]) tree.values().toArray(new IDiff[tree.size()]);
 	}
 
 	@Override
 	public long countFor(int state, int mask) {
 		if (state == 0)
 			return size();
-		return statistics.countFor(state, mask);
+		return getTree().count(getStateFilter(state, mask));
+	}
+
+	/**
+	 * Return the number of diffs at or below the given path that match the
+	 * given state and mask. The state and mask are interpreted as in
+	 * {@link #countFor(int, int)}. The counts are kept for every path, so this
+	 * method does not visit the diffs below the path.
+	 *
+	 * @param path the path
+	 * @param state the diff state
+	 * @param mask the mask for the state
+	 * @return the number of diffs at or below the path that match the state
+	 *         and mask
+	 * @since 3.9
+	 */
+	public long countFor(IPath path, int state, int mask) {
+		return getTree().count(path, state == 0 ? s -> true : getStateFilter(state, mask));
+	}
+
+	/*
+	 * Return a filter for the states that are counted for the given state and
+	 * mask by countFor(int, int).
+	 */
+	private static IntPredicate getStateFilter(int state, int mask) {
+		if (mask == 0)
+			return s -> s == state;
+		return s -> (s & mask) == state;
+	}
+
+	/*
+	 * Return the state of the diff that is counted, which is its kind and direction.
+	 */
+	private static int getState(IDiff diff) {
+		int state = diff.getKind();
+		if (diff instanceof IThreeWayDiff) {
+			state |= ((IThreeWayDiff) diff).getDirection();
+		}
+		return state;
 	}
 
 	@Override
 	public int size() {
-		return pathTree.size();
+		return getTree().size();
 	}
 
 	public void setPropertyToRoot(IDiff node, int property, boolean value) {
 		try {
 			beginInput();
-			IPath[] paths = pathTree.setPropogatedProperty(node.getPath(), property, value);
-			accumulatePropertyChanges(property, paths);
+			IPath path = node.getPath();
+			if (value && pathTree.get(path) == null) {
+				// Properties are only set on paths with diffs so clearBusy only needs to
+				// visit the paths that are counted as having them. Setting the property
+				// on the diffs below the path also propagates it to the path.
+				for (Object diff : pathTree.values(path)) {
+					IPath[] paths = pathTree.setPropogatedProperty(((IDiff) diff).getPath(), property, value);
+					accumulatePropertyChanges(property, paths);
+				}
+			} else {
+				IPath[] paths = pathTree.setPropogatedProperty(path, property, value);
+				accumulatePropertyChanges(property, paths);
+			}
 		} finally {
 			endInput(null);
 		}
 	}
 
 	private void accumulatePropertyChanges(int property, IPath[] paths) {
+		if (paths.length > 0)
+			modified = true;
 		Integer key = Integer.valueOf(property);
 		Set<IPath> changes = propertyChanges.get(key);
 		if (changes == null) {
@@ -374,7 +453,7 @@ public class DiffTree implements IDiffTree {
 
 	@Override
 	public boolean getProperty(IPath path, int property) {
-		return pathTree.getProperty(path, property);
+		return getTree().getProperty(path, property);
 	}
 
 	@Override
@@ -393,11 +472,9 @@ public class DiffTree implements IDiffTree {
 	public void clearBusy(IProgressMonitor monitor) {
 		try {
 			beginInput();
-			IPath[] paths = pathTree.getPaths();
-			for (IPath path : paths) {
-				IPath[] changed = pathTree.setPropogatedProperty(path, P_BUSY_HINT, false);
-				accumulatePropertyChanges(P_BUSY_HINT, changed);
-			}
+			// Only visits the busy paths rather than walking up from every path
+			IPath[] changed = pathTree.clearPropogatedProperty(P_BUSY_HINT);
+			accumulatePropertyChanges(P_BUSY_HINT, changed);
 		} finally {
 			endInput(monitor);
 		}
@@ -405,6 +482,18 @@ public class DiffTree implements IDiffTree {
 
 	@Override
 	public boolean hasMatchingDiffs(IPath path, final FastDiffFilter filter) {
+		if (filter instanceof StateDiffFilter && ((StateDiffFilter) filter).isCounted()) {
+			StateDiffFilter stateFilter = (StateDiffFilter) filter;
+			int mask = stateFilter.getMask();
+			int[] states = stateFilter.getStates();
+			return getTree().count(path, s -> {
+				for (int state : states) {
+					if ((s & mask) == state)
+						return true;
+				}
+				return false;
+			}) > 0;
+		}
 		final RuntimeException found = new RuntimeException();
 		try {
 			accept(path, delta -> {
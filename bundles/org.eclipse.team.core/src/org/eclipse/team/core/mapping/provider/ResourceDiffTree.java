@@ -30,6 +30,7 @@ import org.eclipse.team.core.diff.IThreeWayDiff;
 import org.eclipse.team.core.diff.provider.DiffTree;
 import org.eclipse.team.core.mapping.IResourceDiff;
 import org.eclipse.team.core.mapping.IResourceDiffTree;
+import org.eclipse.team.internal.core.subscribers.StateDiffFilter;
 
 /**
  * Implementation of {@link IResourceDiffTree}.
@@ -165,6 +166,16 @@ public class ResourceDiffTree extends DiffTree implements IResourceDiffTree {
 
 	@Override
 	public boolean hasMatchingDiffs(ResourceTraversal[] traversals, final FastDiffFilter filter) {
+		if (filter instanceof StateDiffFilter && isDeep(traversals)) {
+			// The statistics of the tree can answer this for each resource
+			for (ResourceTraversal traversal : traversals) {
+				for (IResource resource : traversal.getResources()) {
+					if (hasMatchingDiffs(resource.getFullPath(), filter))
+						return true;
+				}
+			}
+			return false;
+		}
 		final RuntimeException found = new RuntimeException();
 		try {
 			accept(traversals, delta -> {
@@ -180,4 +191,12 @@ public class ResourceDiffTree extends DiffTree implements IResourceDiffTree {
 		}
 		return false;
 	}
+
+	private boolean isDeep(ResourceTraversal[] traversals) {
+		for (ResourceTraversal traversal : traversals) {
+			if (traversal.getDepth() != IResource.DEPTH_INFINITE)
+				return false;
+		}
+		return true;
+	}
 }
@@ -155,6 +155,24 @@ abstract public class Subscriber {
 	 */
 	abstract public SyncInfo getSyncInfo(IResource resource) throws TeamException;
 
+	/**
+	 * Return the synchronization info of the given resources. The info of a
+	 * resource is the one returned by {@link #getSyncInfo(IResource)}.
+	 * By default, <code>getSyncInfo(IResource)</code> is called for each resource.
+	 * Subclasses may override to obtain the state of all the resources at once.
+	 * @param resources the resources of interest
+	 * @return the synchronization info of the resources, in the order of the given resources
+	 * @throws TeamException
+	 * @since 3.9
+	 */
+	public SyncInfo[] getSyncInfos(IResource[] resources) throws TeamException {
+		SyncInfo[] infos = new SyncInfo[resources.length];
+		for (int i = 0; i < resources.length; i++) {
+			infos[i] = getSyncInfo(resources[i]);
+		}
+		return infos;
+	}
+
 	/**
 	 * Returns the comparison criteria that will be used by the sync info
 	 * created by this subscriber.
@@ -320,34 +338,62 @@ abstract public class Subscriber {
 			&& depth != IResource.DEPTH_ZERO) {
 			try {
 				IResource[] members = members(resource);
+				// The members that are not visited are collected at once
+				List<IResource> leaves = new ArrayList<>(members.length);
 				for (IResource member : members) {
-					collect(member, depth == IResource.DEPTH_INFINITE
-							? IResource.DEPTH_INFINITE
-							: IResource.DEPTH_ZERO, set, monitor);
+					if (depth == IResource.DEPTH_INFINITE && member.getType() != IResource.FILE) {
+						collect(member, IResource.DEPTH_INFINITE, set, monitor);
+					} else {
+						leaves.add(member);
+					}
 				}
+				collect(leaves.toArray(new IResource[leaves.size()]), set, monitor);
 			} catch (TeamException e) {
 				set.addError(new TeamStatus(IStatus.ERROR, TeamPlugin.ID, ITeamStatus.SYNC_INFO_SET_ERROR, NLS.bind(Messages.SubscriberEventHandler_8, new String[] { resource.getFullPath().toString(), e.getMessage() }), e, resource));
 			}
 		}
 
-		monitor.subTask(NLS.bind(Messages.SubscriberEventHandler_2, new String[] { resource.getFullPath().toString() }));
+		collect(new IResource[] { resource }, set, monitor);
+	}
+
+	/*
+	 * Collect the synchronization information of the given resources, which
+	 * is calculated at once. If that fails, it is calculated for each resource
+	 * so the errors are reported for the resources that caused them.
+	 */
+	private void collect(IResource[] resources, SyncInfoSet set, IProgressMonitor monitor) {
+		if (resources.length == 0)
+			return;
+		monitor.subTask(NLS.bind(Messages.SubscriberEventHandler_2, new String[] { resources[0].getFullPath().toString() }));
+		SyncInfo[] infos;
 		try {
-			SyncInfo info = getSyncInfo(resource);
+			infos = getSyncInfos(resources);
+		} catch (TeamException e) {
+			if (resources.length > 1) {
+				for (IResource resource : resources) {
+					collect(new IResource[] { resource }, set, monitor);
+				}
+				return;
+			}
+			set.addError(new TeamStatus(
+					IStatus.ERROR, TeamPlugin.ID, ITeamStatus.RESOURCE_SYNC_INFO_ERROR,
+					NLS.bind(Messages.SubscriberEventHandler_9, new String[] { resources[0].getFullPath().toString(), e.getMessage() }),
+					e, resources[0]));
+			monitor.worked(1);
+			return;
+		}
+		for (int i = 0; i < resources.length; i++) {
+			SyncInfo info = infos[i];
 			if (info == null || info.getKind() == SyncInfo.IN_SYNC) {
 				// Resource is no longer under the subscriber control.
 				// This can occur for the resources past as arguments to collectOutOfSync
-				set.remove(resource);
+				set.remove(resources[i]);
 			} else {
 				set.add(info);
 			}
-		} catch (TeamException e) {
-			set.addError(new TeamStatus(
-					IStatus.ERROR, TeamPlugin.ID, ITeamStatus.RESOURCE_SYNC_INFO_ERROR,
-					NLS.bind(Messages.SubscriberEventHandler_9, new String[] { resource.getFullPath().toString(), e.getMessage() }),
-					e, resource));
 		}
 		// Tick the monitor to give the owner a chance to do something
-		monitor.worked(1);
+		monitor.worked(resources.length);
 	}
 
 	/**
@@ -13,11 +13,12 @@
  *******************************************************************************/
 package org.eclipse.team.core.synchronize;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -26,10 +27,8 @@ import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.runtime.IPath;
-import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Path;
-import org.eclipse.team.internal.core.Messages;
-import org.eclipse.team.internal.core.TeamPlugin;
+import org.eclipse.team.internal.core.mapping.PathTree;
 import org.eclipse.team.internal.core.subscribers.SyncInfoTreeChangeEvent;
 
 /**
@@ -43,7 +42,19 @@ import org.eclipse.team.internal.core.subscribers.SyncInfoTreeChangeEvent;
  */
 public class SyncInfoTree extends SyncInfoSet {
 
-	protected Map<IPath, Set<IResource>> parents = Collections.synchronizedMap(new HashMap<>());
+	/**
+	 * The out-of-sync resources at or below each container that is out-of-sync
+	 * or contains out-of-sync resources, keyed by the path of the container.
+	 * This is a read-only view of the sync info of the set that is computed
+	 * when it is read.
+	 */
+	protected Map<IPath, Set<IResource>> parents = new ParentsView();
+
+	// The sync info of the out-of-sync resources keyed by path. It is changed
+	// while holding the lock of the set, the hierarchical reads use a snapshot.
+	private final PathTree tree = new PathTree();
+	// The snapshot of the tree that is read until the tree changes, guarded by the tree
+	private PathTree treeSnapshot;
 
 	/**
 	 * Create an empty sync info tree.
@@ -60,8 +71,7 @@ public class SyncInfoTree extends SyncInfoSet {
 	public SyncInfoTree(SyncInfo[] infos) {
 		super(infos);
 		for (SyncInfo info : infos) {
-			IResource local = info.getLocal();
-			addToParents(local, local);
+			internalAddToTree(info, false);
 		}
 	}
 
@@ -73,13 +83,14 @@ public class SyncInfoTree extends SyncInfoSet {
 	 * @param resource the resource to check for children.
 	 * @return <code>true</code> if the resource has children in the set.
 	 */
-	public synchronized boolean hasMembers(IResource resource) {
+	public boolean hasMembers(IResource resource) {
 		if (resource.getType() == IResource.FILE) return false;
 		IContainer parent = (IContainer)resource;
-		if (parent.getType() == IResource.ROOT) return !isEmpty();
+		PathTree snapshot = getSnapshot();
+		if (parent.getType() == IResource.ROOT) return !snapshot.isEmpty();
+		// an out-of-sync container counts as its own member, as it always has
 		IPath path = parent.getFullPath();
-		Set allDescendants = parents.get(path);
-		return (allDescendants != null && !allDescendants.isEmpty());
+		return snapshot.get(path) != null || snapshot.hasChildren(path);
 	}
 
 	/**
@@ -102,9 +113,11 @@ public class SyncInfoTree extends SyncInfoSet {
 	 * @param depth    the depth of the subtree
 	 * @return the <code>SyncInfo</code> for any out-of-sync resources
 	 */
-	public synchronized SyncInfo[] getSyncInfos(IResource resource, int depth) {
+	public SyncInfo[] getSyncInfos(IResource resource, int depth) {
+		// All depths are read from the same snapshot
+		PathTree snapshot = getSnapshot();
 		if (depth == IResource.DEPTH_ZERO || resource.getType() == IResource.FILE) {
-			SyncInfo info = getSyncInfo(resource);
+			SyncInfo info = (SyncInfo) snapshot.get(resource.getFullPath());
 			if (info == null) {
 				return new SyncInfo[0];
 			} else {
@@ -113,45 +126,33 @@ public class SyncInfoTree extends SyncInfoSet {
 		}
 		if (depth == IResource.DEPTH_ONE) {
 			List<SyncInfo> result = new ArrayList<>();
-			SyncInfo info = getSyncInfo(resource);
+			SyncInfo info = (SyncInfo) snapshot.get(resource.getFullPath());
 			if (info != null) {
 				result.add(info);
 			}
-			IResource[] members = members(resource);
-			for (IResource member : members) {
-				info = getSyncInfo(member);
+			for (IPath path : snapshot.getChildren(resource.getFullPath())) {
+				info = (SyncInfo) snapshot.get(path);
 				if (info != null) {
 					result.add(info);
 				}
 			}
 			return result.toArray(new SyncInfo[result.size()]);
 		}
-		// if it's the root then return all out of sync resources.
-		if(resource.getType() == IResource.ROOT) {
-			return getSyncInfos();
-		}
-		// for folders return all children deep.
-		return internalGetDeepSyncInfo((IContainer)resource);
+		// for the root and for folders return all children deep.
+		Collection<?> infos = resource.getType() == IResource.ROOT ? snapshot.values() : snapshot.values(resource.getFullPath());
+		return infos.toArray(new SyncInfo[infos.size()]);
 	}
 
 	/*
-	 * Return the <code>SyncInfo</code> for all out-of-sync resources in the
-	 * set that are at or below the given resource in the resource hierarchy.
-	 * @param resource the root resource
-	 * @return the <code>SyncInfo</code> for all out-of-sync resources at or below the given resource
+	 * Return the snapshot of the tree that reflects its current contents. The
+	 * snapshot is shared by all the reads until the tree is changed.
 	 */
-	private synchronized SyncInfo[] internalGetDeepSyncInfo(IContainer resource) {
-		List<SyncInfo> infos = new ArrayList<>();
-		IResource[] children = internalGetOutOfSyncDescendants(resource);
-		for (IResource child : children) {
-			SyncInfo info = getSyncInfo(child);
-			if(info != null) {
-				infos.add(info);
-			} else {
-				TeamPlugin.log(IStatus.INFO, Messages.SyncInfoTree_0 + child.getFullPath(), null);
-			}
+	private PathTree getSnapshot() {
+		synchronized (tree) {
+			if (treeSnapshot == null)
+				treeSnapshot = tree.snapshot();
+			return treeSnapshot;
 		}
-		return infos.toArray(new SyncInfo[infos.size()]);
 	}
 
 	@Override
@@ -165,10 +166,7 @@ public class SyncInfoTree extends SyncInfoSet {
 			beginInput();
 			boolean alreadyExists = getSyncInfo(info.getLocal()) != null;
 			super.add(info);
-			if(! alreadyExists) {
-				IResource local = info.getLocal();
-				addToParents(local, local);
-			}
+			internalAddToTree(info, !alreadyExists);
 		} finally {
 			endInput(null);
 		}
@@ -179,7 +177,7 @@ public class SyncInfoTree extends SyncInfoSet {
 		try {
 			beginInput();
 			super.remove(resource);
-			removeFromParents(resource, resource);
+			internalRemoveFromTree(resource);
 		} finally {
 			endInput(null);
 		}
@@ -191,72 +189,64 @@ public class SyncInfoTree extends SyncInfoSet {
 		try {
 			beginInput();
 			super.clear();
-			synchronized(this) {
-				parents.clear();
+			synchronized (tree) {
+				tree.clear();
+				treeSnapshot = null;
 			}
 		} finally {
 			endInput(null);
 		}
 	}
 
-	private synchronized boolean addToParents(IResource resource, IResource parent) {
-		if (parent.getType() == IResource.ROOT) {
-			return false;
-		}
-		// this flag is used to indicate if the parent was previously in the set
-		boolean addedParent = false;
-		if (parent.getType() == IResource.FILE) {
-			// the file is new
-			addedParent = true;
-		} else {
-			Set<IResource> children = parents.get(parent.getFullPath());
-			if (children == null) {
-				children = new HashSet<>();
-				parents.put(parent.getFullPath(), children);
-				// this is a new folder in the sync set
-				addedParent = true;
+	/*
+	 * Put the sync info in the tree. If its resource is new to the set, the
+	 * highest of the resource and its ancestors that were not in the tree
+	 * before is recorded as an added subtree root.
+	 */
+	private synchronized void internalAddToTree(SyncInfo info, boolean recordSubtreeRoot) {
+		IResource resource = info.getLocal();
+		synchronized (tree) {
+			IResource subtreeRoot = null;
+			if (recordSubtreeRoot && !isInTree(resource)) {
+				subtreeRoot = resource;
+				for (IResource parent = resource.getParent(); parent.getType() != IResource.ROOT && !isInTree(parent); parent = parent.getParent()) {
+					subtreeRoot = parent;
+				}
 			}
-			children.add(resource);
+			tree.put(resource.getFullPath(), info);
+			treeSnapshot = null;
+			if (subtreeRoot != null)
+				((SyncInfoTreeChangeEvent)getChangeEvent()).addedSubtreeRoot(subtreeRoot);
 		}
-		// if the parent already existed and the resource is new, record it
-		if (!addToParents(resource, parent.getParent()) && addedParent) {
-			internalAddedSubtreeRoot(parent);
-		}
-		return addedParent;
 	}
 
-	private synchronized boolean removeFromParents(IResource resource, IResource parent) {
-		if (parent.getType() == IResource.ROOT) {
-			return false;
-		}
-		// this flag is used to indicate if the parent was removed from the set
-		boolean removedParent = false;
-		if (parent.getType() == IResource.FILE) {
-			// the file will be removed
-			removedParent = true;
-		} else {
-			Set<IResource> children = parents.get(parent.getFullPath());
-			if (children != null) {
-				children.remove(resource);
-				if (children.isEmpty()) {
-					parents.remove(parent.getFullPath());
-					removedParent = true;
-				}
+	/*
+	 * Remove the sync info of the resource from the tree. The highest of the
+	 * resource and its ancestors that are no longer in the tree is recorded as
+	 * a removed subtree root.
+	 */
+	private synchronized void internalRemoveFromTree(IResource resource) {
+		synchronized (tree) {
+			if (tree.remove(resource.getFullPath()) == null)
+				return;
+			treeSnapshot = null;
+			if (isInTree(resource))
+				return;
+			IResource subtreeRoot = resource;
+			for (IResource parent = resource.getParent(); parent.getType() != IResource.ROOT && !isInTree(parent); parent = parent.getParent()) {
+				subtreeRoot = parent;
 			}
+			((SyncInfoTreeChangeEvent)getChangeEvent()).removedSubtreeRoot(subtreeRoot);
 		}
-		//	if the parent wasn't removed and the resource was, record it
-		if (!removeFromParents(resource, parent.getParent()) && removedParent) {
-			internalRemovedSubtreeRoot(parent);
-		}
-		return removedParent;
 	}
 
-	private void internalAddedSubtreeRoot(IResource parent) {
-		((SyncInfoTreeChangeEvent)getChangeEvent()).addedSubtreeRoot(parent);
-	}
-
-	private void internalRemovedSubtreeRoot(IResource parent) {
-		((SyncInfoTreeChangeEvent)getChangeEvent()).removedSubtreeRoot(parent);
+	/*
+	 * Return whether the resource is out-of-sync or contains out-of-sync
+	 * resources. Must be called while holding the lock of the tree.
+	 */
+	private boolean isInTree(IResource resource) {
+		IPath path = resource.getFullPath();
+		return tree.get(path) != null || tree.hasChildren(path);
 	}
 
 	/**
@@ -301,24 +291,14 @@ public class SyncInfoTree extends SyncInfoSet {
 	 * This is an internal method and is not intended to be invoked or
 	 * overridden by clients.
 	 */
-	protected synchronized IResource[] internalGetOutOfSyncDescendants(IContainer resource) {
-		// The parent map contains a set of all out-of-sync children
-		Set<IResource> allChildren = parents.get(resource.getFullPath());
-		if (allChildren == null) return new IResource[0];
-		return allChildren.toArray(new IResource[allChildren.size()]);
-	}
-
-	private synchronized IResource[] internalMembers(IWorkspaceRoot root) {
-		Set possibleChildren = parents.keySet();
-		Set<IResource> children = new HashSet<>();
-		for (Iterator it = possibleChildren.iterator(); it.hasNext();) {
-			Object next = it.next();
-			IResource element = root.findMember((IPath)next);
-			if (element != null) {
-				children.add(element.getProject());
-			}
+	protected IResource[] internalGetOutOfSyncDescendants(IContainer resource) {
+		Collection<?> infos = getSnapshot().values(resource.getFullPath());
+		IResource[] resources = new IResource[infos.size()];
+		int i = 0;
+		for (Object info : infos) {
+			resources[i++] = ((SyncInfo) info).getLocal();
 		}
-		return children.toArray(new IResource[children.size()]);
+		return resources;
 	}
 
 	/**
@@ -329,34 +309,85 @@ public class SyncInfoTree extends SyncInfoSet {
 	 * @return the children of the resource that are either out-of-sync or are ancestors of
 	 * out-of-sync resources contained in the set
 	 */
-	public synchronized IResource[] members(IResource resource) {
+	public IResource[] members(IResource resource) {
 		if (resource.getType() == IResource.FILE) return new IResource[0];
 		IContainer parent = (IContainer)resource;
-		if (parent.getType() == IResource.ROOT) return internalMembers((IWorkspaceRoot)parent);
-		// OPTIMIZE: could be optimized so that we don't traverse all the deep
-		// children to find the immediate ones.
-		Set<IResource> children = new HashSet<>();
-		IPath path = parent.getFullPath();
-		Set possibleChildren = parents.get(path);
-		if(possibleChildren != null) {
-			for (Iterator it = possibleChildren.iterator(); it.hasNext();) {
-				Object next = it.next();
-				IResource element = (IResource)next;
-				IPath childPath = element.getFullPath();
-				IResource modelObject = null;
-				if(childPath.segmentCount() == (path.segmentCount() +  1)) {
-					modelObject = element;
+		PathTree snapshot = getSnapshot();
+		IPath[] paths = snapshot.getChildren(parent.getFullPath());
+		List<IResource> children = new ArrayList<>(paths.length);
+		for (IPath path : paths) {
+			SyncInfo info = (SyncInfo) snapshot.get(path);
+			IResource element;
+			if (info != null) {
+				element = info.getLocal();
+			} else if (parent.getType() == IResource.ROOT) {
+				// a project that contains out-of-sync resources
+				element = ((IWorkspaceRoot) parent).findMember(path);
+			} else {
+				// an ancestor of out-of-sync resources
+				element = parent.getFolder(new Path(null, path.lastSegment()));
+			}
+			if (element != null) {
+				children.add(element);
+			}
+		}
+		return children.toArray(new IResource[children.size()]);
+	}
 
-				} else if (childPath.segmentCount() > path.segmentCount()) {
-					IContainer childFolder = parent.getFolder(new Path(null, childPath.segment(path.segmentCount())));
-					modelObject = childFolder;
-				}
-				if (modelObject != null) {
-					children.add(modelObject);
+	/*
+	 * The parents map computed from a snapshot of the tree. Looking up a
+	 * container only visits its subtree, the whole map is only built if it is
+	 * iterated.
+	 */
+	private class ParentsView extends AbstractMap<IPath, Set<IResource>> {
+
+		// The map built from a snapshot, kept until the tree changes
+		private PathTree builtFrom;
+		private Map<IPath, Set<IResource>> built;
+
+		@Override
+		public Set<IResource> get(Object key) {
+			if (!(key instanceof IPath) || ((IPath) key).segmentCount() == 0)
+				return null;
+			IPath path = (IPath) key;
+			PathTree snapshot = getSnapshot();
+			SyncInfo info = (SyncInfo) snapshot.get(path);
+			if (info == null ? !snapshot.hasChildren(path) : info.getLocal().getType() == IResource.FILE)
+				return null;
+			Set<IResource> resources = new HashSet<>();
+			for (Object descendant : snapshot.values(path)) {
+				resources.add(((SyncInfo) descendant).getLocal());
+			}
+			return Collections.unmodifiableSet(resources);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return get(key) != null;
+		}
+
+		@Override
+		public Set<Entry<IPath, Set<IResource>>> entrySet() {
+			return build().entrySet();
+		}
+
+		private synchronized Map<IPath, Set<IResource>> build() {
+			PathTree snapshot = getSnapshot();
+			if (snapshot != builtFrom) {
+				Map<IPath, Set<IResource>> map = new HashMap<>();
+				for (Object info : snapshot.values()) {
+					IResource resource = ((SyncInfo) info).getLocal();
+					for (IResource parent = resource; parent.getType() != IResource.ROOT; parent = parent.getParent()) {
+						if (parent.getType() != IResource.FILE)
+							map.computeIfAbsent(parent.getFullPath(), p -> new HashSet<>()).add(resource);
+					}
 				}
+				map.replaceAll((p, resources) -> Collections.unmodifiableSet(resources));
+				builtFrom = snapshot;
+				built = Collections.unmodifiableMap(map);
 			}
+			return built;
 		}
-		return children.toArray(new IResource[children.size()]);
 	}
 
 }
@@ -56,7 +56,8 @@ import org.eclipse.team.internal.core.TeamPlugin;
  * an {@link org.eclipse.core.resources.IEncodedStorage}.
  * <p>
  * The cache in which the resource variants reside will occasionally clear
- * cached entries if they have not been accessed for a certain amount of time.
+ * cached entries if they have not been accessed for a certain amount of time
+ * or, for cached contents, when the cache grows too large.
  * </p>
  *
  * @since 3.0
@@ -125,9 +126,10 @@ public abstract class CachedResourceVariant extends PlatformObject implements IR
 	}
 
 	private void ensureContentsCached(IProgressMonitor monitor) throws TeamException {
-		// Ensure that the contents are cached from the server
-		if (!isContentsCached()) {
-			fetchContents(monitor);
+		// Ensure that the contents are cached from the server, concurrent requests
+		// for the same contents share one fetch
+		if (!isContentsCached() && !getCache().restoreContents(getCachePath(), this)) {
+			getCache().fetchContents(getCachePath(), this::fetchContents, monitor);
 		}
 	}
 
@@ -164,9 +166,9 @@ public abstract class CachedResourceVariant extends PlatformObject implements IR
 	/**
 	 * Return whether there are already contents cached for this resource variant.
 	 * This method will return <code>false</code> even if the contents are currently
-	 * being cached by another thread. The consequence of this is that the contents
-	 * may be fetched twice in the rare case where two threads request the same contents
-	 * concurrently. For containers, this method will always return <code>false</code>.
+	 * being cached by another thread. Threads that request the same contents concurrently
+	 * through <code>getStorage</code> share one fetch, though.
+	 * For containers, this method will always return <code>false</code>.
 	 * <p>
 	 * This method is not intended to be overridden by clients.
 	 * @return whether there are contents cached for this resource variant
@@ -176,7 +178,7 @@ public abstract class CachedResourceVariant extends PlatformObject implements IR
 			return false;
 		}
 		ResourceVariantCacheEntry entry = getCache().getCacheEntry(getCachePath());
-		return entry.getState() == ResourceVariantCacheEntry.READY;
+		return entry != null && entry.getState() == ResourceVariantCacheEntry.READY;
 	}
 
 	/**
@@ -190,7 +192,9 @@ public abstract class CachedResourceVariant extends PlatformObject implements IR
 	 */
 	protected InputStream getCachedContents() throws TeamException {
 		if (isContainer() || !isContentsCached()) return null;
-		return getCache().getCacheEntry(getCachePath()).getContents();
+		// The entry may have been removed from the cache in the meantime
+		ResourceVariantCacheEntry entry = getCacheEntry();
+		return entry == null ? null : entry.getContents();
 	}
 
 	/**
@@ -0,0 +1,1223 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.core.variants;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ISaveContext;
+import org.eclipse.core.resources.ISaveParticipant;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.team.core.TeamException;
+import org.eclipse.team.internal.core.Messages;
+import org.eclipse.team.internal.core.TeamPlugin;
+
+/**
+ * A <code>ResourceVariantByteStore</code> that keeps the variant bytes in a
+ * file per project instead of the <code>org.eclipse.core.resources.ISynchronizer</code>,
+ * so that the bytes are cached across workbench invocations without being
+ * held on the Java heap.
+ * <p>
+ * Each file is a log of changes that is mapped into memory. Changes are
+ * appended to the log and the bytes of a resource are read from the mapping
+ * at the position that is kept in an index. The index is built when the file
+ * of a project is first accessed. The file of a project is only created when
+ * bytes are first set for one of its resources, and it is deleted when the
+ * project is deleted.
+ * </p>
+ * <p>
+ * The changes are written to disk when the workspace is saved, when
+ * {@link #save()} is called and when a file is closed. The space taken by
+ * replaced and removed bytes is then reclaimed by writing the bytes that are
+ * still used to a new file that the store switches to, so a mapped file is
+ * never replaced. The index only takes a few integers per resource since the
+ * paths of the resources are read from the file.
+ * </p>
+ * <p>
+ * Like <code>PersistantResourceVariantByteStore</code>, this store remembers
+ * that it is known that a resource has no variant (see {@link #deleteBytes(IResource)}),
+ * so it can be used by a {@link ThreeWaySynchronizer} in its place.
+ * </p>
+ *
+ * @since 3.9
+ * @noextend This class is not intended to be subclassed by clients.
+ */
+public class MappedResourceVariantByteStore extends ResourceVariantByteStore {
+
+	private static final byte[] NO_REMOTE = new byte[0];
+
+	private static final String STORE_DIRECTORY = ".variantStores"; //$NON-NLS-1$
+	private static final String FILE_EXTENSION = ".variants"; //$NON-NLS-1$
+	private static final String TEMP_EXTENSION = ".tmp"; //$NON-NLS-1$
+
+	// The header of a file is the magic number, the version and the end of the log
+	private static final int MAGIC = 0x54565342;
+	private static final int VERSION = 1;
+	private static final int END_OFFSET = 8;
+	private static final int HEADER_SIZE = 16;
+
+	private static final int INITIAL_CAPACITY = 64 * 1024;
+
+	// The kinds of log records. A record is the kind, the project relative path
+	// and, for SET records, the resource type and the bytes
+	private static final byte SET = 1;
+	private static final byte FLUSH = 2;
+	private static final byte FLUSH_TREE = 3;
+
+	// The open stores, which are saved when the workspace is saved
+	private static final Set<MappedResourceVariantByteStore> stores = new HashSet<>();
+
+	private static final ISaveParticipant saveParticipant = new ISaveParticipant() {
+		@Override
+		public void saving(ISaveContext context) throws CoreException {
+			MappedResourceVariantByteStore[] toSave;
+			synchronized (stores) {
+				toSave = stores.toArray(new MappedResourceVariantByteStore[stores.size()]);
+			}
+			for (MappedResourceVariantByteStore store : toSave) {
+				store.save();
+			}
+		}
+
+		@Override
+		public void prepareToSave(ISaveContext context) throws CoreException {
+			// Nothing to do
+		}
+
+		@Override
+		public void doneSaving(ISaveContext context) {
+			// Nothing to do
+		}
+
+		@Override
+		public void rollback(ISaveContext context) {
+			// Nothing to do
+		}
+	};
+
+	private final File directory;
+
+	// {String project name -> ProjectFile} for the files that have been loaded
+	private final Map<String, ProjectFile> files = new HashMap<>();
+
+	private boolean allLoaded;
+
+	private final IResourceChangeListener projectListener = event -> {
+		for (IResourceDelta delta : event.getDelta().getAffectedChildren(IResourceDelta.REMOVED)) {
+			if (delta.getResource().getType() == IResource.PROJECT)
+				projectDeleted((IProject) delta.getResource());
+		}
+	};
+
+	/*
+	 * The log of the changes to the bytes of the resources in a project.
+	 * The file is mapped in segments. A segment is added when the log grows
+	 * beyond the mapped segments, so the mapping of a segment is never
+	 * replaced while the file is open. Records may span segments.
+	 * <p>
+	 * The log is named after the project and its generation. A compaction
+	 * writes the records in use to the log of the next generation and then
+	 * switches to it, so a log is never replaced while it is mapped.
+	 */
+	private class ProjectFile {
+		final IProject project;
+		final RecordIndex index = new RecordIndex(this);
+		int generation;
+		File file;
+		FileChannel channel;
+		final List<MappedByteBuffer> segments = new ArrayList<>();
+		// The position in the file of the first byte of each segment
+		int[] segmentStarts = new int[4];
+		int capacity;
+		int end;
+		// The number of records in the log and the number that are still in use
+		int records;
+		int liveRecords;
+
+		ProjectFile(IProject project) {
+			this.project = project;
+			this.file = getLogFile(0);
+		}
+
+		private File getLogFile(int generation) {
+			return new File(directory, project.getName() + '.' + generation + FILE_EXTENSION);
+		}
+
+		/*
+		 * Open the log of the newest generation and build the index from
+		 * its records if the project has a log.
+		 */
+		void load() throws IOException {
+			generation = -1;
+			File[] children = directory.listFiles();
+			if (children != null) {
+				for (File child : children) {
+					int childGeneration = getGeneration(child.getName());
+					if (childGeneration > generation)
+						generation = childGeneration;
+				}
+			}
+			boolean exists = generation != -1;
+			if (!exists)
+				generation = 0;
+			file = getLogFile(generation);
+			deleteFiles(children, file);
+			if (exists)
+				open();
+		}
+
+		/*
+		 * Return the generation of the log of the project with the given
+		 * name, or -1 if the name is not the one of a log of the project.
+		 */
+		private int getGeneration(String fileName) {
+			int start = project.getName().length() + 1;
+			int generationEnd = fileName.length() - FILE_EXTENSION.length();
+			if (!fileName.startsWith(project.getName() + '.') || !fileName.endsWith(FILE_EXTENSION) || generationEnd <= start)
+				return -1;
+			for (int i = start; i < generationEnd; i++) {
+				char c = fileName.charAt(i);
+				if (c < '0' || c > '9')
+					return -1;
+			}
+			try {
+				return Integer.parseInt(fileName.substring(start, generationEnd));
+			} catch (NumberFormatException e) {
+				return -1;
+			}
+		}
+
+		/*
+		 * Delete the logs of the project among the given files other than the
+		 * one to keep, along with the new logs of compactions that did not
+		 * complete. A log of an older generation is only left when it could
+		 * not be deleted while it was mapped.
+		 */
+		private void deleteFiles(File[] children, File keep) {
+			if (children == null)
+				return;
+			for (File child : children) {
+				String fileName = child.getName();
+				if (fileName.endsWith(TEMP_EXTENSION))
+					fileName = fileName.substring(0, fileName.length() - TEMP_EXTENSION.length());
+				if (getGeneration(fileName) != -1 && !child.equals(keep))
+					child.delete();
+			}
+		}
+
+		/*
+		 * Create the file if it does not exist yet.
+		 */
+		private void ensureOpen() throws IOException {
+			if (channel == null)
+				open();
+		}
+
+		private void open() throws IOException {
+			directory.mkdirs();
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE)
+				throw new IOException(file.getPath());
+			addSegment((int) Math.max(size, INITIAL_CAPACITY));
+			ByteBuffer header = segments.get(0);
+			if (size < HEADER_SIZE || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+				header.putInt(0, MAGIC);
+				header.putInt(4, VERSION);
+				setEnd(HEADER_SIZE);
+			} else {
+				end = header.getInt(END_OFFSET);
+				replay();
+			}
+		}
+
+		private void addSegment(int size) throws IOException {
+			if (segments.size() == segmentStarts.length) {
+				int[] starts = new int[segmentStarts.length * 2];
+				System.arraycopy(segmentStarts, 0, starts, 0, segmentStarts.length);
+				segmentStarts = starts;
+			}
+			segmentStarts[segments.size()] = capacity;
+			segments.add(channel.map(FileChannel.MapMode.READ_WRITE, capacity, size));
+			capacity += size;
+		}
+
+		/*
+		 * Build the index from the records of the log.
+		 */
+		private void replay() {
+			int position = HEADER_SIZE;
+			// The records after a damaged end are discarded below
+			end = Math.max(HEADER_SIZE, Math.min(end, capacity));
+			try {
+				while (position < end) {
+					int next = position;
+					byte kind = get(next);
+					next++;
+					int pathLength = readLength(next);
+					next += 4;
+					IPath path = getFullPath(readPath(next, pathLength));
+					next += pathLength;
+					if (kind == SET) {
+						int length = readLength(next + 1);
+						next += 5 + length;
+						if (index.put(path, position))
+							liveRecords++;
+					} else if (kind == FLUSH) {
+						if (index.remove(path))
+							liveRecords--;
+					} else if (kind == FLUSH_TREE) {
+						liveRecords -= index.removeTree(path);
+					} else {
+						break;
+					}
+					records++;
+					position = next;
+				}
+			} catch (IllegalArgumentException e) {
+				// Handled below
+			}
+			if (position != end) {
+				// Only the records that were completely written are kept
+				TeamPlugin.log(IStatus.WARNING, NLS.bind(Messages.MappedResourceVariantByteStore_1, file.getPath()), null);
+				setEnd(position);
+			}
+		}
+
+		/*
+		 * Read a length at the given position that must fit in the log after it.
+		 */
+		private int readLength(int position) {
+			if (position + 4 > end)
+				throw new IllegalArgumentException();
+			int length = getInt(position);
+			if (length < 0 || length > end - position - 4)
+				throw new IllegalArgumentException();
+			return length;
+		}
+
+		private String readPath(int position, int length) {
+			byte[] bytes = new byte[length];
+			get(position, bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		private IPath getFullPath(String projectRelativePath) {
+			return project.getFullPath().append(projectRelativePath);
+		}
+
+		private void setEnd(int end) {
+			this.end = end;
+			// The header is always in the first segment
+			segments.get(0).putInt(END_OFFSET, end);
+		}
+
+		private int getSegment(int position) {
+			int low = 0;
+			int high = segments.size() - 1;
+			while (low < high) {
+				int mid = (low + high + 1) >>> 1;
+				if (segmentStarts[mid] <= position)
+					low = mid;
+				else
+					high = mid - 1;
+			}
+			return low;
+		}
+
+		private byte get(int position) {
+			int segment = getSegment(position);
+			return segments.get(segment).get(position - segmentStarts[segment]);
+		}
+
+		private int getInt(int position) {
+			return (get(position) & 0xFF) << 24 | (get(position + 1) & 0xFF) << 16 | (get(position + 2) & 0xFF) << 8 | get(position + 3) & 0xFF;
+		}
+
+		/*
+		 * Copy the bytes at the given position of the log into the given array.
+		 */
+		private void get(int position, byte[] bytes) {
+			int copied = 0;
+			int segment = getSegment(position);
+			while (copied < bytes.length) {
+				ByteBuffer source = segments.get(segment).duplicate();
+				source.position(position + copied - segmentStarts[segment]);
+				int length = Math.min(source.remaining(), bytes.length - copied);
+				source.get(bytes, copied, length);
+				copied += length;
+				segment++;
+			}
+		}
+
+		/*
+		 * Append the given record to the log.
+		 */
+		private void append(byte[] record) throws IOException {
+			long required = (long) end + record.length;
+			if (required > Integer.MAX_VALUE)
+				throw new IOException(file.getPath());
+			if (required > capacity) {
+				// Double the mapped size so only a few segments are needed
+				addSegment((int) Math.min(Math.max(required - capacity, capacity), Integer.MAX_VALUE - capacity));
+			}
+			int copied = 0;
+			int segment = getSegment(end);
+			while (copied < record.length) {
+				ByteBuffer target = segments.get(segment).duplicate();
+				target.position(end + copied - segmentStarts[segment]);
+				int length = Math.min(target.remaining(), record.length - copied);
+				target.put(record, copied, length);
+				copied += length;
+				segment++;
+			}
+			records++;
+			// The end is only moved once the record is completely written
+			setEnd(end + record.length);
+		}
+
+		int appendSet(IResource resource, byte[] bytes) throws IOException {
+			ensureOpen();
+			byte[] path = getPathBytes(resource.getFullPath());
+			ByteBuffer record = ByteBuffer.allocate(1 + 4 + path.length + 1 + 4 + bytes.length);
+			record.put(SET);
+			record.putInt(path.length);
+			record.put(path);
+			record.put((byte) resource.getType());
+			record.putInt(bytes.length);
+			record.put(bytes);
+			int recordStart = end;
+			append(record.array());
+			return recordStart;
+		}
+
+		void appendFlush(IPath fullPath, byte kind) throws IOException {
+			ensureOpen();
+			byte[] path = getPathBytes(fullPath);
+			ByteBuffer record = ByteBuffer.allocate(1 + 4 + path.length);
+			record.put(kind);
+			record.putInt(path.length);
+			record.put(path);
+			append(record.array());
+		}
+
+		private byte[] getPathBytes(IPath fullPath) {
+			return fullPath.removeFirstSegments(1).toString().getBytes(StandardCharsets.UTF_8);
+		}
+
+		/*
+		 * Return the project relative path of the record at the given position.
+		 */
+		byte[] getPath(int recordStart) {
+			byte[] path = new byte[getInt(recordStart + 1)];
+			get(recordStart + 5, path);
+			return path;
+		}
+
+		/*
+		 * Return the position of the resource type and bytes of a SET record.
+		 */
+		private int getTypeStart(int recordStart) {
+			return recordStart + 5 + getInt(recordStart + 1);
+		}
+
+		byte[] getBytes(int recordStart) {
+			int typeStart = getTypeStart(recordStart);
+			byte[] bytes = new byte[getInt(typeStart + 1)];
+			get(typeStart + 5, bytes);
+			return bytes;
+		}
+
+		int getType(int recordStart) {
+			return get(getTypeStart(recordStart));
+		}
+
+		boolean isEmpty(int recordStart) {
+			return getInt(getTypeStart(recordStart) + 1) == 0;
+		}
+
+		private int getLength(int recordStart) {
+			int typeStart = getTypeStart(recordStart);
+			return typeStart + 5 + getInt(typeStart + 1) - recordStart;
+		}
+
+		boolean needsCompaction() {
+			return channel != null && records > 2 * liveRecords + 1000;
+		}
+
+		/*
+		 * Remove the records that are no longer used by writing the ones
+		 * that are used to the log of the next generation and switching to
+		 * it. The new log only gets its name once it is completely on disk,
+		 * so the current log stays in use if this fails. The current log is
+		 * deleted once it is closed, or when the project is next loaded if
+		 * the platform does not allow a file to be deleted while it may
+		 * still be mapped.
+		 */
+		void compact() throws IOException {
+			File newFile = getLogFile(generation + 1);
+			File tempFile = new File(directory, newFile.getName() + TEMP_EXTENSION);
+			try {
+				try (FileChannel out = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+					int written = HEADER_SIZE;
+					out.position(HEADER_SIZE);
+					// Keep the records in the order of the log
+					int[] liveRecordStarts = index.getRecords();
+					Arrays.sort(liveRecordStarts);
+					for (int recordStart : liveRecordStarts) {
+						byte[] record = new byte[getLength(recordStart)];
+						get(recordStart, record);
+						writeFully(out, ByteBuffer.wrap(record));
+						written += record.length;
+					}
+					ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+					header.putInt(MAGIC).putInt(VERSION).putInt(written).putInt(0).flip();
+					out.position(0);
+					writeFully(out, header);
+					out.force(true);
+				}
+				Files.move(tempFile.toPath(), newFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				tempFile.delete();
+			}
+			File oldFile = file;
+			close();
+			oldFile.delete();
+			generation++;
+			file = newFile;
+			index.clear();
+			records = 0;
+			liveRecords = 0;
+			open();
+		}
+
+		private void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+			while (buffer.hasRemaining()) {
+				out.write(buffer);
+			}
+		}
+
+		/*
+		 * Write the changes to disk.
+		 */
+		void force() {
+			for (MappedByteBuffer segment : segments) {
+				segment.force();
+			}
+		}
+
+		void close() {
+			force();
+			try {
+				channel.close();
+			} catch (IOException e) {
+				TeamPlugin.log(IStatus.ERROR, NLS.bind(Messages.MappedResourceVariantByteStore_0, file.getPath()), e);
+			}
+			channel = null;
+			segments.clear();
+			capacity = 0;
+		}
+
+		/*
+		 * Close and delete the logs of the project.
+		 */
+		void delete() {
+			if (channel != null) {
+				// Empty the file in case it can't be deleted while it is mapped
+				setEnd(HEADER_SIZE);
+				close();
+			}
+			index.clear();
+			deleteFiles(directory.listFiles(), null);
+		}
+	}
+
+	/*
+	 * The index of the records of a project file that are in use. It is a tree
+	 * of the paths that have a record, and of their ancestors, that is kept in
+	 * int arrays so that it takes a few ints per resource and no objects. A
+	 * node only knows the position of its record. Its name is read from the
+	 * path of that record, or of the record of a descendant if it has none,
+	 * and the children of the nodes are found in a hash table keyed by the
+	 * parent and the name.
+	 */
+	private static final class RecordIndex {
+		private static final int NONE = -1;
+		// The node of the project, which is never removed
+		private static final int ROOT = 0;
+
+		private final ProjectFile log;
+		// The position of the record of each node or NONE
+		private int[] records;
+		// The parent of each node or NONE if the node is free
+		private int[] parents;
+		private int[] firstChildren;
+		// The next sibling of each node, which also links the free nodes
+		private int[] nextSiblings;
+		private int[] previousSiblings;
+		private int[] hashes;
+		private int[] nextInBuckets;
+		private int[] buckets;
+		private int nodeCount;
+		private int freeNodes;
+		// The number of nodes in the hash table, which excludes the root
+		private int size;
+
+		RecordIndex(ProjectFile log) {
+			this.log = log;
+			clear();
+		}
+
+		void clear() {
+			records = new int[16];
+			parents = new int[16];
+			firstChildren = new int[16];
+			nextSiblings = new int[16];
+			previousSiblings = new int[16];
+			hashes = new int[16];
+			nextInBuckets = new int[16];
+			buckets = new int[16];
+			Arrays.fill(buckets, NONE);
+			nodeCount = 1;
+			freeNodes = NONE;
+			size = 0;
+			records[ROOT] = NONE;
+			parents[ROOT] = NONE;
+			firstChildren[ROOT] = NONE;
+			nextSiblings[ROOT] = NONE;
+			previousSiblings[ROOT] = NONE;
+		}
+
+		boolean isEmpty() {
+			return records[ROOT] == NONE && firstChildren[ROOT] == NONE;
+		}
+
+		/*
+		 * Return the position of the record of the given full path or NONE.
+		 */
+		int get(IPath path) {
+			int node = find(path);
+			return node == NONE ? NONE : records[node];
+		}
+
+		/*
+		 * Return whether the given full path or one of its descendants has a record.
+		 */
+		boolean contains(IPath path) {
+			int node = find(path);
+			return node != NONE && (records[node] != NONE || firstChildren[node] != NONE);
+		}
+
+		/*
+		 * Set the position of the record of the given full path and return
+		 * whether the path had no record.
+		 */
+		boolean put(IPath path, int recordStart) {
+			int node = ROOT;
+			for (int i = 1; i < path.segmentCount(); i++) {
+				byte[] name = getBytes(path.segment(i));
+				int hash = hash(node, name);
+				int child = findChild(node, name, hash);
+				node = child == NONE ? addChild(node, hash) : child;
+			}
+			boolean added = records[node] == NONE;
+			records[node] = recordStart;
+			return added;
+		}
+
+		/*
+		 * Remove the record of the given full path and return whether it had one.
+		 */
+		boolean remove(IPath path) {
+			int node = find(path);
+			if (node == NONE || records[node] == NONE)
+				return false;
+			records[node] = NONE;
+			prune(node);
+			return true;
+		}
+
+		/*
+		 * Remove the records of the given full path and its descendants and
+		 * return the number of records that were removed.
+		 */
+		int removeTree(IPath path) {
+			int node = find(path);
+			if (node == NONE)
+				return 0;
+			if (node != ROOT) {
+				int parent = parents[node];
+				int removed = removeSubtree(node);
+				prune(parent);
+				return removed;
+			}
+			int removed = records[ROOT] == NONE ? 0 : 1;
+			records[ROOT] = NONE;
+			while (firstChildren[ROOT] != NONE) {
+				removed += removeSubtree(firstChildren[ROOT]);
+			}
+			return removed;
+		}
+
+		/*
+		 * Return the positions of the records of the children of the given
+		 * full path.
+		 */
+		int[] getChildRecords(IPath path) {
+			int node = find(path);
+			if (node == NONE)
+				return new int[0];
+			int count = 0;
+			for (int child = firstChildren[node]; child != NONE; child = nextSiblings[child]) {
+				if (records[child] != NONE)
+					count++;
+			}
+			int[] childRecords = new int[count];
+			count = 0;
+			for (int child = firstChildren[node]; child != NONE; child = nextSiblings[child]) {
+				if (records[child] != NONE)
+					childRecords[count++] = records[child];
+			}
+			return childRecords;
+		}
+
+		/*
+		 * Return the positions of all the records in the index.
+		 */
+		int[] getRecords() {
+			int[] allRecords = new int[nodeCount];
+			int count = 0;
+			for (int node = 0; node < nodeCount; node++) {
+				if ((node == ROOT || parents[node] != NONE) && records[node] != NONE)
+					allRecords[count++] = records[node];
+			}
+			return Arrays.copyOf(allRecords, count);
+		}
+
+		private int find(IPath path) {
+			int node = ROOT;
+			for (int i = 1; i < path.segmentCount() && node != NONE; i++) {
+				byte[] name = getBytes(path.segment(i));
+				node = findChild(node, name, hash(node, name));
+			}
+			return node;
+		}
+
+		private static byte[] getBytes(String segment) {
+			return segment.getBytes(StandardCharsets.UTF_8);
+		}
+
+		private static int hash(int parent, byte[] name) {
+			int hash = Arrays.hashCode(name) * 31 + parent;
+			return hash ^ hash >>> 16;
+		}
+
+		private int findChild(int parent, byte[] name, int hash) {
+			for (int node = buckets[hash & buckets.length - 1]; node != NONE; node = nextInBuckets[node]) {
+				if (hashes[node] == hash && parents[node] == parent && Arrays.equals(getName(node), name))
+					return node;
+			}
+			return NONE;
+		}
+
+		/*
+		 * Return the name of the given node, which is the segment at the
+		 * depth of the node in the path of its record or of the record of
+		 * one of its descendants. A node other than the root always has
+		 * a record or children.
+		 */
+		private byte[] getName(int node) {
+			int depth = 0;
+			for (int ancestor = node; ancestor != ROOT; ancestor = parents[ancestor]) {
+				depth++;
+			}
+			int descendant = node;
+			while (records[descendant] == NONE) {
+				descendant = firstChildren[descendant];
+			}
+			byte[] path = log.getPath(records[descendant]);
+			int start = 0;
+			for (int i = 1; i < depth; i++) {
+				start = indexOfSeparator(path, start) + 1;
+			}
+			int nameEnd = indexOfSeparator(path, start);
+			return Arrays.copyOfRange(path, start, nameEnd);
+		}
+
+		private static int indexOfSeparator(byte[] path, int start) {
+			for (int i = start; i < path.length; i++) {
+				if (path[i] == '/')
+					return i;
+			}
+			return path.length;
+		}
+
+		private int addChild(int parent, int hash) {
+			if (size == buckets.length)
+				rehash(buckets.length * 2);
+			int node = allocate();
+			records[node] = NONE;
+			parents[node] = parent;
+			firstChildren[node] = NONE;
+			hashes[node] = hash;
+			previousSiblings[node] = NONE;
+			nextSiblings[node] = firstChildren[parent];
+			if (firstChildren[parent] != NONE)
+				previousSiblings[firstChildren[parent]] = node;
+			firstChildren[parent] = node;
+			int bucket = hash & buckets.length - 1;
+			nextInBuckets[node] = buckets[bucket];
+			buckets[bucket] = node;
+			size++;
+			return node;
+		}
+
+		private int allocate() {
+			int node = freeNodes;
+			if (node != NONE) {
+				freeNodes = nextSiblings[node];
+				return node;
+			}
+			if (nodeCount == records.length) {
+				int length = records.length * 2;
+				records = Arrays.copyOf(records, length);
+				parents = Arrays.copyOf(parents, length);
+				firstChildren = Arrays.copyOf(firstChildren, length);
+				nextSiblings = Arrays.copyOf(nextSiblings, length);
+				previousSiblings = Arrays.copyOf(previousSiblings, length);
+				hashes = Arrays.copyOf(hashes, length);
+				nextInBuckets = Arrays.copyOf(nextInBuckets, length);
+			}
+			return nodeCount++;
+		}
+
+		private void rehash(int length) {
+			buckets = new int[length];
+			Arrays.fill(buckets, NONE);
+			for (int node = 1; node < nodeCount; node++) {
+				if (parents[node] != NONE) {
+					int bucket = hashes[node] & length - 1;
+					nextInBuckets[node] = buckets[bucket];
+					buckets[bucket] = node;
+				}
+			}
+		}
+
+		/*
+		 * Remove the given node, which has no children, from its parent and
+		 * the hash table and free it.
+		 */
+		private void unlink(int node) {
+			int parent = parents[node];
+			if (previousSiblings[node] == NONE)
+				firstChildren[parent] = nextSiblings[node];
+			else
+				nextSiblings[previousSiblings[node]] = nextSiblings[node];
+			if (nextSiblings[node] != NONE)
+				previousSiblings[nextSiblings[node]] = previousSiblings[node];
+			int bucket = hashes[node] & buckets.length - 1;
+			if (buckets[bucket] == node) {
+				buckets[bucket] = nextInBuckets[node];
+			} else {
+				int previous = buckets[bucket];
+				while (nextInBuckets[previous] != node) {
+					previous = nextInBuckets[previous];
+				}
+				nextInBuckets[previous] = nextInBuckets[node];
+			}
+			parents[node] = NONE;
+			nextSiblings[node] = freeNodes;
+			freeNodes = node;
+			size--;
+		}
+
+		/*
+		 * Remove the given node, other than the root, and its descendants and
+		 * return the number of records they had.
+		 */
+		private int removeSubtree(int node) {
+			int removed = 0;
+			int current = node;
+			while (true) {
+				while (firstChildren[current] != NONE) {
+					current = firstChildren[current];
+				}
+				if (records[current] != NONE)
+					removed++;
+				int parent = parents[current];
+				unlink(current);
+				if (current == node)
+					return removed;
+				current = parent;
+			}
+		}
+
+		/*
+		 * Remove the given node and its ancestors other than the root while
+		 * they have neither a record nor children.
+		 */
+		private void prune(int node) {
+			while (node != ROOT && records[node] == NONE && firstChildren[node] == NONE) {
+				int parent = parents[node];
+				unlink(node);
+				node = parent;
+			}
+		}
+	}
+
+	/**
+	 * Create a store that keeps its files in the state location of the Team
+	 * plug-in. The given qualified name identifies the store. It must be unique
+	 * and should use the plugin as the local name and a unique id within the
+	 * plugin as the qualifier name.
+	 * @param name the name of the store
+	 */
+	public MappedResourceVariantByteStore(QualifiedName name) {
+		this(TeamPlugin.getPlugin().getStateLocation().append(STORE_DIRECTORY).append(getDirectoryName(name)).toFile());
+	}
+
+	/**
+	 * Create a store that keeps its files in the given directory.
+	 * The directory must not be used for anything else.
+	 * @param directory the directory of the files of the store
+	 */
+	public MappedResourceVariantByteStore(File directory) {
+		this.directory = directory;
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(projectListener, IResourceChangeEvent.POST_CHANGE);
+		synchronized (stores) {
+			if (stores.isEmpty()) {
+				try {
+					ResourcesPlugin.getWorkspace().addSaveParticipant(TeamPlugin.ID, saveParticipant);
+				} catch (CoreException e) {
+					TeamPlugin.log(e);
+				}
+			}
+			stores.add(this);
+		}
+	}
+
+	private static String getDirectoryName(QualifiedName name) {
+		String directoryName = name.toString().replaceAll("[^A-Za-z0-9._-]", "_"); //$NON-NLS-1$ //$NON-NLS-2$
+		return directoryName + '_' + Integer.toHexString(name.toString().hashCode());
+	}
+
+	/**
+	 * Remove the files of this store. Like the disposal of a
+	 * <code>PersistantResourceVariantByteStore</code>, this discards the bytes.
+	 */
+	@Override
+	public void dispose() {
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(projectListener);
+		synchronized (stores) {
+			if (stores.remove(this) && stores.isEmpty())
+				ResourcesPlugin.getWorkspace().removeSaveParticipant(TeamPlugin.ID);
+		}
+		deleteFiles();
+	}
+
+	private synchronized void deleteFiles() {
+		for (ProjectFile projectFile : files.values()) {
+			projectFile.delete();
+		}
+		files.clear();
+		File[] children = directory.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				child.delete();
+			}
+		}
+		directory.delete();
+	}
+
+	/**
+	 * Write the changes to the files of this store to disk and reclaim
+	 * the space taken by bytes that were replaced or removed. This is
+	 * called when the workspace is saved.
+	 */
+	public synchronized void save() {
+		for (ProjectFile projectFile : files.values()) {
+			if (projectFile.channel != null) {
+				compactIfNeeded(projectFile);
+				projectFile.force();
+			}
+		}
+	}
+
+	/*
+	 * Compact the file if it needs it. A failure is only logged since
+	 * the log is still intact and the compaction is tried again later.
+	 */
+	private void compactIfNeeded(ProjectFile projectFile) {
+		if (!projectFile.needsCompaction())
+			return;
+		try {
+			projectFile.compact();
+		} catch (IOException e) {
+			TeamPlugin.log(IStatus.WARNING, NLS.bind(Messages.MappedResourceVariantByteStore_0, projectFile.file.getPath()), e);
+		}
+	}
+
+	/*
+	 * Delete the file of a project that was deleted, like the synchronization
+	 * information of its resources is discarded.
+	 */
+	private synchronized void projectDeleted(IProject project) {
+		ProjectFile projectFile = files.remove(project.getName());
+		if (projectFile == null)
+			projectFile = new ProjectFile(project);
+		projectFile.delete();
+	}
+
+	@Override
+	public synchronized byte[] getBytes(IResource resource) throws TeamException {
+		byte[] syncBytes = internalGetSyncBytes(resource);
+		if (syncBytes != null && syncBytes.length == 0) {
+			// If it is known that there is no remote, return null
+			return null;
+		}
+		return syncBytes;
+	}
+
+	@Override
+	public synchronized byte[][] getBytes(IResource[] resources) throws TeamException {
+		byte[][] bytes = new byte[resources.length][];
+		for (int i = 0; i < resources.length; i++) {
+			bytes[i] = getBytes(resources[i]);
+		}
+		return bytes;
+	}
+
+	@Override
+	public synchronized boolean setBytes(IResource resource, byte[] bytes) throws TeamException {
+		Assert.isNotNull(bytes);
+		Assert.isLegal(resource.getType() != IResource.ROOT);
+		byte[] oldBytes = internalGetSyncBytes(resource);
+		if (oldBytes != null && equals(oldBytes, bytes)) return false;
+		ProjectFile projectFile = getFile(resource.getProject());
+		try {
+			int recordStart = projectFile.appendSet(resource, bytes);
+			if (projectFile.index.put(resource.getFullPath(), recordStart))
+				projectFile.liveRecords++;
+		} catch (IOException e) {
+			throw new TeamException(NLS.bind(Messages.MappedResourceVariantByteStore_0, projectFile.file.getPath()), e);
+		}
+		return true;
+	}
+
+	@Override
+	public synchronized boolean flushBytes(IResource resource, int depth) throws TeamException {
+		if (resource.getType() == IResource.ROOT) {
+			boolean flushed = false;
+			if (depth != IResource.DEPTH_ZERO) {
+				for (IProject project : getProjects(resource)) {
+					flushed |= flushBytes(project, depth == IResource.DEPTH_ONE ? IResource.DEPTH_ZERO : depth);
+				}
+			}
+			return flushed;
+		}
+		ProjectFile projectFile = getFile(resource.getProject());
+		IPath path = resource.getFullPath();
+		try {
+			if (depth == IResource.DEPTH_INFINITE) {
+				if (!projectFile.index.contains(path))
+					return false;
+				// A single record removes the whole subtree
+				projectFile.appendFlush(path, FLUSH_TREE);
+				projectFile.liveRecords -= projectFile.index.removeTree(path);
+				return true;
+			}
+			boolean flushed = flush(projectFile, path);
+			if (depth == IResource.DEPTH_ONE) {
+				for (int recordStart : projectFile.index.getChildRecords(path)) {
+					flushed |= flush(projectFile, path.append(getName(projectFile, recordStart)));
+				}
+			}
+			return flushed;
+		} catch (IOException e) {
+			throw new TeamException(NLS.bind(Messages.MappedResourceVariantByteStore_0, projectFile.file.getPath()), e);
+		}
+	}
+
+	private boolean flush(ProjectFile projectFile, IPath path) throws IOException {
+		if (projectFile.index.get(path) == RecordIndex.NONE)
+			return false;
+		projectFile.appendFlush(path, FLUSH);
+		projectFile.index.remove(path);
+		projectFile.liveRecords--;
+		return true;
+	}
+
+	/*
+	 * Return the name of the resource of the record at the given position.
+	 */
+	private String getName(ProjectFile projectFile, int recordStart) {
+		return projectFile.getFullPath(new String(projectFile.getPath(recordStart), StandardCharsets.UTF_8)).lastSegment();
+	}
+
+	/**
+	 * Return whether the resource variant state for this resource is known.
+	 * This is used to differentiate the case where a resource variant has never been fetched
+	 * from the case where the resource variant is known to not exist. In the later
+	 * case, this method returns <code>true</code> while <code>getBytes</code> returns <code>null</code>
+	 * @param resource the local resource
+	 * @return whether the resource variant state for this resource is known
+	 * @throws TeamException
+	 */
+	public synchronized boolean isVariantKnown(IResource resource) throws TeamException {
+		return internalGetSyncBytes(resource) != null;
+	}
+
+	/**
+	 * This method should be invoked by a client to indicate that it is known that
+	 * there is no remote resource associated with the local resource. After this method
+	 * is invoked, <code>isVariantKnown(resource)</code> will return <code>true</code> and
+	 * <code>getBytes(resource)</code> will return <code>null</code>.
+	 * @return <code>true</code> if this changes the remote sync bytes
+	 */
+	@Override
+	public boolean deleteBytes(IResource resource) throws TeamException {
+		return setBytes(resource, NO_REMOTE);
+	}
+
+	/**
+	 * Return the children of the given resource that have bytes in this store.
+	 * Unlike the children returned by <code>IContainer#members</code>, these may
+	 * not exist locally.
+	 */
+	@Override
+	public synchronized IResource[] members(IResource resource) throws TeamException {
+		if (resource.getType() == IResource.FILE) {
+			return new IResource[0];
+		}
+		IContainer container = (IContainer) resource;
+		if (container.getType() == IResource.ROOT) {
+			List<IResource> projects = new ArrayList<>();
+			for (IProject project : getProjects(container)) {
+				if (getBytes(project) != null)
+					projects.add(project);
+			}
+			return projects.toArray(new IResource[projects.size()]);
+		}
+		ProjectFile projectFile = getFile(container.getProject());
+		int[] childRecords = projectFile.index.getChildRecords(container.getFullPath());
+		List<IResource> members = new ArrayList<>(childRecords.length);
+		for (int recordStart : childRecords) {
+			// Filter and return only resources that have bytes
+			if (!projectFile.isEmpty(recordStart)) {
+				members.add(getHandle(container, getName(projectFile, recordStart), projectFile.getType(recordStart)));
+			}
+		}
+		return members.toArray(new IResource[members.size()]);
+	}
+
+	private IResource getHandle(IContainer parent, String name, int type) {
+		IPath childPath = new Path(null, name);
+		if (type == IResource.FILE)
+			return parent.getFile(childPath);
+		return parent.getFolder(childPath);
+	}
+
+	/*
+	 * Return the projects of the workspace root that have bytes in this store.
+	 */
+	private IProject[] getProjects(IResource root) throws TeamException {
+		loadAll((IWorkspaceRoot) root);
+		List<IProject> projects = new ArrayList<>();
+		for (ProjectFile projectFile : files.values()) {
+			if (!projectFile.index.isEmpty())
+				projects.add(projectFile.project);
+		}
+		return projects.toArray(new IProject[projects.size()]);
+	}
+
+	private void loadAll(IWorkspaceRoot root) throws TeamException {
+		if (allLoaded)
+			return;
+		File[] children = directory.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				String fileName = child.getName();
+				// The name of a log is the project name, the generation and the extension
+				int generationStart = fileName.lastIndexOf('.', fileName.length() - FILE_EXTENSION.length() - 1);
+				if (fileName.endsWith(FILE_EXTENSION) && generationStart > 0) {
+					getFile(root.getProject(fileName.substring(0, generationStart)));
+				}
+			}
+		}
+		allLoaded = true;
+	}
+
+	/*
+	 * Return the file of the given project, loading it if necessary.
+	 */
+	private ProjectFile getFile(IProject project) throws TeamException {
+		ProjectFile projectFile = files.get(project.getName());
+		if (projectFile == null) {
+			projectFile = new ProjectFile(project);
+			try {
+				projectFile.load();
+			} catch (IOException e) {
+				if (projectFile.channel != null) {
+					try {
+						projectFile.channel.close();
+					} catch (IOException e1) {
+						// Ignore so the original exception is reported
+					}
+				}
+				throw new TeamException(NLS.bind(Messages.MappedResourceVariantByteStore_0, projectFile.file.getPath()), e);
+			}
+			compactIfNeeded(projectFile);
+			files.put(project.getName(), projectFile);
+		}
+		return projectFile;
+	}
+
+	private byte[] internalGetSyncBytes(IResource resource) throws TeamException {
+		if (resource.getType() == IResource.ROOT)
+			return null;
+		ProjectFile projectFile = getFile(resource.getProject());
+		int recordStart = projectFile.index.get(resource.getFullPath());
+		if (recordStart == RecordIndex.NONE)
+			return null;
+		return projectFile.getBytes(recordStart);
+	}
+}
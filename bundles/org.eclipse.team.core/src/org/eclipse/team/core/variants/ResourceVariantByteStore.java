@@ -55,6 +55,25 @@ public abstract class ResourceVariantByteStore {
 	 */
 	public abstract byte[] getBytes(IResource resource) throws TeamException;
 
+	/**
+	 * Return the bytes for the variants corresponding to the given local resources.
+	 * The bytes are those that {@link #getBytes(IResource)} returns for each resource.
+	 * By default, <code>getBytes(IResource)</code> is called for each resource.
+	 * Subclasses may override to look up the bytes of all the resources at once.
+	 * @param resources the local resources
+	 * @return the bytes that represent the resources' variants, in the order of the
+	 * given resources
+	 * @throws TeamException
+	 * @since 3.9
+	 */
+	public byte[][] getBytes(IResource[] resources) throws TeamException {
+		byte[][] bytes = new byte[resources.length][];
+		for (int i = 0; i < resources.length; i++) {
+			bytes[i] = getBytes(resources[i]);
+		}
+		return bytes;
+	}
+
 	/**
 	 * Set the bytes for the variant corresponding the given local resource.
 	 * The bytes should never be <code>null</code>. If it is known that the remote
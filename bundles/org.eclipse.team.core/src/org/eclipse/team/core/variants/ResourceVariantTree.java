@@ -44,6 +44,25 @@ public abstract class ResourceVariantTree extends AbstractResourceVariantTree {
 		return getByteStore().members(resource);
 	}
 
+	/**
+	 * Return the resource variants of the given resources. The variant of a
+	 * resource is the one returned by {@link #getResourceVariant(IResource)}.
+	 * By default, <code>getResourceVariant(IResource)</code> is called for each
+	 * resource. Subclasses may override to obtain the bytes of all the
+	 * resources from the byte store at once.
+	 * @param resources the local resources
+	 * @return the resource variants, in the order of the given resources
+	 * @throws TeamException
+	 * @since 3.9
+	 */
+	public IResourceVariant[] getResourceVariants(IResource[] resources) throws TeamException {
+		IResourceVariant[] variants = new IResourceVariant[resources.length];
+		for (int i = 0; i < resources.length; i++) {
+			variants[i] = getResourceVariant(resources[i]);
+		}
+		return variants;
+	}
+
 	@Override
 	public boolean hasResourceVariant(IResource resource) throws TeamException {
 		return getByteStore().getBytes(resource) != null;
@@ -49,6 +49,15 @@ public abstract class ThreeWayRemoteTree extends ResourceVariantTree {
 			return getSynchronizer().getRemoteBytes(resource);
 		}
 		@Override
+		public byte[][] getBytes(IResource[] resources) throws TeamException {
+			ThreeWaySyncStates states = getSynchronizer().getSyncStates(resources);
+			byte[][] bytes = new byte[states.size()][];
+			for (int i = 0; i < bytes.length; i++) {
+				bytes[i] = states.getRemoteBytes(i);
+			}
+			return bytes;
+		}
+		@Override
 		public boolean setBytes(IResource resource, byte[] bytes) throws TeamException {
 			return getSynchronizer().setRemoteBytes(resource, bytes);
 		}
@@ -95,6 +104,23 @@ public abstract class ThreeWayRemoteTree extends ResourceVariantTree {
 		return getSubscriber().getResourceVariant(resource, getByteStore().getBytes(resource));
 	}
 
+	/**
+	 * Return the resource variants of the given resources. The remote bytes
+	 * of all the resources are obtained from the synchronizer at once.
+	 * Subclasses that override <code>getResourceVariant(IResource)</code>
+	 * must override this method as well.
+	 * @since 3.9
+	 */
+	@Override
+	public IResourceVariant[] getResourceVariants(IResource[] resources) throws TeamException {
+		byte[][] bytes = getByteStore().getBytes(resources);
+		IResourceVariant[] variants = new IResourceVariant[resources.length];
+		for (int i = 0; i < resources.length; i++) {
+			variants[i] = getSubscriber().getResourceVariant(resources[i], bytes[i]);
+		}
+		return variants;
+	}
+
 	/**
 	 * Return the subscriber associated with this resource variant tree.
 	 * @return the subscriber associated with this resource variant tree
@@ -48,14 +48,17 @@ public class ThreeWayResourceComparator implements IResourceVariantComparator {
 			return false;
 		}
 		try {
+			// Obtain the state of the local resource at once
+			ThreeWaySyncStates states = getSynchronizer().getSyncStates(new IResource[] { local });
 			// If the file is locally modified, it cannot be in sync
-			if (local.getType() == IResource.FILE && getSynchronizer().isLocallyModified(local)) {
+			if (local.getType() == IResource.FILE && states.isLocallyModified(0)) {
 				return false;
 			}
 			// If there is no base, the local cannot match the remote
-			if (getSynchronizer().getBaseBytes(local) == null) return false;
+			byte[] baseBytes = states.getBaseBytes(0);
+			if (baseBytes == null) return false;
 			// Otherwise, assume they are the same if the remote equals the base
-			return equals(getSynchronizer().getBaseBytes(local), getBytes(remote));
+			return equals(baseBytes, getBytes(remote));
 		} catch (TeamException e) {
 			TeamPlugin.log(e);
 			return false;
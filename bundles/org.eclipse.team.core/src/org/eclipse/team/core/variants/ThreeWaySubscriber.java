@@ -13,12 +13,16 @@
  *******************************************************************************/
 package org.eclipse.team.core.variants;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.team.core.Team;
 import org.eclipse.team.core.TeamException;
 import org.eclipse.team.core.subscribers.ISubscriberChangeEvent;
 import org.eclipse.team.core.subscribers.SubscriberChangeEvent;
+import org.eclipse.team.core.synchronize.SyncInfo;
 import org.eclipse.team.internal.core.TeamPlugin;
 import org.eclipse.team.internal.core.subscribers.ThreeWayBaseTree;
 
@@ -81,6 +85,48 @@ public abstract class ThreeWaySubscriber extends ResourceVariantTreeSubscriber i
 		fireTeamResourceChange(SubscriberChangeEvent.asSyncChangedDeltas(this, resources));
 	}
 
+	/**
+	 * Return the synchronization info of the given resources. The variants
+	 * of the supervised resources are obtained from the remote and base trees
+	 * at once, which reads the bytes of all the resources from the synchronizer
+	 * in one pass. Subclasses that override <code>getSyncInfo(IResource)</code>
+	 * must override this method as well.
+	 * @since 3.9
+	 */
+	@Override
+	public SyncInfo[] getSyncInfos(IResource[] resources) throws TeamException {
+		List<IResource> supervised = new ArrayList<>(resources.length);
+		for (IResource resource : resources) {
+			if (isSupervised(resource))
+				supervised.add(resource);
+		}
+		IResource[] supervisedResources = supervised.toArray(new IResource[supervised.size()]);
+		IResourceVariant[] remoteResources = getResourceVariants(getRemoteTree(), supervisedResources);
+		IResourceVariant[] baseResources = null;
+		if (getResourceComparator().isThreeWay()) {
+			baseResources = getResourceVariants(getBaseTree(), supervisedResources);
+		}
+		SyncInfo[] infos = new SyncInfo[resources.length];
+		for (int i = 0, j = 0; i < resources.length && j < supervisedResources.length; i++) {
+			if (resources[i] == supervisedResources[j]) {
+				infos[i] = getSyncInfo(resources[i], baseResources == null ? null : baseResources[j], remoteResources[j]);
+				j++;
+			}
+		}
+		return infos;
+	}
+
+	private IResourceVariant[] getResourceVariants(IResourceVariantTree tree, IResource[] resources) throws TeamException {
+		if (tree instanceof ResourceVariantTree) {
+			return ((ResourceVariantTree) tree).getResourceVariants(resources);
+		}
+		IResourceVariant[] variants = new IResourceVariant[resources.length];
+		for (int i = 0; i < resources.length; i++) {
+			variants[i] = tree.getResourceVariant(resources[i]);
+		}
+		return variants;
+	}
+
 	/**
 	 * Returns <code>false</code> for resources that are not children
 	 * of a subscriber root, are ignored by the subscriber's synchronizer
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.core.variants;
+
+import org.eclipse.core.resources.IResource;
+
+/**
+ * The synchronization state of several resources as it was cached in a
+ * {@link ThreeWaySynchronizer} when the state was obtained. The states are
+ * obtained all at once, which is faster than querying the synchronizer for
+ * each resource when the state of many resources is needed.
+ * <p>
+ * The state of a resource is accessed using its index, which ranges from 0 to
+ * <code>size() - 1</code>. The state does not change when the synchronizer
+ * is modified.
+ * </p>
+ *
+ * @see ThreeWaySynchronizer#getSyncStates(IResource[])
+ * @since 3.9
+ * @noinstantiate This class is not intended to be instantiated by clients.
+ */
+public final class ThreeWaySyncStates {
+
+	static final byte HAS_SYNC_BYTES = 0x1;
+	static final byte IGNORED = 0x2;
+	static final byte LOCALLY_MODIFIED = 0x4;
+
+	private final IResource[] resources;
+	private final byte[][] baseBytes;
+	private final byte[][] remoteBytes;
+	private final byte[] flags;
+
+	ThreeWaySyncStates(IResource[] resources) {
+		this.resources = resources;
+		this.baseBytes = new byte[resources.length][];
+		this.remoteBytes = new byte[resources.length][];
+		this.flags = new byte[resources.length];
+	}
+
+	void setState(int index, byte[] base, byte[] remote, byte flags) {
+		baseBytes[index] = base;
+		remoteBytes[index] = remote;
+		this.flags[index] = flags;
+	}
+
+	/**
+	 * Return the number of resources whose state is contained.
+	 * @return the number of resources
+	 */
+	public int size() {
+		return resources.length;
+	}
+
+	/**
+	 * Return the resources whose state is contained.
+	 * @return the resources
+	 */
+	public IResource[] getResources() {
+		return resources.clone();
+	}
+
+	/**
+	 * Return the resource at the given index.
+	 * @param index the index of the resource
+	 * @return the resource at the given index
+	 */
+	public IResource getResource(int index) {
+		return resources[index];
+	}
+
+	/**
+	 * Return the index of the given resource or -1 if the state
+	 * of the resource is not contained.
+	 * @param resource the resource
+	 * @return the index of the resource or -1
+	 */
+	public int indexOf(IResource resource) {
+		for (int i = 0; i < resources.length; i++) {
+			if (resources[i].equals(resource))
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Return the base bytes of the resource at the given index.
+	 * @param index the index of the resource
+	 * @return the base bytes or <code>null</code>
+	 * @see ThreeWaySynchronizer#getBaseBytes(IResource)
+	 */
+	public byte[] getBaseBytes(int index) {
+		return baseBytes[index];
+	}
+
+	/**
+	 * Return the remote bytes of the resource at the given index.
+	 * @param index the index of the resource
+	 * @return the remote bytes or <code>null</code>
+	 * @see ThreeWaySynchronizer#getRemoteBytes(IResource)
+	 */
+	public byte[] getRemoteBytes(int index) {
+		return remoteBytes[index];
+	}
+
+	/**
+	 * Return whether the resource at the given index has sync bytes.
+	 * @param index the index of the resource
+	 * @return whether the resource has sync bytes
+	 * @see ThreeWaySynchronizer#hasSyncBytes(IResource)
+	 */
+	public boolean hasSyncBytes(int index) {
+		return (flags[index] & HAS_SYNC_BYTES) != 0;
+	}
+
+	/**
+	 * Return whether the resource at the given index is ignored.
+	 * @param index the index of the resource
+	 * @return whether the resource is ignored
+	 * @see ThreeWaySynchronizer#isIgnored(IResource)
+	 */
+	public boolean isIgnored(int index) {
+		return (flags[index] & IGNORED) != 0;
+	}
+
+	/**
+	 * Return whether the resource at the given index was modified
+	 * locally.
+	 * @param index the index of the resource
+	 * @return whether the resource was modified locally
+	 * @see ThreeWaySynchronizer#isLocallyModified(IResource)
+	 */
+	public boolean isLocallyModified(int index) {
+		return (flags[index] & LOCALLY_MODIFIED) != 0;
+	}
+}
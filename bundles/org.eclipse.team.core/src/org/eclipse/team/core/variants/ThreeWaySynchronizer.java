@@ -346,22 +346,33 @@ public class ThreeWaySynchronizer {
 		if (resource.getType() == IResource.FILE) {
 			return new IResource[0];
 		}
-		try {
-			Set<IResource> potentialChildren = new HashSet<>();
-			IContainer container = (IContainer)resource;
-			if (container.exists()) {
-				potentialChildren.addAll(Arrays.asList(container.members()));
+		IResource[] potentialChildren = getPotentialMembers(resource);
+		byte[][] bytes = cache.getBytes(potentialChildren);
+		List<IResource> result = new ArrayList<>(potentialChildren.length);
+		for (int i = 0; i < potentialChildren.length; i++) {
+			if (isMember(potentialChildren[i], bytes[i])) {
+				result.add(potentialChildren[i]);
 			}
-			potentialChildren.addAll(Arrays.asList(cache.members(resource)));
-			List<IResource> result = new ArrayList<>();
-			for (IResource child : potentialChildren) {
-				if (child.exists() || hasSyncBytes(child)) {
-					result.add(child);
-				}
-			}
-			return result.toArray(new IResource[result.size()]);
-		} catch (CoreException e) {
-			throw TeamException.asTeamException(e);
+		}
+		return result.toArray(new IResource[result.size()]);
+	}
+
+	/**
+	 * Return the synchronization state of the given resources. The state of
+	 * all the resources is obtained at once, which is faster than querying
+	 * the state of each resource.
+	 * @param resources the local resources
+	 * @return the synchronization state of the given resources
+	 * @throws TeamException
+	 * @since 3.9
+	 */
+	public ThreeWaySyncStates getSyncStates(IResource[] resources) throws TeamException {
+		IResource[] copy = resources.clone();
+		try {
+			beginOperation();
+			return createStates(copy, cache.getBytes(copy));
+		} finally {
+			endOperation();
 		}
 	}
 
@@ -451,6 +462,68 @@ public class ThreeWaySynchronizer {
 		return cache.setBytes(resource, syncBytes);
 	}
 
+	/*
+	 * Return the children of the given container and the resources
+	 * that have bytes cached as children of the container.
+	 */
+	private IResource[] getPotentialMembers(IResource resource) throws TeamException {
+		try {
+			Set<IResource> potentialChildren = new HashSet<>();
+			IContainer container = (IContainer)resource;
+			if (container.exists()) {
+				potentialChildren.addAll(Arrays.asList(container.members()));
+			}
+			potentialChildren.addAll(Arrays.asList(cache.members(resource)));
+			return potentialChildren.toArray(new IResource[potentialChildren.size()]);
+		} catch (CoreException e) {
+			throw TeamException.asTeamException(e);
+		}
+	}
+
+	/*
+	 * Return whether the given resource exists or has sync bytes
+	 * given its cached bytes.
+	 */
+	private boolean isMember(IResource child, byte[] bytes) {
+		return child.exists() || (bytes != null && !equals(bytes, IGNORED_BYTES));
+	}
+
+	/*
+	 * Create the state of the given resources from their cached bytes.
+	 * This is equivalent to calling the individual accessors for
+	 * each resource but the sync bytes are only obtained once.
+	 */
+	private ThreeWaySyncStates createStates(IResource[] resources, byte[][] bytes) {
+		ThreeWaySyncStates states = new ThreeWaySyncStates(resources);
+		for (int i = 0; i < resources.length; i++) {
+			IResource resource = resources[i];
+			boolean ignored = bytes[i] != null && equals(bytes[i], IGNORED_BYTES);
+			byte[] syncBytes = ignored ? null : bytes[i];
+			byte[] baseBytes = null;
+			byte[] remoteBytes = null;
+			long localTimestamp = -1;
+			if (syncBytes != null) {
+				byte[] timestampBytes = getSlot(syncBytes, 0);
+				if (timestampBytes != null && timestampBytes.length > 0)
+					localTimestamp = Long.parseLong(new String(timestampBytes));
+				baseBytes = getSlot(syncBytes, 1);
+				if (baseBytes != null && baseBytes.length == 0) baseBytes = null;
+				remoteBytes = getSlot(syncBytes, 2);
+				if (remoteBytes != null && remoteBytes.length == 0) remoteBytes = null;
+			}
+			// See isLocallyModified(IResource)
+			boolean modified = (syncBytes == null && !ignored)
+					|| localTimestamp != resource.getModificationStamp()
+					|| (baseBytes != null && !resource.exists());
+			byte flags = 0;
+			if (syncBytes != null) flags |= ThreeWaySyncStates.HAS_SYNC_BYTES;
+			if (ignored) flags |= ThreeWaySyncStates.IGNORED;
+			if (modified) flags |= ThreeWaySyncStates.LOCALLY_MODIFIED;
+			states.setState(i, baseBytes, remoteBytes, flags);
+		}
+		return states;
+	}
+
 	private byte[] getSlot(byte[] syncBytes, int i) {
 		return SyncByteConverter.getSlot(syncBytes, i, false);
 	}
@@ -13,8 +13,12 @@
  *******************************************************************************/
 package org.eclipse.team.internal.core;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspaceRunnable;
@@ -48,11 +52,14 @@ import org.eclipse.team.core.TeamException;
  * directly or queue events on an outgoing event queue</li>
  * <li>The <code>doDispatchEvents</code> method of the subclass is called at certain intervals
  * to give the subclass a chance to dispatch the events in it's outgoing queue. The interval between
- * the first 3 dispatches will be the <code>shortDispatchDelay</code> and subsequent intervals will be
- * the <code>longDispatchDelay</code>. This is done to avoid constantly hammering the UI for long running
- * operations.<li>
+ * the first 3 dispatches will be the <code>shortDispatchDelay</code>. If events keep arriving in a burst,
+ * subsequent intervals will be the <code>longDispatchDelay</code>. Intervals are also stretched when
+ * dispatching is expensive. This is done to avoid constantly hammering the UI for long running
+ * operations. The measurements that drive this are available from <code>getDispatchPolicy</code>.<li>
  * <li>Errors that occur during event processing or dispatch can be accumulated by calling the <code>handle</code>
  * method. Accumulated errors are used to form the status that is returned when the job completes.<li>
+ * <li>Resource events that subclasses declare as coalescable (see <code>isCoalescable</code>) are dropped
+ * when an identical event is still waiting to be processed.</li>
  * </ul>
  * </p>
  *
@@ -66,7 +73,23 @@ public abstract class BackgroundEventHandler {
 	public static final int RUNNABLE_EVENT = 1000;
 
 	// Events that need to be processed
-	private List<Event> awaitingProcessing = new ArrayList<>();
+	private final Deque<Event> awaitingProcessing = new ConcurrentLinkedDeque<>();
+
+	// The coalescable events that are waiting to be processed, keyed by resource, type and depth
+	private final Map<EventKey, PendingEvent> pendingEvents = new ConcurrentHashMap<>();
+
+	// Orders the events that are queued at the end of the queue
+	private final AtomicLong eventSequence = new AtomicLong();
+
+	// The sequence number of the last queued event that may not be reordered with coalescable events
+	private final AtomicLong barrier = new AtomicLong();
+
+	// Decides when to dispatch based on the arrival of events and the cost of dispatching
+	private final DispatchPolicy dispatchPolicy = new DispatchPolicy();
+
+	// Used to wake up the job when it waits for events to be queued
+	private final Object queueSignal = new Object();
+	private volatile boolean waitingForEvents;
 
 	// The job that runs when events need to be processed
 	private Job eventHandlerJob;
@@ -89,9 +112,6 @@ public abstract class BackgroundEventHandler {
 	// time between dispatches if the dispatch threshold has been exceeded
 	private static final long LONG_DISPATCH_DELAY = 10000;
 
-	// the number of dispatches that can occur before using the long delay
-	private static final int DISPATCH_THRESHOLD = 3;
-
 	// time to wait for messages to be queued
 	private static final long WAIT_DELAY = 100;
 
@@ -166,6 +186,55 @@ public abstract class BackgroundEventHandler {
 		}
 	}
 
+	/*
+	 * Identifies identical resource events.
+	 */
+	private static final class EventKey {
+		private final IResource resource;
+		private final int type;
+		private final int depth;
+		EventKey(ResourceEvent event) {
+			resource = event.getResource();
+			type = event.getType();
+			depth = event.getDepth();
+		}
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof EventKey))
+				return false;
+			EventKey other = (EventKey) obj;
+			return type == other.type && depth == other.depth && resource.equals(other.resource);
+		}
+		@Override
+		public int hashCode() {
+			return (resource.hashCode() * 31 + type) * 31 + depth;
+		}
+	}
+
+	/*
+	 * A coalescable event that is waiting to be processed.
+	 */
+	private static final class PendingEvent {
+		final Event event;
+		final long sequence;
+		// The number of events that were merged into this one or -1 once it has been taken from the queue
+		private final AtomicInteger merged = new AtomicInteger();
+		PendingEvent(Event event, long sequence) {
+			this.event = event;
+			this.sequence = sequence;
+		}
+		boolean merge() {
+			for (int count = merged.get(); count >= 0; count = merged.get()) {
+				if (merged.compareAndSet(count, count + 1))
+					return true;
+			}
+			return false;
+		}
+		void take() {
+			merged.set(-1);
+		}
+	}
+
 	/**
 	 * This is a special event used to run some work in the background.
 	 * The preemptive flag is used to indicate that the runnable should take
@@ -264,9 +333,9 @@ public abstract class BackgroundEventHandler {
 	protected void jobDone(IJobChangeEvent event) {
 		if (isShutdown()) {
 			// The handler has been shutdown. Clean up the queue.
-			synchronized(this) {
-				awaitingProcessing.clear();
-			}
+			awaitingProcessing.clear();
+			pendingEvents.clear();
+			dispatchPolicy.queueCleared();
 		} else if (! isQueueEmpty()) {
 			// An event squeaked in as the job was finishing. Reschedule the job.
 			schedule();
@@ -302,24 +371,73 @@ public abstract class BackgroundEventHandler {
 	 * already running then notify in case it was waiting.
 	 * @param event the event to be queued
 	 */
-	protected synchronized void queueEvent(Event event, boolean front) {
+	protected void queueEvent(Event event, boolean front) {
 		if (Policy.DEBUG_BACKGROUND_EVENTS) {
 			System.out.println("Event queued on " + getName() + ":" + event.toString()); //$NON-NLS-1$ //$NON-NLS-2$
 		}
 		if (front) {
-			awaitingProcessing.add(0, event);
+			awaitingProcessing.addFirst(event);
+		} else if (event instanceof ResourceEvent && isCoalescable(event)) {
+			if (!coalesce((ResourceEvent) event))
+				return;
 		} else {
-			awaitingProcessing.add(event);
+			awaitingProcessing.addLast(event);
+			// Coalescable events that are ahead of this one may not be merged with later ones.
+			// They got their sequence number before they were queued, so it is smaller than this one.
+			barrier.accumulateAndGet(eventSequence.incrementAndGet(), Math::max);
 		}
+		dispatchPolicy.eventQueued();
 		if (!isShutdown() && eventHandlerJob != null) {
 			if(eventHandlerJob.getState() == Job.NONE) {
 				schedule();
-			} else {
-				notify();
+			} else if (waitingForEvents) {
+				synchronized (queueSignal) {
+					queueSignal.notifyAll();
+				}
+			}
+		}
+	}
+
+	/*
+	 * Queue the given event unless an identical event is waiting to be processed and
+	 * only coalescable events have been queued since. Return whether the event was queued.
+	 */
+	private boolean coalesce(ResourceEvent event) {
+		EventKey key = new EventKey(event);
+		PendingEvent pending = new PendingEvent(event, eventSequence.incrementAndGet());
+		while (true) {
+			PendingEvent existing = pendingEvents.putIfAbsent(key, pending);
+			if (existing == null) {
+				awaitingProcessing.addLast(event);
+				return true;
+			}
+			// The existing event has not been processed yet so it will see the change
+			if (existing.sequence > barrier.get() && existing.merge()) {
+				if (Policy.DEBUG_BACKGROUND_EVENTS) {
+					System.out.println("Event coalesced on " + getName() + ":" + event.toString()); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				return false;
+			}
+			if (pendingEvents.replace(key, existing, pending)) {
+				awaitingProcessing.addLast(event);
+				return true;
 			}
 		}
 	}
 
+	/**
+	 * Return whether the given resource event can be dropped if an identical event
+	 * (same resource, type and depth) is still waiting to be processed. This is only
+	 * the case if processing the event has the same result at any later time and if it
+	 * has the same result in any order relative to other coalescable events. Events
+	 * that are not coalescable are never reordered. The default is to coalesce no events.
+	 * @param event a resource event
+	 * @return whether the event can be coalesced
+	 */
+	protected boolean isCoalescable(Event event) {
+		return false;
+	}
+
 	/**
 	 * Return the name that is to be associated with the background job.
 	 * @return the job name
@@ -332,25 +450,38 @@ public abstract class BackgroundEventHandler {
 	 * Return the next event that has been queued, removing it from the queue.
 	 * @return the next event in the queue
 	 */
-	protected synchronized Event nextElement() {
-		if (isShutdown() || isQueueEmpty()) {
+	protected Event nextElement() {
+		if (isShutdown()) {
 			return null;
 		}
-		return awaitingProcessing.remove(0);
+		Event event = awaitingProcessing.pollFirst();
+		if (event != null) {
+			dispatchPolicy.eventTaken();
+		}
+		if (event instanceof ResourceEvent && !pendingEvents.isEmpty()) {
+			EventKey key = new EventKey((ResourceEvent) event);
+			PendingEvent pending = pendingEvents.get(key);
+			if (pending != null && pending.event == event) {
+				// Events queued from now on are processed after this one
+				pending.take();
+				pendingEvents.remove(key, pending);
+			}
+		}
+		return event;
 	}
 
-	protected synchronized Event peek() {
-		if (isShutdown() || isQueueEmpty()) {
+	protected Event peek() {
+		if (isShutdown()) {
 			return null;
 		}
-		return awaitingProcessing.get(0);
+		return awaitingProcessing.peekFirst();
 	}
 
 	/**
 	 * Return whether there are unprocessed events on the event queue.
 	 * @return whether there are unprocessed events on the queue
 	 */
-	protected synchronized boolean isQueueEmpty() {
+	protected boolean isQueueEmpty() {
 		return awaitingProcessing.isEmpty();
 	}
 
@@ -406,9 +537,14 @@ public abstract class BackgroundEventHandler {
 	 * @throws TeamException
 	 */
 	protected final void dispatchEvents(IProgressMonitor monitor) throws TeamException {
+		long start = System.nanoTime();
 		if (doDispatchEvents(monitor)) {
 			// something was dispatched so adjust dispatch count.
 			dispatchCount++;
+			dispatchPolicy.dispatched(System.nanoTime() - start);
+			if (Policy.DEBUG_BACKGROUND_EVENTS) {
+				System.out.println("Events dispatched on " + getName() + ": " + dispatchPolicy); //$NON-NLS-1$ //$NON-NLS-2$
+			}
 		}
 		timeOfLastDispatch = System.currentTimeMillis();
 	}
@@ -437,17 +573,24 @@ public abstract class BackgroundEventHandler {
 		if (isDispatchDelayExceeded())
 			return true;
 
-		synchronized(this) {
-			// If we have incoming events, process them before dispatching
-			if(! isQueueEmpty() || ! wait) {
-				return false;
-			}
-			// There are no incoming events but we want to wait a little before
-			// dispatching in case more events come in.
+		// If we have incoming events, process them before dispatching
+		if(! isQueueEmpty() || ! wait) {
+			return false;
+		}
+		synchronized(queueSignal) {
+			waitingForEvents = true;
 			try {
-				wait(getDispatchWaitDelay());
+				// Check again now that queueEvent will notify us
+				if (! isQueueEmpty()) {
+					return false;
+				}
+				// There are no incoming events but we want to wait a little before
+				// dispatching in case more events come in.
+				queueSignal.wait(getDispatchWaitDelay());
 			} catch (InterruptedException e) {
 				// just continue
+			} finally {
+				waitingForEvents = false;
 			}
 		}
 		return isQueueEmpty() || isDispatchDelayExceeded();
@@ -455,23 +598,25 @@ public abstract class BackgroundEventHandler {
 
 	private boolean isDispatchDelayExceeded() {
 		long duration = System.currentTimeMillis() - timeOfLastDispatch;
-		return ((dispatchCount < DISPATCH_THRESHOLD && duration >= getShortDispatchDelay()) ||
-				duration >= getLongDispatchDelay());
+		return duration >= dispatchPolicy.getDispatchDelay(dispatchCount, getShortDispatchDelay(), getLongDispatchDelay());
 	}
 
 	/**
 	 * Return the amount of time to wait for more events before dispatching.
+	 * The default is 100 milliseconds unless events are arriving too slowly
+	 * for more to be expected within that time.
 	 * @return the amount of time to wait for more events before dispatching.
 	 */
 	protected long getDispatchWaitDelay() {
-		return WAIT_DELAY;
+		return dispatchPolicy.getWaitDelay(WAIT_DELAY);
 	}
 
 	/**
 	 * Return the value that is used to determine how often
 	 * the events are dispatched (i.e. how often the UI is
-	 * updated) for the first 3 cycles. The default value is 1.5 seconds.
-	 * After the first 3 cycles, a longer delay is used
+	 * updated) for the first 3 cycles and whenever events are not
+	 * arriving in a burst. The default value is 1.5 seconds.
+	 * After the first 3 cycles of a burst, a longer delay is used
 	 * @return the dispatch delay used for the first 3 cycles.
 	 */
 	protected long getShortDispatchDelay() {
@@ -481,7 +626,7 @@ public abstract class BackgroundEventHandler {
 	/**
 	 * Return the value that is used to determine how often
 	 * the events are dispatched (i.e. how often the UI is
-	 * updated) after the first 3 cycles. The default value is 10 seconds.
+	 * updated) after the first 3 cycles of a burst. The default value is 10 seconds.
 	 * @return the dispatch delay used after the first 3 cycles.
 	 */
 	protected long getLongDispatchDelay() {
@@ -512,6 +657,15 @@ public abstract class BackgroundEventHandler {
 	 */
 	protected abstract void processEvent(Event event, IProgressMonitor monitor) throws CoreException;
 
+	/**
+	 * Return the policy that decides when processed events are dispatched. It
+	 * provides measurements of the events handled by this handler.
+	 * @return the dispatch policy
+	 */
+	public DispatchPolicy getDispatchPolicy() {
+		return dispatchPolicy;
+	}
+
 	/**
 	 * Return the job from which the <code>processedEvent</code> method is invoked.
 	 * @return Returns the background event handling job.
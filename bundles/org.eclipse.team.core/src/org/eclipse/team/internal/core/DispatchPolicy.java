@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.internal.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides how often a {@link BackgroundEventHandler} dispatches its processed
+ * events, based on how fast events arrive, how many are waiting and how long
+ * dispatching takes.
+ * <ul>
+ * <li>When events trickle in, the handler dispatches as soon as the queue is
+ * empty instead of waiting for further events that are unlikely to come.</li>
+ * <li>During a burst, the handler dispatches less often, the more so the longer
+ * dispatching takes, so that the receivers of the events are not updated over
+ * and over.</li>
+ * </ul>
+ * The measurements are also available to clients, e.g. for tracing.
+ */
+public class DispatchPolicy {
+
+	// the number of dispatches that use the short delay at the start of a burst
+	private static final int DISPATCH_THRESHOLD = 3;
+
+	// the arrival rate (events per second) above which events are considered a burst
+	private static final long BURST_RATE = 200;
+
+	// the number of waiting events above which events are considered a burst
+	private static final int BURST_PENDING = 500;
+
+	// the delay between dispatches is at least this multiple of the time a dispatch takes
+	private static final int DISPATCH_COST_FACTOR = 10;
+
+	// the time to wait for more events when they trickle in
+	private static final long TRICKLE_WAIT_DELAY = 10;
+
+	// the weight of the previous average in the moving averages, as a power of 2
+	private static final int AVERAGE_SHIFT = 3;
+
+	// the weight of a new measurement in the moving averages
+	private static final double AVERAGE_WEIGHT = 1.0 / (1 << AVERAGE_SHIFT);
+
+	private final AtomicLong lastArrival = new AtomicLong();
+	private final AtomicLong averageArrivalGap = new AtomicLong(TimeUnit.SECONDS.toNanos(1));
+	private final AtomicInteger pendingCount = new AtomicInteger();
+
+	// only updated by the job of the handler
+	private volatile double averageDispatchTime;
+	private volatile double averageBatchSize;
+	private volatile int batchSize;
+	private volatile long dispatchCount;
+
+	/**
+	 * Record that an event was queued.
+	 */
+	void eventQueued() {
+		pendingCount.incrementAndGet();
+		long now = System.nanoTime();
+		long previous = lastArrival.getAndSet(now);
+		if (previous != 0) {
+			long gap = now - previous;
+			averageArrivalGap.accumulateAndGet(gap, (average, g) -> average + ((g - average) >> AVERAGE_SHIFT));
+		}
+	}
+
+	/**
+	 * Record that an event was taken from the queue to be processed.
+	 */
+	void eventTaken() {
+		pendingCount.decrementAndGet();
+		batchSize++;
+	}
+
+	/**
+	 * Record that the queue was cleared.
+	 */
+	void queueCleared() {
+		pendingCount.set(0);
+	}
+
+	/**
+	 * Record a dispatch of the events processed since the previous one.
+	 * @param duration the time the dispatch took in nanoseconds
+	 */
+	void dispatched(long duration) {
+		// The first measurements are taken as they are
+		double weight = dispatchCount < (1 << AVERAGE_SHIFT) ? 1.0 / (dispatchCount + 1) : AVERAGE_WEIGHT;
+		averageDispatchTime += (duration - averageDispatchTime) * weight;
+		averageBatchSize += (batchSize - averageBatchSize) * weight;
+		batchSize = 0;
+		dispatchCount++;
+	}
+
+	/**
+	 * Return the time to wait between dispatches.
+	 * @param dispatches the number of dispatches since the handler started processing
+	 * @param shortDelay the delay to use when events are not arriving in a burst
+	 * @param longDelay the delay to use during a long burst, which is also the longest delay
+	 * @return the time to wait between dispatches in milliseconds
+	 */
+	public long getDispatchDelay(int dispatches, long shortDelay, long longDelay) {
+		long delay = dispatches < DISPATCH_THRESHOLD || !isBurst() ? shortDelay : longDelay;
+		long costDelay = DISPATCH_COST_FACTOR * TimeUnit.NANOSECONDS.toMillis((long) averageDispatchTime);
+		return Math.max(delay, Math.min(costDelay, longDelay));
+	}
+
+	/**
+	 * Return the time to wait for more events before dispatching when the queue is empty.
+	 * @param waitDelay the time to wait when events arrive in quick succession
+	 * @return the time to wait in milliseconds
+	 */
+	public long getWaitDelay(long waitDelay) {
+		// Don't wait for events that are not likely to arrive in time
+		if (TimeUnit.NANOSECONDS.toMillis(getCurrentArrivalGap()) > waitDelay)
+			return Math.min(waitDelay, TRICKLE_WAIT_DELAY);
+		return waitDelay;
+	}
+
+	private boolean isBurst() {
+		return getArrivalRate() > BURST_RATE || getPendingCount() > BURST_PENDING;
+	}
+
+	private long getCurrentArrivalGap() {
+		long last = lastArrival.get();
+		long sinceLast = last == 0 ? Long.MAX_VALUE : System.nanoTime() - last;
+		return Math.max(averageArrivalGap.get(), sinceLast);
+	}
+
+	/**
+	 * Return the rate at which events currently arrive.
+	 * @return the number of events per second
+	 */
+	public double getArrivalRate() {
+		return (double) TimeUnit.SECONDS.toNanos(1) / Math.max(1, getCurrentArrivalGap());
+	}
+
+	/**
+	 * Return the number of events that wait to be processed.
+	 * @return the number of waiting events
+	 */
+	public int getPendingCount() {
+		return Math.max(0, pendingCount.get());
+	}
+
+	/**
+	 * Return the average time a dispatch takes.
+	 * @return the time in milliseconds
+	 */
+	public double getAverageDispatchTime() {
+		return averageDispatchTime / 1e6;
+	}
+
+	/**
+	 * Return the average number of events that are processed between dispatches.
+	 * @return the average number of events per dispatch
+	 */
+	public double getAverageBatchSize() {
+		return averageBatchSize;
+	}
+
+	/**
+	 * Return the number of dispatches.
+	 * @return the number of dispatches
+	 */
+	public long getDispatchCount() {
+		return dispatchCount;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("arrival rate: %.1f/s pending: %d dispatch time: %.1fms batch size: %.1f dispatches: %d", //$NON-NLS-1$
+				getArrivalRate(), getPendingCount(), getAverageDispatchTime(), getAverageBatchSize(), getDispatchCount());
+	}
+}
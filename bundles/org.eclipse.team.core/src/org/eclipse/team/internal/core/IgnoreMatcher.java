@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.internal.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IResource;
+
+/**
+ * Matches resources against a set of ignore patterns at once. The patterns
+ * have the syntax of a case insensitive {@link StringMatcher} and a resource
+ * matches if one of the patterns matches it. The patterns are compiled into
+ * <ul>
+ * <li>a set of names, for the patterns without wildcards,</li>
+ * <li>a set of extensions, for the patterns of the form <code>*.ext</code>,</li>
+ * <li>a single automaton, for the other patterns with wildcards,</li>
+ * <li>string matchers, for the patterns that match the path of a resource or
+ * that contain escape characters.</li>
+ * </ul>
+ * A matcher is immutable so it can be shared by any number of threads.
+ */
+public final class IgnoreMatcher {
+
+	private static final char STAR = '*';
+	private static final char ANY = '?';
+
+	private final Set<String> names = new HashSet<>();
+	private final Set<String> extensions = new HashSet<>();
+	private final List<StringMatcher> otherMatchers = new ArrayList<>();
+
+	// The automaton has a state for each token of the wildcard patterns and
+	// an accepting state at the end of each pattern. The states are bits so
+	// the states of all patterns are advanced together.
+	private int words;
+	private long[] startStates;
+	private long[] acceptStates;
+	private long[] starStates;
+	private long[] anyStates;
+	// The states that accept a character, by folded character
+	private long[][] asciiStates;
+	private Map<Character, long[]> otherStates;
+
+	/**
+	 * Create a matcher for the given patterns.
+	 * @param patterns the ignore patterns
+	 */
+	public IgnoreMatcher(String[] patterns) {
+		List<char[]> wildcardPatterns = new ArrayList<>();
+		for (String pattern : patterns) {
+			if (pattern.indexOf('/') != -1 || pattern.indexOf('\\') != -1) {
+				otherMatchers.add(new StringMatcher(pattern, true, false));
+			} else if (!hasWildcards(pattern, 0)) {
+				names.add(fold(pattern));
+			} else if (pattern.startsWith("*.") && pattern.indexOf('.', 2) == -1 && !hasWildcards(pattern, 2)) { //$NON-NLS-1$
+				extensions.add(fold(pattern.substring(2)));
+			} else {
+				wildcardPatterns.add(toTokens(pattern));
+			}
+		}
+		compile(wildcardPatterns);
+	}
+
+	/**
+	 * Return whether the given resource matches one of the patterns.
+	 * @param resource the resource
+	 * @return whether the resource matches one of the patterns
+	 */
+	public boolean match(IResource resource) {
+		String name = resource.getName();
+		if (!names.isEmpty() || !extensions.isEmpty() || words > 0) {
+			String folded = fold(name);
+			if (names.contains(folded))
+				return true;
+			int dot = folded.lastIndexOf('.');
+			if (dot != -1 && extensions.contains(folded.substring(dot + 1)))
+				return true;
+			if (words > 0 && matchAutomaton(folded))
+				return true;
+		}
+		for (StringMatcher matcher : otherMatchers) {
+			String text = matcher.isPathPattern() ? resource.getFullPath().toString() : name;
+			if (matcher.match(text))
+				return true;
+		}
+		return false;
+	}
+
+	private boolean matchAutomaton(String folded) {
+		long[] states = startStates.clone();
+		long[] next = new long[words];
+		for (int i = 0; i < folded.length(); i++) {
+			long[] characterStates = getCharacterStates(folded.charAt(i));
+			boolean active = false;
+			long carry = 0;
+			for (int w = 0; w < words; w++) {
+				// Advance the states that accept the character and keep the stars
+				long advanced = states[w] & (anyStates[w] | (characterStates == null ? 0 : characterStates[w]));
+				next[w] = (advanced << 1) | carry | (states[w] & starStates[w]);
+				carry = advanced >>> 63;
+			}
+			carry = 0;
+			for (int w = 0; w < words; w++) {
+				// A star also matches no characters
+				long skipped = next[w] & starStates[w];
+				next[w] |= (skipped << 1) | carry;
+				carry = skipped >>> 63;
+				active |= next[w] != 0;
+			}
+			if (!active)
+				return false;
+			long[] swap = states;
+			states = next;
+			next = swap;
+		}
+		for (int w = 0; w < words; w++) {
+			if ((states[w] & acceptStates[w]) != 0)
+				return true;
+		}
+		return false;
+	}
+
+	private long[] getCharacterStates(char c) {
+		if (c < asciiStates.length)
+			return asciiStates[c];
+		return otherStates.get(Character.valueOf(c));
+	}
+
+	private void compile(List<char[]> patterns) {
+		int stateCount = 0;
+		for (char[] tokens : patterns) {
+			stateCount += tokens.length + 1;
+		}
+		words = (stateCount + 63) / 64;
+		startStates = new long[words];
+		acceptStates = new long[words];
+		starStates = new long[words];
+		anyStates = new long[words];
+		asciiStates = new long[128][];
+		otherStates = new HashMap<>();
+		int state = 0;
+		for (char[] tokens : patterns) {
+			set(startStates, state);
+			if (tokens.length > 0 && tokens[0] == STAR)
+				set(startStates, state + 1);
+			for (char token : tokens) {
+				if (token == STAR) {
+					set(starStates, state);
+				} else if (token == ANY) {
+					set(anyStates, state);
+				} else {
+					set(getOrCreateCharacterStates(token), state);
+				}
+				state++;
+			}
+			set(acceptStates, state);
+			state++;
+		}
+	}
+
+	private long[] getOrCreateCharacterStates(char c) {
+		long[] states;
+		if (c < asciiStates.length) {
+			states = asciiStates[c];
+			if (states == null) {
+				states = new long[words];
+				asciiStates[c] = states;
+			}
+		} else {
+			states = otherStates.computeIfAbsent(Character.valueOf(c), key -> new long[words]);
+		}
+		return states;
+	}
+
+	private static void set(long[] bits, int index) {
+		bits[index >> 6] |= 1L << (index & 63);
+	}
+
+	/*
+	 * Return the tokens of a pattern without escape characters. The characters
+	 * are folded and consecutive stars are merged.
+	 */
+	private static char[] toTokens(String pattern) {
+		StringBuilder tokens = new StringBuilder(pattern.length());
+		for (int i = 0; i < pattern.length(); i++) {
+			char c = pattern.charAt(i);
+			if (c == STAR) {
+				if (tokens.length() == 0 || tokens.charAt(tokens.length() - 1) != STAR)
+					tokens.append(STAR);
+			} else if (c == ANY) {
+				tokens.append(ANY);
+			} else {
+				tokens.append(fold(c));
+			}
+		}
+		char[] result = new char[tokens.length()];
+		tokens.getChars(0, result.length, result, 0);
+		return result;
+	}
+
+	private static boolean hasWildcards(String pattern, int start) {
+		for (int i = start; i < pattern.length(); i++) {
+			char c = pattern.charAt(i);
+			if (c == STAR || c == ANY)
+				return true;
+		}
+		return false;
+	}
+
+	/*
+	 * Fold the case of a string so that strings that are equal ignoring
+	 * case are folded to the same string.
+	 */
+	private static String fold(String s) {
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (fold(c) != c) {
+				char[] chars = s.toCharArray();
+				for (int j = i; j < chars.length; j++) {
+					chars[j] = fold(chars[j]);
+				}
+				return new String(chars);
+			}
+		}
+		return s;
+	}
+
+	private static char fold(char c) {
+		if (c < 128) {
+			return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+		}
+		return Character.toLowerCase(Character.toUpperCase(c));
+	}
+}
@@ -88,12 +88,13 @@ public class Messages extends NLS {
 	public static String SubscriberEventHandler_11;
 	public static String CachedResourceVariant_0;
 	public static String CachedResourceVariant_1;
-	public static String SyncInfoTree_0;
 	public static String ResourceVariantTreeSubscriber_1;
 	public static String ResourceVariantTreeSubscriber_2;
 	public static String ResourceVariantTreeSubscriber_3;
 	public static String ResourceVariantTreeSubscriber_4;
 	public static String SyncByteConverter_1;
+	public static String MappedResourceVariantByteStore_0;
+	public static String MappedResourceVariantByteStore_1;
 	public static String BatchingLock_11;
 	public static String SubscriberEventHandler_12;
 	public static String ProjectSetCapability_0;
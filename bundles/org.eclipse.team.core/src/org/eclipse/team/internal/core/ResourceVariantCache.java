@@ -14,13 +14,29 @@
 package org.eclipse.team.internal.core;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
-import java.util.Date;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.jobs.ILock;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.osgi.util.NLS;
@@ -28,25 +44,90 @@ import org.eclipse.team.core.TeamException;
 import org.eclipse.team.core.variants.CachedResourceVariant;
 
 /**
- * This class implements a caching facility that can be used by TeamProviders to cache contents
+ * This class implements a caching facility that can be used by TeamProviders to cache contents.
+ * <p>
+ * The contents are stored in files that are named after a hash of the id of their entry.
+ * The total size of the cached contents is bounded, the least recently used contents are
+ * removed when the bound is exceeded.
+ * </p>
+ * <p>
+ * The contents of a cache are deleted when it is closed, unless the owner of the cache has
+ * declared with {@link #enablePersistence(String)} that its ids name immutable revisions.
+ * The files of a persistent cache are kept and picked up again by the next session. Since
+ * providers keep additional state in the cached handle, contents from a previous session are
+ * only served once a handle with the same id has been cached in this session.
+ * </p>
+ * <p>
+ * Entries are looked up without locking. Writing the contents of an entry is serialized by a
+ * lock that is shared with the entries whose ids hash to the same stripe, so writes of unrelated
+ * entries rarely wait for each other. Concurrent requests to fetch the same contents share a
+ * single fetch, see {@link #fetchContents(String, IContentsFetcher, IProgressMonitor)}.
+ * </p>
  */
 public class ResourceVariantCache {
 
 	// Directory to cache file contents
 	private static final String CACHE_DIRECTORY = ".cache"; //$NON-NLS-1$
-	// Maximum lifespan of local cache file, in milliseconds
+	// Suffix of files that are being written
+	static final String TEMP_FILE_SUFFIX = ".tmp"; //$NON-NLS-1$
+	// Length of the names of content files, the hex digits of a SHA-1 hash
+	private static final int FILE_NAME_LENGTH = 40;
+	// Maximum lifespan of a cache entry without contents, in milliseconds
 	private static final long CACHE_FILE_LIFESPAN = 60*60*1000; // 1hr
+	// Default bound of the total size of the cached contents of a cache, in bytes
+	public static final long DEFAULT_MAX_CACHE_SIZE = 128*1024*1024; // 128MB
+	// Number of locks that serialize the writing of cache contents
+	private static final int LOCK_STRIPES = 16;
 
 	// Map of registered caches indexed by local name of a QualifiedName
-	private static Map<String, ResourceVariantCache> caches = new HashMap<>(); // String (local name) > RemoteContentsCache
+	private static Map<String, ResourceVariantCache> caches = new ConcurrentHashMap<>(); // String (local name) > RemoteContentsCache
+
+	// Ids of the caches whose contents are kept across sessions
+	private static Set<String> persistentCaches = ConcurrentHashMap.newKeySet();
+
+	private static volatile long maxCacheSize = DEFAULT_MAX_CACHE_SIZE;
 
 	private String name;
-	private Map<String, ResourceVariantCacheEntry> cacheEntries;
-	private long lastCacheCleanup;
-	private int cacheDirSize;
+	private File directory;
+	private volatile Map<String, ResourceVariantCacheEntry> cacheEntries;
+	// Contents of a previous session that have no handle yet, indexed by file name
+	private volatile Map<String, ResourceVariantCacheEntry> restoredEntries;
+	private volatile long lastCacheCleanup;
+	private final AtomicLong cacheSize = new AtomicLong();
+	// Orders the accesses of entries, the timestamps are too coarse for this
+	private final AtomicLong useCounter = new AtomicLong();
+	// Guards the removal of old entries and of entries that exceed the size bound
+	private final Object cleanupLock = new Object();
+
+	// Locks used to serialize the writing of cache contents, indexed by the hash of the file name
+	private final ILock[] locks = new ILock[LOCK_STRIPES];
+
+	// The fetches that are in progress, indexed by entry id
+	private final Map<String, Fetch> fetches = new ConcurrentHashMap<>();
+
+	// The contents of small entries that are also kept in memory
+	private final ResourceVariantMemoryCache memoryCache = new ResourceVariantMemoryCache();
+
+	/**
+	 * Fetches the contents of a cache entry.
+	 * @see ResourceVariantCache#fetchContents(String, IContentsFetcher, IProgressMonitor)
+	 */
+	public interface IContentsFetcher {
+		/**
+		 * Fetch the contents and place them in the cache.
+		 * @param monitor a progress monitor
+		 * @throws TeamException if the contents could not be fetched
+		 */
+		void fetchContents(IProgressMonitor monitor) throws TeamException;
+	}
 
-	// Lock used to serialize the writing of cache contents
-	private ILock lock = Job.getJobManager().newLock();
+	/*
+	 * A fetch that is in progress
+	 */
+	private static class Fetch {
+		final Thread thread = Thread.currentThread();
+		final CompletableFuture<Void> done = new CompletableFuture<>();
+	}
 
 	/**
 	 * Enables the use of remote contents caching for the given cacheId. The cache ID must be unique.
@@ -54,11 +135,14 @@ public class ResourceVariantCache {
 	 *
 	 * @param cacheId the unique Id of the cache being enabled
 	 */
-	public static synchronized void enableCaching(String cacheId) {
+	public static void enableCaching(String cacheId) {
 		if (isCachingEnabled(cacheId)) return;
-		ResourceVariantCache cache = new ResourceVariantCache(cacheId);
-		cache.createCacheDirectory();
-		caches.put(cacheId, cache);
+		synchronized (ResourceVariantCache.class) {
+			if (isCachingEnabled(cacheId)) return;
+			ResourceVariantCache cache = new ResourceVariantCache(cacheId);
+			cache.createCacheDirectory(cache.getCachePath().toFile());
+			caches.put(cacheId, cache);
+		}
 	}
 
 	/**
@@ -93,19 +177,66 @@ public class ResourceVariantCache {
 	 * @param cacheId
 	 * @return the cache
 	 */
-	public static synchronized ResourceVariantCache getCache(String cacheId) {
+	public static ResourceVariantCache getCache(String cacheId) {
 		return caches.get(cacheId);
 	}
 
+	/**
+	 * Close all caches. Unlike {@link #disableCache(String)} the contents of
+	 * persistent caches are kept so that they can be used by the next session.
+	 */
 	public static synchronized void shutdown() {
-		String[] keys = caches.keySet().toArray(new String[caches.size()]);
-		for (String id : keys) {
-			disableCache(id);
+		for (ResourceVariantCache cache : caches.values()) {
+			cache.close();
 		}
+		caches.clear();
+	}
+
+	/**
+	 * Keep the contents of the cache with the given id across sessions. This should
+	 * only be done if the ids of the cache entries identify immutable revisions, so
+	 * that contents cached in one session are still valid in the next one. It must
+	 * be called before the cache is enabled.
+	 *
+	 * @param cacheId the unique Id of the cache
+	 */
+	public static void enablePersistence(String cacheId) {
+		persistentCaches.add(cacheId);
+	}
+
+	/**
+	 * Set the bound of the total size of the contents cached by each cache.
+	 * When the bound is exceeded the contents that have not been accessed for
+	 * the longest time are removed from the cache.
+	 *
+	 * @param size the maximum size in bytes
+	 */
+	public static void setMaxCacheSize(long size) {
+		maxCacheSize = size;
+	}
+
+	/**
+	 * Return the bound of the total size of the contents cached by each cache.
+	 * @return the maximum size in bytes
+	 */
+	public static long getMaxCacheSize() {
+		return maxCacheSize;
 	}
 
 	private ResourceVariantCache(String name) {
 		this.name = name;
+		for (int i = 0; i < locks.length; i++) {
+			locks[i] = Job.getJobManager().newLock();
+		}
+	}
+
+	/*
+	 * Return the lock that serializes the writing of the contents file with the given name.
+	 * Entries for the same id share their file and therefore their lock, whether they were
+	 * restored from a previous session or not.
+	 */
+	private ILock getLock(String filePath) {
+		return locks[(filePath.hashCode() & Integer.MAX_VALUE) % locks.length];
 	}
 
 	/**
@@ -125,14 +256,20 @@ public class ResourceVariantCache {
 		return TeamPlugin.getPlugin().getStateLocation();
 	}
 
-	private synchronized void clearOldCacheEntries() {
-		long current = new Date().getTime();
+	private void clearOldCacheEntries() {
+		long current = System.currentTimeMillis();
 		if ((lastCacheCleanup!=-1) && (current - lastCacheCleanup < CACHE_FILE_LIFESPAN)) return;
 		List<ResourceVariantCacheEntry> stale = new ArrayList<>();
-		for (ResourceVariantCacheEntry entry : cacheEntries.values()) {
-			long lastHit = entry.getLastAccessTimeStamp();
-			if ((current - lastHit) > CACHE_FILE_LIFESPAN){
-				stale.add(entry);
+		synchronized (cleanupLock) {
+			if ((lastCacheCleanup!=-1) && (current - lastCacheCleanup < CACHE_FILE_LIFESPAN)) return;
+			lastCacheCleanup = current;
+			for (ResourceVariantCacheEntry entry : getEntryMap().values()) {
+				// Cached contents are only removed when the cache gets too large
+				if (entry.getState() == ResourceVariantCacheEntry.READY) continue;
+				long lastHit = entry.getLastAccessTimeStamp();
+				if ((current - lastHit) > CACHE_FILE_LIFESPAN){
+					stale.add(entry);
+				}
 			}
 		}
 		for (ResourceVariantCacheEntry entry : stale) {
@@ -140,46 +277,232 @@ public class ResourceVariantCache {
 		}
 	}
 
-	private synchronized void purgeFromCache(String id) {
-		ResourceVariantCacheEntry entry = cacheEntries.get(id);
-		File f = entry.getFile();
+	/**
+	 * Record that the contents of the given entry have been written. Contents of
+	 * other entries are removed if the total size of the cached contents exceeds
+	 * the bound. This method should only be invoked from an instance of
+	 * ResourceVariantCacheEntry, after it has released its lock.
+	 * @param entry the entry whose contents were written
+	 */
+	protected void contentsCached(ResourceVariantCacheEntry entry) {
+		Map<String, ResourceVariantCacheEntry> entries = cacheEntries;
+		if (entries == null || entries.get(entry.getId()) != entry || !entry.addToCacheSize()) return;
+		if (cacheSize.addAndGet(entry.getContentSize()) > maxCacheSize) {
+			evict(entry);
+		}
+	}
+
+	/*
+	 * Remove the least recently used contents until the cached contents fit into the bound.
+	 * Some more contents are removed so that not every new entry has to evict another one.
+	 */
+	private void evict(ResourceVariantCacheEntry keep) {
+		List<ResourceVariantCacheEntry> evicted = new ArrayList<>();
+		synchronized (cleanupLock) {
+			long size = cacheSize.get();
+			long max = maxCacheSize;
+			if (size <= max) return;
+			long target = max - max / 10;
+			List<ResourceVariantCacheEntry> candidates = new ArrayList<>();
+			for (ResourceVariantCacheEntry entry : getEntryMap().values()) {
+				if (entry != keep && entry.getState() == ResourceVariantCacheEntry.READY) {
+					candidates.add(entry);
+				}
+			}
+			candidates.addAll(getRestoredEntryMap().values());
+			candidates.sort(Comparator.comparingLong(ResourceVariantCacheEntry::getLastUse));
+			for (ResourceVariantCacheEntry entry : candidates) {
+				if (size <= target) break;
+				// Take the size off right away so that concurrent evictions don't remove it again
+				if (entry.removeFromCacheSize()) {
+					size = cacheSize.addAndGet(-entry.getContentSize());
+					evicted.add(entry);
+				}
+			}
+		}
+		// Outside of the cleanup lock, disposing waits for writes of the same stripe
+		for (ResourceVariantCacheEntry entry : evicted) {
+			entry.dispose();
+		}
+	}
+
+	private void purgeFromCache(String id, ResourceVariantCacheEntry purged) {
+		memoryCache.remove(purged);
+		// Entries restored from a previous session have no id until a handle is cached
+		Map<String, ResourceVariantCacheEntry> entries = id == null ? restoredEntries : cacheEntries;
+		// The file is shared with any newer entry for the same id
+		if (entries == null || !entries.remove(id == null ? purged.getFilePath() : id, purged)) return;
+		File f = purged.getFile();
 		try {
-			deleteFile(f);
+			if (f.exists()) {
+				deleteFile(f);
+			}
 		} catch (TeamException e) {
 			// Ignore the deletion failure.
-			// A failure only really matters when purging the directory on startup
+			// Files that are not in the index are removed on the next startup
+		}
+		if (purged.removeFromCacheSize()) {
+			cacheSize.addAndGet(-purged.getContentSize());
 		}
-		cacheEntries.remove(id);
 	}
 
-	private synchronized void createCacheDirectory() {
-		IPath cacheLocation = getCachePath();
-		File file = cacheLocation.toFile();
+	private synchronized void createCacheDirectory(File file) {
+		directory = file;
+		cacheEntries = new ConcurrentHashMap<>();
+		restoredEntries = new ConcurrentHashMap<>();
+		lastCacheCleanup = -1;
+		cacheSize.set(0);
 		if (file.exists()) {
-			try {
-				deleteFile(file);
-			} catch (TeamException e) {
-				// Check to see if were in an acceptable state
-				File[] fileList = file.listFiles();
-				if (file.exists() && (!file.isDirectory() || (fileList != null && fileList.length != 0))) {
-					TeamPlugin.log(e);
+			if (persistentCaches.contains(name)) {
+				restoreEntries();
+			} else {
+				try {
+					deleteFile(file);
+				} catch (TeamException e) {
+					// Check to see if were in an acceptable state
+					File[] fileList = file.listFiles();
+					if (file.exists() && (!file.isDirectory() || (fileList != null && fileList.length != 0))) {
+						TeamPlugin.log(e);
+					}
 				}
 			}
 		}
 		if (! file.exists() && ! file.mkdirs()) {
 			TeamPlugin.log(new TeamException(NLS.bind(Messages.RemoteContentsCache_fileError, new String[] { file.getAbsolutePath() })));
 		}
-		cacheEntries = new HashMap<>();
+		evict(null);
+	}
+
+	/*
+	 * Pick up the contents that were cached in a previous session. The files are
+	 * only ever renamed into place once they are complete, so every content file
+	 * is valid. Other files, like partially written ones, are removed.
+	 */
+	private void restoreEntries() {
+		File[] fileList = directory.listFiles();
+		if (fileList == null) return;
+		List<File> contents = new ArrayList<>();
+		for (File child : fileList) {
+			if (child.isFile() && isContentFileName(child.getName())) {
+				contents.add(child);
+			} else {
+				try {
+					deleteFile(child);
+				} catch (TeamException e) {
+					TeamPlugin.log(e);
+				}
+			}
+		}
+		// The modification times of the files keep the access order of the previous session
+		File[] files = contents.toArray(new File[contents.size()]);
+		long[] lastModified = new long[files.length];
+		Integer[] order = new Integer[files.length];
+		for (int i = 0; i < files.length; i++) {
+			lastModified[i] = files[i].lastModified();
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparingLong(i -> lastModified[i]));
+		for (int i : order) {
+			String filePath = files[i].getName();
+			ResourceVariantCacheEntry entry = new ResourceVariantCacheEntry(this, getLock(filePath), filePath, files[i].length(), lastModified[i]);
+			if (entry.addToCacheSize()) {
+				restoredEntries.put(filePath, entry);
+				cacheSize.addAndGet(entry.getContentSize());
+			}
+		}
+	}
+
+	private static boolean isContentFileName(String fileName) {
+		if (fileName.length() != FILE_NAME_LENGTH) return false;
+		for (int i = 0; i < fileName.length(); i++) {
+			if (Character.digit(fileName.charAt(i), 16) < 0) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Replace the target file with the source file, atomically if the file system supports it.
+	 * @param source the file to rename
+	 * @param target the new name of the file
+	 * @throws IOException if the file cannot be renamed
+	 */
+	static void rename(File source, File target) throws IOException {
+		try {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/*
+	 * Returns the name of the file that holds the contents of the entry with the given id.
+	 */
+	private static String getFilePath(String id) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-1").digest(id.getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+			StringBuilder buffer = new StringBuilder(hash.length * 2);
+			for (byte b : hash) {
+				buffer.append(Character.forDigit((b >> 4) & 0xF, 16));
+				buffer.append(Character.forDigit(b & 0xF, 16));
+			}
+			return buffer.toString();
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform supports SHA-1
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private synchronized void close() {
+		Map<String, ResourceVariantCacheEntry> entries = cacheEntries;
+		if (entries == null) return;
+		if (!persistentCaches.contains(name)) {
+			deleteCacheDirectory();
+			return;
+		}
+		// Record the access order in the modification times of the files for the next session
+		for (ResourceVariantCacheEntry entry : entries.values()) {
+			if (entry.getState() == ResourceVariantCacheEntry.READY) {
+				entry.getFile().setLastModified(entry.getLastAccessTimeStamp());
+			}
+		}
+		cacheEntries = null;
+		restoredEntries = null;
 		lastCacheCleanup = -1;
-		cacheDirSize = 0;
+		cacheSize.set(0);
+		memoryCache.clear();
+	}
+
+	/**
+	 * Return the next position in the access order of the entries of this cache.
+	 * @return the next position
+	 */
+	long nextUse() {
+		return useCounter.incrementAndGet();
+	}
+
+	/**
+	 * Return the directory that holds the cached contents.
+	 * @return the cache directory
+	 */
+	protected File getCacheDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Return the memory tier that holds the contents of the small entries of this cache.
+	 * @return the memory tier
+	 */
+	ResourceVariantMemoryCache getMemoryCache() {
+		return memoryCache;
 	}
 
 	private synchronized void deleteCacheDirectory() {
 		cacheEntries = null;
+		restoredEntries = null;
 		lastCacheCleanup = -1;
-		cacheDirSize = 0;
-		IPath cacheLocation = getCachePath();
-		File file = cacheLocation.toFile();
+		cacheSize.set(0);
+		memoryCache.clear();
+		File file = directory;
 		if (file.exists()) {
 			try {
 				deleteFile(file);
@@ -211,15 +534,28 @@ public class ResourceVariantCache {
 	 * @param entry
 	 */
 	protected void purgeFromCache(ResourceVariantCacheEntry entry) {
-		purgeFromCache(entry.getId());
+		purgeFromCache(entry.getId(), entry);
 	}
 
-	private synchronized ResourceVariantCacheEntry internalGetCacheEntry(String id) {
-		if (cacheEntries == null) {
+	private Map<String, ResourceVariantCacheEntry> getEntryMap() {
+		Map<String, ResourceVariantCacheEntry> entries = cacheEntries;
+		if (entries == null) {
 			// This probably means that the cache has been disposed
 			throw new IllegalStateException(NLS.bind(Messages.RemoteContentsCache_cacheDisposed, new String[] { name }));
 		}
-		ResourceVariantCacheEntry entry = cacheEntries.get(id);
+		return entries;
+	}
+
+	private Map<String, ResourceVariantCacheEntry> getRestoredEntryMap() {
+		Map<String, ResourceVariantCacheEntry> entries = restoredEntries;
+		if (entries == null) {
+			throw new IllegalStateException(NLS.bind(Messages.RemoteContentsCache_cacheDisposed, new String[] { name }));
+		}
+		return entries;
+	}
+
+	private ResourceVariantCacheEntry internalGetCacheEntry(String id) {
+		ResourceVariantCacheEntry entry = getEntryMap().get(id);
 		if (entry != null) {
 			entry.registerHit();
 		}
@@ -234,15 +570,125 @@ public class ResourceVariantCache {
 		return internalGetCacheEntry(id);
 	}
 
-	public synchronized ResourceVariantCacheEntry add(String id, CachedResourceVariant resource) {
+	public ResourceVariantCacheEntry add(String id, CachedResourceVariant resource) {
 		clearOldCacheEntries();
-		String filePath = String.valueOf(cacheDirSize++);
-		ResourceVariantCacheEntry entry = new ResourceVariantCacheEntry(this, lock, id, filePath);
+		Map<String, ResourceVariantCacheEntry> entries = getEntryMap();
+		ResourceVariantCacheEntry entry = entries.get(id);
+		if (entry == null) {
+			String filePath = getFilePath(id);
+			ResourceVariantCacheEntry newEntry = restoreEntry(id, filePath);
+			if (newEntry == null) {
+				newEntry = new ResourceVariantCacheEntry(this, getLock(filePath), id, filePath);
+			}
+			entry = entries.putIfAbsent(id, newEntry);
+			if (entry == null) {
+				entry = newEntry;
+			} else if (newEntry.removeFromCacheSize()) {
+				// Another thread created the entry first, its contents will replace the restored ones
+				cacheSize.addAndGet(-newEntry.getContentSize());
+			}
+		}
+		// The contents are the same for every handle with this id, only replace the handle
+		entry.registerHit();
 		entry.setResourceVariant(resource);
-		cacheEntries.put(id, entry);
 		return entry;
 	}
 
+	/*
+	 * Return the contents of a previous session with the given file name as an entry
+	 * for the given id or null if there are none. The caller must add the entry to the
+	 * entries of the cache.
+	 */
+	private ResourceVariantCacheEntry restoreEntry(String id, String filePath) {
+		Map<String, ResourceVariantCacheEntry> restored = getRestoredEntryMap();
+		if (!restored.containsKey(filePath)) return null;
+		// Under the lock of the file so that an eviction doesn't delete it in the meantime
+		ILock lock = getLock(filePath);
+		lock.acquire();
+		try {
+			ResourceVariantCacheEntry entry = restored.remove(filePath);
+			if (entry == null || entry.getState() != ResourceVariantCacheEntry.READY) return null;
+			entry.restore(id);
+			return entry;
+		} finally {
+			lock.release();
+		}
+	}
+
+	/**
+	 * Cache the given handle if the cache holds contents for its id from a previous
+	 * session, so that these contents can be used instead of fetching them again.
+	 *
+	 * @param id the id of the cache entry
+	 * @param resource the handle to cache with the contents
+	 * @return whether there were contents from a previous session
+	 */
+	public boolean restoreContents(String id, CachedResourceVariant resource) {
+		Map<String, ResourceVariantCacheEntry> restored = getRestoredEntryMap();
+		if (restored.isEmpty() || !restored.containsKey(getFilePath(id))) return false;
+		return add(id, resource).getState() == ResourceVariantCacheEntry.READY;
+	}
+
+	/**
+	 * Fetch the contents of the entry with the given id unless they are already cached.
+	 * If another thread is fetching the same contents, wait for that thread instead of
+	 * fetching them again.
+	 *
+	 * @param id the id of the cache entry
+	 * @param fetcher fetches the contents and places them in the cache
+	 * @param monitor a progress monitor
+	 * @throws TeamException if the contents could not be fetched
+	 */
+	public void fetchContents(String id, IContentsFetcher fetcher, IProgressMonitor monitor) throws TeamException {
+		while (true) {
+			if (isContentsCached(id)) return;
+			Fetch fetch = new Fetch();
+			Fetch other = fetches.putIfAbsent(id, fetch);
+			if (other == null) {
+				try {
+					// Check again, another fetch may have completed just before this one was registered
+					if (!isContentsCached(id)) {
+						fetcher.fetchContents(monitor);
+					}
+				} finally {
+					fetches.remove(id, fetch);
+					fetch.done.complete(null);
+				}
+				return;
+			}
+			if (other.thread == Thread.currentThread()) {
+				// A nested fetch of the same contents cannot wait for itself
+				fetcher.fetchContents(monitor);
+				return;
+			}
+			// If the other fetch failed or was canceled, the contents are not cached and this
+			// thread tries itself
+			waitFor(other, monitor);
+		}
+	}
+
+	private boolean isContentsCached(String id) {
+		ResourceVariantCacheEntry entry = getEntryMap().get(id);
+		return entry != null && entry.getState() == ResourceVariantCacheEntry.READY;
+	}
+
+	private void waitFor(Fetch fetch, IProgressMonitor monitor) {
+		while (true) {
+			Policy.checkCanceled(monitor);
+			try {
+				fetch.done.get(100, TimeUnit.MILLISECONDS);
+				return;
+			} catch (TimeoutException e) {
+				// Check for cancellation and keep waiting
+			} catch (ExecutionException e) {
+				return;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			}
+		}
+	}
+
 	public String getName() {
 		return name;
 	}
@@ -251,7 +697,7 @@ public class ResourceVariantCache {
 	 * Method used for testing only
 	 */
 	public ResourceVariantCacheEntry[] getEntries() {
-		return cacheEntries.values().toArray(new ResourceVariantCacheEntry[cacheEntries.size()]);
+		return getEntryMap().values().toArray(new ResourceVariantCacheEntry[0]);
 	}
 
 }
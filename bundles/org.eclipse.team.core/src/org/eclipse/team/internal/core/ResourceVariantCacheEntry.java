@@ -23,7 +23,9 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Date;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.jobs.ILock;
@@ -43,9 +45,14 @@ public class ResourceVariantCacheEntry {
 	private String id;
 	private String filePath;
 	private ResourceVariantCache cache;
-	private int state = UNINITIALIZED;
-	private long lastAccess;
-	private CachedResourceVariant resourceVariant;
+	private volatile int state = UNINITIALIZED;
+	private volatile long lastAccess;
+	// position of the last access in the access order of the cache
+	private volatile long lastUse;
+	private long contentSize;
+	// whether the content size is part of the size of the cache: 0 not yet, 1 added, 2 removed
+	private final AtomicInteger accounted = new AtomicInteger();
+	private volatile CachedResourceVariant resourceVariant;
 	private ILock lock;
 
 	public ResourceVariantCacheEntry(ResourceVariantCache cache, ILock lock, String id, String filePath) {
@@ -57,15 +64,58 @@ public class ResourceVariantCacheEntry {
 		registerHit();
 	}
 
+	/**
+	 * Create an entry for contents that were cached in a previous session. The
+	 * entry has no id until a handle for its contents is cached, see {@link #restore(String)}.
+	 * @param cache the cache
+	 * @param lock the lock used to serialize the writing of cache contents
+	 * @param filePath the name of the file that holds the contents
+	 * @param contentSize the size of the contents
+	 * @param lastAccess the time of the last access
+	 */
+	ResourceVariantCacheEntry(ResourceVariantCache cache, ILock lock, String filePath, long contentSize, long lastAccess) {
+		this.lock = lock;
+		state = READY;
+		this.cache = cache;
+		this.filePath = filePath;
+		this.contentSize = contentSize;
+		this.lastAccess = lastAccess;
+		this.lastUse = cache.nextUse();
+	}
+
+	/**
+	 * Assign the id of the handle that has been cached for the contents of a previous
+	 * session. This method should only be invoked by the cache while holding the lock
+	 * of this entry and before the entry is visible to other threads.
+	 * @param id the id of the entry
+	 */
+	void restore(String id) {
+		this.id = id;
+		registerHit();
+	}
+
 	public InputStream getContents() throws TeamException {
 		if (state != READY) return null;
 		registerHit();
+		ResourceVariantMemoryCache memoryCache = cache.getMemoryCache();
+		byte[] bytes = memoryCache.get(this);
+		if (bytes != null) {
+			return new ByteArrayInputStream(bytes);
+		}
 		File ioFile = getFile();
 		try {
 			try {
+				if (ResourceVariantMemoryCache.accepts(contentSize)) {
+					// Read small contents completely so that later reads don't need the file
+					bytes = Files.readAllBytes(ioFile.toPath());
+					memoryCache.put(this, bytes);
+					return new ByteArrayInputStream(bytes);
+				}
 				if (ioFile.exists()) {
 					return new FileInputStream(ioFile);
 				}
+			} catch (NoSuchFileException e) {
+				// Handled below
 			} catch (IOException e) {
 				// Try to purge the cache and continue
 				cache.purgeFromCache(this);
@@ -80,7 +130,15 @@ public class ResourceVariantCacheEntry {
 	}
 
 	protected File getFile() {
-		return new File(cache.getCachePath().toFile(), filePath);
+		return new File(cache.getCacheDirectory(), filePath);
+	}
+
+	/**
+	 * Return the name of the file that holds the contents of this entry.
+	 * @return the name of the cache file
+	 */
+	String getFilePath() {
+		return filePath;
 	}
 
 	/**
@@ -93,12 +151,17 @@ public class ResourceVariantCacheEntry {
 	 */
 	public void setContents(InputStream stream, IProgressMonitor monitor) throws TeamException {
 		// Use a lock to only allow one write at a time
+		boolean cached;
 		beginOperation();
 		try {
-			internalSetContents(stream, monitor);
+			cached = internalSetContents(stream, monitor);
 		} finally {
 			endOperation();
 		}
+		if (cached) {
+			// Outside of the lock since the cache may dispose other entries
+			cache.contentsCached(this);
+		}
 	}
 
 	private void endOperation() {
@@ -109,7 +172,10 @@ public class ResourceVariantCacheEntry {
 		lock.acquire();
 	}
 
-	private void internalSetContents(InputStream stream, IProgressMonitor monitor) throws TeamException {
+	/*
+	 * Returns whether the contents were written to the cache file.
+	 */
+	private boolean internalSetContents(InputStream stream, IProgressMonitor monitor) throws TeamException {
 		// if the state is DISPOSED then there is a problem
 		if (state == DISPOSED) {
 			throw new TeamException(NLS.bind(Messages.RemoteContentsCacheEntry_3, new String[] { cache.getName(), id }));
@@ -117,13 +183,19 @@ public class ResourceVariantCacheEntry {
 		// Otherwise, the state is UNINITIALIZED or READY so we can proceed
 		registerHit();
 		File ioFile = getFile();
+		// The contents are written to a temporary file that replaces the cache file once it
+		// is complete, so the cache file never has partial contents, even after a crash
+		File tempFile = new File(ioFile.getParentFile(), filePath + ResourceVariantCache.TEMP_FILE_SUFFIX);
 		try {
 
 			// Open the cache file for writing
 			OutputStream out;
+			long size = 0;
+			// Small contents are also kept in memory, collect them while writing
+			ByteArrayOutputStream memoryContents = null;
 			try {
 				if (state == UNINITIALIZED) {
-					out = new BufferedOutputStream(new FileOutputStream(ioFile));
+					out = new BufferedOutputStream(new FileOutputStream(tempFile));
 				} else {
 					// If the entry is READY, the contents must have been read in another thread.
 					// We still need to red the contents but they can be ignored since presumably they are the same
@@ -141,18 +213,39 @@ public class ResourceVariantCacheEntry {
 					while ((read = stream.read(buffer)) >= 0) {
 						Policy.checkCanceled(monitor);
 						out.write(buffer, 0, read);
+						size += read;
+						if (state == UNINITIALIZED && ResourceVariantMemoryCache.accepts(size)) {
+							if (memoryContents == null) {
+								memoryContents = new ByteArrayOutputStream();
+							}
+							memoryContents.write(buffer, 0, read);
+						} else {
+							memoryContents = null;
+						}
 					}
 				} finally {
 					out.close();
 				}
+				if (state == UNINITIALIZED) {
+					ResourceVariantCache.rename(tempFile, ioFile);
+				}
 			} catch (IOException e) {
 				// Make sure we don't leave the cache file around as it may not have the right contents
+				tempFile.delete();
 				cache.purgeFromCache(this);
 				throw e;
 			}
 
 			// Mark the cache entry as ready
-			state = READY;
+			if (state == UNINITIALIZED) {
+				contentSize = size;
+				state = READY;
+				if (memoryContents != null) {
+					cache.getMemoryCache().put(this, memoryContents.toByteArray());
+				}
+				return true;
+			}
+			return false;
 		} catch (IOException e) {
 			throw new TeamException(NLS.bind(Messages.RemoteContentsCache_fileError, new String[] { ioFile.getAbsolutePath() }), e);
 		} finally {
@@ -177,6 +270,9 @@ public class ResourceVariantCacheEntry {
 	 */
 	public long getSize() {
 		if (state != READY) return 0;
+		if (cache.getMemoryCache().get(this) != null) {
+			return contentSize;
+		}
 		File ioFile = getFile();
 		if (ioFile.exists()) {
 			return ioFile.length();
@@ -184,6 +280,41 @@ public class ResourceVariantCacheEntry {
 		return 0;
 	}
 
+	/**
+	 * Return the size of the contents as it was when they were written to the cache.
+	 * Unlike {@link #getSize()} this does not access the file system.
+	 * @return the size of the cached contents or 0 if there are none
+	 */
+	long getContentSize() {
+		return contentSize;
+	}
+
+	/**
+	 * Return the position of the last access of this entry in the access order of the cache.
+	 * The entry with the smallest position is the least recently used one.
+	 * @return the position of the last access
+	 */
+	long getLastUse() {
+		return lastUse;
+	}
+
+	/**
+	 * Mark the content size of this entry as being part of the size of the cache.
+	 * @return whether the size should be added to the size of the cache, which is
+	 *         only the case once and never after the entry has been removed
+	 */
+	boolean addToCacheSize() {
+		return accounted.compareAndSet(0, 1);
+	}
+
+	/**
+	 * Mark the content size of this entry as no longer being part of the size of the cache.
+	 * @return whether the size should be subtracted from the size of the cache
+	 */
+	boolean removeFromCacheSize() {
+		return accounted.getAndSet(2) == 1;
+	}
+
 	/*
 	 * @see org.eclipse.team.core.sync.ICacheEntry#getLastAccessTimeStamp()
 	 */
@@ -197,7 +328,8 @@ public class ResourceVariantCacheEntry {
 	 * Other clients should not use it.
 	 */
 	protected void registerHit() {
-		lastAccess = new Date().getTime();
+		lastAccess = System.currentTimeMillis();
+		lastUse = cache.nextUse();
 	}
 
 	public void dispose() {
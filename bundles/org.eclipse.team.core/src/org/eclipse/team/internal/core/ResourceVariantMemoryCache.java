@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.internal.core;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the contents of small cache entries of a {@link ResourceVariantCache} in memory
+ * so that reading them again doesn't access the file system. The cache files remain the
+ * authoritative copy, contents that don't fit into the memory budget are simply read
+ * from their file again.
+ */
+public class ResourceVariantMemoryCache {
+
+	// Default size of the largest contents that are kept in memory, in bytes
+	public static final int DEFAULT_MAX_ENTRY_SIZE = 32*1024; // 32KB
+	// Default bound of the total size of the contents kept in memory by each cache, in bytes
+	public static final long DEFAULT_MAX_SIZE = 16*1024*1024; // 16MB
+
+	private static volatile int maxEntrySize = DEFAULT_MAX_ENTRY_SIZE;
+	private static volatile long maxSize = DEFAULT_MAX_SIZE;
+
+	// contents in access order, the least recently used contents come first
+	private final LinkedHashMap<ResourceVariantCacheEntry, byte[]> contents = new LinkedHashMap<>(16, 0.75f, true);
+	private long size;
+
+	/**
+	 * Set the limits of the contents that are kept in memory. Setting either limit
+	 * to 0 turns keeping contents in memory off.
+	 *
+	 * @param entrySize the size of the largest contents that are kept in memory
+	 * @param totalSize the bound of the total size of the contents that are kept
+	 *            in memory by each cache
+	 */
+	public static void setLimits(int entrySize, long totalSize) {
+		maxEntrySize = entrySize;
+		maxSize = totalSize;
+	}
+
+	/**
+	 * Return whether contents of the given size are kept in memory.
+	 * @param contentSize the size of the contents
+	 * @return whether the contents should be kept in memory
+	 */
+	static boolean accepts(long contentSize) {
+		return contentSize <= maxEntrySize && contentSize <= maxSize;
+	}
+
+	/**
+	 * Return the contents of the given entry if they are kept in memory.
+	 * @param entry the cache entry
+	 * @return the contents or <code>null</code>
+	 */
+	synchronized byte[] get(ResourceVariantCacheEntry entry) {
+		return contents.get(entry);
+	}
+
+	/**
+	 * Keep the contents of the given entry in memory, removing the contents
+	 * that have been used least recently if the memory budget is exceeded.
+	 * The contents are not copied and must not be modified afterwards.
+	 * @param entry a cache entry that is ready
+	 * @param bytes the contents of the entry
+	 */
+	synchronized void put(ResourceVariantCacheEntry entry, byte[] bytes) {
+		// A disposed entry is removed before its state could change again
+		if (!accepts(bytes.length) || entry.getState() != ResourceVariantCacheEntry.READY) return;
+		byte[] previous = contents.put(entry, bytes);
+		size += bytes.length - (previous == null ? 0 : previous.length);
+		long max = maxSize;
+		for (Iterator<Map.Entry<ResourceVariantCacheEntry, byte[]>> iter = contents.entrySet().iterator(); size > max && iter.hasNext();) {
+			Map.Entry<ResourceVariantCacheEntry, byte[]> eldest = iter.next();
+			if (eldest.getKey() != entry) {
+				size -= eldest.getValue().length;
+				iter.remove();
+			}
+		}
+	}
+
+	/**
+	 * Stop keeping the contents of the given entry in memory.
+	 * @param entry the cache entry
+	 */
+	synchronized void remove(ResourceVariantCacheEntry entry) {
+		byte[] previous = contents.remove(entry);
+		if (previous != null) {
+			size -= previous.length;
+		}
+	}
+
+	/**
+	 * Stop keeping any contents in memory.
+	 */
+	synchronized void clear() {
+		contents.clear();
+		size = 0;
+	}
+}
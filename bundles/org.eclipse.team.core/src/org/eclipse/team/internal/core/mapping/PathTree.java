@@ -15,26 +15,74 @@ package org.eclipse.team.internal.core.mapping;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.function.ToIntFunction;
 
 import org.eclipse.core.runtime.IPath;
 
 /**
- * A tree of objects keyed by path
+ * A tree of objects keyed by path.
+ * <p>
+ * The tree is a trie of path segments. Every node knows its immediate children
+ * and counts the descendants that have an object, so looking up the children
+ * of a path only visits the children and adding or removing an object only
+ * visits the ancestors of its path. Nodes only exist for paths that have an
+ * object or a descendant with an object.
+ * </p>
+ * <p>
+ * A {@link #snapshot() snapshot} of the tree shares the nodes of the tree.
+ * Nodes are copied before they are changed if they may be shared, so changes
+ * to the tree don't affect the snapshot and vice versa. Each node is copied at
+ * most once between snapshots.
+ * </p>
+ * <p>
+ * A tree can also count the states of its objects. Every node then counts the
+ * descendants in each state, so the objects in a subtree that have a given
+ * state can be counted without visiting them. The counts are part of the
+ * nodes, so a snapshot counts the objects that it contains.
+ * </p>
  */
 public class PathTree {
 
 	class Node {
+		// The edit of the tree that created the node. Nodes of other edits may
+		// be shared with a snapshot and must not be changed
+		final Object edit;
+		final IPath path;
+		Map<String, Node> children;
 		Object payload;
-		Set<IPath> descendantsWithPayload;
+		// The number of descendants that have a payload
+		int descendantsWithPayload;
 		int flags;
+		// The number of descendants with a payload that have each property bit, indexed by bit
+		int[] descendantsWithFlag;
+		// Pairs of a state and the number of descendants with a payload in that state,
+		// for the states that occur below the node
+		int[] descendantStates;
+
+		Node(Object edit, IPath path) {
+			this.edit = edit;
+			this.path = path;
+		}
+		Node(Object edit, Node node) {
+			this.edit = edit;
+			this.path = node.path;
+			if (node.children != null)
+				this.children = new HashMap<>(node.children);
+			this.payload = node.payload;
+			this.descendantsWithPayload = node.descendantsWithPayload;
+			this.flags = node.flags;
+			if (node.descendantsWithFlag != null)
+				this.descendantsWithFlag = node.descendantsWithFlag.clone();
+			if (node.descendantStates != null)
+				this.descendantStates = node.descendantStates.clone();
+		}
 		public boolean isEmpty() {
-			return payload == null && (descendantsWithPayload == null || descendantsWithPayload.isEmpty());
+			return payload == null && !hasDescendants();
 		}
 		public Object getPayload() {
 			return payload;
@@ -43,32 +91,89 @@ public class PathTree {
 			this.payload = payload;
 		}
 		public boolean hasDescendants() {
-			return descendantsWithPayload != null && !descendantsWithPayload.isEmpty();
+			return descendantsWithPayload > 0;
 		}
 		public boolean hasFlag(int propertyBit) {
 			return (flags & propertyBit) != 0;
 		}
-		public void setProperty(int propertyBit, boolean value) {
-			if (value)
-				flags |= propertyBit;
-			else
-				flags ^= propertyBit;
-		}
 		public boolean descendantHasFlag(int property) {
-			if (hasDescendants()) {
-				for (Iterator<IPath> iter = descendantsWithPayload.iterator(); iter.hasNext();) {
-					IPath path = iter.next();
-					Node child = getNode(path);
-					if (child.hasFlag(property)) {
+			if (descendantsWithFlag != null) {
+				for (int i = 0; i < descendantsWithFlag.length; i++) {
+					if ((property & (1 << i)) != 0 && descendantsWithFlag[i] > 0)
 						return true;
-					}
 				}
 			}
 			return false;
 		}
+		void addDescendantsWithFlag(int bit, int delta) {
+			if (descendantsWithFlag == null || descendantsWithFlag.length <= bit) {
+				int[] counts = new int[bit + 1];
+				if (descendantsWithFlag != null)
+					System.arraycopy(descendantsWithFlag, 0, counts, 0, descendantsWithFlag.length);
+				descendantsWithFlag = counts;
+			}
+			descendantsWithFlag[bit] += delta;
+		}
+		void addDescendantState(int state, int delta) {
+			int length = descendantStates == null ? 0 : descendantStates.length;
+			for (int i = 0; i < length; i += 2) {
+				if (descendantStates[i] == state) {
+					descendantStates[i + 1] += delta;
+					if (descendantStates[i + 1] == 0) {
+						// Only keep the states that occur
+						int[] states = new int[length - 2];
+						System.arraycopy(descendantStates, 0, states, 0, i);
+						System.arraycopy(descendantStates, i + 2, states, i, length - i - 2);
+						descendantStates = states.length == 0 ? null : states;
+					}
+					return;
+				}
+			}
+			int[] states = new int[length + 2];
+			if (length > 0)
+				System.arraycopy(descendantStates, 0, states, 0, length);
+			states[length] = state;
+			states[length + 1] = delta;
+			descendantStates = states;
+		}
+		int count(IntPredicate filter) {
+			int count = payload != null && filter.test(stateFunction.applyAsInt(payload)) ? 1 : 0;
+			if (descendantStates != null) {
+				for (int i = 0; i < descendantStates.length; i += 2) {
+					if (filter.test(descendantStates[i]))
+						count += descendantStates[i + 1];
+				}
+			}
+			return count;
+		}
 	}
 
-	private Map<IPath, Node> objects = new HashMap<>();
+	// Returns the state of an object, or null if the states are not counted
+	private final ToIntFunction<Object> stateFunction;
+
+	// The nodes of the paths without segments, keyed by those paths
+	private Map<IPath, Node> roots = new HashMap<>();
+	// Whether the map of roots is shared with a snapshot
+	private boolean rootsShared;
+	private int size;
+	// Identifies the nodes that this tree can change without copying them
+	private Object edit = new Object();
+
+	/**
+	 * Create an empty tree that does not count the states of its objects.
+	 */
+	public PathTree() {
+		this(null);
+	}
+
+	/**
+	 * Create an empty tree that counts the states of its objects.
+	 * @param stateFunction returns the state of an object
+	 * @see #count(IPath, IntPredicate)
+	 */
+	public PathTree(ToIntFunction<Object> stateFunction) {
+		this.stateFunction = stateFunction;
+	}
 
 	/**
 	 * Return the object at the given path or <code>null</code>
@@ -92,14 +197,19 @@ public class PathTree {
 	 * @return the previous object at that path or <code>null</code>
 	 */
 	public synchronized Object put(IPath path, Object object) {
-		Node node = getNode(path);
-		if (node == null) {
-			node = addNode(path);
-		}
+		if (object == null)
+			return remove(path);
+		Node[] nodes = addNodes(path);
+		Node node = nodes[nodes.length - 1];
 		Object previous = node.getPayload();
 		node.setPayload(object);
-		if(previous == null) {
-			addToParents(path, path);
+		if (previous == null) {
+			size++;
+			updateAncestors(nodes, nodes.length - 1, 1, node.flags, 1);
+			updateAncestorStates(nodes, object, 1);
+		} else if (stateFunction != null && stateFunction.applyAsInt(previous) != stateFunction.applyAsInt(object)) {
+			updateAncestorStates(nodes, previous, -1);
+			updateAncestorStates(nodes, object, 1);
 		}
 		return previous;
 	}
@@ -113,19 +223,18 @@ public class PathTree {
 	 * the removed object or <code>null</code>
 	 */
 	public synchronized Object remove(IPath path) {
-		Node node = getNode(path);
-		if (node == null)
+		Node[] nodes = getNodes(path);
+		if (nodes == null || nodes[nodes.length - 1].getPayload() == null)
 			return null;
+		makeEditable(nodes);
+		Node node = nodes[nodes.length - 1];
 		Object previous = node.getPayload();
 		node.setPayload(null);
-		if(previous != null) {
-			removeFromParents(path, path);
-			if (node.isEmpty()) {
-				removeNode(path);
-			}
-		}
+		size--;
+		updateAncestors(nodes, nodes.length - 1, -1, node.flags, -1);
+		updateAncestorStates(nodes, previous, -1);
+		removeEmptyNodes(nodes);
 		return previous;
-
 	}
 
 	/**
@@ -134,7 +243,7 @@ public class PathTree {
 	 * @return whether there are children for the given path
 	 */
 	public synchronized boolean hasChildren(IPath path) {
-		if (path.isEmpty()) return !objects.isEmpty();
+		if (path.isEmpty()) return !roots.isEmpty();
 		Node node = getNode(path);
 		if (node == null)
 			return false;
@@ -147,93 +256,89 @@ public class PathTree {
 	 * @return the paths for any children of the given path in this set
 	 */
 	public synchronized IPath[] getChildren(IPath path) {
-		// OPTIMIZE: could be optimized so that we don't traverse all the deep
-		// children to find the immediate ones.
-		Set<IPath> children = new HashSet<>();
 		Node node = getNode(path);
-		if (node != null) {
-			Set possibleChildren = node.descendantsWithPayload;
-			if(possibleChildren != null) {
-				for (Iterator it = possibleChildren.iterator(); it.hasNext();) {
-					Object next = it.next();
-					IPath descendantPath = (IPath)next;
-					IPath childPath = null;
-					if(descendantPath.segmentCount() == (path.segmentCount() +  1)) {
-						childPath = descendantPath;
-					} else if (descendantPath.segmentCount() > path.segmentCount()) {
-						childPath = descendantPath.removeLastSegments(descendantPath.segmentCount() - path.segmentCount() - 1);
-					}
-					if (childPath != null) {
-						children.add(childPath);
-					}
-				}
-			}
+		if (node == null || node.children == null)
+			return new IPath[0];
+		// Empty nodes are removed so every child has an object or a descendant with one
+		IPath[] children = new IPath[node.children.size()];
+		int i = 0;
+		for (Node child : node.children.values()) {
+			children[i++] = child.path;
 		}
-		return children.toArray(new IPath[children.size()]);
+		return children;
 	}
 
-	private boolean addToParents(IPath path, IPath parent) {
-		// this flag is used to indicate if the parent was previously in the set
-		boolean addedParent = false;
-		if (path == parent) {
-			// this is the leaf that was just added
-			addedParent = true;
-		} else {
-			Node node = getNode(parent);
-			if (node == null)
-				node = addNode(parent);
-			Set<IPath> children = node.descendantsWithPayload;
-			if (children == null) {
-				children = new HashSet<>();
-				node.descendantsWithPayload = children;
-				// this is a new folder in the sync set
-				addedParent = true;
+	/*
+	 * Add the given counts to the counters of the nodes before the given index,
+	 * which are the ancestors of the node at that index.
+	 */
+	private static void updateAncestors(Node[] nodes, int index, int payloadDelta, int flags, int flagDelta) {
+		for (int i = 0; i < index; i++) {
+			Node ancestor = nodes[i];
+			ancestor.descendantsWithPayload += payloadDelta;
+			for (int bits = flags; bits != 0; bits &= bits - 1) {
+				ancestor.addDescendantsWithFlag(Integer.numberOfTrailingZeros(bits), flagDelta);
 			}
-			children.add(path);
-		}
-		// if the parent already existed and the resource is new, record it
-		if ((parent.segmentCount() == 0 || !addToParents(path, parent.removeLastSegments(1))) && addedParent) {
-			// TODO: we may not need to record the removed subtree
-			// internalAddedSubtreeRoot(parent);
-		}
-		return addedParent;
-	}
-
-	private boolean removeFromParents(IPath path, IPath parent) {
-		// this flag is used to indicate if the parent was removed from the set
-		boolean removedParent = false;
-		Node node = getNode(parent);
-		if (node == null) {
-			// this is the leaf
-			removedParent = true;
-		} else {
-			Set children = node.descendantsWithPayload;
-			if (children == null) {
-				// this is the leaf
-				removedParent = true;
+		}
+	}
+
+	/*
+	 * Add the given count to the state of the given object in the ancestors of
+	 * the last of the given nodes of a path, if this tree counts states.
+	 */
+	private void updateAncestorStates(Node[] nodes, Object object, int delta) {
+		if (stateFunction == null)
+			return;
+		int state = stateFunction.applyAsInt(object);
+		for (int i = 0; i < nodes.length - 1; i++) {
+			nodes[i].addDescendantState(state, delta);
+		}
+	}
+
+	/*
+	 * Remove the last of the given nodes of a path and its ancestors as long as
+	 * they have no object and no descendants with an object. The nodes must
+	 * be editable.
+	 */
+	private void removeEmptyNodes(Node[] nodes) {
+		for (int i = nodes.length - 1; i >= 0 && nodes[i].isEmpty(); i--) {
+			Node node = nodes[i];
+			if (i == 0) {
+				getEditableRoots().remove(node.path);
 			} else {
-				children.remove(path);
-				if (children.isEmpty()) {
-					node.descendantsWithPayload = null;
-					if (node.isEmpty())
-						removeNode(parent);
-					removedParent = true;
-				}
+				Node parent = nodes[i - 1];
+				parent.children.remove(node.path.lastSegment());
+				if (parent.children.isEmpty())
+					parent.children = null;
 			}
 		}
-		//	if the parent wasn't removed and the resource was, record it
-		if ((parent.segmentCount() == 0 || !removeFromParents(path, parent.removeLastSegments(1))) && removedParent) {
-			// TODO: may not need to record this
-			//internalRemovedSubtreeRoot(parent);
-		}
-		return removedParent;
 	}
 
 	/**
 	 * Clear all entries from the path tree.
 	 */
 	public synchronized void clear() {
-		objects.clear();
+		roots = new HashMap<>();
+		rootsShared = false;
+		size = 0;
+	}
+
+	/**
+	 * Return a snapshot of this tree. The snapshot contains the objects and
+	 * properties that this tree contains now and is not affected by later
+	 * changes to this tree. Taking a snapshot doesn't copy the tree; the
+	 * nodes that are changed afterwards are copied when they are changed.
+	 * @return a snapshot of this tree
+	 */
+	public synchronized PathTree snapshot() {
+		PathTree snapshot = new PathTree(stateFunction);
+		snapshot.roots = roots;
+		snapshot.rootsShared = true;
+		snapshot.size = size;
+		rootsShared = true;
+		// Nodes created so far are now shared
+		edit = new Object();
+		return snapshot;
 	}
 
 	/**
@@ -241,7 +346,7 @@ public class PathTree {
 	 * @return whether the path tree is empty
 	 */
 	public synchronized boolean isEmpty() {
-		return objects.isEmpty();
+		return roots.isEmpty();
 	}
 
 	/**
@@ -249,14 +354,12 @@ public class PathTree {
 	 * @return the paths in this tree that contain diffs.
 	 */
 	public synchronized IPath[] getPaths() {
-		List<IPath> result = new ArrayList<>();
-		for (Iterator iter = objects.keySet().iterator(); iter.hasNext();) {
-			IPath path = (IPath) iter.next();
-			Node node = getNode(path);
-			if (node.getPayload() != null)
-				result.add(path);
+		List<Node> nodes = getNodesWithPayload();
+		IPath[] result = new IPath[nodes.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = nodes.get(i).path;
 		}
-		return result.toArray(new IPath[result.size()]);
+		return result;
 	}
 
 	/**
@@ -264,37 +367,176 @@ public class PathTree {
 	 * @return all the values in the tree
 	 */
 	public synchronized Collection values() {
-		List<Object> result = new ArrayList<>();
-		for (Iterator iter = objects.keySet().iterator(); iter.hasNext();) {
-			IPath path = (IPath) iter.next();
-			Node node = getNode(path);
-			if (node.getPayload() != null)
-				result.add(node.getPayload());
+		List<Node> nodes = getNodesWithPayload();
+		List<Object> result = new ArrayList<>(nodes.size());
+		for (Node node : nodes) {
+			result.add(node.getPayload());
+		}
+		return result;
+	}
+
+	/**
+	 * Return the values at the given path and at its descendants.
+	 * @param path the path
+	 * @return the values at or below the given path
+	 */
+	public synchronized Collection values(IPath path) {
+		Node node = getNode(path);
+		if (node == null)
+			return new ArrayList<>(0);
+		List<Node> nodes = getNodesWithPayload(Collections.singletonList(node), node.descendantsWithPayload + 1);
+		List<Object> result = new ArrayList<>(nodes.size());
+		for (Node n : nodes) {
+			result.add(n.getPayload());
 		}
 		return result;
 	}
 
+	/**
+	 * Return the number of objects at or below the given path whose state
+	 * matches the given filter. The objects are not visited.
+	 * @param path the path
+	 * @param filter selects the states to count
+	 * @return the number of matching objects at or below the path
+	 * @throws IllegalStateException if this tree does not count states
+	 */
+	public synchronized int count(IPath path, IntPredicate filter) {
+		checkCountsStates();
+		Node node = getNode(path);
+		return node == null ? 0 : node.count(filter);
+	}
+
+	/**
+	 * Return the number of objects in this tree whose state matches the given
+	 * filter. The objects are not visited.
+	 * @param filter selects the states to count
+	 * @return the number of matching objects
+	 * @throws IllegalStateException if this tree does not count states
+	 */
+	public synchronized int count(IntPredicate filter) {
+		checkCountsStates();
+		int count = 0;
+		for (Node root : roots.values()) {
+			count += root.count(filter);
+		}
+		return count;
+	}
+
+	private void checkCountsStates() {
+		if (stateFunction == null)
+			throw new IllegalStateException("The tree does not count states"); //$NON-NLS-1$
+	}
+
 	/**
 	 * Return the number of nodes contained in this path tree.
 	 * @return the number of nodes contained in this path tree
 	 */
-	public int size() {
-		return values().size();
+	public synchronized int size() {
+		return size;
 	}
 
-	private Node getNode(IPath path) {
-		return objects.get(path);
+	private List<Node> getNodesWithPayload() {
+		return getNodesWithPayload(roots.values(), size);
+	}
+
+	private List<Node> getNodesWithPayload(Collection<Node> start, int expectedSize) {
+		List<Node> result = new ArrayList<>(expectedSize);
+		List<Node> stack = new ArrayList<>(start);
+		while (!stack.isEmpty()) {
+			Node node = stack.remove(stack.size() - 1);
+			if (node.getPayload() != null)
+				result.add(node);
+			if (node.children != null)
+				stack.addAll(node.children.values());
+		}
+		return result;
+	}
+
+	/*
+	 * Return the nodes of the given path and of its ancestors, starting with
+	 * the node of the path without segments, or <code>null</code> if there
+	 * is no node for the path.
+	 */
+	private Node[] getNodes(IPath path) {
+		int count = path.segmentCount();
+		Node node = roots.get(path.uptoSegment(0));
+		if (node == null)
+			return null;
+		Node[] nodes = new Node[count + 1];
+		nodes[0] = node;
+		for (int i = 0; i < count; i++) {
+			node = node.children == null ? null : node.children.get(path.segment(i));
+			if (node == null)
+				return null;
+			nodes[i + 1] = node;
+		}
+		return nodes;
 	}
 
-	private Node addNode(IPath path) {
-		Node node;
-		node = new Node();
-		objects.put(path, node);
+	private Node getNode(IPath path) {
+		Node node = roots.get(path.uptoSegment(0));
+		for (int i = 0, count = path.segmentCount(); node != null && i < count; i++) {
+			node = node.children == null ? null : node.children.get(path.segment(i));
+		}
 		return node;
 	}
 
-	private Object removeNode(IPath path) {
-		return objects.remove(path);
+	/*
+	 * Return the editable nodes of the given path and of its ancestors,
+	 * adding or copying them if necessary.
+	 */
+	private Node[] addNodes(IPath path) {
+		int count = path.segmentCount();
+		Node[] nodes = new Node[count + 1];
+		IPath rootPath = path.uptoSegment(0);
+		Node node = roots.get(rootPath);
+		if (node == null || node.edit != edit) {
+			node = node == null ? new Node(edit, rootPath) : new Node(edit, node);
+			getEditableRoots().put(rootPath, node);
+		}
+		nodes[0] = node;
+		for (int i = 0; i < count; i++) {
+			String segment = path.segment(i);
+			Node child = node.children == null ? null : node.children.get(segment);
+			if (child == null || child.edit != edit) {
+				if (child == null)
+					child = new Node(edit, i == count - 1 ? path : path.uptoSegment(i + 1));
+				else
+					child = new Node(edit, child);
+				if (node.children == null)
+					node.children = new HashMap<>(4);
+				node.children.put(segment, child);
+			}
+			nodes[i + 1] = child;
+			node = child;
+		}
+		return nodes;
+	}
+
+	/*
+	 * Replace the given nodes of a path, which start at the node of the path
+	 * without segments, by copies that can be changed if they may be shared.
+	 */
+	private void makeEditable(Node[] nodes) {
+		for (int i = 0; i < nodes.length; i++) {
+			Node node = nodes[i];
+			if (node.edit != edit) {
+				node = new Node(edit, node);
+				if (i == 0)
+					getEditableRoots().put(node.path, node);
+				else
+					nodes[i - 1].children.put(node.path.lastSegment(), node);
+				nodes[i] = node;
+			}
+		}
+	}
+
+	private Map<IPath, Node> getEditableRoots() {
+		if (rootsShared) {
+			roots = new HashMap<>(roots);
+			rootsShared = false;
+		}
+		return roots;
 	}
 
 	/**
@@ -307,26 +549,94 @@ public class PathTree {
 	 * @return the paths whose bit changed
 	 */
 	public synchronized IPath[] setPropogatedProperty(IPath path, int property, boolean value) {
-		Set<IPath> changed = new HashSet<>();
-		internalSetPropertyBit(path, property, value, changed);
+		List<IPath> changed = new ArrayList<>();
+		// The nodes of paths without segments never have the property
+		Node[] nodes = path.segmentCount() == 0 ? null : getNodes(path);
+		for (int i = nodes == null ? 0 : nodes.length - 1; i > 0; i--) {
+			Node node = nodes[i];
+			// No need to set it if the value hasn't changed
+			if (value == node.hasFlag(property))
+				break;
+			// Only unset the property if no descendants have the flag set
+			if (!value && node.descendantHasFlag(property))
+				break;
+			if (changed.isEmpty())
+				makeEditable(nodes);
+			setProperty(nodes, i, property, value);
+			changed.add(node.path);
+		}
 		return changed.toArray(new IPath[changed.size()]);
 	}
 
-	private void internalSetPropertyBit(IPath path, int property, boolean value, Set<IPath> changed) {
-		if (path.segmentCount() == 0)
-			return;
-		Node node = getNode(path);
-		if (node == null)
-			return;
-		// No need to set it if the value hans't changed
-		if (value == node.hasFlag(property))
-			return;
-		// Only unset the property if no descendants have the flag set
-		if (!value && node.descendantHasFlag(property))
-			return;
-		node.setProperty(property, value);
-		changed.add(path);
-		internalSetPropertyBit(path.removeLastSegments(1), property, value, changed);
+	/**
+	 * Clear the property of all paths in the tree. Only the paths that have
+	 * the property or that have descendants with the property are visited.
+	 * <p>
+	 * The descendants with the property are only counted if they have an
+	 * object. So all paths are cleared only if the property was set on paths
+	 * with objects and propagated from there. A path without an object that
+	 * has the property but no descendant with it may keep it.
+	 * </p>
+	 * @param property the property bit to clear
+	 * @return the paths whose bit changed
+	 */
+	public synchronized IPath[] clearPropogatedProperty(int property) {
+		List<IPath> changed = new ArrayList<>();
+		for (Node root : new ArrayList<>(roots.values())) {
+			Node cleared = clearProperty(root, property, changed);
+			if (cleared != root)
+				getEditableRoots().put(cleared.path, cleared);
+		}
+		return changed.toArray(new IPath[changed.size()]);
+	}
+
+	/*
+	 * Clear the property of the given node and its descendants. Return the
+	 * node or, if the node changed and was shared, the copy that was changed.
+	 */
+	private Node clearProperty(Node node, int property, List<IPath> changed) {
+		if (!node.hasFlag(property) && !node.descendantHasFlag(property))
+			return node;
+		if (node.edit != edit)
+			node = new Node(edit, node);
+		if (node.children != null) {
+			for (Map.Entry<String, Node> entry : node.children.entrySet()) {
+				Node child = entry.getValue();
+				Node cleared = clearProperty(child, property, changed);
+				if (cleared != child)
+					entry.setValue(cleared);
+			}
+		}
+		// None of the descendants has the property now
+		if (node.descendantsWithFlag != null) {
+			for (int i = 0; i < node.descendantsWithFlag.length; i++) {
+				if ((property & (1 << i)) != 0)
+					node.descendantsWithFlag[i] = 0;
+			}
+		}
+		if (node.hasFlag(property)) {
+			node.flags &= ~property;
+			changed.add(node.path);
+		}
+		return node;
+	}
+
+	/*
+	 * Set the property of the node at the given index of the given nodes of a
+	 * path, and update the counters of its ancestors. The nodes must be editable.
+	 */
+	private static void setProperty(Node[] nodes, int index, int propertyBit, boolean value) {
+		Node node = nodes[index];
+		int oldFlags = node.flags;
+		if (value)
+			node.flags |= propertyBit;
+		else
+			node.flags ^= propertyBit;
+		if (node.payload != null) {
+			int changed = oldFlags ^ node.flags;
+			updateAncestors(nodes, index, 0, node.flags & changed, 1);
+			updateAncestors(nodes, index, 0, oldFlags & changed, -1);
+		}
 	}
 
 	public synchronized boolean getProperty(IPath path, int property) {
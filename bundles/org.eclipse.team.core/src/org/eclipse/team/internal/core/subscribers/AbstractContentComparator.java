@@ -14,15 +14,18 @@
 package org.eclipse.team.internal.core.subscribers;
 
 import java.io.BufferedInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.team.core.TeamException;
 import org.eclipse.team.core.history.IFileRevision;
+import org.eclipse.team.core.variants.CachedResourceVariant;
 import org.eclipse.team.core.variants.IResourceVariant;
 import org.eclipse.team.internal.core.Policy;
 import org.eclipse.team.internal.core.TeamPlugin;
@@ -56,6 +59,13 @@ public abstract class AbstractContentComparator {
 		InputStream is2 = null;
 		try {
 			monitor.beginTask(null, 100);
+			if (canCompareSizes()) {
+				long size1 = getSize(e1);
+				long size2 = getSize(e2);
+				if (size1 != -1 && size2 != -1 && size1 != size2) {
+					return false;
+				}
+			}
 			is1 = getContents(e1, Policy.subMonitorFor(monitor, 30));
 			is2 = getContents(e2, Policy.subMonitorFor(monitor, 30));
 			return contentsEqual(Policy.subMonitorFor(monitor, 40), is1, is2, shouldIgnoreWhitespace());
@@ -84,9 +94,42 @@ public abstract class AbstractContentComparator {
 		return ignoreWhitespace;
 	}
 
+	/**
+	 * Return whether contents whose sizes differ can be considered different
+	 * without reading them. Subclasses that compare the bytes of the contents
+	 * may override to return <code>true</code>.
+	 *
+	 * @return whether the sizes of the contents are compared first
+	 */
+	protected boolean canCompareSizes() {
+		return false;
+	}
+
 	abstract protected boolean contentsEqual(IProgressMonitor monitor, InputStream is1, InputStream is2,
 			boolean ignoreWhitespace);
 
+	/*
+	 * Return the size of the contents if it is known without reading the
+	 * contents or contacting the server, -1 otherwise.
+	 */
+	private long getSize(Object resource) {
+		if (resource instanceof IFile) {
+			IPath location = ((IFile) resource).getLocation();
+			if (location != null) {
+				File file = location.toFile();
+				if (file.isFile()) {
+					return file.length();
+				}
+			}
+		} else if (resource instanceof CachedResourceVariant) {
+			CachedResourceVariant remote = (CachedResourceVariant) resource;
+			if (!remote.isContainer() && remote.isContentsCached()) {
+				return remote.getSize();
+			}
+		}
+		return -1;
+	}
+
 	private InputStream getContents(Object resource, IProgressMonitor monitor)
 			throws TeamException {
 		try {
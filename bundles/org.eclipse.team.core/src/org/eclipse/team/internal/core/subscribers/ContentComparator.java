@@ -16,6 +16,7 @@ package org.eclipse.team.internal.core.subscribers;
 import java.io.IOException;
 import java.io.InputStream;
 
+import org.eclipse.compare.internal.core.StreamComparator;
 import org.eclipse.core.runtime.IProgressMonitor;
 
 /**
@@ -53,18 +54,7 @@ public class ContentComparator extends AbstractContentComparator{
 			if (is1 == null || is2 == null)
 				return false;
 
-			while (true) {
-				int c1 = is1.read();
-				while (shouldIgnoreWhitespace() && isWhitespace(c1))
-					c1 = is1.read();
-				int c2 = is2.read();
-				while (shouldIgnoreWhitespace() && isWhitespace(c2))
-					c2 = is2.read();
-				if (c1 == -1 && c2 == -1)
-					return true;
-				if (c1 != c2)
-					break;
-			}
+			return StreamComparator.contentsEqual(is1, is2, shouldIgnoreWhitespace());
 		} catch (IOException ex) {
 		} finally {
 			try {
@@ -84,9 +74,9 @@ public class ContentComparator extends AbstractContentComparator{
 		return false;
 	}
 
-	private boolean isWhitespace(int c) {
-		if (c == -1)
-			return false;
-		return Character.isWhitespace((char) c);
+	@Override
+	protected boolean canCompareSizes() {
+		// Contents of different sizes may only differ in whitespace
+		return !shouldIgnoreWhitespace();
 	}
 }
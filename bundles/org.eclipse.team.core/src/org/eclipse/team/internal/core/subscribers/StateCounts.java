@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.internal.core.subscribers;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts states that are bit fields. The states that only use the given state
+ * bits are counted in an array with a slot for each combination of those bits,
+ * so counting neither boxes nor locks. Other states are counted in a map.
+ */
+final class StateCounts {
+
+	private final int stateBits;
+	private final AtomicLongArray counts;
+	// {Integer state -> AtomicLong count} for the states with bits outside of the state bits
+	private final Map<Integer, AtomicLong> otherCounts = new ConcurrentHashMap<>(4);
+	private final AtomicLong total = new AtomicLong();
+
+	StateCounts(int stateBits) {
+		this.stateBits = stateBits;
+		this.counts = new AtomicLongArray(1 << Integer.bitCount(stateBits));
+	}
+
+	void add(int state) {
+		if ((state & ~stateBits) == 0) {
+			counts.incrementAndGet(indexOf(state));
+		} else {
+			otherCounts.computeIfAbsent(Integer.valueOf(state), s -> new AtomicLong()).incrementAndGet();
+		}
+		total.incrementAndGet();
+	}
+
+	void remove(int state) {
+		long previous;
+		// Counts don't drop below 0 when a state is removed that wasn't added
+		if ((state & ~stateBits) == 0) {
+			previous = counts.getAndUpdate(indexOf(state), count -> count > 0 ? count - 1 : count);
+		} else {
+			AtomicLong count = otherCounts.get(Integer.valueOf(state));
+			previous = count == null ? 0 : count.getAndUpdate(c -> c > 0 ? c - 1 : c);
+		}
+		if (previous > 0)
+			total.decrementAndGet();
+	}
+
+	long countFor(int state, int mask) {
+		if (mask == 0)
+			return count(state);
+		// No state can match if the given state has bits outside of the mask
+		if ((state & ~mask) != 0)
+			return 0;
+		long count = 0;
+		if ((state & ~stateBits) == 0) {
+			// Visit the states that differ from the given state in the unmasked bits only
+			int unmasked = stateBits & ~mask;
+			int bits = unmasked;
+			while (true) {
+				count += counts.get(indexOf(state | bits));
+				if (bits == 0)
+					break;
+				bits = (bits - 1) & unmasked;
+			}
+		}
+		for (Map.Entry<Integer, AtomicLong> entry : otherCounts.entrySet()) {
+			if ((entry.getKey().intValue() & mask) == state)
+				count += entry.getValue().get();
+		}
+		return count;
+	}
+
+	long count(int state) {
+		if ((state & ~stateBits) == 0)
+			return counts.get(indexOf(state));
+		AtomicLong count = otherCounts.get(Integer.valueOf(state));
+		return count == null ? 0 : count.get();
+	}
+
+	long total() {
+		return total.get();
+	}
+
+	boolean isEmpty() {
+		return total.get() == 0;
+	}
+
+	void clear() {
+		for (int i = 0; i < counts.length(); i++) {
+			counts.set(i, 0);
+		}
+		otherCounts.clear();
+		total.set(0);
+	}
+
+	/*
+	 * Return the states that have a count.
+	 */
+	int[] getStates() {
+		int[] states = new int[counts.length() + otherCounts.size()];
+		int size = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			if (counts.get(i) > 0)
+				states[size++] = stateAt(i);
+		}
+		for (Map.Entry<Integer, AtomicLong> entry : otherCounts.entrySet()) {
+			if (entry.getValue().get() > 0 && size < states.length)
+				states[size++] = entry.getKey().intValue();
+		}
+		int[] result = new int[size];
+		System.arraycopy(states, 0, result, 0, size);
+		return result;
+	}
+
+	/*
+	 * Return the slot of the given state by packing its state bits.
+	 */
+	private int indexOf(int state) {
+		int index = 0;
+		int slotBit = 1;
+		for (int bits = stateBits; bits != 0; bits &= bits - 1) {
+			if ((state & Integer.lowestOneBit(bits)) != 0)
+				index |= slotBit;
+			slotBit <<= 1;
+		}
+		return index;
+	}
+
+	private int stateAt(int index) {
+		int state = 0;
+		int slotBit = 1;
+		for (int bits = stateBits; bits != 0; bits &= bits - 1) {
+			if ((index & slotBit) != 0)
+				state |= Integer.lowestOneBit(bits);
+			slotBit <<= 1;
+		}
+		return state;
+	}
+}
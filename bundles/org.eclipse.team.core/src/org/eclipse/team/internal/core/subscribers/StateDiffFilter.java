@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.internal.core.subscribers;
+
+import org.eclipse.team.core.diff.FastDiffFilter;
+import org.eclipse.team.core.diff.IDiff;
+import org.eclipse.team.core.diff.IThreeWayDiff;
+import org.eclipse.team.core.diff.provider.Diff;
+
+/**
+ * A filter that selects the diffs whose status matches one of a set of states
+ * under a mask. Diff trees can answer whether such a filter matches from their
+ * statistics instead of visiting the diffs.
+ *
+ * @see FastDiffFilter#getStateFilter(int[], int)
+ */
+public class StateDiffFilter extends FastDiffFilter {
+
+	private final int[] states;
+	private final int mask;
+
+	public StateDiffFilter(int[] states, int mask) {
+		this.states = states;
+		this.mask = mask;
+	}
+
+	@Override
+	public boolean select(IDiff node) {
+		int status = ((Diff)node).getStatus();
+		for (int state : states) {
+			if ((status & mask) == state) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Return whether the diffs that match this filter can be counted by a
+	 * diff tree, which only counts the kind and direction of the diffs.
+	 * @return whether the statistics can be used for this filter
+	 */
+	public boolean isCounted() {
+		return mask != 0 && (mask & ~(Diff.KIND_MASK | IThreeWayDiff.DIRECTION_MASK)) == 0;
+	}
+
+	public int[] getStates() {
+		return states;
+	}
+
+	public int getMask() {
+		return mask;
+	}
+}
@@ -43,6 +43,9 @@ import org.eclipse.team.internal.core.Policy;
  */
 public abstract class SubscriberEventHandler extends BackgroundEventHandler {
 
+	// The maximum number of queued changes whose state is calculated at once
+	private static final int MAX_CHANGE_BATCH = 100;
+
 	// Changes accumulated by the event handler
 	private List<Event> resultCache = new ArrayList<>();
 
@@ -132,6 +135,13 @@ public abstract class SubscriberEventHandler extends BackgroundEventHandler {
 			super.queueEvent(event, front);
 		}
 	}
+	@Override
+	protected boolean isCoalescable(Event event) {
+		// A change recalculates the current synchronization state, so changes
+		// can be merged and reordered among each other
+		return event instanceof SubscriberEvent && event.getType() == SubscriberEvent.CHANGE;
+	}
+
 	/**
 	 * Schedule the job or process the events now.
 	 */
@@ -199,11 +209,16 @@ public abstract class SubscriberEventHandler extends BackgroundEventHandler {
 			try {
 				IResource[] members =
 					getSubscriber().members(resource);
+				// The members that are not visited are handled at once
+				List<IResource> changes = new ArrayList<>(members.length);
 				for (IResource member : members) {
-					collect(member, depth == IResource.DEPTH_INFINITE
-							? IResource.DEPTH_INFINITE
-							: IResource.DEPTH_ZERO, monitor);
+					if (depth == IResource.DEPTH_INFINITE && member.getType() != IResource.FILE) {
+						collect(member, IResource.DEPTH_INFINITE, monitor);
+					} else {
+						changes.add(member);
+					}
 				}
+				collectChanges(changes.toArray(new IResource[changes.size()]), monitor);
 			} catch (TeamException e) {
 				// We only handle the exception if the resource's project is accessible.
 				// The project close delta will clean up.
@@ -212,6 +227,35 @@ public abstract class SubscriberEventHandler extends BackgroundEventHandler {
 			}
 		}
 
+		collectChange(resource, monitor);
+	}
+
+	/*
+	 * Calculate the synchronization state of the given resources at once.
+	 * If that fails, the state of each resource is calculated on its own
+	 * so the errors are reported for the resources that caused them.
+	 */
+	private void collectChanges(IResource[] resources, IProgressMonitor monitor) {
+		if (resources.length == 0)
+			return;
+		if (resources.length == 1) {
+			collectChange(resources[0], monitor);
+			return;
+		}
+		Policy.checkCanceled(monitor);
+		monitor.subTask(NLS.bind(Messages.SubscriberEventHandler_2, new String[] { resources[0].getFullPath().toString() }));
+		try {
+			handleChanges(resources);
+			handlePendingDispatch(monitor);
+			monitor.worked(resources.length);
+		} catch (CoreException e) {
+			for (IResource resource : resources) {
+				collectChange(resource, monitor);
+			}
+		}
+	}
+
+	private void collectChange(IResource resource, IProgressMonitor monitor) {
 		monitor.subTask(NLS.bind(Messages.SubscriberEventHandler_2, new String[] { resource.getFullPath().toString() }));
 		try {
 			handleChange(resource);
@@ -237,6 +281,18 @@ public abstract class SubscriberEventHandler extends BackgroundEventHandler {
 	 */
 	protected abstract void handleChange(IResource resource) throws CoreException;
 
+	/**
+	 * The given resources have changed. By default, <code>handleChange</code>
+	 * is called for each resource. Subclasses may override to calculate the
+	 * state of all the resources at once.
+	 * @param resources the resources whose state has changed
+	 */
+	protected void handleChanges(IResource[] resources) throws CoreException {
+		for (IResource resource : resources) {
+			handleChange(resource);
+		}
+	}
+
 	protected void handlePendingDispatch(IProgressMonitor monitor) {
 		if (isReadyForDispatch(false /*don't wait if queue is empty*/)) {
 			try {
@@ -305,10 +361,15 @@ public abstract class SubscriberEventHandler extends BackgroundEventHandler {
 					queueDispatchEvent(event);
 					break;
 				case SubscriberEvent.CHANGE :
-					collect(
-						event.getResource(),
-						((ResourceEvent)event).getDepth(),
-						monitor);
+					if (((ResourceEvent)event).getDepth() == IResource.DEPTH_ZERO) {
+						// A refresh reports the changed resources one by one
+						collectChanges(takeChanges(event), monitor);
+					} else {
+						collect(
+							event.getResource(),
+							((ResourceEvent)event).getDepth(),
+							monitor);
+					}
 					break;
 				case SubscriberEvent.INITIALIZE :
 					monitor.subTask(NLS.bind(Messages.SubscriberEventHandler_2, new String[] { event.getResource().getFullPath().toString() }));
@@ -332,6 +393,31 @@ public abstract class SubscriberEventHandler extends BackgroundEventHandler {
 		}
 	}
 
+	/*
+	 * Return the resource of the given change and of the changes of depth zero
+	 * that directly follow it in the queue, removing those from the queue.
+	 * The events are queued while holding the lock of the handler, so holding
+	 * it between the peek and the removal ensures that the peeked event is the
+	 * one removed and not a runnable put in front of it meanwhile.
+	 */
+	private IResource[] takeChanges(Event event) {
+		List<IResource> resources = new ArrayList<>();
+		resources.add(event.getResource());
+		while (resources.size() < MAX_CHANGE_BATCH) {
+			synchronized (this) {
+				Event next = peek();
+				if (next == null || next.getType() != SubscriberEvent.CHANGE
+						|| ((ResourceEvent)next).getDepth() != IResource.DEPTH_ZERO)
+					break;
+				next = nextElement();
+				if (next == null)
+					break;
+				resources.add(next.getResource());
+			}
+		}
+		return resources.toArray(new IResource[resources.size()]);
+	}
+
 	/**
 	 * Queue the event to be handle during the dispatch phase.
 	 * @param event the event
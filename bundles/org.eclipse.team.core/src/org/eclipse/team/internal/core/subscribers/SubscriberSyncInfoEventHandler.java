@@ -93,6 +93,18 @@ public class SubscriberSyncInfoEventHandler extends SubscriberEventHandler {
 	@Override
 	protected void handleChange(IResource resource) throws TeamException {
 		SyncInfo info = syncSetInput.getSubscriber().getSyncInfo(resource);
+		queueResult(resource, info);
+	}
+
+	@Override
+	protected void handleChanges(IResource[] resources) throws CoreException {
+		SyncInfo[] infos = syncSetInput.getSubscriber().getSyncInfos(resources);
+		for (int i = 0; i < resources.length; i++) {
+			queueResult(resources[i], infos[i]);
+		}
+	}
+
+	private void queueResult(IResource resource, SyncInfo info) {
 		// resource is no longer under the subscriber control
 		if (info == null) {
 			queueDispatchEvent(
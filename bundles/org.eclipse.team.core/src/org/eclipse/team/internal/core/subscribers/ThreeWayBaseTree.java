@@ -20,6 +20,7 @@ import org.eclipse.team.core.variants.IResourceVariant;
 import org.eclipse.team.core.variants.ResourceVariantByteStore;
 import org.eclipse.team.core.variants.ResourceVariantTree;
 import org.eclipse.team.core.variants.ThreeWaySubscriber;
+import org.eclipse.team.core.variants.ThreeWaySyncStates;
 
 /**
  * Allow access to the base resource variants but do not support refresh
@@ -48,6 +49,15 @@ public final class ThreeWayBaseTree extends ResourceVariantTree {
 			return subscriber.getSynchronizer().getBaseBytes(resource);
 		}
 		@Override
+		public byte[][] getBytes(IResource[] resources) throws TeamException {
+			ThreeWaySyncStates states = subscriber.getSynchronizer().getSyncStates(resources);
+			byte[][] bytes = new byte[states.size()][];
+			for (int i = 0; i < bytes.length; i++) {
+				bytes[i] = states.getBaseBytes(i);
+			}
+			return bytes;
+		}
+		@Override
 		public boolean setBytes(IResource resource, byte[] bytes) throws TeamException {
 			// Base bytes are set directly in the synchronizer
 			return false;
@@ -105,6 +115,16 @@ public final class ThreeWayBaseTree extends ResourceVariantTree {
 		return getSubscriber().getResourceVariant(resource, getByteStore().getBytes(resource));
 	}
 
+	@Override
+	public IResourceVariant[] getResourceVariants(IResource[] resources) throws TeamException {
+		byte[][] bytes = getByteStore().getBytes(resources);
+		IResourceVariant[] variants = new IResourceVariant[resources.length];
+		for (int i = 0; i < resources.length; i++) {
+			variants[i] = getSubscriber().getResourceVariant(resources[i], bytes[i]);
+		}
+		return variants;
+	}
+
 	private ThreeWaySubscriber getSubscriber() {
 		return subscriber;
 	}
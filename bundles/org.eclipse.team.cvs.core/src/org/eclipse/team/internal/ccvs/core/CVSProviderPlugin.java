@@ -35,6 +35,7 @@ import org.eclipse.team.internal.ccvs.core.client.listeners.IConsoleListener;
 import org.eclipse.team.internal.ccvs.core.mapping.CVSActiveChangeSetCollector;
 import org.eclipse.team.internal.ccvs.core.resources.FileModificationManager;
 import org.eclipse.team.internal.ccvs.core.util.*;
+import org.eclipse.team.internal.core.ResourceVariantCache;
 import org.eclipse.team.internal.core.subscribers.ActiveChangeSetManager;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceRegistration;
@@ -294,6 +295,9 @@ public class CVSProviderPlugin extends Plugin {
 		properties.put(DebugOptions.LISTENER_SYMBOLICNAME, ID);
 		debugRegistration = context.registerService(DebugOptionsListener.class, Policy.DEBUG_OPTIONS_LISTENER, properties);
 
+		// The cache path of a remote file includes its revision and keyword mode, so cached contents stay valid
+		ResourceVariantCache.enablePersistence(ID);
+
 		// load the state which includes the known repositories
 		loadOldState();
 		crash = createCrashFile();
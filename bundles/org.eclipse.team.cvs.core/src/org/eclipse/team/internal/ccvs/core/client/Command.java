@@ -22,6 +22,7 @@ import org.eclipse.core.runtime.*;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.team.internal.ccvs.core.*;
 import org.eclipse.team.internal.ccvs.core.client.listeners.ICommandOutputListener;
+import org.eclipse.team.internal.ccvs.core.connection.CVSServerException;
 
 /**
  * Abstract base class for command requests.
@@ -309,18 +310,7 @@ public abstract class Command extends Request {
 			LocalOption[] lOptions = filterLocalOptions(session, gOptions, localOptions);
 			
 			// print the invocation string to the console
-			if (session.isOutputToConsole() || Policy.isDebugProtocol()) {
-				IPath commandRootPath;
-				IResource resource = session.getLocalRoot().getIResource();
-				if (resource == null) {
-					commandRootPath = Path.EMPTY;
-				} else {
-					commandRootPath = resource.getFullPath();
-				}
-				String line = constructCommandInvocationString(commandRootPath, gOptions, lOptions, arguments);
-				ConsoleListeners.getInstance().commandInvoked(session, line);
-				if (Policy.isDebugProtocol()) Policy.printProtocolLine("CMD> " + line); //$NON-NLS-1$
-			}
+			notifyConsoleOnInvocation(session, gOptions, lOptions, arguments);
 			
 			// run the command
 			try {
@@ -343,6 +333,104 @@ public abstract class Command extends Request {
 		return status[0];
 	}
 	
+	/**
+	 * Executes this command once for each of the given sets of arguments.
+	 * <p>
+	 * The requests of all the invocations are sent to the server before the
+	 * responses of the first invocation are read. The server processes the
+	 * requests in order so the responses are read back in the same order and
+	 * passed to the listener of their invocation. This saves a round trip to
+	 * the server for each invocation but the first.
+	 * </p><p>
+	 * The invocations must be independent of each other since the local state
+	 * of all of them is sent before any of them is run. Only the template
+	 * methods of the command are invoked for each invocation; an override of
+	 * <code>doExecute</code> is not.
+	 * </p><p>
+	 * If the server reports a fatal error for an invocation, the responses of
+	 * the remaining invocations are still read so that the session can be used
+	 * for further commands, and the first error is thrown once they are. If
+	 * the requests cannot be sent or the responses cannot be read, the
+	 * connection of the session is discarded since its requests and responses
+	 * can no longer be told apart; the session must then be closed.
+	 * </p>
+	 * @param session the open CVS session
+	 * @param globalOptions the array of global options, or NO_GLOBAL_OPTIONS
+	 * @param localOptions the array of local options, or NO_LOCAL_OPTIONS
+	 * @param arguments the arguments of each invocation
+	 * @param listeners the command output listener of each invocation, or null to discard all messages
+	 * @param monitor the progress monitor
+	 * @return the status of each invocation
+	 * @throws CVSException if a fatal error occurs (e.g. connection timeout)
+	 */
+	public final IStatus[] execute(final Session session, final GlobalOption[] globalOptions,
+		final LocalOption[] localOptions, final String[][] arguments, final ICommandOutputListener[] listeners,
+		IProgressMonitor pm) throws CVSException {
+		final IStatus[] status = new IStatus[arguments.length];
+		ICVSRunnable job = monitor -> {
+			// update the global and local options
+			GlobalOption[] gOptions = filterGlobalOptions(session, globalOptions);
+			LocalOption[] lOptions = filterLocalOptions(session, gOptions, localOptions);
+			monitor = Policy.monitorFor(monitor);
+			monitor.beginTask(null, 100 * arguments.length);
+			try {
+				session.setCurrentCommand(Command.this);
+				// send the requests of all invocations
+				ICVSResource[][] resources = new ICVSResource[arguments.length][];
+				try {
+					for (int i = 0; i < arguments.length; i++) {
+						Policy.checkCanceled(monitor);
+						notifyConsoleOnInvocation(session, gOptions, lOptions, arguments[i]);
+						session.setNoLocalChanges(DO_NOT_CHANGE.isElementOf(gOptions));
+						resources[i] = sendCommand(session, gOptions, lOptions, arguments[i], monitor);
+						session.sendRequest(getRequestId());
+					}
+				} catch (CVSException | RuntimeException e) {
+					// the server would apply the partly sent requests to the next command
+					session.discardConnection();
+					throw e;
+				}
+				// process the responses of each invocation in turn
+				CVSException serverError = null;
+				for (int i = 0; i < arguments.length; i++) {
+					ICommandOutputListener listener = listeners[i];
+					if (listener == null) listener = getDefaultCommandOutputListener();
+					session.setNoLocalChanges(DO_NOT_CHANGE.isElementOf(gOptions));
+					session.setModTime(null);
+					boolean responsesRead = false;
+					try {
+						status[i] = processResponses(session, listener, Policy.subMonitorFor(monitor, 50));
+						responsesRead = true;
+						status[i] = commandFinished(session, gOptions, lOptions, resources[i], Policy.subMonitorFor(monitor, 2),
+							status[i]);
+						notifyConsoleOnCompletion(session, status[i], null);
+					} catch (CVSException e1) {
+						notifyConsoleOnCompletion(session, null, e1);
+						if (!responsesRead && !(e1 instanceof CVSServerException)) {
+							session.discardConnection();
+							throw e1;
+						}
+						// the responses of the invocation were all read, read those of the others
+						if (serverError == null) serverError = e1;
+					} catch (RuntimeException e2) {
+						notifyConsoleOnCompletion(session, null, e2);
+						session.discardConnection();
+						throw e2;
+					}
+				}
+				if (serverError != null) throw serverError;
+			} finally {
+				monitor.done();
+			}
+		};
+		if (isWorkspaceModification()) {
+			session.getLocalRoot().run(job, pm);
+		} else {
+			job.run(pm);
+		}
+		return status;
+	}
+
 	/**
 	 * Return whether this command modifies the workspace.
 	 * If <code>true</code> is returned, a scheduling rule on
@@ -355,6 +443,22 @@ public abstract class Command extends Request {
 		return true;
 	}
 
+	private void notifyConsoleOnInvocation(Session session, GlobalOption[] globalOptions,
+		LocalOption[] localOptions, String[] arguments) {
+		if (session.isOutputToConsole() || Policy.isDebugProtocol()) {
+			IPath commandRootPath;
+			IResource resource = session.getLocalRoot().getIResource();
+			if (resource == null) {
+				commandRootPath = Path.EMPTY;
+			} else {
+				commandRootPath = resource.getFullPath();
+			}
+			String line = constructCommandInvocationString(commandRootPath, globalOptions, localOptions, arguments);
+			ConsoleListeners.getInstance().commandInvoked(session, line);
+			if (Policy.isDebugProtocol()) Policy.printProtocolLine("CMD> " + line); //$NON-NLS-1$
+		}
+	}
+
 	private void notifyConsoleOnCompletion(Session session, IStatus status, Exception exception) {
 		ConsoleListeners.getInstance().commandCompleted(session, status, exception);
 		if (Policy.isDebugProtocol()) {
@@ -378,33 +482,7 @@ public abstract class Command extends Request {
 			session.setModTime(null);
 
 			/*** initiate command ***/
-			// send global options
-			for (GlobalOption globalOption : globalOptions) {
-				globalOption.send(session);
-			}
-			Policy.checkCanceled(monitor);
-			// send local options
-			for (LocalOption localOption : localOptions) {
-				localOption.send(session);
-			}
-			Policy.checkCanceled(monitor);
-			// compute the work resources
-			resources = computeWorkResources(session, localOptions, arguments);			
-			Policy.checkCanceled(monitor);
-			// send local working directory state contributes 48% of work
-			resources = sendLocalResourceState(session, globalOptions, localOptions,
-					resources, Policy.infiniteSubMonitorFor(monitor, 48));
-			Policy.checkCanceled(monitor);
-			// escape file names, see bug 149683
-			for(int i = 0; i < arguments.length; i++){
-				if(arguments[i].startsWith("-")){ //$NON-NLS-1$
-					arguments[i] = "./" + arguments[i]; //$NON-NLS-1$
-				}
-			}
-			// send arguments
-			sendArguments(session, arguments);
-			// send local working directory path
-			sendLocalWorkingDirectory(session);
+			resources = sendCommand(session, globalOptions, localOptions, arguments, monitor);
 
 			// if no listener was provided, use the command's default in order to get error reporting
 			if (listener == null) listener = getDefaultCommandOutputListener();
@@ -422,6 +500,43 @@ public abstract class Command extends Request {
 		}
 	}
 	
+	/*
+	 * Sends the options, the local state and the arguments of the command and
+	 * returns the resources of interest to commandFinished. Does 48 work in the
+	 * given monitor.
+	 */
+	private ICVSResource[] sendCommand(Session session, GlobalOption[] globalOptions,
+		LocalOption[] localOptions, String[] arguments, IProgressMonitor monitor) throws CVSException {
+		// send global options
+		for (GlobalOption globalOption : globalOptions) {
+			globalOption.send(session);
+		}
+		Policy.checkCanceled(monitor);
+		// send local options
+		for (LocalOption localOption : localOptions) {
+			localOption.send(session);
+		}
+		Policy.checkCanceled(monitor);
+		// compute the work resources
+		ICVSResource[] resources = computeWorkResources(session, localOptions, arguments);			
+		Policy.checkCanceled(monitor);
+		// send local working directory state contributes 48% of work
+		resources = sendLocalResourceState(session, globalOptions, localOptions,
+				resources, Policy.infiniteSubMonitorFor(monitor, 48));
+		Policy.checkCanceled(monitor);
+		// escape file names, see bug 149683
+		for(int i = 0; i < arguments.length; i++){
+			if(arguments[i].startsWith("-")){ //$NON-NLS-1$
+				arguments[i] = "./" + arguments[i]; //$NON-NLS-1$
+			}
+		}
+		// send arguments
+		sendArguments(session, arguments);
+		// send local working directory path
+		sendLocalWorkingDirectory(session);
+		return resources;
+	}
+
 	/**
 	 * Constucts the CVS command invocation string corresponding to the arguments.
 	 * 
@@ -106,7 +106,19 @@ public abstract class Request {
 		IProgressMonitor monitor) throws CVSException {
 		// send request
 		session.sendRequest(getRequestId());
+		return processResponses(session, listener, monitor);
+	}
 
+	/**
+	 * Processes the responses to a request that was sent to the server.
+	 * 
+	 * @param session the open CVS session
+	 * @param listener the command output listener, or null to discard all messages
+	 * @param monitor the progress monitor
+	 * @return a status code indicating success or failure of the operation
+	 */
+	IStatus processResponses(Session session, ICommandOutputListener listener,
+		IProgressMonitor monitor) throws CVSException {
 		// This number can be tweaked if the monitor is judged to move too
 		// quickly or too slowly. After some experimentation this is a good
 		// number for both large projects (it doesn't move so quickly as to
@@ -143,13 +155,8 @@ public abstract class Request {
 			Policy.checkCanceled(monitor);
 
 			// retrieve a response line
-			String response = session.readLine();
-			int spacePos = response.indexOf(' ');
-			String argument;
-			if (spacePos != -1) {
-				argument = response.substring(spacePos + 1);
-				response = response.substring(0, spacePos);
-			} else argument = "";  //$NON-NLS-1$
+			String response = session.readResponseName();
+			String argument = session.readResponseArgument();
 
 			// handle completion responses
 			if (response.equals("ok")) {  //$NON-NLS-1$
@@ -23,8 +23,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.*;
@@ -70,6 +71,10 @@ public class Session {
 	// update progress bar in increments of this size (in bytes)
 	//   no incremental progress shown for files smaller than this size
 	private static final int TRANSFER_PROGRESS_INCREMENT = 32768;
+	// files sent by a session are spooled in memory up to this size (in bytes)
+	private static final int SPOOL_MEMORY_LIMIT = 1024 * 1024;
+	// the header of a gzip stream, with no file name, time stamp or flags
+	private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0 };
 
 	public static final boolean IS_CRLF_PLATFORM = Arrays.equals(
 		System.getProperty("line.separator").getBytes(), new byte[] { '\r', '\n' }); //$NON-NLS-1$
@@ -98,6 +103,13 @@ public class Session {
 	
 	private Command currentCommand;
 
+	// Reused by the files that are sent while the session is open
+	private byte[] transferBuffer;
+	private byte[] deflateBuffer;
+	private Deflater deflater;
+	private CRC32 crc;
+	private SpoolOutputStream spool;
+
 	/**
 	 * Creates a new CVS session, initially in the CLOSED state.
 	 * By default, command output is directed to the console.
@@ -183,13 +195,15 @@ public class Session {
 
 			// enable compression
 			compressionLevel = CVSProviderPlugin.getPlugin().getCompressionLevel();
-			if (compressionLevel != 0 && isValidRequest("gzip-file-contents")) { //$NON-NLS-1$
+			if (compressionLevel != 0 && location.isStreamCompressionEnabled() && isValidRequest("Gzip-stream")) { //$NON-NLS-1$
+				// Compress the whole connection. The requests and responses are
+				// flushed with a sync flush so that a response can be read as soon
+				// as it is sent. File contents are not compressed a second time.
+				connection.writeLine("Gzip-stream " + Integer.toString(compressionLevel)); //$NON-NLS-1$
+				connection.enableCompression(compressionLevel);
+				compressionLevel = 0;
+			} else if (compressionLevel != 0 && isValidRequest("gzip-file-contents")) { //$NON-NLS-1$
 				// Enable the use of CVS 1.8 per-file compression mechanism.
-				// The newer Gzip-stream request seems to be problematic due to Java's
-				// GZIPInputStream tendency to block on read() rather than to return a
-				// partially filled buffer.  The latter option would be better since it
-				// can make more effective use of the code dictionary, if it can be made
-				// to work...
 				connection.writeLine("gzip-file-contents " + Integer.toString(compressionLevel)); //$NON-NLS-1$
 			} else {
 				compressionLevel = 0;
@@ -226,6 +240,34 @@ public class Session {
 			connection = null;
 			validRequests = null;
 		}
+		disposeTransferState();
+	}
+
+	/**
+	 * Closes the connection because the requests sent over it and the
+	 * responses read from it no longer match. The commands issued until
+	 * the session is closed fail.
+	 */
+	void discardConnection() {
+		connection.close();
+	}
+
+	private void disposeTransferState() {
+		if (deflater != null) {
+			deflater.end();
+			deflater = null;
+		}
+		if (spool != null) {
+			try {
+				spool.close();
+			} catch (IOException e) {
+				CVSProviderPlugin.log(CVSException.wrapException(e));
+			}
+			spool = null;
+		}
+		transferBuffer = null;
+		deflateBuffer = null;
+		crc = null;
 	}
 	
 	/**
@@ -302,6 +344,27 @@ public class Session {
 		return connection.readLine();
 	}
 
+	/**
+	 * Receives a response line from the server and returns the name of the
+	 * response. The argument of the response must be read using
+	 * <code>readResponseArgument</code> before the server is read again.
+	 * 
+	 * @return the name of the response
+	 */
+	public String readResponseName() throws CVSException {
+		return connection.readResponseName();
+	}
+
+	/**
+	 * Returns the argument of the response whose name was last received, or an
+	 * empty string if the response has no argument.
+	 * 
+	 * @return the argument of the response
+	 */
+	public String readResponseArgument() throws CVSException {
+		return connection.readResponseArgument();
+	}
+
 	/**
 	 * Sends a line of text followed by a newline to the server.
 	 * 
@@ -608,7 +671,8 @@ public class Session {
 		 * (required by the CVS specification) when sending non-binary files.  This
 		 * may alter the actual size and contents of the file that is sent.
 		 * </p><p>
-		 * Note: Non-binary files must be small enough to fit in available memory.
+		 * Files whose size changes when they are sent are read once into a spool
+		 * that is kept in memory up to a limit and in a temporary file beyond it.
 		 * </p>
 		 * @param file the file to be sent
 		 * @param isBinary is true if the file should be sent without translation
@@ -632,56 +696,34 @@ public class Session {
 						return;
 					}
 					
-					if (compressionLevel == 0) {
-						in = file.getContents();
-						if (!isBinary && IS_CRLF_PLATFORM){
-							// uncompressed text
-							byte[] buffer = new byte[TRANSFER_BUFFER_SIZE];
-							in = new CRLFtoLFInputStream(in);
-							ByteCountOutputStream counter = new ByteCountOutputStream();
-							try {
-								for (int count; (count = in.read(buffer)) != -1;) counter.write(buffer, 0, count);
-							} finally {
-								counter.close();
-							}
-							in.close();
-							length = counter.getSize();
-							in = new CRLFtoLFInputStream(file.getContents());
-						} else {
-							// uncompressed binary
-							length = file.getSize();
-						}
-						in = new ProgressMonitorInputStream(in, length, TRANSFER_PROGRESS_INCREMENT, monitor) {
-							protected void updateMonitor(long bytesRead, long bytesTotal, IProgressMonitor monitor) {
-								if (bytesRead == 0) return;
-								Assert.isTrue(bytesRead <= bytesTotal);
-								monitor.subTask(NLS.bind(CVSMessages.Session_transfer, (new Object[] { title, Long.toString(bytesRead >> 10), Long.toString(bytesTotal >> 10) })));
-							}
-						};
+					in = file.getContents();
+					if (compressionLevel == 0 && (isBinary || !IS_CRLF_PLATFORM)) {
+						// sent as is so the size is known
+						length = file.getSize();
+						in = monitorTransfer(in, length, title, monitor);
 						sendUncompressedBytes(in, length);
 					} else {
-						monitor.subTask(NLS.bind(CVSMessages.Session_calculatingCompressedSize, new String[] { Util.toTruncatedPath(file, localRoot, 3) })); 
-						in = file.getContents();
-						byte[] buffer = new byte[TRANSFER_BUFFER_SIZE];
-						ByteCountOutputStream counter = new ByteCountOutputStream();
-						OutputStream zout = new GZIPOutputStream(counter);
+						// The size that is sent depends on the contents so they are
+						// translated and compressed into the spool before they are sent.
+						// The transfer progress is reported while the spool is sent.
+						if (compressionLevel != 0) {
+							monitor.subTask(NLS.bind(CVSMessages.Session_calculatingCompressedSize, new String[] { Util.toTruncatedPath(file, localRoot, 3) })); 
+						}
 						if (!isBinary && IS_CRLF_PLATFORM) in = new CRLFtoLFInputStream(in);
+						SpoolOutputStream contents = getSpool();
 						try {
-							for (int count; (count = in.read(buffer)) != -1;) zout.write(buffer, 0, count);
+							if (compressionLevel == 0) {
+								// uncompressed text
+								copy(in, contents);
+							} else {
+								compress(in, contents);
+							}
+							in.close();
+							in = null;
+							sendSpooledBytes(contents, compressionLevel != 0, title, monitor);
 						} finally {
-							zout.close();
+							contents.reset();
 						}
-						in.close();
-						in = file.getContents();
-						in = new ProgressMonitorInputStream(in, file.getSize(), TRANSFER_PROGRESS_INCREMENT, monitor) {
-							protected void updateMonitor(long bytesRead, long bytesTotal, IProgressMonitor monitor) {
-								if (bytesRead == 0) return;
-								Assert.isTrue(bytesRead <= bytesTotal);
-								monitor.subTask(NLS.bind(CVSMessages.Session_transfer, (new Object[] { title, Long.toString(bytesRead >> 10), Long.toString(bytesTotal >> 10) })));
-							}
-						};
-						if (!isBinary && IS_CRLF_PLATFORM) in = new CRLFtoLFInputStream(in);
-						sendCompressedBytes(in, counter.getSize());
 					}
 				} finally {
 					if (in != null) in.close();
@@ -692,20 +734,93 @@ public class Session {
 		}
 
 	/*
-	 * Send the contents of the input stream to CVS.
-	 * Length must equal the number of bytes that will be transferred
-	 * across the wire, that is, the compressed file size.
+	 * Send the contents of the spool to CVS. The contents are
+	 * the compressed file if compressed is true.
 	 */
-	private void sendCompressedBytes(InputStream in, long length) throws IOException, CVSException {
-		String sizeLine = "z" + Long.toString(length); //$NON-NLS-1$
+	private void sendSpooledBytes(SpoolOutputStream spool, boolean compressed, String title, IProgressMonitor monitor) throws IOException, CVSException {
+		long length = spool.getSize();
+		String sizeLine = Long.toString(length);
+		if (compressed) sizeLine = "z" + sizeLine; //$NON-NLS-1$
 		writeLine(sizeLine);
-		OutputStream out = connection.getOutputStream();
-		GZIPOutputStream zo = new GZIPOutputStream(out);
-		byte[] buffer = new byte[TRANSFER_BUFFER_SIZE];
-		for (int count;
-		(count = in.read(buffer)) != -1;)
-		zo.write(buffer, 0, count);
-		zo.finish();
+		try (InputStream in = monitorTransfer(spool.getInputStream(), length, title, monitor)) {
+			copy(in, connection.getOutputStream());
+		}
+	}
+
+	/*
+	 * Return a stream that reports the progress of sending the
+	 * given number of bytes read from the given stream.
+	 */
+	private InputStream monitorTransfer(InputStream in, long length, final String title, IProgressMonitor monitor) {
+		return new ProgressMonitorInputStream(in, length, TRANSFER_PROGRESS_INCREMENT, monitor) {
+			protected void updateMonitor(long bytesRead, long bytesTotal, IProgressMonitor monitor) {
+				if (bytesRead == 0) return;
+				Assert.isTrue(bytesRead <= bytesTotal);
+				monitor.subTask(NLS.bind(CVSMessages.Session_transfer, (new Object[] { title, Long.toString(bytesRead >> 10), Long.toString(bytesTotal >> 10) })));
+			}
+		};
+	}
+
+	/*
+	 * Write the contents of the input stream to the output stream.
+	 */
+	private void copy(InputStream in, OutputStream out) throws IOException {
+		byte[] buffer = getTransferBuffer();
+		for (int count; (count = in.read(buffer)) != -1;) out.write(buffer, 0, count);
+	}
+
+	/*
+	 * Write the contents of the input stream to the output stream in gzip format.
+	 * This is equivalent to using a GZIPOutputStream but the deflater is reused.
+	 */
+	private void compress(InputStream in, OutputStream out) throws IOException {
+		if (deflater == null) {
+			deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true /* no zlib header */);
+			crc = new CRC32();
+			deflateBuffer = new byte[TRANSFER_BUFFER_SIZE];
+		} else {
+			deflater.reset();
+			crc.reset();
+		}
+		byte[] buffer = getTransferBuffer();
+		out.write(GZIP_HEADER);
+		long size = 0;
+		for (int count; (count = in.read(buffer)) != -1;) {
+			crc.update(buffer, 0, count);
+			size += count;
+			deflater.setInput(buffer, 0, count);
+			while (!deflater.needsInput()) {
+				out.write(deflateBuffer, 0, deflater.deflate(deflateBuffer));
+			}
+		}
+		deflater.finish();
+		while (!deflater.finished()) {
+			out.write(deflateBuffer, 0, deflater.deflate(deflateBuffer));
+		}
+		// The trailer is the checksum and the size modulo 2^32 in little endian order
+		writeIntLE(out, (int) crc.getValue());
+		writeIntLE(out, (int) size);
+	}
+
+	private static void writeIntLE(OutputStream out, int value) throws IOException {
+		out.write(value & 0xff);
+		out.write((value >> 8) & 0xff);
+		out.write((value >> 16) & 0xff);
+		out.write((value >> 24) & 0xff);
+	}
+
+	private byte[] getTransferBuffer() {
+		if (transferBuffer == null) {
+			transferBuffer = new byte[TRANSFER_BUFFER_SIZE];
+		}
+		return transferBuffer;
+	}
+
+	private SpoolOutputStream getSpool() {
+		if (spool == null) {
+			spool = new SpoolOutputStream(SPOOL_MEMORY_LIMIT);
+		}
+		return spool;
 	}
 
 	/*
@@ -717,8 +832,7 @@ public class Session {
 		OutputStream out = connection.getOutputStream();
 		String sizeLine = Long.toString(length);
 		writeLine(sizeLine);
-		byte[] buffer = new byte[TRANSFER_BUFFER_SIZE];
-		for (int count; (count = in.read(buffer)) != -1;) out.write(buffer, 0, count);
+		copy(in, out);
 	}
 
 
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.internal.ccvs.core.client;
+
+import java.io.*;
+
+/**
+ * Stream which holds the bytes written to it until they are sent, so that
+ * their number is known before they are sent. The bytes are kept in memory
+ * up to a limit and the rest is written to a temporary file.
+ * The stream can be reset and reused for any number of transfers.
+ */
+class SpoolOutputStream extends OutputStream {
+
+	private final int memoryLimit;
+	private byte[] memory = new byte[8192];
+	private int memorySize;
+	private File file;
+	private OutputStream fileOut;
+	private long fileSize;
+
+	/**
+	 * Create a spool that keeps up to the given number of bytes in memory.
+	 * @param memoryLimit the number of bytes kept in memory
+	 */
+	public SpoolOutputStream(int memoryLimit) {
+		this.memoryLimit = memoryLimit;
+	}
+
+	public void write(int b) throws IOException {
+		write(new byte[] { (byte) b }, 0, 1);
+	}
+
+	public void write(byte[] b, int off, int len) throws IOException {
+		int inMemory = Math.min(len, memoryLimit - memorySize);
+		if (inMemory > 0) {
+			if (memorySize + inMemory > memory.length) {
+				byte[] newMemory = new byte[Math.min(Math.max(memory.length * 2, memorySize + inMemory), memoryLimit)];
+				System.arraycopy(memory, 0, newMemory, 0, memorySize);
+				memory = newMemory;
+			}
+			System.arraycopy(b, off, memory, memorySize, inMemory);
+			memorySize += inMemory;
+		}
+		if (inMemory < len) {
+			if (fileOut == null) {
+				if (file == null) {
+					file = File.createTempFile("cvs", ".spool"); //$NON-NLS-1$ //$NON-NLS-2$
+					file.deleteOnExit();
+				}
+				fileOut = new BufferedOutputStream(new FileOutputStream(file));
+			}
+			fileOut.write(b, off + inMemory, len - inMemory);
+			fileSize += len - inMemory;
+		}
+	}
+
+	/**
+	 * Return the number of bytes written since the spool was last reset.
+	 * @return the number of bytes in the spool
+	 */
+	public long getSize() {
+		return memorySize + fileSize;
+	}
+
+	/**
+	 * Return a stream of the bytes in the spool. The stream must be
+	 * closed before the spool is written to again.
+	 * @return a stream of the bytes in the spool
+	 */
+	public InputStream getInputStream() throws IOException {
+		InputStream in = new ByteArrayInputStream(memory, 0, memorySize);
+		if (fileOut != null) {
+			// The temporary file is truncated when it is reused so it only holds the spooled bytes
+			fileOut.flush();
+			in = new SequenceInputStream(in, new FileInputStream(file));
+		}
+		return in;
+	}
+
+	/**
+	 * Discard the bytes in the spool. The memory and temporary file
+	 * are kept for the next transfer.
+	 */
+	public void reset() throws IOException {
+		memorySize = 0;
+		fileSize = 0;
+		if (fileOut != null) {
+			fileOut.close();
+			fileOut = null;
+		}
+	}
+
+	/**
+	 * Discard the bytes in the spool and delete the temporary file.
+	 */
+	public void close() throws IOException {
+		try {
+			reset();
+		} finally {
+			if (file != null) {
+				file.delete();
+				file = null;
+			}
+		}
+	}
+}
@@ -77,6 +77,7 @@ public class CVSRepositoryLocation extends PlatformObject implements ICVSReposit
 	// Preference keys used to persist the state of the location
 	public static final String PREF_LOCATION = "location"; //$NON-NLS-1$
 	public static final String PREF_SERVER_ENCODING = "encoding"; //$NON-NLS-1$
+	public static final String PREF_STREAM_COMPRESSION = "streamCompression"; //$NON-NLS-1$
 	
 	// server platform constants
 	public static final int UNDETERMINED_PLATFORM = 0;
@@ -157,6 +158,7 @@ public class CVSRepositoryLocation extends PlatformObject implements ICVSReposit
 	public static Preferences getDefaultPreferences() {
 		Preferences defaults = DefaultScope.INSTANCE.getNode(CVSProviderPlugin.ID).node(DEFAULT_REPOSITORY_SETTINGS_NODE);
 		defaults.put(PREF_SERVER_ENCODING, getDefaultEncoding());
+		defaults.putBoolean(PREF_STREAM_COMPRESSION, false);
 		return defaults;
 	}
 	
@@ -631,6 +633,38 @@ public class CVSRepositoryLocation extends PlatformObject implements ICVSReposit
 		}
 	}	
 
+	/**
+	 * Return whether the whole connection to this location may be compressed
+	 * using the <code>Gzip-stream</code> request when compression is enabled
+	 * and the server supports it. Otherwise, only the file contents are compressed.
+	 * The whole connection is not compressed unless it was enabled for the location.
+	 * @return whether the whole connection may be compressed
+	 */
+	public boolean isStreamCompressionEnabled() {
+		if (hasPreferences()) {
+			return internalGetPreferences().getBoolean(PREF_STREAM_COMPRESSION, false);
+		} else {
+			return false;
+		}
+	}
+
+	/**
+	 * Set whether the whole connection to this location may be compressed
+	 * using the <code>Gzip-stream</code> request.
+	 * @param enabled whether the whole connection may be compressed
+	 */
+	public void setStreamCompressionEnabled(boolean enabled) {
+		if (!enabled) {
+			if (hasPreferences()) {
+				internalGetPreferences().remove(PREF_STREAM_COMPRESSION);
+			}
+		} else {
+			ensurePreferencesStored();
+			internalGetPreferences().putBoolean(PREF_STREAM_COMPRESSION, true);
+			flushPreferences();
+		}
+	}
+
 	@Override
 	public ICVSRemoteResource[] members(CVSTag tag, boolean modules, IProgressMonitor progress) throws CVSException {
 		try {
@@ -41,13 +41,21 @@ import org.eclipse.team.internal.ccvs.core.*;
  */
 public class Connection {
 	private static final byte NEWLINE= 0xA;
+	private static final byte SPACE= 0x20;
+	private static final int MAX_RESPONSE_NAMES= 64;
 	
 	private IServerConnection serverConnection;
 	private ICVSRepositoryLocation fCVSRoot;
 	private boolean fIsEstablished;
-	private InputStream fResponseStream;
+	private ResponseInputStream fResponseStream;
+	private ZlibInputStream fCompressedResponseStream;
+	private ZlibOutputStream fCompressedRequestStream;
 	private String fServerEncoding;
-	private byte[] readLineBuffer = new byte[256];
+	// The names of the responses read so far, to avoid decoding them again
+	private byte[][] fResponseNameBytes = new byte[MAX_RESPONSE_NAMES][];
+	private String[] fResponseNames = new String[MAX_RESPONSE_NAMES];
+	private int fResponseNameCount;
+	private int fResponseArgumentStart = -1;
 
 	public Connection(ICVSRepositoryLocation cvsroot, IServerConnection serverConnection) {
 		fCVSRoot = cvsroot;
@@ -79,6 +87,12 @@ public class Connection {
 				CVSProviderPlugin.log(new CVSCommunicationException(CVSMessages.Connection_cannotClose, fCVSRoot, ex));
 			}
 		} finally {
+			if (fCompressedRequestStream != null) {
+				fCompressedRequestStream.end();
+				fCompressedResponseStream.end();
+				fCompressedRequestStream = null;
+				fCompressedResponseStream = null;
+			}
 			fResponseStream = null;
 			fIsEstablished = false;
 		}
@@ -103,6 +117,8 @@ public class Connection {
 	public OutputStream getOutputStream() {
 		if (!isEstablished())
 			return null;
+		if (fCompressedRequestStream != null)
+			return fCompressedRequestStream;
 		return serverConnection.getOutputStream();
 	}
 	/**
@@ -113,10 +129,33 @@ public class Connection {
 		if (!isEstablished())
 			return null;
 		if (fResponseStream == null)
-			fResponseStream = serverConnection.getInputStream();
+			fResponseStream = new ResponseInputStream(serverConnection.getInputStream(), fServerEncoding);
 		return fResponseStream;	
 	}
 
+	private ResponseInputStream getResponseStream() {
+		getInputStream();
+		return fResponseStream;
+	}
+
+	/**
+	 * Compresses everything sent to and received from the server from now on
+	 * using a zlib stream, as negotiated by the <code>Gzip-stream</code>
+	 * request. The request must have been sent before the compression is enabled.
+	 * The compression remains enabled until the connection is closed.
+	 * @param level the compression level of the requests, from 1 to 9
+	 */
+	public void enableCompression(int level) throws CVSException {
+		if (!isEstablished())
+			throw new CVSCommunicationException(CVSMessages.Connection_writeUnestablishedConnection,fCVSRoot,null);
+		if (fCompressedRequestStream != null)
+			return;
+		flush();
+		fCompressedRequestStream = new ZlibOutputStream(serverConnection.getOutputStream(), level);
+		fCompressedResponseStream = new ZlibInputStream(getInputStream());
+		fResponseStream = new ResponseInputStream(fCompressedResponseStream, fServerEncoding);
+	}
+
 	/**
 	 * Returns <code>true</code> if the connection is established;
 	 * otherwise <code>false</code>.
@@ -145,15 +184,10 @@ public class Connection {
 		if (!isEstablished())
 			throw new CVSCommunicationException(CVSMessages.Connection_readUnestablishedConnection,fCVSRoot,null);
 		try { 
-			InputStream in = getInputStream();
-			int index = 0;
-			int r;
-			while ((r = in.read()) != -1) {
-				if (r == NEWLINE) break;
-				readLineBuffer = append(readLineBuffer, index++, (byte) r);
-			}
-
-			String result = new String(readLineBuffer, 0, index, fServerEncoding);
+			ResponseInputStream in = getResponseStream();
+			int length = in.nextLine();
+			fResponseArgumentStart = -1;
+			String result = in.decodeLine(0, length);
 			if (Policy.isDebugProtocol()) Policy.printProtocolLine(result);
 			return result;
 		} catch (IOException e) {
@@ -161,6 +195,65 @@ public class Connection {
 		}
 	}
 	
+	/**
+	 * Reads a response line from the response stream and returns the name of
+	 * the response, which is the text before the first space of the line. The
+	 * name is matched against the names of the previous responses before it is
+	 * decoded so that the name of a response is only decoded once. The argument
+	 * of the response must be obtained using <code>readResponseArgument</code>
+	 * before the response stream is read again.
+	 * @return the name of the response
+	 */
+	public String readResponseName() throws CVSException {
+		if (!isEstablished())
+			throw new CVSCommunicationException(CVSMessages.Connection_readUnestablishedConnection,fCVSRoot,null);
+		try {
+			ResponseInputStream in = getResponseStream();
+			int length = in.nextLine();
+			if (Policy.isDebugProtocol()) Policy.printProtocolLine(in.decodeLine(0, length));
+			int nameLength = in.lineIndexOf(SPACE, 0);
+			if (nameLength == -1) {
+				nameLength = length;
+				fResponseArgumentStart = length;
+			} else {
+				fResponseArgumentStart = nameLength + 1;
+			}
+			for (int i = 0; i < fResponseNameCount; i++) {
+				byte[] name = fResponseNameBytes[i];
+				if (name.length == nameLength && in.lineRegionMatches(0, name, nameLength))
+					return fResponseNames[i];
+			}
+			String name = in.decodeLine(0, nameLength);
+			if (fResponseNameCount < MAX_RESPONSE_NAMES) {
+				fResponseNameBytes[fResponseNameCount] = name.getBytes(fServerEncoding);
+				fResponseNames[fResponseNameCount] = name;
+				fResponseNameCount++;
+			}
+			return name;
+		} catch (IOException e) {
+			throw new CVSCommunicationException(fCVSRoot,e);
+		}
+	}
+
+	/**
+	 * Returns the argument of the response whose name was returned by the last
+	 * call to <code>readResponseName</code>, which is the text after the first
+	 * space of the response line or an empty string if there is none.
+	 * @return the argument of the response
+	 */
+	public String readResponseArgument() throws CVSException {
+		if (fResponseArgumentStart == -1)
+			throw new IllegalStateException();
+		try {
+			ResponseInputStream in = getResponseStream();
+			int start = fResponseArgumentStart;
+			fResponseArgumentStart = -1;
+			return in.decodeLine(start, in.lineLength());
+		} catch (IOException e) {
+			throw new CVSCommunicationException(fCVSRoot,e);
+		}
+	}
+
 	static String readLine(ICVSRepositoryLocation location, InputStream in) throws IOException {
 		byte[] buffer = new byte[256];
 		int index = 0;
@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.internal.ccvs.core.connection;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.*;
+
+/**
+ * Buffered stream of the responses of a cvs server. In addition to the bytes
+ * of the responses, the stream provides the responses line by line. A line
+ * is first read into the buffer of the stream where its bytes can be inspected
+ * without copying them. The line, or the part of it that is needed, is then
+ * decoded with a decoder that is reused for every line.
+ * <p>
+ * The stream only reads from the underlying stream when its buffer does not
+ * contain the bytes that are requested, so it does not block waiting for bytes
+ * that the server has not sent.
+ * </p>
+ */
+class ResponseInputStream extends InputStream {
+
+	private static final byte NEWLINE = 0xA;
+	private static final int BUFFER_SIZE = 32768;
+
+	private final InputStream in;
+	private final String encoding;
+	private CharsetDecoder decoder;
+	private boolean asciiCompatible;
+	private char[] chars = new char[256];
+
+	private byte[] buffer = new byte[BUFFER_SIZE];
+	private int position;
+	private int limit;
+
+	// The bounds of the last line read, excluding the newline
+	private int lineStart;
+	private int lineEnd;
+
+	ResponseInputStream(InputStream in, String encoding) {
+		this.in = in;
+		this.encoding = encoding;
+	}
+
+	/**
+	 * Read the next line into the buffer of the stream. The bytes of the line
+	 * remain available until the stream is read again. At the end of the
+	 * stream, the line contains the bytes left, if any.
+	 * @return the length of the line in bytes, excluding the newline
+	 */
+	int nextLine() throws IOException {
+		int scan = position;
+		while (true) {
+			for (; scan < limit; scan++) {
+				if (buffer[scan] == NEWLINE) {
+					lineStart = position;
+					lineEnd = scan;
+					position = scan + 1;
+					return lineEnd - lineStart;
+				}
+			}
+			if (limit == buffer.length) {
+				// Make room for the rest of the line
+				int length = limit - position;
+				byte[] target = position == 0 ? new byte[buffer.length * 2] : buffer;
+				System.arraycopy(buffer, position, target, 0, length);
+				buffer = target;
+				scan = length;
+				limit = length;
+				position = 0;
+			}
+			int count = in.read(buffer, limit, buffer.length - limit);
+			if (count == -1) {
+				lineStart = position;
+				lineEnd = limit;
+				position = limit;
+				return lineEnd - lineStart;
+			}
+			limit += count;
+		}
+	}
+
+	/**
+	 * Return the length of the last line read in bytes, excluding the newline.
+	 * @return the length of the line
+	 */
+	int lineLength() {
+		return lineEnd - lineStart;
+	}
+
+	/**
+	 * Return whether the bytes of the last line read starting at the
+	 * given offset are the given number of bytes of the given array.
+	 */
+	boolean lineRegionMatches(int offset, byte[] bytes, int length) {
+		if (lineStart + offset + length > lineEnd)
+			return false;
+		for (int i = 0; i < length; i++) {
+			if (buffer[lineStart + offset + i] != bytes[i])
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Return the offset of the first occurrence of the given byte in the last
+	 * line read at or after the given offset, or -1 if there is none.
+	 */
+	int lineIndexOf(byte b, int offset) {
+		for (int i = lineStart + offset; i < lineEnd; i++) {
+			if (buffer[i] == b)
+				return i - lineStart;
+		}
+		return -1;
+	}
+
+	/**
+	 * Decode the bytes of the last line read between the given offsets.
+	 * @param start the offset of the first byte
+	 * @param end the offset after the last byte
+	 * @return the decoded characters
+	 */
+	String decodeLine(int start, int end) throws IOException {
+		int length = end - start;
+		if (length == 0)
+			return ""; //$NON-NLS-1$
+		if (decoder == null)
+			createDecoder();
+		if (chars.length < length)
+			chars = new char[Math.max(length, chars.length * 2)];
+		int offset = lineStart + start;
+		if (asciiCompatible) {
+			int i = 0;
+			for (; i < length; i++) {
+				byte b = buffer[offset + i];
+				if (b < 0)
+					break;
+				chars[i] = (char) b;
+			}
+			if (i == length)
+				return new String(chars, 0, length);
+		}
+		decoder.reset();
+		CharBuffer out = CharBuffer.wrap(chars);
+		CoderResult result = decoder.decode(ByteBuffer.wrap(buffer, offset, length), out, true);
+		if (result.isOverflow()) {
+			// The default charset of the platform may need more than a char per byte
+			return new String(buffer, offset, length, decoder.charset());
+		}
+		decoder.flush(out);
+		return new String(chars, 0, out.position());
+	}
+
+	private void createDecoder() throws UnsupportedEncodingException {
+		Charset charset;
+		try {
+			charset = Charset.forName(encoding);
+		} catch (IllegalArgumentException e) {
+			throw new UnsupportedEncodingException(encoding);
+		}
+		decoder = charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		byte[] ascii = new byte[128];
+		for (int i = 0; i < ascii.length; i++) {
+			ascii[i] = (byte) i;
+		}
+		String decoded = new String(ascii, charset);
+		asciiCompatible = decoded.length() == ascii.length;
+		for (int i = 0; asciiCompatible && i < ascii.length; i++) {
+			asciiCompatible = decoded.charAt(i) == i;
+		}
+	}
+
+	public int read() throws IOException {
+		if (position == limit && fill() == -1)
+			return -1;
+		return buffer[position++] & 0xff;
+	}
+
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0)
+			return 0;
+		if (position == limit) {
+			// Large reads bypass the buffer
+			if (len >= buffer.length)
+				return in.read(b, off, len);
+			if (fill() == -1)
+				return -1;
+		}
+		int count = Math.min(len, limit - position);
+		System.arraycopy(buffer, position, b, off, count);
+		position += count;
+		return count;
+	}
+
+	public long skip(long n) throws IOException {
+		if (n <= 0)
+			return 0;
+		if (position == limit)
+			return in.skip(n);
+		int count = (int) Math.min(n, limit - position);
+		position += count;
+		return count;
+	}
+
+	public int available() throws IOException {
+		return (limit - position) + in.available();
+	}
+
+	public void close() throws IOException {
+		in.close();
+	}
+
+	private int fill() throws IOException {
+		position = 0;
+		limit = 0;
+		int count = in.read(buffer, 0, buffer.length);
+		if (count > 0)
+			limit = count;
+		return count;
+	}
+}
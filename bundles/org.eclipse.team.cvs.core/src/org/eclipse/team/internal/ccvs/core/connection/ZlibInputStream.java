@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.internal.ccvs.core.connection;
+
+import java.io.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Stream which decompresses the zlib stream that a cvs server sends after
+ * the <code>Gzip-stream</code> request. Unlike an <code>InflaterInputStream</code>,
+ * a read returns as soon as some bytes are decompressed, so a response is
+ * available as soon as the server has flushed it.
+ */
+class ZlibInputStream extends InputStream {
+
+	private final InputStream in;
+	private final Inflater inflater = new Inflater();
+	private final byte[] buffer = new byte[8192];
+	// The decompressed bytes that were not read yet
+	private final byte[] decoded = new byte[8192];
+	private int decodedPosition;
+	private int decodedLimit;
+
+	ZlibInputStream(InputStream in) {
+		this.in = in;
+	}
+
+	public int read() throws IOException {
+		if (decodedPosition == decodedLimit && !fill())
+			return -1;
+		return decoded[decodedPosition++] & 0xff;
+	}
+
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0)
+			return 0;
+		if (decodedPosition == decodedLimit && !fill())
+			return -1;
+		int count = Math.min(len, decodedLimit - decodedPosition);
+		System.arraycopy(decoded, decodedPosition, b, off, count);
+		decodedPosition += count;
+		return count;
+	}
+
+	/*
+	 * Decompress some bytes, reading from the underlying stream only
+	 * when the inflater needs more input. Return false at the end
+	 * of the stream.
+	 */
+	private boolean fill() throws IOException {
+		try {
+			while (true) {
+				int count = inflater.inflate(decoded, 0, decoded.length);
+				if (count > 0) {
+					decodedPosition = 0;
+					decodedLimit = count;
+					return true;
+				}
+				if (inflater.finished() || inflater.needsDictionary())
+					return false;
+				if (inflater.needsInput()) {
+					// Only block when no decompressed bytes are available
+					int read = in.read(buffer, 0, buffer.length);
+					if (read == -1)
+						return false;
+					inflater.setInput(buffer, 0, read);
+				}
+			}
+		} catch (DataFormatException e) {
+			throw new IOException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Return the number of decompressed bytes that can be read without
+	 * blocking. Compressed bytes that were received but not decompressed
+	 * are not counted since they may not decompress to any bytes.
+	 */
+	public int available() throws IOException {
+		return decodedLimit - decodedPosition;
+	}
+
+	/**
+	 * Release the inflater. The underlying stream is not closed.
+	 */
+	void end() {
+		inflater.end();
+	}
+}
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.internal.ccvs.core.connection;
+
+import java.io.*;
+import java.util.zip.Deflater;
+
+/**
+ * Stream which compresses the requests sent to a cvs server after the
+ * <code>Gzip-stream</code> request. Flushing the stream flushes the
+ * compressed bytes with a sync flush so that the server can decompress
+ * all of the requests written so far.
+ */
+class ZlibOutputStream extends OutputStream {
+
+	private final OutputStream out;
+	private final Deflater deflater;
+	private final byte[] buffer = new byte[8192];
+
+	ZlibOutputStream(OutputStream out, int level) {
+		this.out = out;
+		this.deflater = new Deflater(level);
+	}
+
+	public void write(int b) throws IOException {
+		write(new byte[] { (byte) b }, 0, 1);
+	}
+
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (len == 0)
+			return;
+		deflater.setInput(b, off, len);
+		while (!deflater.needsInput()) {
+			int count = deflater.deflate(buffer, 0, buffer.length, Deflater.NO_FLUSH);
+			if (count > 0)
+				out.write(buffer, 0, count);
+		}
+	}
+
+	public void flush() throws IOException {
+		int count;
+		do {
+			count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+			if (count > 0)
+				out.write(buffer, 0, count);
+		} while (count == buffer.length);
+		out.flush();
+	}
+
+	/**
+	 * Release the deflater. The underlying stream is not closed.
+	 */
+	void end() {
+		deflater.end();
+	}
+}
@@ -564,6 +564,13 @@ public class RemoteFile extends RemoteResource implements ICVSRemoteFile  {
 		return getRevision();
 	}
 
+	@Override
+	public String getCachePath() {
+		// The contents of a revision depend on the keyword mode they are fetched
+		// with and the cached contents are kept across sessions
+		return super.getCachePath() + ' ' + getKeywordMode().toMode();
+	}
+
 	/**
 	 * Callback which indicates that the remote file is about to receive contents that should be cached
 	 * @param entryLine
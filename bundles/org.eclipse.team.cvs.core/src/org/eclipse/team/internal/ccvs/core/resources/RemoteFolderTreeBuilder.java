@@ -43,6 +43,8 @@ import org.eclipse.team.internal.ccvs.core.util.Util;
 public class RemoteFolderTreeBuilder {
 
 	private static final int MAX_REVISION_FETCHES_PER_CONNECTION = 1024;
+	// The number of new folders whose requests are sent before their responses are read
+	private static final int MAX_PIPELINED_FOLDER_FETCHES = 32;
 	
 	private Map<String, Map> fileDeltas;
 	private List<String> changedFiles;
@@ -66,6 +68,10 @@ public class RemoteFolderTreeBuilder {
 	private static Map EMPTY_MAP = new HashMap();
 	
 	private boolean newFolderExist = false;
+	// The paths of the new folders whose contents are not fetched yet
+	private List<String> newFolders = new ArrayList<>();
+	// The paths of the new folders whose contents were fetched
+	private Set<String> fetchedFolders = new HashSet<>();
 	
 	static class DeltaNode {
 		int syncState = Update.STATE_NONE;
@@ -246,6 +252,10 @@ public class RemoteFolderTreeBuilder {
 			// Set up an infinite progress monitor for the recursive build
 			IProgressMonitor subProgress = Policy.infiniteSubMonitorFor(monitor, 90);
 			subProgress.beginTask(null, 512);
+			// Fetch the contents of the new folders, one level of folders at a time
+			if (session != null) {
+				fetchNewDirectories(session, subProgress);
+			}
 			// Build the remote tree
 			buildRemoteTree(session, root, remoteRoot, "", subProgress); //$NON-NLS-1$
 		} finally {
@@ -445,7 +455,7 @@ public class RemoteFolderTreeBuilder {
 		Map<String, RemoteResource> children = new HashMap<>();
 		
 		// If there's no corresponding local resource then we need to fetch its contents in order to populate the deltas
-		if (local == null) {
+		if (local == null && !fetchedFolders.contains(localPath)) {
 			fetchNewDirectory(session, remote, localPath, monitor);
 		}
 		
@@ -649,6 +659,41 @@ public class RemoteFolderTreeBuilder {
 		}
 		return changedFiles;
 	}
+	/*
+	 * Fetch the children of the new directories found so far and of the new
+	 * directories found among their children, until no new directories are found.
+	 * The requests for the directories at the same depth are pipelined over the
+	 * session so they cost a single round trip to the server.
+	 */
+	private void fetchNewDirectories(Session session, IProgressMonitor monitor) throws CVSException {
+		while (!newFolders.isEmpty()) {
+			String[] paths = newFolders.toArray(new String[newFolders.size()]);
+			newFolders.clear();
+			for (int i = 0; i < paths.length; i += MAX_PIPELINED_FOLDER_FETCHES) {
+				Policy.checkCanceled(monitor);
+				int length = Math.min(MAX_PIPELINED_FOLDER_FETCHES, paths.length - i);
+				String[][] arguments = new String[length][];
+				IUpdateMessageListener[] listeners = new IUpdateMessageListener[length];
+				UpdateListener[] updateListeners = new UpdateListener[length];
+				for (int j = 0; j < length; j++) {
+					arguments[j] = new String[] { paths[i + j] };
+					listeners[j] = createNewDirectoryListener(monitor);
+					updateListeners[j] = new UpdateListener(listeners[j]);
+				}
+				IStatus[] status = Command.UPDATE.execute(session,
+					new GlobalOption[] { Command.DO_NOT_CHANGE },
+					updateLocalOptions,
+					arguments,
+					updateListeners,
+					Policy.subMonitorFor(monitor, length));
+				for (int j = 0; j < length; j++) {
+					handleNewDirectoryStatus(session, status[j], paths[i + j], listeners[j], monitor);
+					fetchedFolders.add(paths[i + j]);
+				}
+			}
+		}
+	}
+
 	/*
 	 * Fetch the children of a previously unknown directory.
 	 * 
@@ -657,7 +702,27 @@ public class RemoteFolderTreeBuilder {
 	private void fetchNewDirectory(Session session, RemoteFolderTree newFolder, String localPath, final IProgressMonitor monitor) throws CVSException {
 		
 		// Create an listener that will accumulate new files and folders
-		IUpdateMessageListener listener = new IUpdateMessageListener() {
+		IUpdateMessageListener listener = createNewDirectoryListener(monitor);
+
+		// NOTE: Should use the path relative to the remoteRoot
+		IStatus status = Command.UPDATE.execute(session,
+			new GlobalOption[] { Command.DO_NOT_CHANGE },
+			updateLocalOptions,
+			new String[] { localPath },
+			new UpdateListener(listener),
+			Policy.subMonitorFor(monitor, 1)); 
+		handleNewDirectoryStatus(session, status, localPath, listener, monitor);
+		fetchedFolders.add(localPath);
+		// The children of the directory are fetched when they are built
+		newFolders.clear();
+	}
+
+	/*
+	 * Create an listener that will accumulate the new files and folders of a
+	 * previously unknown directory.
+	 */
+	private IUpdateMessageListener createNewDirectoryListener(final IProgressMonitor monitor) {
+		return new IUpdateMessageListener() {
 			public void directoryInformation(ICVSFolder root, String path, boolean newDirectory) {
 				if (newDirectory) {
 					// Record new directory with parent so it can be retrieved when building the parent
@@ -677,14 +742,13 @@ public class RemoteFolderTreeBuilder {
 			public void fileDoesNotExist(ICVSFolder root, String filename) {
 			}
 		};
+	}
 
-		// NOTE: Should use the path relative to the remoteRoot
-		IStatus status = Command.UPDATE.execute(session,
-			new GlobalOption[] { Command.DO_NOT_CHANGE },
-			updateLocalOptions,
-			new String[] { localPath },
-			new UpdateListener(listener),
-			Policy.subMonitorFor(monitor, 1)); 
+	/*
+	 * Check the status of the fetch of a previously unknown directory and
+	 * retry the fetch without the tag if the server failed because of the tag.
+	 */
+	private void handleNewDirectoryStatus(Session session, IStatus status, String localPath, IUpdateMessageListener listener, IProgressMonitor monitor) throws CVSException {
 		if (status.getCode() == CVSStatus.SERVER_ERROR) {
 			CVSServerException e = new CVSServerException(status);
 			if ( ! e.isNoTagException() && e.containsErrors())
@@ -758,16 +822,17 @@ public class RemoteFolderTreeBuilder {
 	 * from the repository yet.
 	 */
 	private void recordDelta(String path, String revision, int syncState) {
+		String parent = Util.removeLastSegment(path);
+		String name = Util.getLastSegment(path);
 		if (revision == FOLDER) {
 			newFolderExist = true;
+			newFolders.add(Util.appendPath(parent, name));
 		}
-		String parent = Util.removeLastSegment(path);
 		Map<String, DeltaNode> deltas = fileDeltas.get(parent);
 		if (deltas == null) {
 			deltas = new HashMap<>();
 			fileDeltas.put(parent, deltas);
 		}
-		String name = Util.getLastSegment(path);
 		deltas.put(name, new DeltaNode(name, revision, syncState));
 	}
 	
@@ -25,6 +25,7 @@ import org.junit.runners.Suite.SuiteClasses;
 @SuiteClasses({
 	TextMergeViewerTest.class,
 	LineReaderTest.class,
+	StreamComparatorTest.class,
 	StreamMergerTest.class,
 	DocLineComparatorTest.class,
 	FilterTest.class,
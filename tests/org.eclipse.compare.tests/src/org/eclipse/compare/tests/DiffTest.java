@@ -16,10 +16,14 @@ package org.eclipse.compare.tests;
 import junit.framework.TestCase;
 
 import org.eclipse.compare.internal.DocLineComparator;
+import org.eclipse.compare.internal.core.ComparePlugin;
+import org.eclipse.compare.internal.core.LineTable;
 import org.eclipse.compare.internal.core.TextLineLCS;
+import org.eclipse.compare.rangedifferencer.IDiffStrategy;
 import org.eclipse.compare.rangedifferencer.IRangeComparator;
 import org.eclipse.compare.rangedifferencer.RangeDifference;
 import org.eclipse.compare.rangedifferencer.RangeDifferencer;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.jface.text.Document;
 import org.eclipse.jface.text.IDocument;
@@ -262,4 +266,112 @@ public class DiffTest extends TestCase {
 		assertTrue(result[0].rightLength() == 0);
 	}
 
+	public void testLineTables() {
+		String s1= ABC + "\r\n" + DEF + "\n" + XYZ;
+		String s2= ABC + "\n" + _123 + "\r" + DEF + "\n" + XYZ;
+		LineTable t1 = LineTable.create(s1);
+		LineTable t2 = LineTable.create(s2);
+		assertEquals(3, t1.getLineCount());
+		assertEquals(4, t2.getLineCount());
+		assertEquals(DEF, t1.getLine(1));
+		assertTrue(t1.linesEqual(0, t2, 0));
+		assertFalse(t1.linesEqual(1, t2, 1));
+
+		TextLineLCS lcs = new TextLineLCS(t1, t2);
+		lcs.longestCommonSubsequence(SubMonitor.convert(null, 100));
+		TextLineLCS.TextLine[][] result = lcs.getResult();
+		assertTrue(result[0].length == 3);
+		assertTrue(result[0][1].lineNumber() == 1);
+		assertTrue(result[1][1].lineNumber() == 2);
+	}
+
+	public void testParallelLCS() {
+		StringBuilder b1= new StringBuilder();
+		StringBuilder b2= new StringBuilder();
+		for (int i= 0; i < 2000; i++) {
+			String line= "line " + (i * 7 % 31) + SEPARATOR;
+			if (i % 13 != 0)
+				b1.append(line);
+			if (i % 17 != 0)
+				b2.append(line);
+			else
+				b2.append("changed" + SEPARATOR);
+		}
+		ComparePlugin plugin= ComparePlugin.getDefault();
+		int threshold= plugin.getParallelThreshold();
+		try {
+			plugin.setParallelThreshold(Integer.MAX_VALUE);
+			TextLineLCS.TextLine[][] expected= getLCS(b1.toString(), b2.toString());
+			plugin.setParallelThreshold(100);
+			TextLineLCS.TextLine[][] result= getLCS(b1.toString(), b2.toString());
+			assertEquals(expected[0].length, result[0].length);
+			for (int i = 0; i < expected[0].length; i++) {
+				assertEquals(expected[0][i].lineNumber(), result[0][i].lineNumber());
+				assertEquals(expected[1][i].lineNumber(), result[1][i].lineNumber());
+			}
+		} finally {
+			plugin.setParallelThreshold(threshold);
+		}
+	}
+
+	private TextLineLCS.TextLine[][] getLCS(String s1, String s2) {
+		TextLineLCS lcs = new TextLineLCS(LineTable.create(s1), LineTable.create(s2));
+		lcs.longestCommonSubsequence(SubMonitor.convert(null, 100));
+		return lcs.getResult();
+	}
+
+	public void testHistogramStrategy() {
+		String f= "void f() {" + SEPARATOR + "  f();" + SEPARATOR + "}";
+		String g= "void g() {" + SEPARATOR + "  g();" + SEPARATOR + "}";
+		IRangeComparator comp1= toRangeComparator(f + SEPARATOR + g);
+		IRangeComparator comp2= toRangeComparator(g + SEPARATOR + f);
+		IDiffStrategy strategy= RangeDifferencer.getDiffStrategy(IDiffStrategy.HISTOGRAM);
+		assertEquals(IDiffStrategy.HISTOGRAM, strategy.getId());
+
+		// the unique first line of g anchors the comparison
+		RangeDifference[] result= RangeDifferencer.findRanges(strategy, (IProgressMonitor) null, null, comp1, comp2);
+		assertEquals(4, result.length);
+		assertEquals(RangeDifference.CHANGE, result[0].kind());
+		assertEquals(0, result[0].leftStart());
+		assertEquals(3, result[0].leftLength());
+		assertEquals(0, result[0].rightLength());
+		assertEquals(RangeDifference.NOCHANGE, result[1].kind());
+		assertEquals(3, result[1].leftStart());
+		assertEquals(2, result[1].leftLength());
+		assertEquals(0, result[1].rightStart());
+		assertEquals(RangeDifference.CHANGE, result[2].kind());
+		assertEquals(0, result[2].leftLength());
+		assertEquals(2, result[2].rightStart());
+		assertEquals(3, result[2].rightLength());
+		assertEquals(RangeDifference.NOCHANGE, result[3].kind());
+		assertEquals(5, result[3].leftStart());
+		assertEquals(5, result[3].rightStart());
+	}
+
+	public void testHistogramStrategyWithoutAnchor() {
+		// all lines occur too often to be anchors and the regions are too
+		// long for a bounded search to find the common lines
+		StringBuilder left= new StringBuilder();
+		StringBuilder right= new StringBuilder();
+		for (int i= 0; i < 5000; i++) {
+			left.append('a').append(SEPARATOR);
+			right.append('b').append(SEPARATOR);
+		}
+		for (int i= 0; i < 5000; i++) {
+			left.append('b').append(SEPARATOR);
+			right.append('a').append(SEPARATOR);
+		}
+		IRangeComparator comp1= toRangeComparator(left.toString());
+		IRangeComparator comp2= toRangeComparator(right.toString());
+		IDiffStrategy strategy= RangeDifferencer.getDiffStrategy(IDiffStrategy.HISTOGRAM);
+		RangeDifference[] result= RangeDifferencer.findRanges(strategy, (IProgressMonitor) null, null, comp1, comp2);
+		int unchanged= 0;
+		for (RangeDifference difference : result) {
+			if (difference.kind() == RangeDifference.NOCHANGE)
+				unchanged+= difference.leftLength();
+		}
+		// the block of b or the block of a and the empty last line
+		assertEquals(5001, unchanged);
+	}
+
 }
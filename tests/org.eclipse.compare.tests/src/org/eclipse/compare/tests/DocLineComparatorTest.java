@@ -333,4 +333,23 @@ public class DocLineComparatorTest extends TestCase {
 		Assert.assertEquals(comp1.getRangeCount(), comp2.getRangeCount());
 	}
 
+	public void testLineDelimiters() {
+		IDocument doc1= new Document();
+		doc1.set("abc\ndef\r\nxyz"); //$NON-NLS-1$
+
+		IDocument doc2= new Document();
+		doc2.set("abc\r\ndef\r\nxyz\n"); //$NON-NLS-1$
+
+		IRangeComparator comp1= new DocLineComparator(doc1, null, false);
+		IRangeComparator comp2= new DocLineComparator(doc2, null, false);
+		Assert.assertFalse(comp1.rangesEqual(0, comp2, 0));
+		Assert.assertTrue(comp1.rangesEqual(1, comp2, 1));
+		Assert.assertFalse(comp1.rangesEqual(2, comp2, 2));
+
+		IRangeComparator comp3= new DocLineComparator(doc1, null, true);
+		IRangeComparator comp4= new DocLineComparator(doc2, null, true);
+		Assert.assertTrue(comp3.rangesEqual(0, comp4, 0));
+		Assert.assertTrue(comp3.rangesEqual(2, comp4, 2));
+	}
+
 }
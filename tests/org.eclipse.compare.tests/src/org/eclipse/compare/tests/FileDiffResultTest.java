@@ -19,11 +19,13 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.List;
 
 import org.eclipse.compare.internal.Utilities;
 import org.eclipse.compare.internal.core.patch.FilePatch2;
 import org.eclipse.compare.internal.core.patch.FileDiffResult;
 import org.eclipse.compare.internal.core.patch.Hunk;
+import org.eclipse.compare.internal.core.patch.HunkResult;
 import org.eclipse.compare.internal.patch.Patcher;
 import org.eclipse.compare.patch.ApplyPatchOperation;
 import org.eclipse.compare.patch.IFilePatch;
@@ -214,6 +216,31 @@ public class FileDiffResultTest extends WorkspaceTest {
 		}
 	}
 
+	public void testHunksAreShiftedToNearestMatch() {
+		List<String> lines = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			lines.add("line " + (i % 100) + "\n");
+		}
+		FilePatch2 diff = new FilePatch2(null, 0, null, 0);
+		// the hunk claims to start at 510 but its context is found every 100 lines
+		new Hunk(diff, FilePatch2.CHANGE, 510, 3, 510, 3, new String[] {
+				" line 40\n", "-line 41\n", "+changed\n", " line 42\n" });
+		// the context of this hunk doesn't exist in the file
+		new Hunk(diff, FilePatch2.CHANGE, 700, 2, 700, 2, new String[] {
+				" missing\n", "-line 1\n", "+changed\n" });
+		FileDiffResult result = new FileDiffResult(diff, patchConfiguration);
+		List<String> patched = new ArrayList<>(lines);
+		result.patch(patched, nullProgressMonitor);
+
+		HunkResult[] hunkResults = result.getHunkResults();
+		assertTrue(hunkResults[0].isOK());
+		assertEquals(-70, hunkResults[0].getShift());
+		assertEquals("changed\n", patched.get(441));
+		assertFalse(hunkResults[1].isOK());
+		assertEquals(1, result.getRejects().length);
+		assertEquals(lines.size(), patched.size());
+	}
+
 	// utility methods
 
 	/**
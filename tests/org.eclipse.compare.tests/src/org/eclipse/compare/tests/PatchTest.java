@@ -16,6 +16,7 @@ package org.eclipse.compare.tests;
 import java.io.*;
 import java.net.JarURLConnection;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.jar.JarEntry;
@@ -137,6 +138,80 @@ public class PatchTest extends TestCase {
 		assertFalse(IFilePatch.DATE_UNKNOWN == patches[0].getAfterDate());
 	}
 
+	public void testParsePatchFile() throws CoreException, IOException {
+		String[] patches = new String[] { "patch_addition.txt", "patch_addition2.txt", "patch_context3_header.txt",
+				"patch_hunkFilter.txt", "patch_workspacePatchMod.txt", "patch_workspacePatchDelete.txt" };
+		for (String patch : patches) {
+			File file = createPatchFile(patch);
+			try {
+				IFilePatch2[] expected = PatchParser.parsePatch(new ReaderCreator() {
+					public Reader createReader() throws CoreException {
+						return PatchUtils.getReader(patch);
+					}
+				});
+				List<IFilePatch2> actual = new ArrayList<>();
+				PatchParser.parsePatch(file, null, filePatch -> actual.add(filePatch));
+				assertEquals(patch, expected.length, actual.size());
+				for (int i = 0; i < expected.length; i++) {
+					assertEquals(patch, expected[i].getTargetPath(new PatchConfiguration()),
+							actual.get(i).getTargetPath(new PatchConfiguration()));
+					assertEquals(patch, expected[i].getHeader(), actual.get(i).getHeader());
+					IHunk[] expectedHunks = expected[i].getHunks();
+					IHunk[] actualHunks = actual.get(i).getHunks();
+					assertEquals(patch, expectedHunks.length, actualHunks.length);
+					for (int j = 0; j < expectedHunks.length; j++) {
+						Assert.assertArrayEquals(patch, expectedHunks[j].getUnifiedLines(), actualHunks[j].getUnifiedLines());
+					}
+				}
+
+				// the visitor can stop parsing
+				final int[] visited = new int[1];
+				PatchParser.parsePatch(file, null, filePatch -> ++visited[0] < 2);
+				assertEquals(patch, Math.min(2, expected.length), visited[0]);
+			} finally {
+				file.delete();
+			}
+		}
+	}
+
+	public void testPatcherParsePatchFile() throws IOException {
+		String patch = "patch_workspacePatchMod.txt";
+		File file = createPatchFile(patch);
+		try {
+			WorkspacePatcher expected = new WorkspacePatcher();
+			expected.parse(PatchUtils.getReader(patch));
+			WorkspacePatcher actual = new WorkspacePatcher();
+			actual.parse(file, StandardCharsets.UTF_8);
+			assertTrue(actual.isWorkspacePatch());
+			assertEquals(expected.getDiffProjects().length, actual.getDiffProjects().length);
+			FilePatch2[] expectedDiffs = expected.getDiffs();
+			FilePatch2[] actualDiffs = actual.getDiffs();
+			assertEquals(expectedDiffs.length, actualDiffs.length);
+			for (int i = 0; i < expectedDiffs.length; i++) {
+				assertEquals(expectedDiffs[i].getPath(false), actualDiffs[i].getPath(false));
+				IHunk[] expectedHunks = expectedDiffs[i].getHunks();
+				IHunk[] actualHunks = actualDiffs[i].getHunks();
+				assertEquals(expectedHunks.length, actualHunks.length);
+				for (int j = 0; j < expectedHunks.length; j++) {
+					Assert.assertArrayEquals(expectedHunks[j].getUnifiedLines(), actualHunks[j].getUnifiedLines());
+				}
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	private File createPatchFile(String patch) throws IOException {
+		File file = File.createTempFile("patch", ".txt");
+		try (InputStream in = PatchUtils.asInputStream(patch); OutputStream out = new FileOutputStream(file)) {
+			byte[] buffer = new byte[8192];
+			int n;
+			while ((n = in.read(buffer)) != -1)
+				out.write(buffer, 0, n);
+		}
+		return file;
+	}
+
 	//Test creation of new workspace patch
 	public void testWorkspacePatch_Create(){
 		//Note the order that exists in the array of expected results is based purely on the order of the files in the patch
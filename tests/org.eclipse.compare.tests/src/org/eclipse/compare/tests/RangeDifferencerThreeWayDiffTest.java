@@ -17,6 +17,7 @@ import junit.framework.TestCase;
 
 import org.eclipse.compare.contentmergeviewer.ITokenComparator;
 import org.eclipse.compare.internal.DocLineComparator;
+import org.eclipse.compare.rangedifferencer.IRangeComparator;
 import org.eclipse.compare.rangedifferencer.RangeDifference;
 import org.eclipse.compare.rangedifferencer.RangeDifferencer;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -125,6 +126,58 @@ public class RangeDifferencerThreeWayDiffTest extends TestCase {
 		assertEquals(RangeDifference.RIGHT, diffs[2].kind());
 	}
 
+	public void testLargeMergeMatchesSequentialMerge() {
+		StringBuilder a= new StringBuilder();
+		StringBuilder l= new StringBuilder();
+		StringBuilder r= new StringBuilder();
+		for (int i= 0; i < 6000; i++) {
+			String line= "line " + (i % 97) + S; //$NON-NLS-1$
+			a.append(line);
+			if (i % 50 != 7)
+				l.append(line);
+			if (i % 70 == 3)
+				r.append("changed" + S); //$NON-NLS-1$
+			else
+				r.append(line);
+		}
+		// the documents provide line tables and may be compared in parallel,
+		// the wrapped comparators have to be compared sequentially
+		IRangeComparator ancestor= new DocLineComparator(new Document(a.toString()), null, false);
+		IRangeComparator left= new DocLineComparator(new Document(l.toString()), null, false);
+		IRangeComparator right= new DocLineComparator(new Document(r.toString()), null, false);
+		RangeDifference[] diffs= RangeDifferencer.findRanges(new NullProgressMonitor(), ancestor, left, right);
+		RangeDifference[] expected= RangeDifferencer.findRanges(new NullProgressMonitor(),
+				new SequentialComparator(ancestor), new SequentialComparator(left), new SequentialComparator(right));
+
+		assertEquals(expected.length, diffs.length);
+		for (int i= 0; i < expected.length; i++) {
+			assertEquals(expected[i], diffs[i]);
+		}
+	}
+
+	private static class SequentialComparator implements IRangeComparator {
+		private final IRangeComparator fComparator;
+
+		SequentialComparator(IRangeComparator comparator) {
+			fComparator= comparator;
+		}
+
+		@Override
+		public int getRangeCount() {
+			return fComparator.getRangeCount();
+		}
+
+		@Override
+		public boolean rangesEqual(int thisIndex, IRangeComparator other, int otherIndex) {
+			return fComparator.rangesEqual(thisIndex, ((SequentialComparator) other).fComparator, otherIndex);
+		}
+
+		@Override
+		public boolean skipRangeComparison(int length, int maxLength, IRangeComparator other) {
+			return false;
+		}
+	}
+
 	private RangeDifference[] findRange(String a, String l, String r) {
 		ITokenComparator ancestor= new DocLineComparator(new Document(a), null, false);
 		ITokenComparator left= new DocLineComparator(new Document(l), null, false);
@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.compare.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.eclipse.compare.internal.core.StreamComparator;
+import org.junit.Test;
+
+public class StreamComparatorTest {
+
+	/*
+	 * Returns at most one byte per read, like a slow network stream.
+	 */
+	private static class TrickleInputStream extends ByteArrayInputStream {
+		TrickleInputStream(byte[] bytes) {
+			super(bytes);
+		}
+
+		@Override
+		public synchronized int read(byte[] b, int off, int len) {
+			return super.read(b, off, Math.min(len, 1));
+		}
+	}
+
+	private static boolean contentsEqual(byte[] b1, byte[] b2, boolean ignoreWhitespace) throws IOException {
+		boolean equal = StreamComparator.contentsEqual(new ByteArrayInputStream(b1), new ByteArrayInputStream(b2), ignoreWhitespace);
+		// the result must not depend on how many bytes the streams return per read
+		assertEquals(equal, StreamComparator.contentsEqual(new TrickleInputStream(b1), new ByteArrayInputStream(b2), ignoreWhitespace));
+		assertEquals(equal, StreamComparator.contentsEqual(new ByteArrayInputStream(b1), new TrickleInputStream(b2), ignoreWhitespace));
+		return equal;
+	}
+
+	/*
+	 * The comparison that StreamComparator replaces, one byte at a time.
+	 */
+	private static boolean naiveContentsEqual(byte[] b1, byte[] b2, boolean ignoreWhitespace) throws IOException {
+		InputStream is1 = new ByteArrayInputStream(b1);
+		InputStream is2 = new ByteArrayInputStream(b2);
+		while (true) {
+			int c1 = is1.read();
+			while (ignoreWhitespace && c1 != -1 && Character.isWhitespace((char) c1))
+				c1 = is1.read();
+			int c2 = is2.read();
+			while (ignoreWhitespace && c2 != -1 && Character.isWhitespace((char) c2))
+				c2 = is2.read();
+			if (c1 != c2)
+				return false;
+			if (c1 == -1)
+				return true;
+		}
+	}
+
+	private static byte[] bytes(String s) {
+		return s.getBytes();
+	}
+
+	@Test
+	public void testEmpty() throws IOException {
+		assertTrue(contentsEqual(new byte[0], new byte[0], false));
+		assertFalse(contentsEqual(new byte[0], bytes("a"), false));
+		assertFalse(contentsEqual(bytes("a"), new byte[0], false));
+		assertTrue(contentsEqual(new byte[0], bytes(" \t\r\n"), true));
+	}
+
+	@Test
+	public void testExactContents() throws IOException {
+		assertTrue(contentsEqual(bytes("abc"), bytes("abc"), false));
+		assertFalse(contentsEqual(bytes("abc"), bytes("abd"), false));
+		assertFalse(contentsEqual(bytes("abc"), bytes("abcd"), false));
+		assertFalse(contentsEqual(bytes("a bc"), bytes("abc"), false));
+	}
+
+	@Test
+	public void testIgnoreWhitespace() throws IOException {
+		assertTrue(contentsEqual(bytes("a b\tc\r\n"), bytes("abc"), true));
+		assertTrue(contentsEqual(bytes("\n\nabc"), bytes("a\nb\nc\n\n\n"), true));
+		assertFalse(contentsEqual(bytes("a b c"), bytes("a b d"), true));
+		assertFalse(contentsEqual(bytes("a b c"), bytes("a b c d"), true));
+	}
+
+	@Test
+	public void testBlockBoundaries() throws IOException {
+		for (int length : new int[] { 8191, 8192, 8193, 3 * 8192, 3 * 8192 + 17 }) {
+			byte[] b1 = new byte[length];
+			new Random(length).nextBytes(b1);
+			byte[] b2 = b1.clone();
+			assertTrue(contentsEqual(b1, b2, false));
+			// a difference in the last byte of the contents
+			b2[length - 1]++;
+			assertFalse(contentsEqual(b1, b2, false));
+			// one stream ends in the middle of a block
+			assertFalse(contentsEqual(b1, Arrays.copyOf(b1, length - 1), false));
+			assertFalse(contentsEqual(Arrays.copyOf(b1, length + 1), b1, false));
+		}
+	}
+
+	@Test
+	public void testWhitespaceAcrossBlockBoundaries() throws IOException {
+		ByteArrayOutputStream spaced = new ByteArrayOutputStream();
+		ByteArrayOutputStream compact = new ByteArrayOutputStream();
+		for (int i = 0; i < 10000; i++) {
+			byte c = (byte) ('a' + i % 26);
+			spaced.write(c);
+			compact.write(c);
+			// runs of whitespace that span the blocks of one stream only
+			for (int j = 0; j < i % 7; j++) {
+				spaced.write(' ');
+			}
+		}
+		assertTrue(contentsEqual(spaced.toByteArray(), compact.toByteArray(), true));
+		assertFalse(contentsEqual(spaced.toByteArray(), compact.toByteArray(), false));
+	}
+
+	@Test
+	public void testAgainstNaiveComparison() throws IOException {
+		Random random = new Random(42);
+		byte[] alphabet = bytes("ab \t\r\n");
+		for (int i = 0; i < 2000; i++) {
+			byte[] b1 = new byte[random.nextInt(40)];
+			byte[] b2 = new byte[random.nextInt(40)];
+			for (int j = 0; j < b1.length; j++)
+				b1[j] = alphabet[random.nextInt(alphabet.length)];
+			for (int j = 0; j < b2.length; j++)
+				b2[j] = alphabet[random.nextInt(alphabet.length)];
+			for (boolean ignoreWhitespace : new boolean[] { false, true }) {
+				assertEquals(naiveContentsEqual(b1, b2, ignoreWhitespace), contentsEqual(b1, b2, ignoreWhitespace));
+			}
+		}
+	}
+}
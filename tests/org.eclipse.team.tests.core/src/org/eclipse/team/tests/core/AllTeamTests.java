@@ -17,6 +17,8 @@ import junit.framework.Test;
 import junit.framework.TestSuite;
 
 import org.eclipse.core.tests.resources.ResourceTest;
+import org.eclipse.team.tests.core.mapping.DiffTreeTests;
+import org.eclipse.team.tests.core.mapping.PathTreeTests;
 
 public class AllTeamTests extends ResourceTest {
 
@@ -38,8 +40,17 @@ public class AllTeamTests extends ResourceTest {
 	public static Test suite() {
 		TestSuite suite = new TestSuite();
 		suite.addTest(RepositoryProviderTests.suite());
+		suite.addTest(IgnoreMatcherTests.suite());
 		suite.addTest(StreamTests.suite());
 		suite.addTest(StorageMergerTests.suite());
+		suite.addTest(ResourceVariantCacheTests.suite());
+		suite.addTest(MappedResourceVariantByteStoreTests.suite());
+		suite.addTest(ThreeWaySubscriberTests.suite());
+		suite.addTest(ContentComparatorTests.suite());
+		suite.addTest(SyncInfoTreeTests.suite());
+		suite.addTest(BackgroundEventHandlerTests.suite());
+		suite.addTest(PathTreeTests.suite());
+		suite.addTest(DiffTreeTests.suite());
 		suite.addTest(org.eclipse.team.tests.core.regression.AllTests.suite());
 		return suite;
 	}
@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.tests.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Test;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.team.core.TeamException;
+import org.eclipse.team.internal.core.BackgroundEventHandler;
+import org.eclipse.team.internal.core.DispatchPolicy;
+
+/**
+ * Tests the coalescing of events in {@link BackgroundEventHandler} and the
+ * measurements of its {@link DispatchPolicy}.
+ */
+public class BackgroundEventHandlerTests extends TeamTest {
+
+	private static final int CHANGE = 1;
+	private static final int REMOVE = 2;
+
+	/*
+	 * Records the processed events. Processing stops at the blocking event until it is released.
+	 */
+	static class TestHandler extends BackgroundEventHandler {
+		final List<String> processed = Collections.synchronizedList(new ArrayList<>());
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch released = new CountDownLatch(1);
+		Event blocking;
+		long dispatchTime;
+		long shortDispatchDelay = 1500;
+
+		TestHandler() {
+			super("BackgroundEventHandlerTests", "Errors"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		@Override
+		protected void processEvent(Event event, IProgressMonitor monitor) throws CoreException {
+			processed.add(toString(event));
+			if (event == blocking) {
+				started.countDown();
+				try {
+					released.await();
+				} catch (InterruptedException e) {
+					// continue
+				}
+			}
+		}
+
+		@Override
+		protected boolean doDispatchEvents(IProgressMonitor monitor) throws TeamException {
+			if (dispatchTime == 0)
+				return false;
+			try {
+				Thread.sleep(dispatchTime);
+			} catch (InterruptedException e) {
+				// continue
+			}
+			return true;
+		}
+
+		@Override
+		protected boolean isCoalescable(Event event) {
+			return event.getType() == CHANGE;
+		}
+
+		@Override
+		protected Object getJobFamiliy() {
+			return this;
+		}
+
+		@Override
+		protected long getShortDispatchDelay() {
+			return shortDispatchDelay;
+		}
+
+		@Override
+		public long getDispatchWaitDelay() {
+			return super.getDispatchWaitDelay();
+		}
+
+		void queue(Event event) {
+			queueEvent(event, false);
+		}
+
+		void block(Event event) throws InterruptedException {
+			blocking = event;
+			queue(event);
+			assertTrue(started.await(10, TimeUnit.SECONDS));
+		}
+
+		void releaseAndJoin() throws InterruptedException {
+			released.countDown();
+			Job.getJobManager().join(this, null);
+		}
+
+		static String toString(Event event) {
+			return (event.getType() == CHANGE ? "change " : "remove ") + event.getResource().getName(); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	private TestHandler handler;
+	private IResource r0;
+	private IResource r1;
+	private IResource r2;
+
+	public BackgroundEventHandlerTests() {
+		super();
+	}
+
+	public BackgroundEventHandlerTests(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return suite(BackgroundEventHandlerTests.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		// The handler only needs resource handles
+		IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject("BackgroundEventHandlerTests");
+		r0 = project.getFile("r0");
+		r1 = project.getFile("r1");
+		r2 = project.getFile("r2");
+		handler = new TestHandler();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		handler.released.countDown();
+		handler.shutdown();
+		super.tearDown();
+	}
+
+	private static BackgroundEventHandler.Event change(IResource resource) {
+		return new BackgroundEventHandler.ResourceEvent(resource, CHANGE, IResource.DEPTH_ZERO);
+	}
+
+	private static BackgroundEventHandler.Event remove(IResource resource) {
+		return new BackgroundEventHandler.ResourceEvent(resource, REMOVE, IResource.DEPTH_ZERO);
+	}
+
+	public void testCoalescingStopsAtBarriers() throws InterruptedException {
+		handler.block(remove(r0));
+		handler.queue(change(r1));
+		handler.queue(change(r1));
+		handler.queue(change(r2));
+		// the removal may not be reordered with the changes around it
+		handler.queue(remove(r1));
+		handler.queue(change(r1));
+		handler.queue(change(r1));
+		handler.queue(change(r2));
+		assertEquals(5, handler.getDispatchPolicy().getPendingCount());
+		handler.releaseAndJoin();
+		assertEquals(Arrays.asList("remove r0", "change r1", "change r2", "remove r1", "change r1", "change r2"), handler.processed);
+		assertEquals(0, handler.getDispatchPolicy().getPendingCount());
+	}
+
+	public void testEventBeingProcessedIsNotCoalesced() throws InterruptedException {
+		handler.block(change(r1));
+		// the change may have happened after the first event read the state
+		handler.queue(change(r1));
+		handler.queue(change(r1));
+		assertEquals(1, handler.getDispatchPolicy().getPendingCount());
+		handler.releaseAndJoin();
+		assertEquals(Arrays.asList("change r1", "change r1"), handler.processed);
+	}
+
+	public void testDifferentDepthsAreNotCoalesced() throws InterruptedException {
+		handler.block(remove(r0));
+		handler.queue(change(r1));
+		handler.queue(new BackgroundEventHandler.ResourceEvent(r1, CHANGE, IResource.DEPTH_INFINITE));
+		handler.queue(change(r1));
+		handler.releaseAndJoin();
+		assertEquals(Arrays.asList("remove r0", "change r1", "change r1"), handler.processed);
+	}
+
+	public void testBurstAndTrickle() throws InterruptedException {
+		DispatchPolicy policy = handler.getDispatchPolicy();
+		// no events have arrived yet
+		assertEquals(10, handler.getDispatchWaitDelay());
+		handler.block(remove(r0));
+		for (int i = 0; i < 1000; i++) {
+			handler.queue(remove(r1));
+		}
+		assertEquals(1000, policy.getPendingCount());
+		assertTrue(policy.toString(), policy.getArrivalRate() > 200);
+		// the first dispatches use the short delay, the following ones the long delay
+		assertEquals(1500, policy.getDispatchDelay(2, 1500, 10000));
+		assertEquals(10000, policy.getDispatchDelay(3, 1500, 10000));
+		assertEquals(100, handler.getDispatchWaitDelay());
+		handler.releaseAndJoin();
+		assertEquals(1001, handler.processed.size());
+		assertEquals(0, policy.getPendingCount());
+		Thread.sleep(200);
+		// events stopped arriving
+		assertTrue(policy.toString(), policy.getArrivalRate() < 200);
+		assertEquals(1500, policy.getDispatchDelay(3, 1500, 10000));
+		assertEquals(10, handler.getDispatchWaitDelay());
+	}
+
+	public void testDispatchCostStretchesDelay() throws InterruptedException {
+		DispatchPolicy policy = handler.getDispatchPolicy();
+		handler.dispatchTime = 200;
+		handler.shortDispatchDelay = 0;
+		handler.block(remove(r0));
+		handler.queue(remove(r1));
+		handler.queue(remove(r2));
+		handler.releaseAndJoin();
+		assertTrue(policy.toString(), policy.getDispatchCount() >= 1);
+		assertTrue(policy.toString(), policy.getAverageDispatchTime() >= 200);
+		assertTrue(policy.toString(), policy.getAverageBatchSize() >= 1);
+		// the delay is ten times the dispatch cost, bounded by the long delay
+		assertTrue(policy.toString(), policy.getDispatchDelay(0, 0, 10000) >= 2000);
+		assertEquals(1000, policy.getDispatchDelay(0, 0, 1000));
+	}
+}
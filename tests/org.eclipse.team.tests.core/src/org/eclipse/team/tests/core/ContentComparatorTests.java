@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.tests.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import junit.framework.Test;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.team.core.TeamException;
+import org.eclipse.team.core.variants.CachedResourceVariant;
+import org.eclipse.team.internal.core.ResourceVariantCache;
+import org.eclipse.team.internal.core.subscribers.ContentComparator;
+
+/**
+ * Tests that {@link ContentComparator} compares the sizes of local files and
+ * cached variants before it reads their contents.
+ */
+public class ContentComparatorTests extends TeamTest {
+
+	private static final String CACHE_ID = "org.eclipse.team.tests.core.comparatorCache";
+
+	/*
+	 * A variant with the given contents that counts how often they are fetched.
+	 */
+	static class TestVariant extends CachedResourceVariant {
+		private final String path;
+		private final String contents;
+		int fetches;
+
+		TestVariant(String path, String contents) {
+			this.path = path;
+			this.contents = contents;
+		}
+
+		@Override
+		protected void fetchContents(IProgressMonitor monitor) throws TeamException {
+			fetches++;
+			setContents(new ByteArrayInputStream(contents.getBytes()), monitor);
+		}
+
+		@Override
+		protected String getCachePath() {
+			return path;
+		}
+
+		@Override
+		protected String getCacheId() {
+			return CACHE_ID;
+		}
+
+		@Override
+		public String getName() {
+			return path;
+		}
+
+		@Override
+		public boolean isContainer() {
+			return false;
+		}
+
+		@Override
+		public String getContentIdentifier() {
+			return path;
+		}
+
+		@Override
+		public byte[] asBytes() {
+			return path.getBytes();
+		}
+	}
+
+	/*
+	 * Counts the comparisons that read the contents.
+	 */
+	static class CountingComparator extends ContentComparator {
+		int reads;
+
+		CountingComparator(boolean ignoreWhitespace) {
+			super(ignoreWhitespace);
+		}
+
+		@Override
+		protected boolean contentsEqual(IProgressMonitor monitor, InputStream is1, InputStream is2, boolean ignoreWhitespace) {
+			reads++;
+			return super.contentsEqual(monitor, is1, is2, ignoreWhitespace);
+		}
+	}
+
+	private IProject project;
+
+	public ContentComparatorTests() {
+		super();
+	}
+
+	public ContentComparatorTests(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return suite(ContentComparatorTests.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		project = getUniqueTestProject("ContentComparatorTests");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		ResourceVariantCache.disableCache(CACHE_ID);
+		super.tearDown();
+	}
+
+	private IFile createFile(String name, String contents) throws CoreException {
+		IFile file = project.getFile(name);
+		file.create(new ByteArrayInputStream(contents.getBytes()), true, DEFAULT_MONITOR);
+		return file;
+	}
+
+	private TestVariant createCachedVariant(String path, String contents) throws TeamException {
+		TestVariant variant = new TestVariant(path, contents);
+		variant.getStorage(DEFAULT_MONITOR);
+		assertTrue(variant.isContentsCached());
+		return variant;
+	}
+
+	public void testDifferentSizesAreNotRead() throws Exception {
+		IFile file = createFile("file1.txt", "abc");
+		TestVariant variant = createCachedVariant("file1 1.1", "abcd");
+		CountingComparator comparator = new CountingComparator(false);
+		assertFalse(comparator.compare(file, variant, DEFAULT_MONITOR));
+		assertEquals(0, comparator.reads);
+	}
+
+	public void testSameSizesAreRead() throws Exception {
+		IFile file = createFile("file2.txt", "abc");
+		CountingComparator comparator = new CountingComparator(false);
+		assertTrue(comparator.compare(file, createCachedVariant("file2 1.1", "abc"), DEFAULT_MONITOR));
+		assertFalse(comparator.compare(file, createCachedVariant("file2 1.2", "abd"), DEFAULT_MONITOR));
+		assertEquals(2, comparator.reads);
+	}
+
+	public void testSizesAreIgnoredWithWhitespace() throws Exception {
+		IFile file = createFile("file3.txt", "a b c\n");
+		TestVariant variant = createCachedVariant("file3 1.1", "abc");
+		CountingComparator comparator = new CountingComparator(true);
+		assertTrue(comparator.compare(file, variant, DEFAULT_MONITOR));
+		assertEquals(1, comparator.reads);
+	}
+
+	public void testUncachedVariantIsFetched() throws Exception {
+		IFile file = createFile("file4.txt", "abc");
+		TestVariant variant = new TestVariant("file4 1.1", "abcd");
+		CountingComparator comparator = new CountingComparator(false);
+		// the size of the variant isn't known without fetching its contents
+		assertFalse(comparator.compare(file, variant, DEFAULT_MONITOR));
+		assertEquals(1, variant.fetches);
+		assertEquals(1, comparator.reads);
+	}
+}
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.tests.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.Test;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.team.core.IIgnoreInfo;
+import org.eclipse.team.core.Team;
+import org.eclipse.team.internal.core.IgnoreMatcher;
+import org.eclipse.team.internal.core.StringMatcher;
+
+/**
+ * Compares {@link IgnoreMatcher} and {@link Team#isIgnoredHint(IResource)}
+ * with matching each ignore pattern with a {@link StringMatcher}, as
+ * <code>Team</code> did before.
+ */
+public class IgnoreMatcherTests extends TeamTest {
+
+	// Includes characters whose case is only folded outside of ASCII
+	private static final char[] NAME_CHARACTERS = new char[] { 'a', 'b', 'A', 'B', '.', '_', '\u00e4', '\u00c4', '\u03a3', '\u03c3', '\u03c2' };
+	private static final char[] PATTERN_CHARACTERS = new char[] { 'a', 'b', 'A', 'B', '.', '_', '\u00e4', '\u00c4', '\u03a3', '\u03c3', '\u03c2', '*', '*', '?' };
+
+	private IProject project;
+
+	public IgnoreMatcherTests() {
+		super();
+	}
+
+	public IgnoreMatcherTests(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return suite(IgnoreMatcherTests.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		// The matchers only need resource handles
+		project = getWorkspace().getRoot().getProject("IgnoreMatcherTests");
+	}
+
+	/*
+	 * The loop that Team used to match the enabled ignore patterns.
+	 */
+	private static boolean matchEach(String[] patterns, IResource resource) {
+		for (String pattern : patterns) {
+			StringMatcher matcher = new StringMatcher(pattern, true, false);
+			String text = matcher.isPathPattern() ? resource.getFullPath().toString() : resource.getName();
+			if (matcher.match(text))
+				return true;
+		}
+		return false;
+	}
+
+	private static String randomString(Random random, char[] characters, int maxLength) {
+		int length = random.nextInt(maxLength + 1);
+		StringBuilder builder = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			builder.append(characters[random.nextInt(characters.length)]);
+		}
+		return builder.toString();
+	}
+
+	private String[] randomPatterns(Random random, int count) {
+		String[] patterns = new String[count];
+		for (int i = 0; i < count; i++) {
+			int kind = random.nextInt(10);
+			if (kind == 0) {
+				patterns[i] = "*." + randomString(random, NAME_CHARACTERS, 3); //$NON-NLS-1$
+			} else if (kind == 1) {
+				patterns[i] = "/" + project.getName() + "/" + randomString(random, PATTERN_CHARACTERS, 4); //$NON-NLS-1$ //$NON-NLS-2$
+			} else {
+				patterns[i] = randomString(random, PATTERN_CHARACTERS, 8);
+			}
+			if (patterns[i].isEmpty())
+				patterns[i] = "*"; //$NON-NLS-1$
+		}
+		return patterns;
+	}
+
+	private IResource randomResource(Random random) {
+		String name = randomString(random, NAME_CHARACTERS, 10);
+		if (name.isEmpty() || name.equals(".")) //$NON-NLS-1$
+			name = "a"; //$NON-NLS-1$
+		return random.nextBoolean() ? project.getFile(name) : project.getFolder("folder").getFile(name); //$NON-NLS-1$
+	}
+
+	public void testDifferentialAgainstStringMatcher() {
+		for (long seed = 0; seed < 200; seed++) {
+			Random random = new Random(seed);
+			// Enough patterns for the automaton to need several words of states
+			String[] patterns = randomPatterns(random, 1 + random.nextInt(seed % 2 == 0 ? 4 : 40));
+			IgnoreMatcher matcher = new IgnoreMatcher(patterns);
+			for (int i = 0; i < 500; i++) {
+				IResource resource = randomResource(random);
+				assertEquals("seed " + seed + " " + resource.getFullPath(), matchEach(patterns, resource), matcher.match(resource)); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+	}
+
+	public void testCommonPatterns() {
+		String[] patterns = new String[] { "*.class", "CVS", ".#*", "*~", "bin?", "*.o*", "/IgnoreMatcherTests/folder/*" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+		String[] names = new String[] { "A.CLASS", "a.class.txt", "cvs", "CVS2", ".#file", "file~", "bin", "bin1", "lib.obj", "lib.so", "x.o" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$ //$NON-NLS-11$
+		IgnoreMatcher matcher = new IgnoreMatcher(patterns);
+		for (String name : names) {
+			IResource file = project.getFile(name);
+			assertEquals(name, matchEach(patterns, file), matcher.match(file));
+			IResource nested = project.getFolder("folder").getFile(name); //$NON-NLS-1$
+			assertTrue(name, matcher.match(nested));
+		}
+	}
+
+	public void testTeamMatchesEnabledIgnores() {
+		IIgnoreInfo[] ignores = Team.getAllIgnores();
+		String[] oldPatterns = new String[ignores.length];
+		boolean[] oldEnabled = new boolean[ignores.length];
+		for (int i = 0; i < ignores.length; i++) {
+			oldPatterns[i] = ignores[i].getPattern();
+			oldEnabled[i] = ignores[i].getEnabled();
+		}
+		try {
+			for (long seed = 0; seed < 20; seed++) {
+				Random random = new Random(seed);
+				String[] patterns = randomPatterns(random, 1 + random.nextInt(20));
+				boolean[] enabled = new boolean[patterns.length];
+				List<String> enabledPatterns = new ArrayList<>();
+				for (int i = 0; i < patterns.length; i++) {
+					enabled[i] = random.nextInt(4) != 0;
+				}
+				Team.setAllIgnores(patterns, enabled);
+				// A pattern may have been given twice, the last one counts
+				for (IIgnoreInfo info : Team.getAllIgnores()) {
+					if (info.getEnabled())
+						enabledPatterns.add(info.getPattern());
+				}
+				String[] expectedPatterns = enabledPatterns.toArray(new String[enabledPatterns.size()]);
+				for (int i = 0; i < 200; i++) {
+					IResource resource = randomResource(random);
+					assertEquals("seed " + seed + " " + resource.getFullPath(), matchEach(expectedPatterns, resource), Team.isIgnoredHint(resource)); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+			}
+		} finally {
+			Team.setAllIgnores(oldPatterns, oldEnabled);
+		}
+	}
+}
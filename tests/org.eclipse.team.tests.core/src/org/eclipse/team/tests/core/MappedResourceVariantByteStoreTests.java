@@ -0,0 +1,269 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.tests.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import junit.framework.Test;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.team.core.variants.MappedResourceVariantByteStore;
+
+/**
+ * Tests that the bytes of a {@link MappedResourceVariantByteStore} survive
+ * reopening the store, compaction and incompletely written changes, that
+ * compaction switches to a new file, and that the file of a project only
+ * exists while the project has bytes.
+ */
+public class MappedResourceVariantByteStoreTests extends TeamTest {
+
+	private File directory;
+	private IProject project;
+	private IFolder folder;
+	private IFile file1;
+	private IFile file2;
+
+	public MappedResourceVariantByteStoreTests() {
+		super();
+	}
+
+	public MappedResourceVariantByteStoreTests(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return suite(MappedResourceVariantByteStoreTests.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		directory = Files.createTempDirectory("MappedResourceVariantByteStoreTests").toFile();
+		// The store only needs resource handles
+		project = getWorkspace().getRoot().getProject("MappedResourceVariantByteStoreTests");
+		folder = project.getFolder("folder");
+		file1 = folder.getFile("file1.txt");
+		file2 = project.getFile("file2.txt");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		File[] children = directory.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				child.delete();
+			}
+		}
+		directory.delete();
+		super.tearDown();
+	}
+
+	/*
+	 * Return the file of the newest generation of the given project, which
+	 * does not exist if the project has none.
+	 */
+	private File getFile(IProject project) {
+		int newest = 0;
+		Pattern pattern = Pattern.compile(Pattern.quote(project.getName()) + "\\.(\\d+)\\.variants");
+		String[] names = directory.list();
+		if (names != null) {
+			for (String name : names) {
+				Matcher matcher = pattern.matcher(name);
+				if (matcher.matches())
+					newest = Math.max(newest, Integer.parseInt(matcher.group(1)));
+			}
+		}
+		return getFile(project, newest);
+	}
+
+	private File getFile(IProject project, int generation) {
+		return new File(directory, project.getName() + "." + generation + ".variants");
+	}
+
+	private void assertNoTemporaryFile() {
+		for (String name : directory.list()) {
+			assertFalse(name, name.endsWith(".tmp"));
+		}
+	}
+
+	private static byte[] bytes(String string) {
+		return string.getBytes();
+	}
+
+	public void testReadsDoNotCreateFiles() throws CoreException {
+		MappedResourceVariantByteStore store = new MappedResourceVariantByteStore(directory);
+		try {
+			assertNull(store.getBytes(file1));
+			assertFalse(store.isVariantKnown(file1));
+			assertEquals(0, store.members(project).length);
+			assertEquals(0, store.members(getWorkspace().getRoot()).length);
+			assertFalse(store.flushBytes(project, IResource.DEPTH_INFINITE));
+			store.save();
+			assertFalse(getFile(project).exists());
+			assertTrue(store.setBytes(file1, bytes("file1")));
+			assertTrue(getFile(project).exists());
+		} finally {
+			store.dispose();
+		}
+	}
+
+	public void testBytesSurviveReopening() throws CoreException {
+		MappedResourceVariantByteStore store = new MappedResourceVariantByteStore(directory);
+		store.setBytes(folder, bytes("folder"));
+		store.setBytes(file1, bytes("file1"));
+		store.deleteBytes(file2);
+		store.save();
+		MappedResourceVariantByteStore reopened = new MappedResourceVariantByteStore(directory);
+		try {
+			assertTrue(Arrays.equals(bytes("folder"), reopened.getBytes(folder)));
+			assertTrue(Arrays.equals(bytes("file1"), reopened.getBytes(file1)));
+			// It is known that there is no variant
+			assertNull(reopened.getBytes(file2));
+			assertTrue(reopened.isVariantKnown(file2));
+			assertEquals(new HashSet<>(Arrays.asList(folder)), new HashSet<>(Arrays.asList(reopened.members(project))));
+			assertEquals(new HashSet<>(Arrays.asList(project)), new HashSet<>(Arrays.asList(reopened.members(getWorkspace().getRoot()))));
+		} finally {
+			reopened.dispose();
+			store.dispose();
+		}
+	}
+
+	public void testCompactionKeepsBytes() throws CoreException {
+		MappedResourceVariantByteStore store = new MappedResourceVariantByteStore(directory);
+		Random random = new Random(5);
+		byte[][] expected = new byte[20][];
+		for (int i = 0; i < 5000; i++) {
+			int index = random.nextInt(expected.length);
+			// Some bytes are larger than the first mapped segment. None are empty,
+			// which would mean that there is no variant
+			byte[] bytes = new byte[i % 1000 == 0 ? 100000 : 1 + random.nextInt(100)];
+			random.nextBytes(bytes);
+			store.setBytes(project.getFile("file" + index), bytes);
+			expected[index] = bytes;
+		}
+		File file = getFile(project);
+		long size = file.length();
+		store.save();
+		// The mapped file is not replaced, the store switches to a new one
+		File compacted = getFile(project);
+		assertFalse(compacted.equals(file));
+		assertTrue(compacted.length() < size);
+		assertNoTemporaryFile();
+		MappedResourceVariantByteStore reopened = new MappedResourceVariantByteStore(directory);
+		try {
+			for (int i = 0; i < expected.length; i++) {
+				assertTrue(Arrays.equals(expected[i], store.getBytes(project.getFile("file" + i))));
+				assertTrue(Arrays.equals(expected[i], reopened.getBytes(project.getFile("file" + i))));
+			}
+		} finally {
+			reopened.dispose();
+			store.dispose();
+		}
+	}
+
+	public void testIncompleteChangesAreDiscarded() throws CoreException, IOException {
+		MappedResourceVariantByteStore store = new MappedResourceVariantByteStore(directory);
+		store.setBytes(file1, bytes("file1"));
+		store.save();
+		// A change that was not completely written before a crash
+		File file = getFile(project);
+		try (RandomAccessFile log = new RandomAccessFile(file, "rw")) {
+			log.seek(8);
+			int end = log.readInt();
+			log.seek(end);
+			log.write(new byte[] { 1, 0, 0, 0, 100 });
+			log.seek(8);
+			log.writeInt(end + 5);
+		}
+		MappedResourceVariantByteStore reopened = new MappedResourceVariantByteStore(directory);
+		try {
+			assertTrue(Arrays.equals(bytes("file1"), reopened.getBytes(file1)));
+			assertTrue(reopened.setBytes(file2, bytes("file2")));
+			assertTrue(Arrays.equals(bytes("file2"), reopened.getBytes(file2)));
+		} finally {
+			reopened.dispose();
+			store.dispose();
+		}
+	}
+
+	public void testIncompleteCompactionIsIgnored() throws CoreException, IOException {
+		MappedResourceVariantByteStore store = new MappedResourceVariantByteStore(directory);
+		store.setBytes(file1, bytes("file1"));
+		store.save();
+		// The new file of a compaction that did not complete
+		File tempFile = new File(directory, getFile(project, 1).getName() + ".tmp");
+		Files.write(tempFile.toPath(), new byte[] { 1, 2, 3 });
+		MappedResourceVariantByteStore reopened = new MappedResourceVariantByteStore(directory);
+		try {
+			assertTrue(Arrays.equals(bytes("file1"), reopened.getBytes(file1)));
+			assertFalse(tempFile.exists());
+		} finally {
+			reopened.dispose();
+			store.dispose();
+		}
+	}
+
+	public void testOlderFileIsDeleted() throws CoreException, IOException {
+		MappedResourceVariantByteStore store = new MappedResourceVariantByteStore(directory);
+		store.setBytes(file1, bytes("old"));
+		store.save();
+		byte[] old = Files.readAllBytes(getFile(project).toPath());
+		store.setBytes(file1, bytes("new"));
+		store.save();
+		byte[] current = Files.readAllBytes(getFile(project).toPath());
+		store.dispose();
+		// A compaction whose older file could not be deleted while it was mapped
+		directory.mkdirs();
+		File file = getFile(project, 0);
+		Files.write(file.toPath(), old);
+		Files.write(getFile(project, 1).toPath(), current);
+		MappedResourceVariantByteStore reopened = new MappedResourceVariantByteStore(directory);
+		try {
+			assertTrue(Arrays.equals(bytes("new"), reopened.getBytes(file1)));
+			assertFalse(file.exists());
+		} finally {
+			reopened.dispose();
+		}
+	}
+
+	public void testFileOfDeletedProjectIsDeleted() throws CoreException {
+		IProject deleted = createProject(new String[] { "file.txt" });
+		IProject kept = createProject("kept", new String[] { "file.txt" });
+		MappedResourceVariantByteStore store = new MappedResourceVariantByteStore(directory);
+		try {
+			store.setBytes(deleted.getFile("file.txt"), bytes("deleted"));
+			store.setBytes(kept.getFile("file.txt"), bytes("kept"));
+			deleted.delete(true, null);
+			assertFalse(getFile(deleted).exists());
+			assertNull(store.getBytes(deleted.getFile("file.txt")));
+			assertTrue(getFile(kept).exists());
+			assertTrue(Arrays.equals(bytes("kept"), store.getBytes(kept.getFile("file.txt"))));
+		} finally {
+			store.dispose();
+			kept.delete(true, null);
+		}
+	}
+}
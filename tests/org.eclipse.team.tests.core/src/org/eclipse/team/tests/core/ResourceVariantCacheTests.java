@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.tests.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.team.core.TeamException;
+import org.eclipse.team.core.variants.CachedResourceVariant;
+import org.eclipse.team.internal.core.ResourceVariantCache;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests that the contents of a persistent {@link ResourceVariantCache} survive
+ * a restart and that the size of the cached contents is bounded.
+ */
+public class ResourceVariantCacheTests extends TestCase {
+
+	private static final String PERSISTENT_CACHE = "org.eclipse.team.tests.core.persistentCache";
+	private static final String TRANSIENT_CACHE = "org.eclipse.team.tests.core.transientCache";
+
+	/*
+	 * A variant whose contents are derived from its path. It counts how often its
+	 * contents are fetched and carries some state that is only kept in the cached handle.
+	 */
+	static class TestVariant extends CachedResourceVariant {
+		private final String cacheId;
+		private final String path;
+		private final int size;
+		int fetches;
+		String state;
+
+		TestVariant(String cacheId, String path, int size) {
+			this.cacheId = cacheId;
+			this.path = path;
+			this.size = size;
+		}
+
+		@Override
+		protected void fetchContents(IProgressMonitor monitor) throws TeamException {
+			fetches++;
+			setContents(new ByteArrayInputStream(getExpectedContents()), monitor);
+		}
+
+		byte[] getExpectedContents() {
+			byte[] contents = new byte[size];
+			Arrays.fill(contents, (byte) path.hashCode());
+			return contents;
+		}
+
+		@Override
+		protected String getCachePath() {
+			return path;
+		}
+
+		@Override
+		protected String getCacheId() {
+			return cacheId;
+		}
+
+		@Override
+		public String getName() {
+			return path;
+		}
+
+		@Override
+		public boolean isContainer() {
+			return false;
+		}
+
+		@Override
+		public String getContentIdentifier() {
+			return path;
+		}
+
+		@Override
+		public byte[] asBytes() {
+			return path.getBytes();
+		}
+
+		TestVariant getHandle() {
+			return (TestVariant) getCachedHandle();
+		}
+
+		boolean hasHandle() {
+			return isHandleCached();
+		}
+
+		void cache() {
+			cacheHandle();
+		}
+	}
+
+	public ResourceVariantCacheTests(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return new TestSuite(ResourceVariantCacheTests.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		ResourceVariantCache.enablePersistence(PERSISTENT_CACHE);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		ResourceVariantCache.setMaxCacheSize(ResourceVariantCache.DEFAULT_MAX_CACHE_SIZE);
+		ResourceVariantCache.disableCache(PERSISTENT_CACHE);
+		ResourceVariantCache.disableCache(TRANSIENT_CACHE);
+		super.tearDown();
+	}
+
+	private static byte[] getContents(TestVariant variant) throws CoreException, IOException {
+		try (InputStream in = variant.getStorage(new NullProgressMonitor()).getContents()) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[1024];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+			return out.toByteArray();
+		}
+	}
+
+	/*
+	 * Closes all caches the way the plug-in does on shutdown.
+	 */
+	private static void restart() {
+		ResourceVariantCache.shutdown();
+	}
+
+	public void testPersistentContentsSurviveRestart() throws Exception {
+		TestVariant variant = new TestVariant(PERSISTENT_CACHE, "a/file 1.1", 100);
+		assertTrue(Arrays.equals(variant.getExpectedContents(), getContents(variant)));
+		assertEquals(1, variant.fetches);
+		restart();
+
+		TestVariant restored = new TestVariant(PERSISTENT_CACHE, "a/file 1.1", 100);
+		assertTrue(Arrays.equals(restored.getExpectedContents(), getContents(restored)));
+		assertEquals(0, restored.fetches);
+		// the contents are served through the handle that has been cached in this session
+		assertSame(restored, restored.getHandle());
+	}
+
+	public void testRestoredContentsRequireHandle() throws Exception {
+		TestVariant variant = new TestVariant(PERSISTENT_CACHE, "a/file 1.2", 100);
+		getContents(variant);
+		restart();
+
+		TestVariant restored = new TestVariant(PERSISTENT_CACHE, "a/file 1.2", 100);
+		assertFalse(restored.isContentsCached());
+		assertFalse(restored.hasHandle());
+		assertNull(restored.getHandle());
+
+		// caching a handle makes the contents of the previous session available with its state
+		restored.state = "state";
+		restored.cache();
+		assertTrue(restored.isContentsCached());
+		TestVariant other = new TestVariant(PERSISTENT_CACHE, "a/file 1.2", 100);
+		assertEquals("state", other.getHandle().state);
+		assertTrue(Arrays.equals(other.getExpectedContents(), getContents(other)));
+		assertEquals(0, other.fetches);
+	}
+
+	public void testTransientContentsAreDeletedOnRestart() throws Exception {
+		TestVariant variant = new TestVariant(TRANSIENT_CACHE, "a/file 1.1", 100);
+		getContents(variant);
+		restart();
+
+		TestVariant again = new TestVariant(TRANSIENT_CACHE, "a/file 1.1", 100);
+		assertTrue(Arrays.equals(again.getExpectedContents(), getContents(again)));
+		assertEquals(1, again.fetches);
+	}
+
+	public void testEvictLeastRecentlyUsed() throws Exception {
+		ResourceVariantCache.setMaxCacheSize(2500);
+		TestVariant first = new TestVariant(PERSISTENT_CACHE, "b/file 1.1", 1000);
+		TestVariant second = new TestVariant(PERSISTENT_CACHE, "b/file 1.2", 1000);
+		TestVariant third = new TestVariant(PERSISTENT_CACHE, "b/file 1.3", 1000);
+		getContents(first);
+		getContents(second);
+		// use the first one again so that the second one is the least recently used
+		getContents(first);
+		getContents(third);
+		assertTrue(first.isContentsCached());
+		assertFalse(second.isContentsCached());
+		assertTrue(third.isContentsCached());
+	}
+
+	public void testEvictRestoredContents() throws Exception {
+		String[] paths = new String[] { "c/file 1.1", "c/file 1.2", "c/file 1.3" };
+		for (String path : paths) {
+			getContents(new TestVariant(PERSISTENT_CACHE, path, 1000));
+		}
+		restart();
+
+		// the contents of the previous session exceed the new bound
+		ResourceVariantCache.setMaxCacheSize(2500);
+		// caching the handles doesn't fetch anything that could evict more contents
+		int restored = 0;
+		for (String path : paths) {
+			TestVariant variant = new TestVariant(PERSISTENT_CACHE, path, 1000);
+			variant.cache();
+			if (variant.isContentsCached()) {
+				assertTrue(Arrays.equals(variant.getExpectedContents(), getContents(variant)));
+				assertEquals(0, variant.fetches);
+				restored++;
+			}
+		}
+		assertEquals(2, restored);
+	}
+}
@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.tests.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.Test;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.team.core.ITeamStatus;
+import org.eclipse.team.core.synchronize.ISyncInfoSetChangeEvent;
+import org.eclipse.team.core.synchronize.ISyncInfoSetChangeListener;
+import org.eclipse.team.core.synchronize.ISyncInfoTreeChangeEvent;
+import org.eclipse.team.core.synchronize.SyncInfo;
+import org.eclipse.team.core.synchronize.SyncInfoSet;
+import org.eclipse.team.core.synchronize.SyncInfoTree;
+import org.eclipse.team.core.variants.IResourceVariant;
+import org.eclipse.team.core.variants.IResourceVariantComparator;
+
+/**
+ * Tests the hierarchical queries, the <code>parents</code> view and the
+ * snapshot reads of {@link SyncInfoTree}.
+ */
+public class SyncInfoTreeTests extends TeamTest {
+
+	private static final IResourceVariantComparator COMPARATOR = new IResourceVariantComparator() {
+		@Override
+		public boolean compare(IResource local, IResourceVariant remote) {
+			return false;
+		}
+
+		@Override
+		public boolean compare(IResourceVariant base, IResourceVariant remote) {
+			return false;
+		}
+
+		@Override
+		public boolean isThreeWay() {
+			return false;
+		}
+	};
+
+	/*
+	 * Exposes the parents map that subclasses can read.
+	 */
+	static class TestSyncInfoTree extends SyncInfoTree {
+		Set<IResource> getParents(IResource resource) {
+			return parents.get(resource.getFullPath());
+		}
+
+		int getParentsSize() {
+			return parents.size();
+		}
+	}
+
+	/*
+	 * Records the subtree roots of the last change event.
+	 */
+	static class SubtreeListener implements ISyncInfoSetChangeListener {
+		Set<IResource> added = new HashSet<>();
+		Set<IResource> removed = new HashSet<>();
+
+		@Override
+		public void syncInfoSetReset(SyncInfoSet set, IProgressMonitor monitor) {
+			// Not used
+		}
+
+		@Override
+		public void syncInfoChanged(ISyncInfoSetChangeEvent event, IProgressMonitor monitor) {
+			added = new HashSet<>(Arrays.asList(((ISyncInfoTreeChangeEvent) event).getAddedSubtreeRoots()));
+			removed = new HashSet<>(Arrays.asList(((ISyncInfoTreeChangeEvent) event).getRemovedSubtreeRoots()));
+		}
+
+		@Override
+		public void syncInfoSetErrors(SyncInfoSet set, ITeamStatus[] errors, IProgressMonitor monitor) {
+			// Not used
+		}
+	}
+
+	private IWorkspaceRoot root;
+	private IProject project;
+	private IFolder folder;
+	private IFolder subfolder;
+	private IFile file1;
+	private IFile file2;
+	private IFile file3;
+
+	public SyncInfoTreeTests() {
+		super();
+	}
+
+	public SyncInfoTreeTests(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return suite(SyncInfoTreeTests.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		// The tree only needs resource handles, except for the projects that
+		// are members of the workspace root
+		root = ResourcesPlugin.getWorkspace().getRoot();
+		project = getUniqueTestProject("SyncInfoTreeTests");
+		folder = project.getFolder("folder");
+		subfolder = folder.getFolder("sub");
+		file1 = folder.getFile("file1.txt");
+		file2 = subfolder.getFile("file2.txt");
+		file3 = project.getFile("file3.txt");
+	}
+
+	private static SyncInfo info(IResource resource) {
+		return new SyncInfo(resource, null, null, COMPARATOR);
+	}
+
+	private static Set<IResource> asSet(IResource[] resources) {
+		Set<IResource> set = new HashSet<>(Arrays.asList(resources));
+		assertEquals("duplicate resources", resources.length, set.size());
+		return set;
+	}
+
+	private static Set<IResource> locals(SyncInfo[] infos) {
+		List<IResource> resources = new ArrayList<>();
+		for (SyncInfo info : infos) {
+			resources.add(info.getLocal());
+		}
+		return asSet(resources.toArray(new IResource[resources.size()]));
+	}
+
+	private static Set<IResource> set(IResource... resources) {
+		return new HashSet<>(Arrays.asList(resources));
+	}
+
+	public void testMembers() {
+		SyncInfoTree tree = new SyncInfoTree(new SyncInfo[] { info(file1), info(file2), info(file3) });
+		assertEquals(set(project), asSet(tree.members(root)));
+		assertEquals(set(folder, file3), asSet(tree.members(project)));
+		assertEquals(set(file1, subfolder), asSet(tree.members(folder)));
+		assertEquals(set(file2), asSet(tree.members(subfolder)));
+		assertEquals(0, tree.members(file1).length);
+		assertTrue(tree.hasMembers(folder));
+		assertTrue(tree.hasMembers(subfolder));
+		assertFalse(tree.hasMembers(file1));
+
+		tree.remove(file2);
+		assertEquals(set(file1), asSet(tree.members(folder)));
+		assertFalse(tree.hasMembers(subfolder));
+		tree.remove(file1);
+		assertEquals(set(file3), asSet(tree.members(project)));
+		assertFalse(tree.hasMembers(folder));
+		tree.clear();
+		assertEquals(0, tree.members(root).length);
+		assertEquals(0, tree.members(project).length);
+	}
+
+	public void testOutOfSyncFolderIsMember() {
+		SyncInfoTree tree = new SyncInfoTree();
+		tree.add(info(subfolder));
+		tree.add(info(file2));
+		assertEquals(set(subfolder), asSet(tree.members(folder)));
+		assertEquals(set(file2), asSet(tree.members(subfolder)));
+		tree.remove(file2);
+		// the folder itself is still out-of-sync
+		assertEquals(set(subfolder), asSet(tree.members(folder)));
+		assertTrue(tree.hasMembers(subfolder));
+		assertEquals(0, tree.members(subfolder).length);
+	}
+
+	public void testGetSyncInfos() {
+		SyncInfoTree tree = new SyncInfoTree(new SyncInfo[] { info(file1), info(file2), info(file3), info(subfolder) });
+		assertEquals(set(file1, file2, file3, subfolder), locals(tree.getSyncInfos(root, IResource.DEPTH_INFINITE)));
+		assertEquals(set(file1, file2, subfolder), locals(tree.getSyncInfos(folder, IResource.DEPTH_INFINITE)));
+		assertEquals(set(file1, subfolder), locals(tree.getSyncInfos(folder, IResource.DEPTH_ONE)));
+		assertEquals(set(subfolder), locals(tree.getSyncInfos(subfolder, IResource.DEPTH_ZERO)));
+		assertEquals(set(file2, subfolder), locals(tree.getSyncInfos(subfolder, IResource.DEPTH_INFINITE)));
+		tree.remove(folder, IResource.DEPTH_INFINITE);
+		assertEquals(set(file3), locals(tree.getSyncInfos(project, IResource.DEPTH_INFINITE)));
+	}
+
+	public void testParentsAreMaintained() {
+		TestSyncInfoTree tree = new TestSyncInfoTree();
+		tree.add(info(file1));
+		tree.add(info(file2));
+		tree.add(info(file3));
+		assertEquals(set(file1, file2, file3), tree.getParents(project));
+		assertEquals(set(file1, file2), tree.getParents(folder));
+		assertEquals(set(file2), tree.getParents(subfolder));
+		tree.remove(file2);
+		assertNull(tree.getParents(subfolder));
+		assertEquals(set(file1), tree.getParents(folder));
+		tree.clear();
+		assertEquals(0, tree.getParentsSize());
+	}
+
+	public void testSubtreeRoots() {
+		SyncInfoTree tree = new SyncInfoTree();
+		SubtreeListener listener = new SubtreeListener();
+		tree.addSyncSetChangedListener(listener);
+		tree.add(info(file2));
+		assertEquals(set(project), listener.added);
+		tree.add(info(file1));
+		assertEquals(set(file1), listener.added);
+		tree.add(info(file3));
+		assertEquals(set(file3), listener.added);
+		tree.remove(file2);
+		assertEquals(set(subfolder), listener.removed);
+		tree.remove(file3);
+		assertEquals(set(file3), listener.removed);
+		tree.remove(file1);
+		assertEquals(set(project), listener.removed);
+	}
+
+	public void testHierarchicalReadsDontLockTheSet() throws InterruptedException {
+		final SyncInfoTree tree = new SyncInfoTree(new SyncInfo[] { info(file1), info(file2) });
+		final IResource[][] members = new IResource[1][];
+		final SyncInfo[][] infos = new SyncInfo[1][];
+		Thread reader = new Thread(() -> {
+			members[0] = tree.members(folder);
+			infos[0] = tree.getSyncInfos(folder, IResource.DEPTH_INFINITE);
+		});
+		synchronized (tree) {
+			reader.start();
+			reader.join(5000);
+			// The reads use a snapshot and don't wait for the lock of the set
+			assertFalse(reader.isAlive());
+		}
+		assertEquals(set(file1, subfolder), asSet(members[0]));
+		assertEquals(set(file1, file2), locals(infos[0]));
+	}
+
+	public void testReadsSeeChanges() {
+		SyncInfoTree tree = new SyncInfoTree();
+		tree.add(info(file1));
+		assertEquals(set(file1), asSet(tree.members(folder)));
+		// A change after a read is seen by the next read
+		tree.add(info(file2));
+		assertEquals(set(file1, subfolder), asSet(tree.members(folder)));
+		SyncInfo replaced = info(file1);
+		tree.add(replaced);
+		assertSame(replaced, tree.getSyncInfos(file1, IResource.DEPTH_ZERO)[0]);
+		tree.remove(file1);
+		assertEquals(set(subfolder), asSet(tree.members(folder)));
+	}
+}
@@ -0,0 +1,328 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.tests.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Test;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IStorage;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.team.core.TeamException;
+import org.eclipse.team.core.synchronize.SyncInfo;
+import org.eclipse.team.core.synchronize.SyncInfoTree;
+import org.eclipse.team.core.variants.IResourceVariant;
+import org.eclipse.team.core.variants.SessionResourceVariantByteStore;
+import org.eclipse.team.core.variants.ThreeWayRemoteTree;
+import org.eclipse.team.core.variants.ThreeWaySubscriber;
+import org.eclipse.team.core.variants.ThreeWaySynchronizer;
+import org.eclipse.team.internal.core.subscribers.SubscriberSyncInfoCollector;
+import org.eclipse.team.internal.core.subscribers.SubscriberSyncInfoEventHandler;
+
+/**
+ * Tests that a {@link ThreeWaySubscriber} obtains its variants from its trees
+ * and that the collectors obtain the sync info of many resources at once.
+ */
+public class ThreeWaySubscriberTests extends TeamTest {
+
+	/*
+	 * A variant that is identified by its bytes.
+	 */
+	static class TestVariant implements IResourceVariant {
+		private final IResource resource;
+		private final byte[] bytes;
+
+		TestVariant(IResource resource, byte[] bytes) {
+			this.resource = resource;
+			this.bytes = bytes;
+		}
+
+		@Override
+		public String getName() {
+			return resource.getName();
+		}
+
+		@Override
+		public boolean isContainer() {
+			return resource.getType() != IResource.FILE;
+		}
+
+		@Override
+		public IStorage getStorage(IProgressMonitor monitor) throws TeamException {
+			return null;
+		}
+
+		@Override
+		public String getContentIdentifier() {
+			return new String(bytes);
+		}
+
+		@Override
+		public byte[] asBytes() {
+			return bytes;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			return object instanceof TestVariant && Arrays.equals(bytes, ((TestVariant) object).bytes);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(bytes);
+		}
+	}
+
+	/*
+	 * Counts the variants that are obtained from the remote tree.
+	 */
+	static class TestRemoteTree extends ThreeWayRemoteTree {
+		int variantCalls;
+		int variantsCalls;
+
+		TestRemoteTree(ThreeWaySubscriber subscriber) {
+			super(subscriber);
+		}
+
+		@Override
+		public IResourceVariant getResourceVariant(IResource resource) throws TeamException {
+			variantCalls++;
+			return super.getResourceVariant(resource);
+		}
+
+		@Override
+		public IResourceVariant[] getResourceVariants(IResource[] resources) throws TeamException {
+			variantsCalls++;
+			return super.getResourceVariants(resources);
+		}
+
+		@Override
+		protected IResourceVariant[] fetchMembers(IResourceVariant variant, IProgressMonitor progress) throws TeamException {
+			return new IResourceVariant[0];
+		}
+
+		@Override
+		protected IResourceVariant fetchVariant(IResource resource, int depth, IProgressMonitor monitor) throws TeamException {
+			return null;
+		}
+	}
+
+	/*
+	 * Records the number of resources of each bulk lookup.
+	 */
+	static class TestSubscriber extends ThreeWaySubscriber {
+		final IProject root;
+		final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+		TestSubscriber(IProject root) {
+			super(new ThreeWaySynchronizer(new SessionResourceVariantByteStore()));
+			this.root = root;
+		}
+
+		@Override
+		public SyncInfo[] getSyncInfos(IResource[] resources) throws TeamException {
+			batchSizes.add(resources.length);
+			return super.getSyncInfos(resources);
+		}
+
+		@Override
+		public IResourceVariant getResourceVariant(IResource resource, byte[] bytes) throws TeamException {
+			return bytes == null ? null : new TestVariant(resource, bytes);
+		}
+
+		@Override
+		protected ThreeWayRemoteTree createRemoteTree() {
+			return new TestRemoteTree(this);
+		}
+
+		@Override
+		public String getName() {
+			return "ThreeWaySubscriberTests";
+		}
+
+		@Override
+		public IResource[] roots() {
+			return new IResource[] { root };
+		}
+
+		TestRemoteTree getTestRemoteTree() {
+			return (TestRemoteTree) getRemoteTree();
+		}
+
+		int getMaxBatchSize() {
+			int max = 0;
+			synchronized (batchSizes) {
+				for (int size : batchSizes) {
+					max = Math.max(max, size);
+				}
+			}
+			return max;
+		}
+	}
+
+	private IProject project;
+	private IProject other;
+	private TestSubscriber subscriber;
+	private ThreeWaySynchronizer synchronizer;
+
+	public ThreeWaySubscriberTests() {
+		super();
+	}
+
+	public ThreeWaySubscriberTests(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return suite(ThreeWaySubscriberTests.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		project = createProject(new String[] { "in-sync.txt", "incoming.txt", "outgoing.txt", "added.txt", "ignored.txt", "folder/", "folder/a.txt", "folder/b.txt", "folder/c.txt" });
+		other = createProject("other", new String[] { "file.txt" });
+		subscriber = new TestSubscriber(project);
+		synchronizer = subscriber.getSynchronizer();
+		synchronizer.setBaseBytes(project.getFile("in-sync.txt"), "1".getBytes());
+		synchronizer.setBaseBytes(project.getFile("incoming.txt"), "1".getBytes());
+		synchronizer.setRemoteBytes(project.getFile("incoming.txt"), "2".getBytes());
+		synchronizer.setBaseBytes(project.getFile("outgoing.txt"), "1".getBytes());
+		touch(project.getFile("outgoing.txt"));
+		// A deletion that is only known remotely
+		synchronizer.setRemoteBytes(project.getFile("removed.txt"), "1".getBytes());
+		synchronizer.setIgnored(project.getFile("ignored.txt"));
+		synchronizer.setBaseBytes(other.getFile("file.txt"), "1".getBytes());
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		synchronizer.flush(project, IResource.DEPTH_INFINITE);
+		synchronizer.flush(other, IResource.DEPTH_INFINITE);
+		project.delete(true, null);
+		other.delete(true, null);
+		super.tearDown();
+	}
+
+	private void touch(IFile file) throws CoreException {
+		file.setContents(getRandomContents(10), true, false, null);
+	}
+
+	private IResource[] getResources() {
+		return new IResource[] { project, project.getFile("in-sync.txt"), project.getFile("incoming.txt"), project.getFile("outgoing.txt"),
+				project.getFile("added.txt"), project.getFile("removed.txt"), project.getFile("ignored.txt"), project.getFolder("folder"),
+				project.getFile("folder/a.txt"), other.getFile("file.txt") };
+	}
+
+	private static void assertSameSyncInfo(String message, SyncInfo expected, SyncInfo actual) {
+		if (expected == null) {
+			assertNull(message, actual);
+			return;
+		}
+		assertNotNull(message, actual);
+		assertEquals(message, expected.getLocal(), actual.getLocal());
+		assertEquals(message, expected.getKind(), actual.getKind());
+		assertEquals(message, expected.getBase(), actual.getBase());
+		assertEquals(message, expected.getRemote(), actual.getRemote());
+	}
+
+	public void testSyncInfoUsesTheTrees() throws TeamException {
+		IFile incoming = project.getFile("incoming.txt");
+		SyncInfo info = subscriber.getSyncInfo(incoming);
+		assertEquals(1, subscriber.getTestRemoteTree().variantCalls);
+		assertEquals(SyncInfo.INCOMING | SyncInfo.CHANGE, info.getKind());
+		assertEquals(new TestVariant(incoming, "1".getBytes()), info.getBase());
+		assertEquals(new TestVariant(incoming, "2".getBytes()), info.getRemote());
+		subscriber.getSyncInfos(new IResource[] { incoming, project.getFile("in-sync.txt") });
+		assertEquals(1, subscriber.getTestRemoteTree().variantsCalls);
+	}
+
+	public void testSyncInfosMatchSyncInfo() throws TeamException {
+		IResource[] resources = getResources();
+		SyncInfo[] infos = subscriber.getSyncInfos(resources);
+		assertEquals(resources.length, infos.length);
+		for (int i = 0; i < resources.length; i++) {
+			assertSameSyncInfo(resources[i].getFullPath().toString(), subscriber.getSyncInfo(resources[i]), infos[i]);
+		}
+		// Unsupervised resources have no sync info
+		assertNull(infos[6]);
+		assertNull(infos[9]);
+		assertEquals(SyncInfo.OUTGOING | SyncInfo.CHANGE, infos[3].getKind());
+		assertEquals(SyncInfo.INCOMING | SyncInfo.ADDITION, infos[5].getKind());
+	}
+
+	public void testCollectorObtainsMembersAtOnce() {
+		SubscriberSyncInfoCollector collector = new SubscriberSyncInfoCollector(subscriber, subscriber.roots());
+		try {
+			collector.start();
+			collector.waitForCollector(new NullProgressMonitor());
+			SyncInfoTree set = collector.getSyncInfoSet();
+			assertNotNull(set.getSyncInfo(project.getFile("incoming.txt")));
+			assertNotNull(set.getSyncInfo(project.getFile("outgoing.txt")));
+			assertNotNull(set.getSyncInfo(project.getFile("removed.txt")));
+			assertNotNull(set.getSyncInfo(project.getFile("folder/a.txt")));
+			assertNull(set.getSyncInfo(project.getFile("in-sync.txt")));
+			assertNull(set.getSyncInfo(project.getFile("ignored.txt")));
+			// The files of the project are looked up together
+			assertTrue(subscriber.batchSizes.toString(), subscriber.getMaxBatchSize() >= 5);
+		} finally {
+			collector.dispose();
+		}
+	}
+
+	public void testQueuedChangesAreObtainedAtOnce() throws InterruptedException, TeamException {
+		SubscriberSyncInfoEventHandler handler = new SubscriberSyncInfoEventHandler(subscriber, subscriber.roots());
+		try {
+			handler.start();
+			CountDownLatch started = new CountDownLatch(1);
+			CountDownLatch released = new CountDownLatch(1);
+			handler.run(monitor -> {
+				started.countDown();
+				try {
+					released.await();
+				} catch (InterruptedException e) {
+					// continue
+				}
+			}, false);
+			assertTrue(started.await(10, TimeUnit.SECONDS));
+			subscriber.batchSizes.clear();
+			// The changes that a refresh reports for the files of the folder
+			IResource[] files = new IResource[] { project.getFile("folder/a.txt"), project.getFile("folder/b.txt"), project.getFile("folder/c.txt") };
+			for (IResource file : files) {
+				synchronizer.setRemoteBytes(file, "2".getBytes());
+				handler.change(file, IResource.DEPTH_ZERO);
+			}
+			released.countDown();
+			handler.getEventHandlerJob().join();
+			assertEquals(subscriber.batchSizes.toString(), 3, subscriber.getMaxBatchSize());
+			for (IResource file : files) {
+				SyncInfo info = handler.getSyncSetInput().getSyncSet().getSyncInfo(file);
+				assertNotNull(file.getFullPath().toString(), info);
+				assertEquals(new TestVariant(file, "2".getBytes()), info.getRemote());
+			}
+		} finally {
+			handler.shutdown();
+		}
+	}
+}
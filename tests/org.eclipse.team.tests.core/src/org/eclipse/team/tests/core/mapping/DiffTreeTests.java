@@ -0,0 +1,388 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.tests.core.mapping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.team.core.diff.FastDiffFilter;
+import org.eclipse.team.core.diff.IDiff;
+import org.eclipse.team.core.diff.IDiffChangeEvent;
+import org.eclipse.team.core.diff.IDiffChangeListener;
+import org.eclipse.team.core.diff.IDiffTree;
+import org.eclipse.team.core.diff.IThreeWayDiff;
+import org.eclipse.team.core.diff.provider.Diff;
+import org.eclipse.team.core.diff.provider.DiffTree;
+import org.eclipse.team.core.diff.provider.ThreeWayDiff;
+import org.eclipse.team.core.diff.provider.TwoWayDiff;
+
+/**
+ * Tests that the counts of a {@link DiffTree} match its diffs and that
+ * threads other than the writer read the state of the last completed change.
+ */
+public class DiffTreeTests extends TestCase {
+
+	private static final int[] KINDS = new int[] { IDiff.ADD, IDiff.REMOVE, IDiff.CHANGE };
+
+	// Pairs of a state and a mask as passed to countFor
+	private static final int[][] QUERIES = new int[][] {
+		{ 0, 0 },
+		{ IDiff.ADD, Diff.KIND_MASK },
+		{ IDiff.CHANGE, Diff.KIND_MASK },
+		{ IThreeWayDiff.OUTGOING, IThreeWayDiff.DIRECTION_MASK },
+		{ IThreeWayDiff.CONFLICTING, IThreeWayDiff.DIRECTION_MASK },
+		{ IThreeWayDiff.INCOMING | IDiff.CHANGE, IThreeWayDiff.DIRECTION_MASK | Diff.KIND_MASK },
+		{ IThreeWayDiff.OUTGOING | IDiff.ADD, 0 },
+	};
+
+	public DiffTreeTests(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return new TestSuite(DiffTreeTests.class);
+	}
+
+	static IDiff createDiff(IPath path, Random random) {
+		int kind = KINDS[random.nextInt(KINDS.length)];
+		switch (random.nextInt(3)) {
+		case 0:
+			return new ThreeWayDiff(new TwoWayDiff(path, kind, 0), null);
+		case 1:
+			return new ThreeWayDiff(null, new TwoWayDiff(path, kind, 0));
+		default:
+			return new ThreeWayDiff(new TwoWayDiff(path, kind, 0), new TwoWayDiff(path, KINDS[random.nextInt(KINDS.length)], 0));
+		}
+	}
+
+	private static boolean matches(IDiff diff, int state, int mask) {
+		int diffState = diff.getKind() | ((IThreeWayDiff) diff).getDirection();
+		if (state == 0)
+			return true;
+		return mask == 0 ? diffState == state : (diffState & mask) == state;
+	}
+
+	/*
+	 * Count the matching diffs at or below the given path by visiting all diffs.
+	 */
+	private static long countByVisiting(IDiff[] diffs, IPath path, int state, int mask) {
+		long count = 0;
+		for (IDiff diff : diffs) {
+			if (path.isPrefixOf(diff.getPath()) && matches(diff, state, mask))
+				count++;
+		}
+		return count;
+	}
+
+	private static boolean hasMatchByVisiting(IDiff[] diffs, IPath path, FastDiffFilter filter) {
+		for (IDiff diff : diffs) {
+			if (path.isPrefixOf(diff.getPath()) && filter.select(diff))
+				return true;
+		}
+		return false;
+	}
+
+	private static void assertCounts(String message, List<IPath> paths, DiffTree tree) {
+		IDiff[] diffs = tree.getDiffs();
+		for (int[] query : QUERIES) {
+			assertEquals(message, countByVisiting(diffs, Path.ROOT, query[0], query[1]), tree.countFor(query[0], query[1]));
+		}
+		FastDiffFilter outgoingOrConflicting = FastDiffFilter.getStateFilter(new int[] { IThreeWayDiff.OUTGOING, IThreeWayDiff.CONFLICTING }, IThreeWayDiff.DIRECTION_MASK);
+		FastDiffFilter incomingAdd = FastDiffFilter.getStateFilter(new int[] { IThreeWayDiff.INCOMING | IDiff.ADD }, IThreeWayDiff.DIRECTION_MASK | Diff.KIND_MASK);
+		for (IPath path : paths) {
+			for (int[] query : QUERIES) {
+				assertEquals(message + " " + path, countByVisiting(diffs, path, query[0], query[1]), tree.countFor(path, query[0], query[1]));
+			}
+			assertEquals(message + " " + path, hasMatchByVisiting(diffs, path, outgoingOrConflicting), tree.hasMatchingDiffs(path, outgoingOrConflicting));
+			assertEquals(message + " " + path, hasMatchByVisiting(diffs, path, incomingAdd), tree.hasMatchingDiffs(path, incomingAdd));
+		}
+	}
+
+	public void testCountsMatchDiffs() {
+		List<IPath> paths = PathTreeTests.createPaths(3, 3);
+		// Diffs are not added at the path without segments
+		List<IPath> diffPaths = paths.subList(1, paths.size());
+		for (long seed = 0; seed < 10; seed++) {
+			Random random = new Random(seed);
+			DiffTree tree = new DiffTree();
+			for (int step = 0; step < 200; step++) {
+				IPath path = diffPaths.get(random.nextInt(diffPaths.size()));
+				int operation = random.nextInt(100);
+				if (operation < 60) {
+					// Replacing a diff may change its state
+					tree.add(createDiff(path, random));
+				} else if (operation < 99) {
+					tree.remove(path);
+				} else {
+					tree.clear();
+				}
+				assertCounts("seed " + seed + " step " + step, paths, tree);
+			}
+		}
+	}
+
+	public void testCountsAreReadFromTheSnapshot() throws InterruptedException {
+		final DiffTree tree = new DiffTree();
+		Random random = new Random(1);
+		final IPath folder = new Path("/p/f");
+		tree.add(createDiff(folder.append("a"), random));
+		tree.add(createDiff(folder.append("b"), random));
+		final long[] counts = new long[3];
+		Thread reader = new Thread(() -> {
+			counts[0] = tree.countFor(0, 0);
+			counts[1] = tree.countFor(folder, 0, 0);
+			counts[2] = tree.getDiffs().length;
+		});
+		try {
+			tree.beginInput();
+			tree.add(createDiff(folder.append("c"), random));
+			tree.remove(folder.append("a"));
+			tree.add(createDiff(folder.append("d"), random));
+			// The writer reads its own changes
+			assertEquals(3, tree.countFor(0, 0));
+			assertEquals(3, tree.countFor(folder, 0, 0));
+			// Other threads read the diffs and counts of the last completed change
+			reader.start();
+			reader.join();
+			assertEquals(2, counts[0]);
+			assertEquals(2, counts[1]);
+			assertEquals(2, counts[2]);
+		} finally {
+			tree.endInput(null);
+		}
+		assertEquals(3, tree.countFor(folder, 0, 0));
+	}
+
+	private static boolean isConflict(IDiff diff) {
+		return ((IThreeWayDiff) diff).getDirection() == IThreeWayDiff.CONFLICTING;
+	}
+
+	/*
+	 * Apply the changes that the diff tree makes when a diff is added or removed
+	 * to the tree that the diff tree used before it read from snapshots.
+	 */
+	private static void add(HashMapPathTree reference, IDiff diff) {
+		reference.put(diff.getPath(), diff);
+		reference.setPropogatedProperty(diff.getPath(), IDiffTree.P_HAS_DESCENDANT_CONFLICTS, isConflict(diff));
+	}
+
+	private static void remove(HashMapPathTree reference, IPath path) {
+		if (reference.get(path) != null) {
+			reference.setPropogatedProperty(path, IDiffTree.P_HAS_DESCENDANT_CONFLICTS, false);
+			reference.remove(path);
+		}
+	}
+
+	/*
+	 * Assert that the diff tree, as read by the calling thread, has the state of the reference.
+	 */
+	private static void assertSameState(String message, List<IPath> paths, HashMapPathTree expected, DiffTree actual) {
+		assertEquals(message, expected.size(), actual.size());
+		assertEquals(message, expected.isEmpty(), actual.isEmpty());
+		assertEquals(message, new HashSet<>(Arrays.asList(expected.getPaths())), new HashSet<>(Arrays.asList(actual.getPaths())));
+		for (IPath path : paths) {
+			assertEquals(message + " " + path, expected.get(path), actual.getDiff(path));
+			assertEquals(message + " " + path, new HashSet<>(Arrays.asList(expected.getChildren(path))), new HashSet<>(Arrays.asList(actual.getChildren(path))));
+			assertEquals(message + " " + path, expected.getProperty(path, IDiffTree.P_HAS_DESCENDANT_CONFLICTS), actual.getProperty(path, IDiffTree.P_HAS_DESCENDANT_CONFLICTS));
+		}
+	}
+
+	/*
+	 * Assert the state of the diff tree as read by a thread that doesn't modify it.
+	 */
+	private static void assertSameStateInReader(final String message, final List<IPath> paths, final HashMapPathTree expected, final DiffTree actual) throws InterruptedException {
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		Thread reader = new Thread(() -> {
+			try {
+				assertSameState(message, paths, expected, actual);
+			} catch (Throwable e) {
+				failure.set(e);
+			}
+		});
+		reader.start();
+		reader.join();
+		if (failure.get() instanceof Error)
+			throw (Error) failure.get();
+		if (failure.get() != null)
+			throw new RuntimeException(failure.get());
+	}
+
+	public void testSnapshotsAgainstHashMapPathTree() throws InterruptedException {
+		List<IPath> paths = PathTreeTests.createPaths(3, 3);
+		List<IPath> diffPaths = paths.subList(1, paths.size());
+		for (long seed = 0; seed < 5; seed++) {
+			Random random = new Random(seed);
+			DiffTree tree = new DiffTree();
+			HashMapPathTree reference = new HashMapPathTree();
+			// The reference state before the current batch
+			HashMapPathTree before = new HashMapPathTree();
+			for (int batch = 0; batch < 30; batch++) {
+				String message = "seed " + seed + " batch " + batch;
+				// The added diffs and the removed paths of the batch
+				List<Object> changes = new ArrayList<>();
+				try {
+					tree.beginInput();
+					for (int step = random.nextInt(10); step >= 0; step--) {
+						IPath path = diffPaths.get(random.nextInt(diffPaths.size()));
+						if (random.nextInt(3) < 2) {
+							IDiff diff = createDiff(path, random);
+							tree.add(diff);
+							add(reference, diff);
+							changes.add(diff);
+						} else {
+							tree.remove(path);
+							remove(reference, path);
+							changes.add(path);
+						}
+					}
+					// The writer reads its changes, other threads the state before the batch
+					assertSameState(message, paths, reference, tree);
+					assertSameStateInReader(message, paths, before, tree);
+				} finally {
+					tree.endInput(null);
+				}
+				assertSameStateInReader(message, paths, reference, tree);
+				for (Object change : changes) {
+					if (change instanceof IDiff)
+						add(before, (IDiff) change);
+					else
+						remove(before, (IPath) change);
+				}
+			}
+		}
+	}
+
+	public void testConcurrentReadersAndWriter() throws InterruptedException {
+		final DiffTree tree = new DiffTree();
+		final IPath folder = new Path("/p/f");
+		final AtomicBoolean done = new AtomicBoolean();
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		// The writer adds and removes the diffs in pairs, so readers always see an even number
+		Thread writer = new Thread(() -> {
+			Random random = new Random(5);
+			try {
+				for (int batch = 0; batch < 2000 && failure.get() == null; batch++) {
+					try {
+						tree.beginInput();
+						IPath path = folder.append("d" + random.nextInt(50));
+						if (tree.getDiff(path.append("a")) == null) {
+							tree.add(createDiff(path.append("a"), random));
+							tree.add(createDiff(path.append("b"), random));
+						} else {
+							tree.remove(path.append("a"));
+							tree.remove(path.append("b"));
+						}
+					} finally {
+						tree.endInput(null);
+					}
+				}
+			} catch (Throwable e) {
+				failure.compareAndSet(null, e);
+			} finally {
+				done.set(true);
+			}
+		});
+		List<Thread> readers = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			readers.add(new Thread(() -> {
+				try {
+					while (!done.get() && failure.get() == null) {
+						assertEquals(0, tree.getDiffs().length % 2);
+						assertEquals(0, tree.getPaths().length % 2);
+						assertEquals(0, tree.countFor(0, 0) % 2);
+						assertEquals(0, tree.countFor(folder, 0, 0) % 2);
+						final int[] visited = new int[1];
+						tree.accept(folder, diff -> {
+							visited[0]++;
+							return true;
+						}, IResource.DEPTH_INFINITE);
+						assertEquals(0, visited[0] % 2);
+					}
+				} catch (Throwable e) {
+					failure.compareAndSet(null, e);
+				}
+			}));
+		}
+		writer.start();
+		for (Thread reader : readers) {
+			reader.start();
+		}
+		writer.join();
+		for (Thread reader : readers) {
+			reader.join();
+		}
+		if (failure.get() instanceof Error)
+			throw (Error) failure.get();
+		if (failure.get() != null)
+			throw new RuntimeException(failure.get());
+	}
+
+	public void testBusyFolderWithoutDiff() {
+		DiffTree tree = new DiffTree();
+		Random random = new Random(2);
+		IPath project = new Path("/p");
+		IPath folder = project.append("f");
+		IPath other = project.append("g");
+		IDiff a = createDiff(folder.append("a"), random);
+		IDiff b = createDiff(folder.append("b"), random);
+		IDiff c = createDiff(other.append("c"), random);
+		tree.add(a);
+		tree.add(b);
+		tree.add(c);
+		final Set<IPath> changed = new HashSet<>();
+		tree.addDiffChangeListener(new IDiffChangeListener() {
+			@Override
+			public void diffsChanged(IDiffChangeEvent event, IProgressMonitor monitor) {
+				// Not used
+			}
+
+			@Override
+			public void propertyChanged(IDiffTree tree, int property, IPath[] paths) {
+				if (property == IDiffTree.P_BUSY_HINT)
+					changed.addAll(Arrays.asList(paths));
+			}
+		});
+		// The folder has no diff of its own
+		tree.setBusy(new IDiff[] { createDiff(folder, random), c }, null);
+		assertNull(tree.getDiff(folder));
+		for (IPath path : new IPath[] { project, folder, a.getPath(), b.getPath(), other, c.getPath() }) {
+			assertTrue(path.toString(), tree.getProperty(path, IDiffTree.P_BUSY_HINT));
+		}
+		// Unsetting a sibling leaves the ancestors of the busy folder busy
+		tree.setPropertyToRoot(c, IDiffTree.P_BUSY_HINT, false);
+		assertTrue(tree.getProperty(project, IDiffTree.P_BUSY_HINT));
+		assertTrue(tree.getProperty(folder, IDiffTree.P_BUSY_HINT));
+		assertFalse(tree.getProperty(other, IDiffTree.P_BUSY_HINT));
+		changed.clear();
+		tree.clearBusy(null);
+		for (IPath path : new IPath[] { project, folder, a.getPath(), b.getPath(), other, c.getPath() }) {
+			assertFalse(path.toString(), tree.getProperty(path, IDiffTree.P_BUSY_HINT));
+		}
+		assertEquals(new HashSet<>(Arrays.asList(project, folder, a.getPath(), b.getPath())), changed);
+	}
+}
@@ -0,0 +1,288 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.tests.core.mapping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.function.ToIntFunction;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.team.internal.core.mapping.PathTree;
+
+/**
+ * Compares {@link PathTree} with {@link HashMapPathTree}, the implementation
+ * it replaced, over random sequences of changes.
+ */
+public class PathTreeTests extends TestCase {
+
+	private static final int[] PROPERTIES = new int[] { 1, 2, 4 };
+
+	// The state of the values "v0" to "v4" is their digit
+	private static final ToIntFunction<Object> STATE = value -> ((String) value).charAt(1) - '0';
+
+	private static final IntPredicate[] STATE_FILTERS = new IntPredicate[] { s -> s == 0, s -> s == 3, s -> s < 2, s -> true };
+
+	public PathTreeTests(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return new TestSuite(PathTreeTests.class);
+	}
+
+	/*
+	 * All paths up to the given depth with the given number of segment names per level,
+	 * including the root.
+	 */
+	static List<IPath> createPaths(int depth, int width) {
+		List<IPath> paths = new ArrayList<>();
+		paths.add(Path.ROOT);
+		List<IPath> level = Arrays.asList((IPath) Path.ROOT);
+		for (int d = 0; d < depth; d++) {
+			List<IPath> next = new ArrayList<>();
+			for (IPath parent : level) {
+				for (int w = 0; w < width; w++) {
+					next.add(parent.append("s" + w));
+				}
+			}
+			paths.addAll(next);
+			level = next;
+		}
+		return paths;
+	}
+
+	private static Set<IPath> asSet(IPath[] paths) {
+		Set<IPath> set = new HashSet<>(Arrays.asList(paths));
+		assertEquals("duplicate paths", paths.length, set.size());
+		return set;
+	}
+
+	private static Map<Object, Integer> asMultiset(Collection<?> values) {
+		Map<Object, Integer> counts = new HashMap<>();
+		for (Object value : values) {
+			counts.merge(value, 1, Integer::sum);
+		}
+		return counts;
+	}
+
+	private static void assertSameState(List<IPath> paths, HashMapPathTree expected, PathTree actual) {
+		assertEquals(expected.size(), actual.size());
+		assertEquals(expected.isEmpty(), actual.isEmpty());
+		assertEquals(asSet(expected.getPaths()), asSet(actual.getPaths()));
+		assertEquals(asMultiset(expected.values()), asMultiset(actual.values()));
+		for (IPath path : paths) {
+			assertEquals(path.toString(), expected.get(path), actual.get(path));
+			assertEquals(path.toString(), expected.hasChildren(path), actual.hasChildren(path));
+			assertEquals(path.toString(), asSet(expected.getChildren(path)), asSet(actual.getChildren(path)));
+			for (int property : PROPERTIES) {
+				assertEquals(path + " " + property, expected.getProperty(path, property), actual.getProperty(path, property));
+			}
+			// values(IPath) has no counterpart in the old tree, derive it from the paths
+			List<Object> values = new ArrayList<>();
+			for (IPath p : expected.getPaths()) {
+				if (path.isPrefixOf(p))
+					values.add(expected.get(p));
+			}
+			assertEquals(path.toString(), asMultiset(values), asMultiset(actual.values(path)));
+		}
+	}
+
+	public void testDifferentialAgainstHashMapPathTree() {
+		List<IPath> paths = createPaths(4, 3);
+		for (long seed = 0; seed < 20; seed++) {
+			Random random = new Random(seed);
+			HashMapPathTree expected = new HashMapPathTree();
+			PathTree actual = new PathTree();
+			for (int step = 0; step < 500; step++) {
+				IPath path = paths.get(random.nextInt(paths.size()));
+				String message = "seed " + seed + " step " + step + " " + path;
+				int operation = random.nextInt(100);
+				if (operation < 40) {
+					Object value = "v" + random.nextInt(5);
+					assertEquals(message, expected.put(path, value), actual.put(path, value));
+				} else if (operation < 65) {
+					assertEquals(message, expected.remove(path), actual.remove(path));
+				} else if (operation < 99) {
+					int property = PROPERTIES[random.nextInt(PROPERTIES.length)];
+					boolean value = random.nextBoolean();
+					assertEquals(message, asSet(expected.setPropogatedProperty(path, property, value)),
+							asSet(actual.setPropogatedProperty(path, property, value)));
+				} else {
+					expected.clear();
+					actual.clear();
+				}
+				assertSameState(paths, expected, actual);
+			}
+		}
+	}
+
+	public void testSnapshotIsNotAffectedByChanges() {
+		List<IPath> paths = createPaths(3, 3);
+		Random random = new Random(7);
+		HashMapPathTree expected = new HashMapPathTree();
+		PathTree actual = new PathTree();
+		for (int step = 0; step < 200; step++) {
+			IPath path = paths.get(random.nextInt(paths.size()));
+			Object value = "v" + step;
+			expected.put(path, value);
+			actual.put(path, value);
+			expected.setPropogatedProperty(path, 1, true);
+			actual.setPropogatedProperty(path, 1, true);
+		}
+		// remember the state of the snapshot in a copy of the reference tree
+		HashMapPathTree copy = new HashMapPathTree();
+		for (IPath path : expected.getPaths()) {
+			copy.put(path, expected.get(path));
+			copy.setPropogatedProperty(path, 1, true);
+		}
+		PathTree snapshot = actual.snapshot();
+		for (int step = 0; step < 200; step++) {
+			IPath path = paths.get(random.nextInt(paths.size()));
+			if (random.nextBoolean()) {
+				expected.remove(path);
+				actual.remove(path);
+			} else {
+				expected.put(path, "w" + step);
+				actual.put(path, "w" + step);
+			}
+			expected.setPropogatedProperty(path, 1, false);
+			actual.setPropogatedProperty(path, 1, false);
+			assertSameState(paths, expected, actual);
+		}
+		assertSameState(paths, copy, snapshot);
+	}
+
+	/*
+	 * Return the counts of the given tree for the given paths and the state filters,
+	 * counting the values in the subtree of each path.
+	 */
+	private static List<Integer> countByVisiting(List<IPath> paths, PathTree tree) {
+		List<Integer> counts = new ArrayList<>();
+		for (IPath path : paths) {
+			for (IntPredicate filter : STATE_FILTERS) {
+				int count = 0;
+				for (Object value : tree.values(path)) {
+					if (filter.test(STATE.applyAsInt(value)))
+						count++;
+				}
+				counts.add(count);
+			}
+		}
+		return counts;
+	}
+
+	private static List<Integer> count(List<IPath> paths, PathTree tree) {
+		List<Integer> counts = new ArrayList<>();
+		for (IPath path : paths) {
+			for (IntPredicate filter : STATE_FILTERS) {
+				counts.add(tree.count(path, filter));
+			}
+		}
+		return counts;
+	}
+
+	public void testStateCounts() {
+		List<IPath> paths = createPaths(3, 3);
+		Random random = new Random(3);
+		PathTree tree = new PathTree(STATE);
+		List<PathTree> snapshots = new ArrayList<>();
+		List<List<Integer>> snapshotCounts = new ArrayList<>();
+		for (int step = 0; step < 1000; step++) {
+			IPath path = paths.get(random.nextInt(paths.size()));
+			int operation = random.nextInt(100);
+			if (operation < 50) {
+				// Replacing a value may change its state
+				tree.put(path, "v" + random.nextInt(5));
+			} else if (operation < 80) {
+				tree.remove(path);
+			} else if (operation < 99) {
+				tree.setPropogatedProperty(path, 1, random.nextBoolean());
+			} else {
+				tree.clear();
+			}
+			List<Integer> expected = countByVisiting(paths, tree);
+			assertEquals("step " + step, expected, count(paths, tree));
+			assertEquals("step " + step, tree.size(), tree.count(s -> true));
+			if (step % 50 == 0) {
+				snapshots.add(tree.snapshot());
+				snapshotCounts.add(expected);
+			}
+		}
+		// The snapshots count the values they contain
+		for (int i = 0; i < snapshots.size(); i++) {
+			assertEquals(snapshotCounts.get(i), count(paths, snapshots.get(i)));
+		}
+	}
+
+	public void testTreeWithoutStatesCannotCount() {
+		try {
+			new PathTree().count(s -> true);
+			fail("Expected an IllegalStateException");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	public void testClearPropertyAgainstOldLoop() {
+		List<IPath> paths = createPaths(3, 3);
+		for (long seed = 0; seed < 20; seed++) {
+			Random random = new Random(seed);
+			HashMapPathTree expected = new HashMapPathTree();
+			PathTree actual = new PathTree();
+			for (int step = 0; step < 200; step++) {
+				IPath path = paths.get(random.nextInt(paths.size()));
+				if (random.nextInt(3) < 2) {
+					expected.put(path, "v");
+					actual.put(path, "v");
+				} else if (expected.get(path) != null) {
+					// DiffTree unsets the property of a diff before removing it
+					expected.setPropogatedProperty(path, 1, false);
+					actual.setPropogatedProperty(path, 1, false);
+					expected.remove(path);
+					actual.remove(path);
+				}
+				// Properties are only set on paths with objects, as DiffTree does
+				IPath[] withObjects = expected.getPaths();
+				if (withObjects.length > 0) {
+					IPath flagged = withObjects[random.nextInt(withObjects.length)];
+					boolean value = random.nextInt(3) < 2;
+					expected.setPropogatedProperty(flagged, 1, value);
+					actual.setPropogatedProperty(flagged, 1, value);
+				}
+				if (step % 20 == 19) {
+					// The loop that DiffTree.clearBusy used before
+					Set<IPath> expectedChanged = new HashSet<>();
+					for (IPath p : expected.getPaths()) {
+						expectedChanged.addAll(Arrays.asList(expected.setPropogatedProperty(p, 1, false)));
+					}
+					assertEquals("seed " + seed + " step " + step, expectedChanged, asSet(actual.clearPropogatedProperty(1)));
+				}
+				assertSameState(paths, expected, actual);
+			}
+		}
+	}
+}
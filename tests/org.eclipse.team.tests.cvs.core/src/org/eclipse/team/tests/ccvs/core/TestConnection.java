@@ -14,11 +14,14 @@
 package org.eclipse.team.tests.ccvs.core;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.team.internal.ccvs.core.ICVSRepositoryLocation;
@@ -36,6 +39,10 @@ public class TestConnection implements IServerConnection {
 	
 	public static List<String> previousLines;
 	public static StringBuffer currentLine;
+	// All the bytes sent over the connection, including binary file contents
+	public static ByteArrayOutputStream sentBytes;
+	// The responses to give to the requests with the given name, in the order they are sent
+	public static Map<String, List<String>> responses = new HashMap<>();
 	
 	private ByteArrayInputStream serverResponse;
 	
@@ -65,6 +72,7 @@ public class TestConnection implements IServerConnection {
 	private void resetStreams() {
 		currentLine = new StringBuffer();
 		previousLines = new ArrayList<>();
+		sentBytes = new ByteArrayOutputStream();
 	}
 	
 	@Override
@@ -88,6 +96,7 @@ public class TestConnection implements IServerConnection {
 			@Override
 			public void write(int output) throws IOException {
 				byte b = (byte)output;
+				sentBytes.write(b);
 				if (b == '\n') {
 					String sentLine = currentLine.toString();
 					previousLines.add(sentLine);
@@ -106,7 +115,35 @@ public class TestConnection implements IServerConnection {
 	protected void respondToSentLine(String sentLine) {
 		if (sentLine.equals("valid-requests")) {
 			serverResponse = new ByteArrayInputStream((VALID_SERVER_REQUESTS + "\nok\n").getBytes());
+		} else {
+			List<String> requestResponses = responses.get(sentLine);
+			if (requestResponses != null && !requestResponses.isEmpty()) {
+				appendResponse(requestResponses.remove(0));
+			}
+		}
+	}
+
+	/*
+	 * Queue the response after those that were not read yet, since the
+	 * requests may be sent before the responses to the previous ones are read.
+	 */
+	private void appendResponse(String response) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		if (serverResponse != null) {
+			byte[] unread = new byte[serverResponse.available()];
+			serverResponse.read(unread, 0, unread.length);
+			bytes.write(unread, 0, unread.length);
 		}
+		byte[] responseBytes = response.getBytes();
+		bytes.write(responseBytes, 0, responseBytes.length);
+		serverResponse = new ByteArrayInputStream(bytes.toByteArray());
+	}
+
+	/**
+	 * Return the number of bytes of the responses that were not read.
+	 */
+	public int getUnreadResponseLength() {
+		return serverResponse == null ? 0 : serverResponse.available();
 	}
 
 }
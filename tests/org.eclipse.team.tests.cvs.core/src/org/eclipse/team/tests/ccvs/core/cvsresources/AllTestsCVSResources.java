@@ -23,6 +23,9 @@ public class AllTestsCVSResources extends EclipseTest {
 		suite.addTest(EclipseSynchronizerTest.suite());
 		suite.addTest(EclipseFolderTest.suite());
 		suite.addTest(ResourceSyncBytesTest.suite());
+		suite.addTest(SendFileTest.suite());
+		suite.addTest(ConnectionCompressionTest.suite());
+		suite.addTest(RemoteFolderTreeBuilderTest.suite());
 		suite.addTest(CVSURITest.suite());
 		return suite; 	
 	}	
@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.tests.ccvs.core.cvsresources;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.team.internal.ccvs.core.CVSException;
+import org.eclipse.team.internal.ccvs.core.ICVSRepositoryLocation;
+import org.eclipse.team.internal.ccvs.core.IServerConnection;
+import org.eclipse.team.internal.ccvs.core.connection.Connection;
+import org.eclipse.team.internal.ccvs.core.util.KnownRepositories;
+import org.eclipse.team.tests.ccvs.core.CVSTestSetup;
+import org.eclipse.team.tests.ccvs.core.EclipseTest;
+
+/**
+ * Tests that the requests and responses of a connection compressed with
+ * <code>Gzip-stream</code> round-trip through a zlib stream, and that
+ * a response is read without waiting for more than the server flushed.
+ */
+public class ConnectionCompressionTest extends EclipseTest {
+
+	/*
+	 * A server connection that records the bytes sent and answers with the
+	 * bytes given to it. Reading more than was given fails instead of blocking.
+	 */
+	static class ServerConnection implements IServerConnection {
+		final ByteArrayOutputStream sent = new ByteArrayOutputStream();
+		byte[] response = new byte[0];
+		int responsePosition;
+
+		void respond(byte[] bytes) {
+			// The end of the previous response may not have been needed yet
+			byte[] next = new byte[response.length - responsePosition + bytes.length];
+			System.arraycopy(response, responsePosition, next, 0, response.length - responsePosition);
+			System.arraycopy(bytes, 0, next, response.length - responsePosition, bytes.length);
+			response = next;
+			responsePosition = 0;
+		}
+
+		@Override
+		public void open(IProgressMonitor monitor) {
+			// nothing to open
+		}
+
+		@Override
+		public void close() {
+			// nothing to close
+		}
+
+		@Override
+		public InputStream getInputStream() {
+			return new InputStream() {
+				@Override
+				public int read() throws IOException {
+					byte[] b = new byte[1];
+					return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+				}
+
+				@Override
+				public int read(byte[] b, int off, int len) throws IOException {
+					if (responsePosition == response.length)
+						throw new IOException("Read past the response");
+					int count = Math.min(len, response.length - responsePosition);
+					System.arraycopy(response, responsePosition, b, off, count);
+					responsePosition += count;
+					return count;
+				}
+			};
+		}
+
+		@Override
+		public OutputStream getOutputStream() {
+			return sent;
+		}
+	}
+
+	private ServerConnection server;
+	private Connection connection;
+
+	public ConnectionCompressionTest() {
+		super();
+	}
+
+	public ConnectionCompressionTest(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		TestSuite suite = new TestSuite(ConnectionCompressionTest.class);
+		return new CVSTestSetup(suite);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		ICVSRepositoryLocation location = KnownRepositories.getInstance().getRepository(":test:user:password@host:/path");
+		server = new ServerConnection();
+		connection = new Connection(location, server);
+		connection.open(DEFAULT_MONITOR);
+		connection.enableCompression(6);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		connection.close();
+		super.tearDown();
+	}
+
+	private static List<String> createLines(Random random, int count) {
+		List<String> lines = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			// Some lines are larger than the buffers of the streams
+			int length = random.nextInt(10) == 0 ? random.nextInt(20000) : random.nextInt(80);
+			StringBuilder line = new StringBuilder(length);
+			for (int j = 0; j < length; j++) {
+				line.append((char) (' ' + random.nextInt(95)));
+			}
+			lines.add(line.toString());
+		}
+		return lines;
+	}
+
+	public void testRequestsRoundTrip() throws CVSException, DataFormatException {
+		Random random = new Random(3);
+		Inflater inflater = new Inflater();
+		StringBuilder expected = new StringBuilder();
+		int inflated = 0;
+		byte[] buffer = new byte[8192];
+		StringBuilder actual = new StringBuilder();
+		for (int flush = 0; flush < 20; flush++) {
+			for (String line : createLines(random, random.nextInt(20))) {
+				connection.writeLine(line);
+				expected.append(line).append('\n');
+			}
+			connection.flush();
+			// Everything written before the flush can be decompressed
+			byte[] sent = server.sent.toByteArray();
+			inflater.setInput(sent, inflated, sent.length - inflated);
+			inflated = sent.length;
+			for (int count; (count = inflater.inflate(buffer)) > 0;) {
+				actual.append(new String(buffer, 0, count, StandardCharsets.ISO_8859_1));
+			}
+			assertEquals("flush " + flush, expected.toString(), actual.toString());
+		}
+		inflater.end();
+	}
+
+	public void testResponsesRoundTrip() throws CVSException, IOException {
+		Random random = new Random(5);
+		Deflater deflater = new Deflater(6);
+		byte[] buffer = new byte[8192];
+		for (int flush = 0; flush < 20; flush++) {
+			List<String> lines = createLines(random, 1 + random.nextInt(20));
+			StringBuilder text = new StringBuilder();
+			for (String line : lines) {
+				text.append(line).append('\n');
+			}
+			// The server flushes each response with a sync flush
+			deflater.setInput(text.toString().getBytes(StandardCharsets.ISO_8859_1));
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+			int count;
+			do {
+				count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+				compressed.write(buffer, 0, count);
+			} while (count == buffer.length);
+			server.respond(compressed.toByteArray());
+			for (String line : lines) {
+				assertEquals("flush " + flush, line, connection.readLine());
+			}
+			// Bytes that were received do not count as available unless they decompress
+			assertEquals("flush " + flush, 0, connection.getInputStream().available());
+		}
+		deflater.end();
+	}
+
+	public void testEmptyFlushIsNotAvailable() throws CVSException, IOException {
+		Deflater deflater = new Deflater(6);
+		byte[] buffer = new byte[64];
+		deflater.setInput("ok\n".getBytes());
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		compressed.write(buffer, 0, deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH));
+		// A flush without data
+		compressed.write(buffer, 0, deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH));
+		deflater.end();
+		server.respond(compressed.toByteArray());
+		assertEquals("ok", connection.readLine());
+		assertEquals(0, connection.getInputStream().available());
+	}
+}
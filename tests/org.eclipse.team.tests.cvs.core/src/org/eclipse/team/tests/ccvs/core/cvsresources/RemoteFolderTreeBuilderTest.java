@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.tests.ccvs.core.cvsresources;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.team.core.RepositoryProvider;
+import org.eclipse.team.core.TeamException;
+import org.eclipse.team.internal.ccvs.core.CVSException;
+import org.eclipse.team.internal.ccvs.core.CVSProviderPlugin;
+import org.eclipse.team.internal.ccvs.core.CVSTag;
+import org.eclipse.team.internal.ccvs.core.ICVSRemoteResource;
+import org.eclipse.team.internal.ccvs.core.connection.CVSRepositoryLocation;
+import org.eclipse.team.internal.ccvs.core.resources.CVSWorkspaceRoot;
+import org.eclipse.team.internal.ccvs.core.resources.RemoteFolder;
+import org.eclipse.team.internal.ccvs.core.resources.RemoteFolderTree;
+import org.eclipse.team.internal.ccvs.core.resources.RemoteFolderTreeBuilder;
+import org.eclipse.team.internal.ccvs.core.syncinfo.FolderSyncInfo;
+import org.eclipse.team.internal.ccvs.core.util.KnownRepositories;
+import org.eclipse.team.tests.ccvs.core.CVSTestSetup;
+import org.eclipse.team.tests.ccvs.core.EclipseTest;
+import org.eclipse.team.tests.ccvs.core.TestConnection;
+
+/**
+ * Tests that the builder fetches the new directories of a tree with requests
+ * that are pipelined over one connection, and that the responses of all the
+ * requests of a batch are read when the server fails one of them.
+ */
+public class RemoteFolderTreeBuilderTest extends EclipseTest {
+
+	private static final String LOCATION = ":test:user:password@host:/path";
+	private static final CVSTag TAG = new CVSTag("v1", CVSTag.VERSION);
+
+	private CVSRepositoryLocation location;
+	private boolean oldDetermineVersion;
+	private boolean oldPruneEmptyDirectories;
+	private IProject project;
+	private List<String> updateResponses;
+
+	public RemoteFolderTreeBuilderTest() {
+		super();
+	}
+
+	public RemoteFolderTreeBuilderTest(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		TestSuite suite = new TestSuite(RemoteFolderTreeBuilderTest.class);
+		return new CVSTestSetup(suite);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		location = (CVSRepositoryLocation) KnownRepositories.getInstance().getRepository(LOCATION);
+		CVSProviderPlugin plugin = CVSProviderPlugin.getPlugin();
+		oldDetermineVersion = plugin.isDetermineVersionEnabled();
+		oldPruneEmptyDirectories = plugin.getPruneEmptyDirectories();
+		plugin.setDetermineVersionEnabled(false);
+		// Keep the new directories, which are all empty, in the tree
+		plugin.setPruneEmptyDirectories(false);
+		project = getUniqueTestProject("RemoteFolderTreeBuilderTest");
+		CVSWorkspaceRoot.getCVSFolderFor(project).setFolderSyncInfo(new FolderSyncInfo("module", LOCATION, null, false));
+		RepositoryProvider.map(project, CVSProviderPlugin.getTypeId());
+		updateResponses = new ArrayList<>();
+		TestConnection.responses.put("update", updateResponses);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		TestConnection.responses.clear();
+		CVSProviderPlugin plugin = CVSProviderPlugin.getPlugin();
+		plugin.setDetermineVersionEnabled(oldDetermineVersion);
+		plugin.setPruneEmptyDirectories(oldPruneEmptyDirectories);
+		project.delete(true, null);
+		super.tearDown();
+	}
+
+	private static String newDirectory(String path) {
+		return "E cvs server: New directory `" + path + "' -- ignored\n";
+	}
+
+	private static Set<String> getChildNames(RemoteFolder folder) {
+		Set<String> names = new TreeSet<>();
+		for (ICVSRemoteResource child : folder.getChildren()) {
+			names.add(child.getName());
+		}
+		return names;
+	}
+
+	private static RemoteFolder getChild(RemoteFolder folder, String name) {
+		for (ICVSRemoteResource child : folder.getChildren()) {
+			if (child.getName().equals(name))
+				return (RemoteFolder) child;
+		}
+		fail(name);
+		return null;
+	}
+
+	/*
+	 * Assert that all the requests were sent and all their responses read.
+	 */
+	private void assertResponsesRead() {
+		assertTrue(updateResponses.toString(), updateResponses.isEmpty());
+		assertEquals(0, TestConnection.currentConnection.getUnreadResponseLength());
+	}
+
+	public void testNoTagRetryInBatch() throws TeamException {
+		// The delta of the project
+		updateResponses.add(newDirectory("a") + newDirectory("b") + newDirectory("c") + "ok\n");
+		// The batch of the new directories, in which b has no file with the tag
+		updateResponses.add(newDirectory("a/x") + "ok\n");
+		updateResponses.add("E cvs [update aborted]: no such tag `v1'\nerror  \n");
+		updateResponses.add("E cvs server: Updating c\nok\n");
+		// The retry of b without the tag, once the batch was read
+		updateResponses.add(newDirectory("b/y") + "ok\n");
+		// The batch of the directories found in the first batch
+		updateResponses.add("ok\n");
+		updateResponses.add("ok\n");
+		RemoteFolderTree tree = RemoteFolderTreeBuilder.buildRemoteTree(location, project, TAG, DEFAULT_MONITOR);
+		assertEquals(new TreeSet<>(Arrays.asList("a", "b", "c")), getChildNames(tree));
+		assertEquals(new TreeSet<>(Arrays.asList("x")), getChildNames(getChild(tree, "a")));
+		assertEquals(new TreeSet<>(Arrays.asList("y")), getChildNames(getChild(tree, "b")));
+		assertTrue(getChildNames(getChild(tree, "c")).isEmpty());
+		assertResponsesRead();
+	}
+
+	public void testServerErrorInBatch() {
+		updateResponses.add(newDirectory("a") + newDirectory("b") + newDirectory("c") + "ok\n");
+		updateResponses.add("ok\n");
+		updateResponses.add("error 0 cannot read the repository\n");
+		updateResponses.add(newDirectory("c/z") + "ok\n");
+		try {
+			RemoteFolderTreeBuilder.buildRemoteTree(location, project, TAG, DEFAULT_MONITOR);
+			fail("The server error should have been reported");
+		} catch (CVSException e) {
+			// expected
+		}
+		// The responses to the requests that followed the failed one were read
+		assertResponsesRead();
+	}
+}
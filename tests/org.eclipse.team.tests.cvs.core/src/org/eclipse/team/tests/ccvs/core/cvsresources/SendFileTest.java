@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.tests.ccvs.core.cvsresources;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.team.internal.ccvs.core.CVSException;
+import org.eclipse.team.internal.ccvs.core.CVSProviderPlugin;
+import org.eclipse.team.internal.ccvs.core.connection.CVSRepositoryLocation;
+import org.eclipse.team.internal.ccvs.core.client.Session;
+import org.eclipse.team.internal.ccvs.core.resources.CVSWorkspaceRoot;
+import org.eclipse.team.internal.ccvs.core.util.KnownRepositories;
+import org.eclipse.team.tests.ccvs.core.CVSTestSetup;
+import org.eclipse.team.tests.ccvs.core.EclipseTest;
+import org.eclipse.team.tests.ccvs.core.TestConnection;
+
+/**
+ * Tests that the files that a session compresses are sent with the size of
+ * their compressed contents, which decompress to the contents of the file,
+ * and that the transfer progress is reported while the contents are sent.
+ */
+public class SendFileTest extends EclipseTest {
+
+	/*
+	 * Records the sub tasks with the number of bytes sent when they were reported.
+	 */
+	static class RecordingMonitor extends NullProgressMonitor {
+		final List<String> subTasks = new ArrayList<>();
+		final List<Integer> sentSizes = new ArrayList<>();
+
+		@Override
+		public void subTask(String name) {
+			subTasks.add(name);
+			sentSizes.add(TestConnection.sentBytes.size());
+		}
+	}
+
+	private CVSRepositoryLocation location;
+	private int oldCompressionLevel;
+	private boolean oldDetermineVersion;
+	private boolean oldStreamCompression;
+	private IProject project;
+	private Session session;
+
+	public SendFileTest() {
+		super();
+	}
+
+	public SendFileTest(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		TestSuite suite = new TestSuite(SendFileTest.class);
+		return new CVSTestSetup(suite);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		location = (CVSRepositoryLocation) KnownRepositories.getInstance().getRepository(":test:user:password@host:/path");
+		CVSProviderPlugin plugin = CVSProviderPlugin.getPlugin();
+		oldCompressionLevel = plugin.getCompressionLevel();
+		oldDetermineVersion = plugin.isDetermineVersionEnabled();
+		oldStreamCompression = location.isStreamCompressionEnabled();
+		// compress the file contents instead of the whole connection
+		plugin.setCompressionLevel(6);
+		plugin.setDetermineVersionEnabled(false);
+		location.setStreamCompressionEnabled(false);
+		project = getUniqueTestProject("SendFileTest");
+		session = new Session(location, CVSWorkspaceRoot.getCVSFolderFor(project));
+		session.open(DEFAULT_MONITOR, false /* read-only */);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		session.close();
+		location.setStreamCompressionEnabled(oldStreamCompression);
+		CVSProviderPlugin plugin = CVSProviderPlugin.getPlugin();
+		plugin.setCompressionLevel(oldCompressionLevel);
+		plugin.setDetermineVersionEnabled(oldDetermineVersion);
+		project.delete(true, null);
+		super.tearDown();
+	}
+
+	/*
+	 * Contents that are partly random so that they do not compress well.
+	 */
+	private static byte[] createContents(Random random, int size) {
+		byte[] contents = new byte[size];
+		random.nextBytes(contents);
+		for (int i = 0; i < size / 2; i++) {
+			contents[i] = (byte) ('a' + i % 26);
+		}
+		return contents;
+	}
+
+	/*
+	 * Send the given contents as a binary file and return the bytes that were
+	 * sent, checking that the transfer progress is only reported after the size
+	 * of the compressed contents was sent.
+	 */
+	private byte[] send(String name, byte[] contents) throws CoreException, CVSException {
+		IFile file = project.getFile(name);
+		file.create(new ByteArrayInputStream(contents), true, null);
+		RecordingMonitor monitor = new RecordingMonitor();
+		int start = TestConnection.sentBytes.size();
+		session.sendFile(CVSWorkspaceRoot.getCVSFileFor(file), true /* binary */, true /* send binary */, monitor);
+		byte[] sent = TestConnection.sentBytes.toByteArray();
+		byte[] sentFile = Arrays.copyOfRange(sent, start, sent.length);
+		// The title and the compression are reported before anything is sent
+		assertTrue(monitor.subTasks.toString(), monitor.subTasks.size() >= 2);
+		assertEquals(start, monitor.sentSizes.get(0).intValue());
+		assertEquals(start, monitor.sentSizes.get(1).intValue());
+		// The transfer is reported while the contents that follow the size line are sent
+		int contentsStart = start + indexOf(sentFile, (byte) '\n') + 1;
+		for (int i = 2; i < monitor.subTasks.size(); i++) {
+			assertTrue(monitor.subTasks.get(i), monitor.sentSizes.get(i) > contentsStart);
+		}
+		if (sent.length - contentsStart > 100000) {
+			assertTrue(monitor.subTasks.toString(), monitor.subTasks.size() > 2);
+		}
+		return sentFile;
+	}
+
+	private static int indexOf(byte[] bytes, byte b) {
+		for (int i = 0; i < bytes.length; i++) {
+			if (bytes[i] == b)
+				return i;
+		}
+		return -1;
+	}
+
+	private static byte[] decompress(byte[] sent) throws IOException {
+		int sizeLineEnd = indexOf(sent, (byte) '\n');
+		String sizeLine = new String(sent, 0, sizeLineEnd, "US-ASCII");
+		assertTrue(sizeLine, sizeLine.startsWith("z"));
+		int size = Integer.parseInt(sizeLine.substring(1));
+		assertEquals(size, sent.length - sizeLineEnd - 1);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(sent, sizeLineEnd + 1, size))) {
+			byte[] buffer = new byte[8192];
+			for (int count; (count = in.read(buffer)) != -1;) {
+				out.write(buffer, 0, count);
+			}
+		}
+		return out.toByteArray();
+	}
+
+	public void testCompressedContentsRoundTrip() throws CoreException, IOException {
+		Random random = new Random(11);
+		// The large files do not fit in the memory of the spool. The spool and
+		// its temporary file are reused by the following files.
+		int[] sizes = new int[] { 3 * 1024 * 1024, 100, 0, 2 * 1024 * 1024, 40000 };
+		for (int i = 0; i < sizes.length; i++) {
+			byte[] contents = createContents(random, sizes[i]);
+			byte[] sent = send("file" + i + ".bin", contents);
+			assertTrue("file " + i, Arrays.equals(contents, decompress(sent)));
+		}
+	}
+}
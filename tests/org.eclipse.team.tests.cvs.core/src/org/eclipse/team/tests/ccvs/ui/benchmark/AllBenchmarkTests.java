@@ -32,6 +32,8 @@ public class AllBenchmarkTests extends EclipseTest {
 		TestSuite suite = new TestSuite();
 		suite.addTest(WorkflowTests.suite());
 		suite.addTest(SyncTests.suite());
+		suite.addTest(ResponseReaderBenchmarkTest.suite());
+		suite.addTest(PathTreeBenchmarkTest.suite());
 		// TODO: Enable decorators?
 		return new CVSTestSetup(suite);
 	}
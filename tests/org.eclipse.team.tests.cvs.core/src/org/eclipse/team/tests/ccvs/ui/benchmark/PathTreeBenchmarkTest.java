@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.tests.ccvs.ui.benchmark;
+
+import junit.framework.Test;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.team.internal.core.mapping.PathTree;
+import org.eclipse.team.tests.core.mapping.HashMapPathTree;
+
+/**
+ * Compares the trie based {@link PathTree} with {@link HashMapPathTree}, the
+ * implementation it replaced, for 10k, 100k and 1M paths that are 11 segments
+ * deep. Each run puts all paths, gets the children of a folder in the middle
+ * of the tree and removes all paths again. The meter of the put group also
+ * records the heap that the tree uses.
+ */
+public class PathTreeBenchmarkTest extends BenchmarkTest {
+
+	private static final String HASH_MAP_PUT = "HashMapPut";
+	private static final String HASH_MAP_GET_CHILDREN = "HashMapGetChildren";
+	private static final String HASH_MAP_REMOVE = "HashMapRemove";
+	private static final String TRIE_PUT = "TriePut";
+	private static final String TRIE_GET_CHILDREN = "TrieGetChildren";
+	private static final String TRIE_REMOVE = "TrieRemove";
+	private static final String[] PERFORMANCE_GROUPS = new String[] {HASH_MAP_PUT, HASH_MAP_GET_CHILDREN, HASH_MAP_REMOVE, TRIE_PUT, TRIE_GET_CHILDREN, TRIE_REMOVE};
+
+	// The folder whose children are looked up, 5 segments deep
+	private static final IPath MID_LEVEL_FOLDER = new Path("/Project/d0/d0/d0/d0");
+	private static final int GET_CHILDREN_COUNT = 100;
+
+	public PathTreeBenchmarkTest() {
+		super();
+	}
+
+	public PathTreeBenchmarkTest(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return suite(PathTreeBenchmarkTest.class);
+	}
+
+	public void testPathTree10k() {
+		runPathTree(10000, BenchmarkTestSetup.LOOP_COUNT);
+	}
+
+	public void testPathTree100k() {
+		runPathTree(100000, BenchmarkTestSetup.LOOP_COUNT);
+	}
+
+	public void testPathTree1M() {
+		// The old tree needs several seconds and half a gigabyte for each run
+		runPathTree(1000000, Math.min(BenchmarkTestSetup.LOOP_COUNT, 2));
+	}
+
+	private void runPathTree(int size, int loopCount) {
+		IPath[] paths = createPaths(size);
+		setupGroups(PERFORMANCE_GROUPS, "Path Tree " + size, false);
+		for (int i = 0; i < loopCount; i++) {
+			IPath[] expected;
+			{
+				System.gc();
+				startGroup(HASH_MAP_PUT);
+				HashMapPathTree tree = new HashMapPathTree();
+				for (IPath path : paths) {
+					tree.put(path, path);
+				}
+				endGroup();
+				startGroup(HASH_MAP_GET_CHILDREN);
+				expected = null;
+				for (int j = 0; j < GET_CHILDREN_COUNT; j++) {
+					expected = tree.getChildren(MID_LEVEL_FOLDER);
+				}
+				endGroup();
+				startGroup(HASH_MAP_REMOVE);
+				for (IPath path : paths) {
+					tree.remove(path);
+				}
+				endGroup();
+				assertTrue(tree.isEmpty());
+			}
+			{
+				System.gc();
+				startGroup(TRIE_PUT);
+				PathTree tree = new PathTree();
+				for (IPath path : paths) {
+					tree.put(path, path);
+				}
+				endGroup();
+				startGroup(TRIE_GET_CHILDREN);
+				IPath[] actual = null;
+				for (int j = 0; j < GET_CHILDREN_COUNT; j++) {
+					actual = tree.getChildren(MID_LEVEL_FOLDER);
+				}
+				endGroup();
+				startGroup(TRIE_REMOVE);
+				for (IPath path : paths) {
+					tree.remove(path);
+				}
+				endGroup();
+				assertTrue(tree.isEmpty());
+				assertEquals(expected.length, actual.length);
+			}
+		}
+		commitGroups(false);
+	}
+
+	/*
+	 * Paths of a project with nine levels of folders that have four subfolders each
+	 * and a file at the bottom.
+	 */
+	private static IPath[] createPaths(int size) {
+		IPath[] paths = new IPath[size];
+		for (int i = 0; i < size; i++) {
+			StringBuilder path = new StringBuilder("/Project");
+			for (int level = 0; level < 9; level++) {
+				path.append("/d").append((i >> (2 * level)) & 3);
+			}
+			path.append("/file").append(i).append(".txt");
+			paths[i] = new Path(path.toString());
+		}
+		return paths;
+	}
+}
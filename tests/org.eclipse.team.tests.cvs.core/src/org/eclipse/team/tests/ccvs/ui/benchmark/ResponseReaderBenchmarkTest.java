@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.team.tests.ccvs.ui.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import junit.framework.Test;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.team.internal.ccvs.core.IServerConnection;
+import org.eclipse.team.internal.ccvs.core.connection.CVSRepositoryLocation;
+import org.eclipse.team.internal.ccvs.core.connection.Connection;
+
+/**
+ * Compares reading the lines of a large log response with the line reader of
+ * {@link Connection} and with a reader that reads the response one byte at a
+ * time, as the connection used to.
+ */
+public class ResponseReaderBenchmarkTest extends BenchmarkTest {
+
+	private static final int LINE_COUNT = 500000;
+
+	private static final String BYTE_READER_GROUP_SUFFIX = "ByteReader";
+	private static final String BUFFERED_READER_GROUP_SUFFIX = "BufferedReader";
+	private static final String[] PERFORMANCE_GROUPS = new String[] {BYTE_READER_GROUP_SUFFIX, BUFFERED_READER_GROUP_SUFFIX};
+
+	public ResponseReaderBenchmarkTest() {
+		super();
+	}
+
+	public ResponseReaderBenchmarkTest(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return suite(ResponseReaderBenchmarkTest.class);
+	}
+
+	public void testReadLogResponse() throws Exception {
+		CVSRepositoryLocation location = CVSRepositoryLocation.fromString(":pserver:benchmark@localhost:/benchmark");
+		String encoding = location.getEncoding();
+		byte[] response = createLogResponse(encoding);
+		setupGroups(PERFORMANCE_GROUPS, "CVS Read Response Lines", false);
+		for (int i = 0; i < BenchmarkTestSetup.LOOP_COUNT; i++) {
+			startGroup(BYTE_READER_GROUP_SUFFIX);
+			InputStream in = new ByteArrayInputStream(response);
+			String[] expected = new String[LINE_COUNT];
+			for (int j = 0; j < LINE_COUNT; j++) {
+				expected[j] = readLineByBytes(in, encoding);
+			}
+			endGroup();
+
+			startGroup(BUFFERED_READER_GROUP_SUFFIX);
+			Connection connection = new Connection(location, new ResponseConnection(response));
+			connection.open(DEFAULT_MONITOR);
+			String[] actual = new String[LINE_COUNT];
+			for (int j = 0; j < LINE_COUNT; j++) {
+				actual[j] = connection.readLine();
+			}
+			connection.close();
+			endGroup();
+
+			for (int j = 0; j < LINE_COUNT; j++) {
+				assertEquals(expected[j], actual[j]);
+			}
+		}
+		commitGroups(false);
+	}
+
+	private byte[] createLogResponse(String encoding) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (int i = 0; i < LINE_COUNT; i++) {
+			String line;
+			switch (i % 5) {
+			case 0:
+				line = "M RCS file: /benchmark/project/folder" + (i % 97) + "/File" + i + ".java,v";
+				break;
+			case 1:
+				line = "M revision 1." + (i % 31);
+				break;
+			case 2:
+				line = "M date: 2026/01/01 12:00:00;  author: benchmark;  state: Exp;  lines: +1 -1";
+				break;
+			case 3:
+				line = "M Fix déjà vu in the naïve résumé parser";
+				break;
+			default:
+				line = "M ----------------------------";
+				break;
+			}
+			out.write(line.getBytes(encoding));
+			out.write('\n');
+		}
+		return out.toByteArray();
+	}
+
+	/*
+	 * The line reader of the connection before it was buffered
+	 */
+	private static String readLineByBytes(InputStream in, String encoding) throws IOException {
+		byte[] buffer = new byte[256];
+		int index = 0;
+		int r;
+		while ((r = in.read()) != -1) {
+			if (r == '\n')
+				break;
+			if (index >= buffer.length) {
+				byte[] newBuffer = new byte[index * 2];
+				System.arraycopy(buffer, 0, newBuffer, 0, buffer.length);
+				buffer = newBuffer;
+			}
+			buffer[index++] = (byte) r;
+		}
+		return new String(buffer, 0, index, encoding);
+	}
+
+	/*
+	 * A server connection that sends a prepared response
+	 */
+	private static class ResponseConnection implements IServerConnection {
+		private final byte[] response;
+		private InputStream in;
+
+		public ResponseConnection(byte[] response) {
+			this.response = response;
+		}
+
+		@Override
+		public void open(IProgressMonitor monitor) {
+			in = new ByteArrayInputStream(response);
+		}
+
+		@Override
+		public void close() {
+			in = null;
+		}
+
+		@Override
+		public InputStream getInputStream() {
+			return in;
+		}
+
+		@Override
+		public OutputStream getOutputStream() {
+			return new ByteArrayOutputStream();
+		}
+	}
+}